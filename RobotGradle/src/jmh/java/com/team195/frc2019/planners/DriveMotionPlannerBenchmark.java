@@ -0,0 +1,86 @@
+package com.team195.frc2019.planners;
+
+import com.team195.frc2019.paths.TrajectoryGenerator;
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Pose2dWithCurvature;
+import com.team254.lib.geometry.Rotation2d;
+import com.team254.lib.geometry.Translation2d;
+import com.team254.lib.trajectory.TimedView;
+import com.team254.lib.trajectory.Trajectory;
+import com.team254.lib.trajectory.TrajectoryIterator;
+import com.team254.lib.trajectory.timing.TimedState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One tick of the path follower, as run by Drive every loop, along TrajectoryGenerator's
+ * highStartToCloseRocketFarHatch.  The robot is placed slightly off the setpoint so the feedback terms do real work.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DriveMotionPlannerBenchmark {
+    private static final double kDt = 0.01;
+
+    @Param({"NONLINEAR_FEEDBACK", "PID", "FEEDFORWARD_ONLY", "PURE_PURSUIT"})
+    public DriveMotionPlanner.FollowerType follower_type;
+
+    @Param({"false", "true"})
+    public boolean allocation_free;
+
+    DriveMotionPlanner motion_planner_;
+    Trajectory<TimedState<Pose2dWithCurvature>> trajectory_;
+    List<Pose2d> poses_;
+    int tick_;
+
+    @Setup
+    public void setup() {
+        TrajectoryGenerator.getInstance().generateTrajectories();
+        trajectory_ = TrajectoryGenerator.getInstance().getTrajectorySet().highStartToCloseRocketFarHatch.right;
+
+        // Robot poses for each tick, offset from the setpoint.
+        final Pose2d offset = new Pose2d(new Translation2d(0.5, -0.5), Rotation2d.fromDegrees(1.0));
+        final TimedView<Pose2dWithCurvature> view = new TimedView<>(trajectory_);
+        poses_ = new ArrayList<>();
+        for (double t = view.first_interpolant(); t <= view.last_interpolant(); t += kDt) {
+            poses_.add(view.sample(t).state().state().getPose().transformBy(offset));
+        }
+
+        motion_planner_ = new DriveMotionPlanner();
+        motion_planner_.setFollowerType(follower_type);
+        motion_planner_.setAllocationFree(allocation_free);
+        restart();
+    }
+
+    void restart() {
+        motion_planner_.reset();
+        motion_planner_.setTrajectory(new TrajectoryIterator<>(new TimedView<>(trajectory_)));
+        tick_ = 0;
+    }
+
+    @Benchmark
+    public DriveMotionPlanner.Output update() {
+        if (tick_ >= poses_.size()) {
+            restart();
+        }
+        final DriveMotionPlanner.Output output = motion_planner_.update(tick_ * kDt, poses_.get(tick_));
+        ++tick_;
+        return output;
+    }
+}
@@ -0,0 +1,85 @@
+package com.team195.frc2019.planners;
+
+import com.team195.frc2019.paths.MirroredTrajectory;
+import com.team195.frc2019.paths.TrajectoryGenerator;
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Pose2dWithCurvature;
+import com.team254.lib.trajectory.Trajectory;
+import com.team254.lib.trajectory.timing.CentripetalAccelerationConstraint;
+import com.team254.lib.trajectory.timing.TimedState;
+import com.team254.lib.trajectory.timing.TimingConstraint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trajectory generation, from waypoints to a timed trajectory, for the paths in TrajectoryGenerator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrajectoryGenerationBenchmark {
+    DriveMotionPlanner motion_planner_;
+    List<Pose2d> waypoints_;
+    List<TimingConstraint<Pose2dWithCurvature>> constraints_;
+    MirroredTrajectory trajectory_;
+
+    @Setup
+    public void setup() {
+        TrajectoryGenerator.getInstance().generateTrajectories();
+        motion_planner_ = new DriveMotionPlanner();
+        waypoints_ = Arrays.asList(
+                TrajectoryGenerator.kHighStartBackwardsPose,
+                TrajectoryGenerator.kCloseRocketFarHatchIntermediatePose,
+                TrajectoryGenerator.kHighStartCloseRocketPoint1,
+                TrajectoryGenerator.kCloseRocketFarHatchPose);
+        constraints_ = Collections.singletonList(new CentripetalAccelerationConstraint(100.0));
+        trajectory_ = TrajectoryGenerator.getInstance().getTrajectorySet().highStartToCloseRocketFarHatch;
+    }
+
+    /**
+     * Spline fit and time parameterization, as on the first generation of a path.
+     */
+    @Benchmark
+    public Trajectory<TimedState<Pose2dWithCurvature>> generateUncached() {
+        motion_planner_.getGeometryCache().clear();
+        return motion_planner_.generateTrajectory(true, waypoints_, constraints_, 100.0, 80.0, 9.0);
+    }
+
+    /**
+     * Time parameterization only; the spline geometry comes from the cache.
+     */
+    @Benchmark
+    public Trajectory<TimedState<Pose2dWithCurvature>> generateCached() {
+        return motion_planner_.generateTrajectory(true, waypoints_, constraints_, 100.0, 80.0, 9.0);
+    }
+
+    @Benchmark
+    public MirroredTrajectory retimeMirrored() {
+        return TrajectoryGenerator.getInstance().retimeMirroredTrajectory(trajectory_, constraints_, 100.0, 80.0, 9.0);
+    }
+
+    /**
+     * The whole path set, as built when the robot boots (after the first build has filled the geometry cache).
+     */
+    @Benchmark
+    public TrajectoryGenerator.TrajectorySet regenerateTrajectorySet() {
+        TrajectoryGenerator.getInstance().regenerateTrajectories(TrajectoryGenerator.kDefaultTimingParameters);
+        return TrajectoryGenerator.getInstance().getTrajectorySet();
+    }
+}
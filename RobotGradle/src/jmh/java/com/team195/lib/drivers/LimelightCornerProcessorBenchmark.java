@@ -0,0 +1,112 @@
+package com.team195.lib.drivers;
+
+import com.team254.lib.geometry.MutablePose2d;
+import com.team254.lib.geometry.Translation2d;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LimelightCornerProcessor against the skew calculation VisionTracker used to do every loop, which boxed the corners
+ * into Translation2ds. The corners are a noisy, slightly rotated rectangle outline like the Limelight reports.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LimelightCornerProcessorBenchmark {
+    private static final int kNumFrames = 64;
+
+    // Four corners are a single strip, which neither calculation uses.
+    @Param({"8", "16"})
+    public int num_corners;
+
+    double[][] x_ = new double[kNumFrames][];
+    double[][] y_ = new double[kNumFrames][];
+    int index_ = 0;
+    final LimelightCornerProcessor processor_ = LimelightCornerProcessor.createHatchTargetProcessor();
+    final MutablePose2d pose_ = new MutablePose2d();
+    final ArrayList<Translation2d> point_array_ = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(195);
+        final int per_edge = num_corners / 2;
+        for (int f = 0; f < kNumFrames; ++f) {
+            x_[f] = new double[num_corners];
+            y_[f] = new double[num_corners];
+            final double tilt = (random.nextDouble() - 0.5) * 0.2;
+            int n = 0;
+            // Upper left, lower left, the rest of the bottom edge, the rest of the top edge, lower right, upper right.
+            n = put(f, n, 100, 100, tilt, random);
+            n = put(f, n, 100, 140, tilt, random);
+            for (int i = 1; i < per_edge - 1; ++i) {
+                n = put(f, n, 100 + 100.0 * i / (per_edge - 1), 140, tilt, random);
+            }
+            for (int i = 1; i < per_edge - 1; ++i) {
+                n = put(f, n, 100 + 100.0 * i / (per_edge - 1), 100, tilt, random);
+            }
+            n = put(f, n, 200, 140, tilt, random);
+            put(f, n, 200, 100, tilt, random);
+        }
+    }
+
+    private int put(int f, int n, double x, double y, double tilt, Random random) {
+        x_[f][n] = x + random.nextGaussian() * 0.5;
+        y_[f][n] = y + (x - 150) * tilt + random.nextGaussian() * 0.5;
+        return n + 1;
+    }
+
+    private int next() {
+        index_ = (index_ + 1) & (kNumFrames - 1);
+        return index_;
+    }
+
+    @Benchmark
+    public double legacySkew() {
+        final int f = next();
+        final double[] xArr = x_[f];
+        final double[] yArr = y_[f];
+        point_array_.clear();
+        for (int i = 0; i < xArr.length; i++) {
+            point_array_.add(new Translation2d(xArr[i], yArr[i]));
+        }
+
+        Translation2d upperLeftPoint = point_array_.get(0);
+        Translation2d lowerLeftPoint = point_array_.get(1);
+        Translation2d lowerRightPoint = point_array_.get(yArr.length - 2);
+        Translation2d upperRightPoint = point_array_.get(yArr.length - 1);
+
+        double upperLineSlope = Math.abs((upperRightPoint.y() - upperLeftPoint.y()) / (upperRightPoint.x() - upperLeftPoint.x()));
+        double lowerLineSlope = (lowerRightPoint.y() - lowerLeftPoint.y()) / (lowerRightPoint.x() - lowerLeftPoint.x());
+        return Math.toDegrees(Math.atan((upperLineSlope + Math.abs(lowerLineSlope)) / 2.0)) * Math.signum(lowerLineSlope);
+    }
+
+    @Benchmark
+    public double processorSkew() {
+        final int f = next();
+        processor_.process(x_[f], y_[f], num_corners);
+        return processor_.getSkew();
+    }
+
+    @Benchmark
+    public MutablePose2d processorPose() {
+        final int f = next();
+        processor_.process(x_[f], y_[f], num_corners);
+        return processor_.getCameraToTarget(pose_);
+    }
+}
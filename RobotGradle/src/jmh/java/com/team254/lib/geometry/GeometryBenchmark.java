@@ -0,0 +1,82 @@
+package com.team254.lib.geometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The SE(2) operations used by odometry, spline parameterization and the path follower.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+    Pose2d a_;
+    Pose2d b_;
+    Twist2d twist_;
+    Rotation2d rotation_;
+    double radians_;
+    double x_;
+
+    @Setup
+    public void setup() {
+        a_ = new Pose2d(new Translation2d(65.0, -45.0), Rotation2d.fromDegrees(180.0));
+        b_ = new Pose2d(new Translation2d(240.0, -60.0), Rotation2d.fromDegrees(160.0));
+        twist_ = new Twist2d(1.2, 0.0, 0.05);
+        rotation_ = Rotation2d.fromDegrees(-35.0);
+        radians_ = 0.3;
+        x_ = 0.37;
+    }
+
+    @Benchmark
+    public Pose2d transformBy() {
+        return a_.transformBy(b_);
+    }
+
+    @Benchmark
+    public Pose2d inverse() {
+        return a_.inverse();
+    }
+
+    @Benchmark
+    public Pose2d exp() {
+        return Pose2d.exp(twist_);
+    }
+
+    @Benchmark
+    public Twist2d log() {
+        return Pose2d.log(a_.inverse().transformBy(b_));
+    }
+
+    @Benchmark
+    public Pose2d interpolate() {
+        return a_.interpolate(b_, x_);
+    }
+
+    @Benchmark
+    public Rotation2d rotateBy() {
+        return rotation_.rotateBy(a_.getRotation());
+    }
+
+    @Benchmark
+    public Rotation2d fromRadians() {
+        return Rotation2d.fromRadians(radians_);
+    }
+
+    @Benchmark
+    public Rotation2d fromRadiansFast() {
+        return Rotation2d.fromRadiansFast(radians_);
+    }
+}
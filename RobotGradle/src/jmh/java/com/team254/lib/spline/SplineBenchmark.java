@@ -0,0 +1,77 @@
+package com.team254.lib.spline;
+
+import com.team195.frc2019.paths.TrajectoryGenerator;
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Pose2dWithCurvature;
+import com.team254.lib.geometry.Rotation2d;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spline fitting and parameterization for the waypoints of TrajectoryGenerator's highStartToCloseRocketFarHatch, the
+ * longest path in the set.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplineBenchmark {
+    private static final double kMaxDx = 2.0;
+    private static final double kMaxDy = 0.25;
+    private static final double kMaxDTheta = Math.toRadians(5.0);
+
+    List<Pose2d> waypoints_;
+    List<QuinticHermiteSpline> optimized_splines_;
+
+    @Setup
+    public void setup() {
+        // Reversed path, so flip the waypoints the way DriveMotionPlanner.generateGeometry does.
+        final Pose2d flip = Pose2d.fromRotation(new Rotation2d(-1, 0, false));
+        waypoints_ = new ArrayList<>();
+        for (Pose2d waypoint : Arrays.asList(
+                TrajectoryGenerator.kHighStartBackwardsPose,
+                TrajectoryGenerator.kCloseRocketFarHatchIntermediatePose,
+                TrajectoryGenerator.kHighStartCloseRocketPoint1,
+                TrajectoryGenerator.kCloseRocketFarHatchPose)) {
+            waypoints_.add(waypoint.transformBy(flip));
+        }
+        optimized_splines_ = createSplines();
+        QuinticHermiteSpline.optimizeSpline(optimized_splines_);
+    }
+
+    List<QuinticHermiteSpline> createSplines() {
+        List<QuinticHermiteSpline> splines = new ArrayList<>(waypoints_.size() - 1);
+        for (int i = 1; i < waypoints_.size(); ++i) {
+            splines.add(new QuinticHermiteSpline(waypoints_.get(i - 1), waypoints_.get(i)));
+        }
+        return splines;
+    }
+
+    /**
+     * Includes creating the splines, since optimizeSpline modifies them in place.
+     */
+    @Benchmark
+    public double optimizeSpline() {
+        return QuinticHermiteSpline.optimizeSpline(createSplines());
+    }
+
+    @Benchmark
+    public List<Pose2dWithCurvature> parameterizeSplines() {
+        return SplineGenerator.parameterizeSplines(optimized_splines_, kMaxDx, kMaxDy, kMaxDTheta);
+    }
+}
@@ -0,0 +1,59 @@
+package com.team254.lib.trajectory.timing;
+
+import com.team195.frc2019.paths.TrajectoryGenerator;
+import com.team254.lib.geometry.Pose2dWithCurvature;
+import com.team254.lib.trajectory.DistanceView;
+import com.team254.lib.trajectory.Trajectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time parameterization of the geometry of TrajectoryGenerator's highStartToCloseRocketFarHatch, with only the
+ * centripetal constraint so that the cost of TimingUtil itself is not hidden by the drive dynamics.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimingUtilBenchmark {
+    List<Pose2dWithCurvature> states_;
+    List<TimingConstraint<Pose2dWithCurvature>> constraints_;
+
+    @Setup
+    public void setup() {
+        TrajectoryGenerator.getInstance().generateTrajectories();
+        final Trajectory<TimedState<Pose2dWithCurvature>> trajectory = TrajectoryGenerator.getInstance()
+                .getTrajectorySet().highStartToCloseRocketFarHatch.right;
+        states_ = new ArrayList<>(trajectory.length());
+        for (int i = 0; i < trajectory.length(); ++i) {
+            states_.add(trajectory.getState(i).state());
+        }
+        constraints_ = Collections.singletonList(new CentripetalAccelerationConstraint(100.0));
+    }
+
+    @Benchmark
+    public Trajectory<TimedState<Pose2dWithCurvature>> timeParameterizeStates() {
+        return TimingUtil.timeParameterizeTrajectory(true, states_, constraints_, 0.0, 0.0, 100.0, 80.0);
+    }
+
+    @Benchmark
+    public Trajectory<TimedState<Pose2dWithCurvature>> timeParameterizeDistanceView() {
+        return TimingUtil.timeParameterizeTrajectory(true, new DistanceView<>(new Trajectory<>(states_)), 2.0,
+                constraints_, 0.0, 0.0, 100.0, 80.0);
+    }
+}
@@ -0,0 +1,80 @@
+package com.team254.lib.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FastTrig against Math, over a spread of gyro-like headings so that neither side benefits from a constant argument.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FastTrigBenchmark {
+    private static final int kNumSamples = 1024;
+
+    double[] angles_ = new double[kNumSamples];
+    double[] x_ = new double[kNumSamples];
+    double[] y_ = new double[kNumSamples];
+    int index_ = 0;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(195);
+        for (int i = 0; i < kNumSamples; ++i) {
+            angles_[i] = (random.nextDouble() * 2.0 - 1.0) * 4.0 * Math.PI;
+            x_[i] = Math.cos(angles_[i]) * 100.0;
+            y_[i] = Math.sin(angles_[i]) * 100.0;
+        }
+    }
+
+    private int next() {
+        index_ = (index_ + 1) & (kNumSamples - 1);
+        return index_;
+    }
+
+    @Benchmark
+    public double mathSin() {
+        return Math.sin(angles_[next()]);
+    }
+
+    @Benchmark
+    public double fastSin() {
+        return FastTrig.sin(angles_[next()]);
+    }
+
+    @Benchmark
+    public double mathCos() {
+        return Math.cos(angles_[next()]);
+    }
+
+    @Benchmark
+    public double fastCos() {
+        return FastTrig.cos(angles_[next()]);
+    }
+
+    @Benchmark
+    public double mathAtan2() {
+        final int i = next();
+        return Math.atan2(y_[i], x_[i]);
+    }
+
+    @Benchmark
+    public double fastAtan2() {
+        final int i = next();
+        return FastTrig.atan2(y_[i], x_[i]);
+    }
+}
@@ -1,6 +1,8 @@
 package com.team195.frc2019;
 
 import com.team195.frc2019.constants.CalConstants;
+import com.team254.lib.geometry.MutablePose2d;
+import com.team254.lib.geometry.MutableTwist2d;
 import com.team254.lib.geometry.Pose2d;
 import com.team254.lib.geometry.Rotation2d;
 import com.team254.lib.geometry.Twist2d;
@@ -27,6 +29,21 @@ public class Kinematics {
         return new Twist2d(dx, 0.0, delta_rotation_rads);
     }
 
+    /**
+     * In place version of the above, for loops that should not allocate.
+     */
+    public static MutableTwist2d forwardKinematics(double left_wheel_delta, double right_wheel_delta,
+                                                   MutableTwist2d out) {
+        double delta_rotation = (right_wheel_delta - left_wheel_delta) / (CalConstants.kDriveWheelTrackWidthInches * CalConstants.kTrackScrubFactor);
+        return forwardKinematics(left_wheel_delta, right_wheel_delta, delta_rotation, out);
+    }
+
+    public static MutableTwist2d forwardKinematics(double left_wheel_delta, double right_wheel_delta,
+                                                   double delta_rotation_rads, MutableTwist2d out) {
+        final double dx = (left_wheel_delta + right_wheel_delta) / 2.0;
+        return out.set(dx, 0.0, delta_rotation_rads);
+    }
+
     public static Twist2d forwardKinematics(Rotation2d prev_heading, double left_wheel_delta, double right_wheel_delta,
                                             Rotation2d current_heading) {
         final double dx = (left_wheel_delta + right_wheel_delta) / 2.0;
@@ -41,4 +58,13 @@ public class Kinematics {
                                                     Twist2d forward_kinematics) {
         return current_pose.transformBy(Pose2d.exp(forward_kinematics));
     }
+
+    /**
+     * In place version of the above. Moves current_pose by forward_kinematics, using scratch for the intermediate pose.
+     */
+    public static MutablePose2d integrateForwardKinematics(MutablePose2d current_pose,
+                                                           MutableTwist2d forward_kinematics,
+                                                           MutablePose2d scratch) {
+        return current_pose.transformByInPlace(scratch.setFromExp(forward_kinematics));
+    }
 }
@@ -1,5 +1,6 @@
 package com.team195.frc2019;
 
+import com.team195.frc2019.auto.ActionScheduler;
 import com.team195.frc2019.auto.AutoModeExecutor;
 import com.team195.frc2019.auto.autonomy.AutomatedActions;
 import com.team195.frc2019.constants.Constants;
@@ -12,6 +13,7 @@ import com.team195.frc2019.paths.TrajectoryGenerator;
 import com.team195.frc2019.reporters.ConsoleReporter;
 import com.team195.frc2019.reporters.MessageLevel;
 import com.team195.frc2019.subsystems.*;
+import com.team195.lib.drivers.dashjoy.DashJoyLatencyTracker;
 import com.team195.lib.util.TeleopActionRunner;
 import com.team254.lib.geometry.Pose2d;
 import com.team254.lib.util.*;
@@ -66,7 +68,10 @@ public class Robot extends TimedRobot {
 			ConsoleReporter.setReportingLevel(MessageLevel.INFO);
 
 			mSubsystemManager.registerEnabledLoops(mEnabledLooper);
+			//Actions run after the subsystem loops, between reading inputs and writing outputs
+			mSubsystemManager.register(ActionScheduler.getInstance());
 			mSubsystemManager.registerDisabledLoops(mDisabledLooper);
+			mSubsystemManager.registerReportable(DashJoyLatencyTracker.getInstance());
 
 //			TrajectoryGenerator.getInstance().generateTrajectories();
 
@@ -147,6 +152,7 @@ public class Robot extends TimedRobot {
 				mAutoModeExecutor.stop();
 
 			mInfrastructure.setIsDuringAuto(false);
+			DashJoyLatencyTracker.getInstance().reset();
 
 			mEnabledLooper.start();
 			mDrive.setVelocity(DriveSignal.NEUTRAL, DriveSignal.NEUTRAL);
@@ -2,14 +2,18 @@ package com.team195.frc2019;
 
 import com.team195.frc2019.constants.CalConstants;
 import com.team195.frc2019.subsystems.Drive;
+import com.team195.lib.util.InterpolatingPoseBuffer;
 import com.team195.lib.util.Reportable;
+import com.team254.lib.geometry.MutablePose2d;
+import com.team254.lib.geometry.MutableRotation2d;
+import com.team254.lib.geometry.MutableTwist2d;
 import com.team254.lib.geometry.Pose2d;
 import com.team254.lib.geometry.Rotation2d;
 import com.team254.lib.geometry.Translation2d;
 import com.team254.lib.geometry.Twist2d;
 import com.team254.lib.util.InterpolatingDouble;
-import com.team254.lib.util.InterpolatingTreeMap;
 
+import java.util.AbstractMap;
 import java.util.Map;
 
 public class RobotState {
@@ -25,29 +29,40 @@ public class RobotState {
 			new Translation2d(CalConstants.kLidarXOffset, CalConstants.kLidarYOffset), Rotation2d.fromDegrees(CalConstants
 			.kLidarYawAngleDegrees));
 
-	// FPGATimestamp -> Pose2d or Rotation2d
-	private InterpolatingTreeMap<InterpolatingDouble, Pose2d> field_to_vehicle_;
-	private Twist2d vehicle_velocity_predicted_;
-	private Twist2d vehicle_velocity_measured_;
+	// FPGATimestamp -> Pose2d. Kept in preallocated poses so that the odometry loop does not allocate.
+	private final InterpolatingPoseBuffer field_to_vehicle_ = new InterpolatingPoseBuffer(kObservationBufferSize);
+	private final MutableTwist2d vehicle_velocity_predicted_ = new MutableTwist2d();
+	private final MutableTwist2d vehicle_velocity_measured_ = new MutableTwist2d();
 	private double distance_driven_;
 
+	private final MutablePose2d latest_field_to_vehicle_ = new MutablePose2d();
+	private final MutablePose2d scratch_pose_ = new MutablePose2d();
+	private final MutableRotation2d scratch_rotation_ = new MutableRotation2d();
+	private final MutableTwist2d scratch_measured_velocity_ = new MutableTwist2d();
+	private final MutableTwist2d scratch_predicted_velocity_ = new MutableTwist2d();
+
 	private RobotState() {
 		reset(0, new Pose2d());
 	}
 
 	/**
 	 * Resets the field to robot transform (robot's position on the field)
+	 * <p>
+	 * The drive heading is set after the pose buffer lock is released, since the drive loop holds the
+	 * Drive lock while it reads the pose back from here.
 	 */
 	public void reset(double start_time, Pose2d initial_field_to_vehicle) {
-		field_to_vehicle_ = new InterpolatingTreeMap<>(kObservationBufferSize);
-		field_to_vehicle_.put(new InterpolatingDouble(start_time), initial_field_to_vehicle);
+		synchronized (this) {
+			field_to_vehicle_.clear();
+			field_to_vehicle_.put(start_time, initial_field_to_vehicle);
+			vehicle_velocity_predicted_.setIdentity();
+			vehicle_velocity_measured_.setIdentity();
+			distance_driven_ = 0.0;
+		}
 		Drive.getInstance().setHeading(initial_field_to_vehicle.getRotation());
-		vehicle_velocity_predicted_ = Twist2d.identity();
-		vehicle_velocity_measured_ = Twist2d.identity();
-		distance_driven_ = 0.0;
 	}
 
-	public void resetDistanceDriven() {
+	public synchronized void resetDistanceDriven() {
 		distance_driven_ = 0.0;
 	}
 
@@ -55,54 +70,90 @@ public class RobotState {
 	 * Returns the robot's position on the field at a certain time. Linearly interpolates between stored robot positions
 	 * to fill in the gaps.
 	 */
-	public Pose2d getFieldToVehicle(double timestamp) {
-		return field_to_vehicle_.getInterpolated(new InterpolatingDouble(timestamp));
+	public synchronized Pose2d getFieldToVehicle(double timestamp) {
+		field_to_vehicle_.getInterpolated(timestamp, scratch_pose_);
+		return scratch_pose_.toPose2d();
 	}
 
-	public Map.Entry<InterpolatingDouble, Pose2d> getLatestFieldToVehicle() {
-		return field_to_vehicle_.lastEntry();
+	/**
+	 * Same as getFieldToVehicle(double), but writes the pose to out instead of allocating one.
+	 *
+	 * @return out
+	 */
+	public synchronized MutablePose2d getFieldToVehicle(double timestamp, MutablePose2d out) {
+		field_to_vehicle_.getInterpolated(timestamp, out);
+		return out;
 	}
 
-	public Pose2d getPredictedFieldToVehicle(double lookahead_time) {
-		return getLatestFieldToVehicle().getValue()
-				.transformBy(Pose2d.exp(vehicle_velocity_predicted_.scaled(lookahead_time)));
+	public synchronized Map.Entry<InterpolatingDouble, Pose2d> getLatestFieldToVehicle() {
+		field_to_vehicle_.getLatest(scratch_pose_);
+		return new AbstractMap.SimpleImmutableEntry<>(
+				new InterpolatingDouble(field_to_vehicle_.getLatestTimestamp()), scratch_pose_.toPose2d());
+	}
+
+	public synchronized Pose2d getPredictedFieldToVehicle(double lookahead_time) {
+		field_to_vehicle_.getLatest(scratch_pose_);
+		return scratch_pose_.toPose2d()
+				.transformBy(Pose2d.exp(vehicle_velocity_predicted_.toTwist2d().scaled(lookahead_time)));
 	}
 
 	public Pose2d getFieldToLidar(double timestamp) {
 		return getFieldToVehicle(timestamp).transformBy(kVehicleToLidar);
 	}
 
-	public void addFieldToVehicleObservation(double timestamp, Pose2d observation) {
-		field_to_vehicle_.put(new InterpolatingDouble(timestamp), observation);
+	public synchronized void addFieldToVehicleObservation(double timestamp, Pose2d observation) {
+		field_to_vehicle_.put(timestamp, observation);
 	}
 
-	public void addObservations(double timestamp, Twist2d measured_velocity,
+	public synchronized void addObservations(double timestamp, Twist2d measured_velocity,
 	                                         Twist2d predicted_velocity) {
-		addFieldToVehicleObservation(timestamp,
-				Kinematics.integrateForwardKinematics(getLatestFieldToVehicle().getValue(), measured_velocity));
-		vehicle_velocity_measured_ = measured_velocity;
-		vehicle_velocity_predicted_ = predicted_velocity;
+		addObservations(timestamp, scratch_measured_velocity_.set(measured_velocity),
+				scratch_predicted_velocity_.set(predicted_velocity));
+	}
+
+	/**
+	 * Same as addObservations(double, Twist2d, Twist2d) without allocating. The velocities are copied.
+	 */
+	public synchronized void addObservations(double timestamp, MutableTwist2d measured_velocity,
+	                                         MutableTwist2d predicted_velocity) {
+		field_to_vehicle_.getLatest(latest_field_to_vehicle_);
+		Kinematics.integrateForwardKinematics(latest_field_to_vehicle_, measured_velocity, scratch_pose_);
+		field_to_vehicle_.put(timestamp, latest_field_to_vehicle_);
+		vehicle_velocity_measured_.set(measured_velocity);
+		vehicle_velocity_predicted_.set(predicted_velocity);
 	}
 
-	public Twist2d generateOdometryFromSensors(double left_encoder_delta_distance, double
+	public synchronized Twist2d generateOdometryFromSensors(double left_encoder_delta_distance, double
 			right_encoder_delta_distance, Rotation2d current_gyro_angle) {
-		final Pose2d last_measurement = getLatestFieldToVehicle().getValue();
-		final Twist2d delta = Kinematics.forwardKinematics(last_measurement.getRotation(),
-				left_encoder_delta_distance, right_encoder_delta_distance,
-				current_gyro_angle);
-		distance_driven_ += delta.dx; //do we care about dy here?
-		return delta;
+		return generateOdometryFromSensors(left_encoder_delta_distance, right_encoder_delta_distance,
+				current_gyro_angle, new MutableTwist2d()).toTwist2d();
+	}
+
+	/**
+	 * Same as generateOdometryFromSensors(double, double, Rotation2d), but writes the delta to out instead of
+	 * allocating one.
+	 *
+	 * @return out
+	 */
+	public synchronized MutableTwist2d generateOdometryFromSensors(double left_encoder_delta_distance, double
+			right_encoder_delta_distance, Rotation2d current_gyro_angle, MutableTwist2d out) {
+		field_to_vehicle_.getLatest(latest_field_to_vehicle_);
+		final double delta_rotation = scratch_rotation_.set(latest_field_to_vehicle_.getRotation()).inverseInPlace()
+				.rotateByInPlace(current_gyro_angle).getRadians();
+		Kinematics.forwardKinematics(left_encoder_delta_distance, right_encoder_delta_distance, delta_rotation, out);
+		distance_driven_ += out.dx; //do we care about dy here?
+		return out;
 	}
 
-	public double getDistanceDriven() {
+	public synchronized double getDistanceDriven() {
 		return distance_driven_;
 	}
 
-	public Twist2d getPredictedVelocity() {
-		return vehicle_velocity_predicted_;
+	public synchronized Twist2d getPredictedVelocity() {
+		return vehicle_velocity_predicted_.toTwist2d();
 	}
 
-	public Twist2d getMeasuredVelocity() {
-		return vehicle_velocity_measured_;
+	public synchronized Twist2d getMeasuredVelocity() {
+		return vehicle_velocity_measured_.toTwist2d();
 	}
 }
@@ -4,7 +4,6 @@ import com.illposed.osc.OSCBoundListMessage;
 import com.team195.frc2019.constants.Constants;
 import com.team195.frc2019.loops.ILooper;
 import com.team195.frc2019.loops.Loop;
-import com.team195.frc2019.loops.Looper;
 import com.team195.frc2019.reporters.ConsoleReporter;
 import com.team195.frc2019.reporters.DataReporter;
 import com.team195.frc2019.reporters.MessageLevel;
@@ -25,7 +24,7 @@ public class SubsystemManager implements ILooper {
 
 	private static SubsystemManager instance = null;
 
-	private static ArrayList<Subsystem> mAllSubsystems = new ArrayList<>();
+	private final ArrayList<Subsystem> mAllSubsystems = new ArrayList<>();
 	private List<Loop> mLoops = new ArrayList<>();
 
 	private ArrayList<Reportable> mLooperReports = new ArrayList<>();
@@ -33,25 +32,36 @@ public class SubsystemManager implements ILooper {
 	private TimeoutTimer mCriticalCheckTimeout = new TimeoutTimer(0.250);
 	private TimeoutTimer mLogDataTimeout = new TimeoutTimer(0.250);
 
-	private SubsystemManager() {
+	private final boolean mLoggingEnabled;
 
+	private SubsystemManager(boolean loggingEnabled) {
+		mLoggingEnabled = loggingEnabled;
 	}
 
 	public static SubsystemManager getInstance(Subsystem... subsystems) {
 		if(instance == null) {
 			try {
-				instance = new SubsystemManager();
+				instance = new SubsystemManager(Constants.LOGGING_ENABLED);
 			} catch (Exception ex) {
 				ConsoleReporter.report(ex, MessageLevel.DEFCON1);
 			}
 		}
 
 		if (subsystems != null && subsystems.length > 0)
-			mAllSubsystems.addAll(Arrays.asList(subsystems));
+			instance.mAllSubsystems.addAll(Arrays.asList(subsystems));
 
 		return instance;
 	}
 
+	/**
+	 * Create a manager separate from the robot's for running subsystem loops on a SimulatedLooper. Sends no log data.
+	 */
+	public static SubsystemManager createSimulated(Subsystem... subsystems) {
+		SubsystemManager subsystemManager = new SubsystemManager(false);
+		subsystemManager.mAllSubsystems.addAll(Arrays.asList(subsystems));
+		return subsystemManager;
+	}
+
 	public boolean checkSystemsPassDiagnostics() {
 		ArrayList<Boolean> retVals = new ArrayList<>();
 		mAllSubsystems.forEach((s) -> retVals.add(s.runDiagnostics()));
@@ -111,7 +121,7 @@ public class SubsystemManager implements ILooper {
 				mCriticalCheckTimeout.reset();
 			}
 
-			if (Constants.LOGGING_ENABLED) {
+			if (mLoggingEnabled) {
 				generateReport();
 				DataReporter.reportOSCData(boundOSCMesage);
 			}
@@ -150,7 +160,7 @@ public class SubsystemManager implements ILooper {
 				mCriticalCheckTimeout.reset();
 			}
 
-			if (Constants.LOGGING_ENABLED) {
+			if (mLoggingEnabled) {
 				generateReport();
 				DataReporter.reportOSCData(boundOSCMesage);
 			}
@@ -167,17 +177,27 @@ public class SubsystemManager implements ILooper {
 		}
 	}
 
-	public void registerEnabledLoops(Looper enabledLooper) {
+	/**
+	 * Register the subsystem loops with a looper, either the robot's Looper or a SimulatedLooper.
+	 */
+	public <L extends ILooper & Reportable> void registerEnabledLoops(L enabledLooper) {
 		mAllSubsystems.forEach((s) -> s.registerEnabledLoops(this));
 		enabledLooper.register(new EnabledLoop());
 		mLooperReports.add(enabledLooper);
 	}
 
-	public void registerDisabledLoops(Looper disabledLooper) {
+	public <L extends ILooper & Reportable> void registerDisabledLoops(L disabledLooper) {
 		disabledLooper.register(new DisabledLoop());
 		mLooperReports.add(disabledLooper);
 	}
 
+	/**
+	 * Add something other than a subsystem or looper to the telemetry sent with each log report.
+	 */
+	public void registerReportable(Reportable reportable) {
+		mLooperReports.add(reportable);
+	}
+
 	@Override
 	public void register(Loop loop) {
 		mLoops.add(loop);
@@ -0,0 +1,374 @@
+package com.team195.frc2019.auto;
+
+import com.team195.frc2019.auto.actions.Action;
+import com.team195.frc2019.auto.autonomy.AutomatedAction;
+import com.team195.frc2019.loops.Loop;
+import com.team195.frc2019.reporters.ConsoleReporter;
+import com.team195.frc2019.reporters.MessageLevel;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs every action on the robot, from auto modes and from the driver, as a loop on the enabled looper. It is
+ * registered with the SubsystemManager after the subsystem loops, so each tick runs after all subsystems have read
+ * their inputs and before they write their outputs: actions always act on this tick's sensor data, and what they
+ * command goes out in the same tick.
+ * <p>
+ * Actions can be scheduled from any thread, but all of their methods are only ever called from the loop. An
+ * {@link AutomatedAction} cancels any running action that requires one of the same subsystems, with requirements
+ * compared as {@link com.team195.frc2019.subsystems.Subsystem#getRequirementMask()} bitsets.
+ * <p>
+ * Waits register their condition with {@link #waitFor(BooleanSupplier)} instead of each checking it on their own.
+ * Every condition is checked once at the start of each tick, right after the subsystems have published this tick's
+ * signals, so the actions waiting on it see it met in the same tick, and threads blocked on it are woken as soon as it
+ * is.
+ */
+public class ActionScheduler implements Loop {
+    private static ActionScheduler mInstance = null;
+
+    public static synchronized ActionScheduler getInstance() {
+        if (mInstance == null) {
+            mInstance = new ActionScheduler();
+        }
+
+        return mInstance;
+    }
+
+    // Set while a scheduler's tick runs on this thread, so actions can find the scheduler running them
+    private static final ThreadLocal<ActionScheduler> mTickingScheduler = new ThreadLocal<>();
+
+    /**
+     * @return The scheduler whose tick is running on this thread, or the global one if the caller is not being run by
+     * a scheduler, e.g. an action run directly by an auto mode
+     */
+    public static ActionScheduler getCurrent() {
+        ActionScheduler scheduler = mTickingScheduler.get();
+        return scheduler != null ? scheduler : getInstance();
+    }
+
+    private final ConcurrentLinkedQueue<ScheduledAction> mPendingActions = new ConcurrentLinkedQueue<>();
+    private final ArrayList<ScheduledAction> mRunningActions = new ArrayList<>();
+    private long mRunningRequirements = 0;
+
+    private final ConcurrentLinkedQueue<WaitCondition> mPendingConditions = new ConcurrentLinkedQueue<>();
+    private final ArrayList<WaitCondition> mConditions = new ArrayList<>();
+    private volatile boolean mLoopRunning = false;
+
+    ActionScheduler() {
+    }
+
+    /**
+     * Handle to an action that has been scheduled.
+     */
+    public static class ScheduledAction {
+        private final Action mAction;
+        private final long mRequirements;
+        private final CountDownLatch mDoneLatch = new CountDownLatch(1);
+        private volatile boolean mCancelRequested = false;
+        private volatile boolean mCompleted = false;
+        private boolean mStarted = false;
+
+        private ScheduledAction(Action action) {
+            mAction = action;
+            mRequirements = action instanceof AutomatedAction ? ((AutomatedAction) action).getRequirementMask() : 0;
+        }
+
+        public Action getAction() {
+            return mAction;
+        }
+
+        /**
+         * Stop the action at the next tick without finishing it.
+         */
+        public void cancel() {
+            mCancelRequested = true;
+        }
+
+        /**
+         * @return True once the action has finished or been cancelled
+         */
+        public boolean isDone() {
+            return mDoneLatch.getCount() == 0;
+        }
+
+        /**
+         * @return True if the action ran until it was finished, false if it was cancelled, failed or is still running
+         */
+        public boolean isCompleted() {
+            return mCompleted;
+        }
+
+        /**
+         * Wait for the action to finish or be cancelled.
+         *
+         * @return True if it is done, false if the timeout passed first
+         */
+        public boolean await(long timeoutMs) throws InterruptedException {
+            return mDoneLatch.await(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Handle to a condition registered with {@link #waitFor(BooleanSupplier)}.
+     */
+    public static class WaitCondition {
+        private final ActionScheduler mScheduler;
+        private final BooleanSupplier mCondition;
+        private final CountDownLatch mMetLatch = new CountDownLatch(1);
+        private volatile boolean mMet = false;
+        private volatile boolean mCancelled = false;
+
+        private WaitCondition(ActionScheduler scheduler, BooleanSupplier condition) {
+            mScheduler = scheduler;
+            mCondition = condition;
+        }
+
+        /**
+         * @return True once the condition has been met. If the scheduler is not looping, e.g. while an action is run
+         * directly by an auto mode, the condition is checked here instead.
+         */
+        public boolean isMet() {
+            if (!mMet && !mCancelled && !mScheduler.mLoopRunning) {
+                check();
+            }
+            return mMet;
+        }
+
+        /**
+         * Stop checking the condition. It is dropped at the next tick.
+         */
+        public void cancel() {
+            mCancelled = true;
+        }
+
+        /**
+         * Wait for the condition to be met.
+         *
+         * @return True if it was met, false if the timeout passed first
+         */
+        public boolean await(long timeoutMs) throws InterruptedException {
+            return mMetLatch.await(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+
+        private boolean check() {
+            if (mCondition.getAsBoolean()) {
+                mMet = true;
+                mMetLatch.countDown();
+            }
+            return mMet;
+        }
+    }
+
+    /**
+     * Check condition at the start of every tick until it is met or cancelled. It is also checked once right away, so
+     * an action that registers it when it starts does not lose a tick if it is already met.
+     */
+    public WaitCondition waitFor(BooleanSupplier condition) {
+        WaitCondition waitCondition = new WaitCondition(this, condition);
+        if (!waitCondition.check()) {
+            mPendingConditions.add(waitCondition);
+        }
+        return waitCondition;
+    }
+
+    /**
+     * @return Number of conditions being waited on, as of the last tick
+     */
+    public synchronized int getNumWaitConditions() {
+        return mConditions.size();
+    }
+
+    /**
+     * Run action from the next tick until it is finished or cancelled.
+     */
+    public ScheduledAction schedule(Action action) {
+        ScheduledAction scheduledAction = new ScheduledAction(action);
+        mPendingActions.add(scheduledAction);
+        return scheduledAction;
+    }
+
+    /**
+     * @return Number of actions started and not yet done, as of the last tick
+     */
+    public synchronized int getNumRunningActions() {
+        return mRunningActions.size();
+    }
+
+    @Override
+    public void onFirstStart(double timestamp) {
+    }
+
+    @Override
+    public void onStart(double timestamp) {
+        mLoopRunning = true;
+    }
+
+    @Override
+    public synchronized void onLoop(double timestamp) {
+        ActionScheduler outerScheduler = mTickingScheduler.get();
+        mTickingScheduler.set(this);
+        try {
+            tick();
+        } finally {
+            mTickingScheduler.set(outerScheduler);
+        }
+    }
+
+    private void tick() {
+        checkConditions();
+
+        ScheduledAction pending;
+        while ((pending = mPendingActions.poll()) != null) {
+            if ((pending.mRequirements & mRunningRequirements) != 0) {
+                cancelRunningActions(pending.mRequirements);
+            }
+            mRunningActions.add(pending);
+            mRunningRequirements |= pending.mRequirements;
+        }
+
+        int numRunning = 0;
+        for (int i = 0; i < mRunningActions.size(); ++i) {
+            ScheduledAction scheduledAction = mRunningActions.get(i);
+            if (runAction(scheduledAction)) {
+                mRunningActions.set(numRunning++, scheduledAction);
+            }
+        }
+        trimRunningActions(numRunning);
+    }
+
+    @Override
+    public synchronized void onStop(double timestamp) {
+        mLoopRunning = false;
+
+        // Nothing should keep moving once the robot is disabled, or resume when it is enabled again.
+        ScheduledAction pending;
+        while ((pending = mPendingActions.poll()) != null) {
+            finish(pending, false);
+        }
+        for (ScheduledAction scheduledAction : mRunningActions) {
+            cancel(scheduledAction);
+        }
+        trimRunningActions(0);
+
+        WaitCondition pendingCondition;
+        while ((pendingCondition = mPendingConditions.poll()) != null) {
+            pendingCondition.cancel();
+        }
+        for (WaitCondition waitCondition : mConditions) {
+            waitCondition.cancel();
+        }
+        mConditions.clear();
+    }
+
+    @Override
+    public String getName() {
+        return "ActionScheduler";
+    }
+
+    /**
+     * Run one tick of an action.
+     *
+     * @return True if the action is still running
+     */
+    private boolean runAction(ScheduledAction scheduledAction) {
+        if (scheduledAction.mCancelRequested) {
+            cancel(scheduledAction);
+            return false;
+        }
+
+        try {
+            if (!scheduledAction.mStarted) {
+                ConsoleReporter.report(scheduledAction.mAction.getClass().getSimpleName() + " Action Running!", MessageLevel.INFO);
+                scheduledAction.mAction.start();
+                scheduledAction.mStarted = true;
+            }
+
+            if (scheduledAction.mAction.isFinished()) {
+                scheduledAction.mAction.done();
+                finish(scheduledAction, true);
+                return false;
+            }
+
+            scheduledAction.mAction.update();
+            return true;
+        } catch (Exception ex) {
+            ConsoleReporter.report(ex);
+            finish(scheduledAction, false);
+            return false;
+        }
+    }
+
+    private void checkConditions() {
+        WaitCondition pending;
+        while ((pending = mPendingConditions.poll()) != null) {
+            mConditions.add(pending);
+        }
+
+        int numWaiting = 0;
+        for (int i = 0; i < mConditions.size(); ++i) {
+            WaitCondition waitCondition = mConditions.get(i);
+            boolean waiting = !waitCondition.mCancelled;
+            if (waiting) {
+                try {
+                    waiting = !waitCondition.check();
+                } catch (Exception ex) {
+                    ConsoleReporter.report(ex);
+                    waitCondition.cancel();
+                    waiting = false;
+                }
+            }
+            if (waiting) {
+                mConditions.set(numWaiting++, waitCondition);
+            }
+        }
+        while (mConditions.size() > numWaiting) {
+            mConditions.remove(mConditions.size() - 1);
+        }
+    }
+
+    private void cancelRunningActions(long requirements) {
+        int numRunning = 0;
+        for (int i = 0; i < mRunningActions.size(); ++i) {
+            ScheduledAction scheduledAction = mRunningActions.get(i);
+            if ((scheduledAction.mRequirements & requirements) != 0) {
+                cancel(scheduledAction);
+            } else {
+                mRunningActions.set(numRunning++, scheduledAction);
+            }
+        }
+        trimRunningActions(numRunning);
+    }
+
+    private void trimRunningActions(int numRunning) {
+        while (mRunningActions.size() > numRunning) {
+            mRunningActions.remove(mRunningActions.size() - 1);
+        }
+
+        mRunningRequirements = 0;
+        for (int i = 0; i < numRunning; ++i) {
+            mRunningRequirements |= mRunningActions.get(i).mRequirements;
+        }
+    }
+
+    private static void cancel(ScheduledAction scheduledAction) {
+        // Automated actions clean up after themselves when purged. Other actions are dropped as they were when an auto
+        // mode was stopped.
+        if (scheduledAction.mStarted && scheduledAction.mAction instanceof AutomatedAction) {
+            try {
+                ((AutomatedAction) scheduledAction.mAction).purgeActions();
+            } catch (Exception ex) {
+                ConsoleReporter.report(ex);
+            }
+        }
+        finish(scheduledAction, false);
+    }
+
+    private static void finish(ScheduledAction scheduledAction, boolean completed) {
+        scheduledAction.mCompleted = completed;
+        scheduledAction.mDoneLatch.countDown();
+    }
+}
@@ -2,8 +2,8 @@ package com.team195.frc2019.auto;
 
 import com.team195.frc2019.auto.actions.Action;
 import com.team195.frc2019.reporters.ConsoleReporter;
+import com.team195.frc2019.reporters.MessageLevel;
 import com.team195.lib.util.ThreadRateControl;
-import edu.wpi.first.wpilibj.DriverStation;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -14,7 +14,20 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public abstract class AutoModeBase {
     protected double mUpdateRate = 1.0 / 50.0;
     protected AtomicBoolean mActive = new AtomicBoolean(false);
-    private ThreadRateControl threadRateControl = new ThreadRateControl();
+    // Created on first use, as it allocates a HAL notifier that does not exist when simulated.
+    private ThreadRateControl threadRateControl = null;
+    private Runnable mUpdateStepper = null;
+    private ActionListener mActionListener = null;
+    private ActionScheduler mActionScheduler = null;
+
+    /**
+     * Notified as runAction starts and finishes each action, e.g. to time the actions of a mode.
+     */
+    public interface ActionListener {
+        void onActionStart(Action action);
+
+        void onActionDone(Action action);
+    }
 
     protected abstract void routine() throws AutoModeEndedException;
 
@@ -24,7 +37,7 @@ public abstract class AutoModeBase {
         try {
             routine();
         } catch (AutoModeEndedException e) {
-            DriverStation.reportError("AUTO MODE DONE!!!! ENDED EARLY!!!!", false);
+            ConsoleReporter.report("AUTO MODE DONE!!!! ENDED EARLY!!!!", MessageLevel.DEFCON1);
             return;
         }
 
@@ -51,16 +64,90 @@ public abstract class AutoModeBase {
         return isActive();
     }
 
+    /**
+     * Run the mode on a simulated clock. Instead of sleeping for mUpdateRate between action updates, runAction calls
+     * stepper, which should advance the simulation by getUpdateRate() seconds. Pass null to run in real time again.
+     */
+    public void setUpdateStepper(Runnable stepper) {
+        mUpdateStepper = stepper;
+    }
+
+    public void setActionListener(ActionListener listener) {
+        mActionListener = listener;
+    }
+
+    /**
+     * Hand actions to scheduler instead of polling them from the mode's own thread. runAction then only waits for each
+     * action to be done, and the action is updated on the scheduler's loop. Pass null to poll actions again.
+     */
+    public void setActionScheduler(ActionScheduler scheduler) {
+        mActionScheduler = scheduler;
+    }
+
+    public double getUpdateRate() {
+        return mUpdateRate;
+    }
+
     public void runAction(Action action) throws AutoModeEndedException {
         isActiveWithThrow();
-        threadRateControl.start(true);
+        if (mActionListener != null) {
+            mActionListener.onActionStart(action);
+        }
+        if (mActionScheduler != null) {
+            runScheduledAction(action);
+            if (mActionListener != null) {
+                mActionListener.onActionDone(action);
+            }
+            return;
+        }
+        if (mUpdateStepper == null) {
+            if (threadRateControl == null) {
+                threadRateControl = new ThreadRateControl();
+            }
+            threadRateControl.start(true);
+        }
         action.start();
 
         while (isActiveWithThrow() && !action.isFinished()) {
             action.update();
-            threadRateControl.doRateControl((int)(mUpdateRate * 1000.0));
+            if (mUpdateStepper != null) {
+                mUpdateStepper.run();
+            } else {
+                threadRateControl.doRateControl((int)(mUpdateRate * 1000.0));
+            }
         }
 
         action.done();
+        if (mActionListener != null) {
+            mActionListener.onActionDone(action);
+        }
+    }
+
+    private void runScheduledAction(Action action) throws AutoModeEndedException {
+        ActionScheduler.ScheduledAction scheduledAction = mActionScheduler.schedule(action);
+        final long pollPeriodMs = Math.max((long) (mUpdateRate * 1000.0), 1);
+        try {
+            while (!scheduledAction.isDone()) {
+                if (!isActive()) {
+                    scheduledAction.cancel();
+                    throw new AutoModeEndedException();
+                }
+
+                if (mUpdateStepper != null) {
+                    mUpdateStepper.run();
+                } else {
+                    scheduledAction.await(pollPeriodMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            scheduledAction.cancel();
+            Thread.currentThread().interrupt();
+            throw new AutoModeEndedException();
+        }
+
+        // The scheduler cancels everything when the robot is disabled
+        if (!scheduledAction.isCompleted()) {
+            throw new AutoModeEndedException();
+        }
     }
-}
\ No newline at end of file
+}
@@ -5,13 +5,17 @@ import com.team254.lib.util.CrashTrackingRunnable;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * This class selects, runs, and stops (if necessary) a specified autonomous mode.
+ * This class selects, runs, and stops (if necessary) a specified autonomous mode. The mode's routine runs on its own
+ * thread, but its actions are updated by the ActionScheduler on the enabled loop.
  */
 public class AutoModeExecutor {
     private AtomicReference<AutoModeBase> mAutoMode = new AtomicReference<>(null);
     private AtomicReference<Thread> mThread = new AtomicReference<>(null);
 
     public void setAutoMode(AutoModeBase new_auto_mode) {
+        if (new_auto_mode != null) {
+            new_auto_mode.setActionScheduler(ActionScheduler.getInstance());
+        }
         mAutoMode.set(new_auto_mode);
         mThread.set(new Thread(new CrashTrackingRunnable() {
             @Override
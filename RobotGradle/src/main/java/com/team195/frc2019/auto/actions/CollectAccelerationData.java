@@ -2,11 +2,11 @@ package com.team195.frc2019.auto.actions;
 
 import com.team195.frc2019.constants.CalConstants;
 import com.team195.frc2019.subsystems.Drive;
+import com.team195.lib.util.TimeSource;
 import com.team254.lib.physics.DriveCharacterization;
 import com.team254.lib.util.DriveSignal;
-import com.team254.lib.util.ReflectingCSVWriter;
+import com.team254.lib.util.AsyncReflectingCSVWriter;
 import com.team254.lib.util.Util;
-import edu.wpi.first.wpilibj.Timer;
 
 import java.util.List;
 
@@ -15,7 +15,7 @@ public class CollectAccelerationData implements Action {
     private static final double kTotalTime = 2.0; //how long to run the test for
     private static final Drive mDrive = Drive.getInstance();
 
-    private final ReflectingCSVWriter<DriveCharacterization.AccelerationDataPoint> mCSVWriter;
+    private final AsyncReflectingCSVWriter<DriveCharacterization.AccelerationDataPoint> mCSVWriter;
     private final List<DriveCharacterization.AccelerationDataPoint> mAccelerationData;
     private final boolean mTurn;
     private final boolean mReverse;
@@ -36,21 +36,21 @@ public class CollectAccelerationData implements Action {
         mHighGear = highGear;
         mReverse = reverse;
         mTurn = turn;
-        mCSVWriter = new ReflectingCSVWriter<>("/home/lvuser/ACCEL_DATA.csv", DriveCharacterization.AccelerationDataPoint.class);
+        mCSVWriter = new AsyncReflectingCSVWriter<>("/home/lvuser/ACCEL_DATA.csv", DriveCharacterization.AccelerationDataPoint.class);
     }
 
     @Override
     public void start() {
         mDrive.setHighGear(mHighGear);
         mDrive.setOpenLoop(new DriveSignal((mReverse ? -1.0 : 1.0) * kPower, (mReverse ? -1.0 : 1.0) * (mTurn ? -1.0 : 1.0) * kPower));
-        mStartTime = Timer.getFPGATimestamp();
+        mStartTime = TimeSource.getTimestamp();
         mPrevTime = mStartTime;
     }
 
     @Override
     public void update() {
         double currentVelocity = (Math.abs(mDrive.getLeftEncoderVelocityRPM()) + Math.abs(mDrive.getRightEncoderVelocityRPM())) * Math.PI / 60.0;
-        double currentTime = Timer.getFPGATimestamp();
+        double currentTime = TimeSource.getTimestamp();
 
         //don't calculate acceleration until we've populated prevTime and prevVelocity
         if (mPrevTime == mStartTime) {
@@ -82,12 +82,12 @@ public class CollectAccelerationData implements Action {
 
     @Override
     public boolean isFinished() {
-        return Timer.getFPGATimestamp() - mStartTime > kTotalTime;
+        return TimeSource.getTimestamp() - mStartTime > kTotalTime;
     }
 
     @Override
     public void done() {
         mDrive.setOpenLoop(DriveSignal.BRAKE);
-        mCSVWriter.flush();
+        mCSVWriter.closeAsync();
     }
 }
@@ -2,10 +2,10 @@ package com.team195.frc2019.auto.actions;
 
 import com.team195.frc2019.RobotState;
 import com.team195.frc2019.subsystems.Drive;
+import com.team195.lib.util.TimeSource;
 import com.team254.lib.physics.DriveCharacterization;
 import com.team254.lib.util.DriveSignal;
-import com.team254.lib.util.ReflectingCSVWriter;
-import edu.wpi.first.wpilibj.Timer;
+import com.team254.lib.util.AsyncReflectingCSVWriter;
 
 import java.util.List;
 
@@ -17,7 +17,7 @@ public class CollectCurvatureData implements Action {
     private static final Drive mDrive = Drive.getInstance();
     private static final RobotState mRobotState = RobotState.getInstance();
 
-    private final ReflectingCSVWriter<DriveCharacterization.CurvatureDataPoint> mCSVWriter;
+    private final AsyncReflectingCSVWriter<DriveCharacterization.CurvatureDataPoint> mCSVWriter;
     private final List<DriveCharacterization.CurvatureDataPoint> mCurvatureData;
     private final boolean mReverse;
     private final boolean mHighGear;
@@ -35,7 +35,7 @@ public class CollectCurvatureData implements Action {
         mCurvatureData = data;
         mHighGear = highGear;
         mReverse = reverse;
-        mCSVWriter = new ReflectingCSVWriter<>("/home/lvuser/CURVATURE_DATA.csv", DriveCharacterization.CurvatureDataPoint.class);
+        mCSVWriter = new AsyncReflectingCSVWriter<>("/home/lvuser/CURVATURE_DATA.csv", DriveCharacterization.CurvatureDataPoint.class);
 
     }
 
@@ -43,12 +43,12 @@ public class CollectCurvatureData implements Action {
     public void start() {
         mDrive.setHighGear(mHighGear);
         mDrive.setOpenLoop(new DriveSignal(kStartPower, kStartPower));
-        mStartTime = Timer.getFPGATimestamp();
+        mStartTime = TimeSource.getTimestamp();
     }
 
     @Override
     public void update() {
-        double t = Timer.getFPGATimestamp() - mStartTime;
+        double t = TimeSource.getTimestamp() - mStartTime;
         if (t < kStartTime) { //give the robot some time to accelerate before recording data
             return;
         }
@@ -75,6 +75,6 @@ public class CollectCurvatureData implements Action {
     @Override
     public void done() {
         mDrive.setOpenLoop(DriveSignal.BRAKE);
-        mCSVWriter.flush();
+        mCSVWriter.closeAsync();
     }
 }
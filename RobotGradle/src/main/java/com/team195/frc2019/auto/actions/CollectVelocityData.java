@@ -2,10 +2,10 @@ package com.team195.frc2019.auto.actions;
 
 import com.team195.frc2019.constants.CalConstants;
 import com.team195.frc2019.subsystems.Drive;
+import com.team195.lib.util.TimeSource;
 import com.team254.lib.physics.DriveCharacterization;
 import com.team254.lib.util.DriveSignal;
-import com.team254.lib.util.ReflectingCSVWriter;
-import edu.wpi.first.wpilibj.Timer;
+import com.team254.lib.util.AsyncReflectingCSVWriter;
 
 import java.util.List;
 
@@ -14,7 +14,7 @@ public class CollectVelocityData implements Action {
     private static final double kRampRate = 0.02;
     private static final Drive mDrive = Drive.getInstance();
 
-    private final ReflectingCSVWriter<DriveCharacterization.VelocityDataPoint> mCSVWriter;
+    private final AsyncReflectingCSVWriter<DriveCharacterization.VelocityDataPoint> mCSVWriter;
     private final List<DriveCharacterization.VelocityDataPoint> mVelocityData;
     private final boolean mTurn;
     private final boolean mReverse;
@@ -35,19 +35,19 @@ public class CollectVelocityData implements Action {
         mHighGear = highGear;
         mReverse = reverse;
         mTurn = turn;
-        mCSVWriter = new ReflectingCSVWriter<>("/home/lvuser/VELOCITY_DATA.csv", DriveCharacterization.VelocityDataPoint.class);
+        mCSVWriter = new AsyncReflectingCSVWriter<>("/home/lvuser/VELOCITY_DATA.csv", DriveCharacterization.VelocityDataPoint.class);
 
     }
 
     @Override
     public void start() {
         mDrive.setHighGear(mHighGear);
-        mStartTime = Timer.getFPGATimestamp();
+        mStartTime = TimeSource.getTimestamp();
     }
 
     @Override
     public void update() {
-        double percentPower = kRampRate * (Timer.getFPGATimestamp() - mStartTime);
+        double percentPower = kRampRate * (TimeSource.getTimestamp() - mStartTime);
         if (percentPower > kMaxPower) {
             isFinished = true;
             return;
@@ -69,6 +69,6 @@ public class CollectVelocityData implements Action {
     @Override
     public void done() {
         mDrive.setOpenLoop(DriveSignal.BRAKE);
-        mCSVWriter.flush();
+        mCSVWriter.closeAsync();
     }
 }
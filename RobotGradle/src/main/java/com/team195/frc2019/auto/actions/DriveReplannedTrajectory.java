@@ -0,0 +1,78 @@
+package com.team195.frc2019.auto.actions;
+
+import com.team195.frc2019.RobotState;
+import com.team195.frc2019.paths.TrajectoryGenerator;
+import com.team195.frc2019.planners.TrajectoryReplanner;
+import com.team195.frc2019.reporters.ConsoleReporter;
+import com.team195.frc2019.subsystems.Drive;
+import com.team195.lib.util.FastDoubleToString;
+import com.team254.lib.geometry.Pose2dWithCurvature;
+import com.team254.lib.trajectory.TimedView;
+import com.team254.lib.trajectory.Trajectory;
+import com.team254.lib.trajectory.TrajectoryIterator;
+import com.team254.lib.trajectory.timing.TimedState;
+
+/**
+ * Drive to the end of a stored trajectory along a path re-planned from wherever the robot actually is, e.g. after
+ * being bumped.  Falls back to the stored trajectory if re-planning does not finish within the time budget.
+ */
+public class DriveReplannedTrajectory implements Action {
+    private static final Drive mDrive = Drive.getInstance();
+    private static final RobotState mRobotState = RobotState.getInstance();
+
+    private static final double kDefaultBudget = 0.05;
+
+    private final Trajectory<TimedState<Pose2dWithCurvature>> mFallback;
+    private final double mBudget;
+    private TrajectoryReplanner.Plan mPlan = null;
+    private boolean mFollowing = false;
+
+    public DriveReplannedTrajectory(Trajectory<TimedState<Pose2dWithCurvature>> fallback) {
+        this(fallback, kDefaultBudget);
+    }
+
+    public DriveReplannedTrajectory(Trajectory<TimedState<Pose2dWithCurvature>> fallback, double budget) {
+        mFallback = fallback;
+        mBudget = budget;
+    }
+
+    @Override
+    public boolean isFinished() {
+        if (mFollowing && mDrive.isDoneWithTrajectory()) {
+            ConsoleReporter.report("Trajectory finished");
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void update() {
+        if (!mFollowing) {
+            Trajectory<TimedState<Pose2dWithCurvature>> trajectory = mPlan.poll();
+            if (trajectory != null) {
+                startFollowing(trajectory);
+            }
+        }
+    }
+
+    @Override
+    public void done() {
+    }
+
+    @Override
+    public void start() {
+        mFollowing = false;
+        mPlan = TrajectoryGenerator.getInstance().replanTrajectory(mRobotState.getLatestFieldToVehicle().getValue(),
+                mRobotState.getPredictedVelocity().dx, mFallback, mBudget);
+        update();
+    }
+
+    private void startFollowing(Trajectory<TimedState<Pose2dWithCurvature>> trajectory) {
+        TrajectoryIterator<TimedState<Pose2dWithCurvature>> iterator = new TrajectoryIterator<>(new TimedView<>
+                (trajectory));
+        ConsoleReporter.report("Starting " + (mPlan.usedFallback() ? "stored" : "re-planned") + " trajectory! " +
+                "(length=" + FastDoubleToString.format(iterator.getRemainingProgress()) + ")");
+        mDrive.setTrajectory(iterator);
+        mFollowing = true;
+    }
+}
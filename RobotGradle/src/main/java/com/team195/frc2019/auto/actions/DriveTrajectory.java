@@ -4,12 +4,12 @@ import com.team195.frc2019.RobotState;
 import com.team195.frc2019.reporters.ConsoleReporter;
 import com.team195.frc2019.subsystems.Drive;
 import com.team195.lib.util.FastDoubleToString;
+import com.team195.lib.util.TimeSource;
 import com.team254.lib.geometry.Pose2dWithCurvature;
 import com.team254.lib.trajectory.TimedView;
 import com.team254.lib.trajectory.Trajectory;
 import com.team254.lib.trajectory.TrajectoryIterator;
 import com.team254.lib.trajectory.timing.TimedState;
-import edu.wpi.first.wpilibj.Timer;
 
 public class DriveTrajectory implements Action {
     private static final Drive mDrive = Drive.getInstance();
@@ -49,7 +49,7 @@ public class DriveTrajectory implements Action {
     public void start() {
         ConsoleReporter.report("Starting trajectory! (length=" + FastDoubleToString.format(mTrajectory.getRemainingProgress()) + ")");
         if (mResetPose) {
-            mRobotState.reset(Timer.getFPGATimestamp(), mTrajectory.getState().state().getPose());
+            mRobotState.reset(TimeSource.getTimestamp(), mTrajectory.getState().state().getPose());
         }
         mDrive.setDriveControlState(Drive.DriveControlState.PATH_FOLLOWING);
         mDrive.setTrajectory(mTrajectory);
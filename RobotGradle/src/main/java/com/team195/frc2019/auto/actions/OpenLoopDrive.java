@@ -3,8 +3,8 @@ package com.team195.frc2019.auto.actions;
 import com.team195.frc2019.reporters.ConsoleReporter;
 import com.team195.frc2019.subsystems.Drive;
 import com.team195.lib.util.FastDoubleToString;
+import com.team195.lib.util.TimeSource;
 import com.team254.lib.util.DriveSignal;
-import edu.wpi.first.wpilibj.Timer;
 
 public class OpenLoopDrive implements Action {
     private static final Drive mDrive = Drive.getInstance();
@@ -20,12 +20,12 @@ public class OpenLoopDrive implements Action {
 
     @Override
     public boolean isFinished() {
-        return Timer.getFPGATimestamp() - mStartTime > mDuration;
+        return TimeSource.getTimestamp() - mStartTime > mDuration;
     }
 
     @Override
     public void update() {
-        ConsoleReporter.report(FastDoubleToString.format(Timer.getFPGATimestamp() - mStartTime) + " > " + FastDoubleToString.format(mDuration));
+        ConsoleReporter.report(FastDoubleToString.format(TimeSource.getTimestamp() - mStartTime) + " > " + FastDoubleToString.format(mDuration));
 
     }
 
@@ -37,6 +37,6 @@ public class OpenLoopDrive implements Action {
     @Override
     public void start() {
         mDrive.setOpenLoop(new DriveSignal(mLeft, mRight));
-        mStartTime = Timer.getFPGATimestamp();
+        mStartTime = TimeSource.getTimestamp();
     }
 }
@@ -2,8 +2,8 @@ package com.team195.frc2019.auto.actions;
 
 import com.team195.frc2019.reporters.ConsoleReporter;
 import com.team195.frc2019.subsystems.Drive;
+import com.team195.lib.util.TimeSource;
 import com.team254.lib.util.DriveSignal;
-import edu.wpi.first.wpilibj.Timer;
 
 public class SetOpenLoopAutomatedDrive implements Action {
 	private static final Drive mDrive = Drive.getInstance();
@@ -19,12 +19,12 @@ public class SetOpenLoopAutomatedDrive implements Action {
 
 	@Override
 	public boolean isFinished() {
-		return Timer.getFPGATimestamp() - mStartTime > mDuration;
+		return TimeSource.getTimestamp() - mStartTime > mDuration;
 	}
 
 	@Override
 	public void update() {
-//		ConsoleReporter.report((Timer.getFPGATimestamp() - mStartTime) + " > " + mDuration);
+//		ConsoleReporter.report((TimeSource.getTimestamp() - mStartTime) + " > " + mDuration);
 
 	}
 
@@ -36,6 +36,6 @@ public class SetOpenLoopAutomatedDrive implements Action {
 	@Override
 	public void start() {
 		mDrive.setOpenLoopAutomated(new DriveSignal(mLeft, mRight));
-		mStartTime = Timer.getFPGATimestamp();
+		mStartTime = TimeSource.getTimestamp();
 	}
 }
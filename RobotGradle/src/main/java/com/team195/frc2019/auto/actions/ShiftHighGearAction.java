@@ -1,8 +1,8 @@
 package com.team195.frc2019.auto.actions;
 
 import com.team195.frc2019.subsystems.Drive;
+import com.team195.lib.util.TimeSource;
 import com.team254.lib.util.DriveSignal;
-import edu.wpi.first.wpilibj.Timer;
 
 public class ShiftHighGearAction implements Action {
     private static final double kTime = 2.0;
@@ -21,7 +21,7 @@ public class ShiftHighGearAction implements Action {
     public void start() {
         mDrive.setHighGear(true);
         mDrive.setOpenLoop(new DriveSignal((mReverse ? -1.0 : 1.0) * kPower, (mReverse ? -1.0 : 1.0) * kPower));
-        mStartTime = Timer.getFPGATimestamp();
+        mStartTime = TimeSource.getTimestamp();
     }
 
     @Override
@@ -30,7 +30,7 @@ public class ShiftHighGearAction implements Action {
 
     @Override
     public boolean isFinished() {
-        return Timer.getFPGATimestamp() - mStartTime > kTime;
+        return TimeSource.getTimestamp() - mStartTime > kTime;
     }
 
     @Override
@@ -1,6 +1,6 @@
 package com.team195.frc2019.auto.actions;
 
-import edu.wpi.first.wpilibj.Timer;
+import com.team195.lib.util.TimeSource;
 
 /**
  * Action to wait for a given amount of time
@@ -17,7 +17,7 @@ public class WaitAction implements Action {
 
     @Override
     public boolean isFinished() {
-        return Timer.getFPGATimestamp() - mStartTime >= mTimeToWait;
+        return TimeSource.getTimestamp() - mStartTime >= mTimeToWait;
     }
 
     @Override
@@ -32,6 +32,6 @@ public class WaitAction implements Action {
 
     @Override
     public void start() {
-        mStartTime = Timer.getFPGATimestamp();
+        mStartTime = TimeSource.getTimestamp();
     }
 }
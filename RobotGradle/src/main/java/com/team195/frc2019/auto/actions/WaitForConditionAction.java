@@ -0,0 +1,67 @@
+package com.team195.frc2019.auto.actions;
+
+import com.team195.frc2019.auto.ActionScheduler;
+import com.team195.lib.util.TimeoutTimer;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Waits until a condition is met or the timeout passes. The condition is registered with the {@link ActionScheduler}
+ * running the action when it starts and checked there once per tick, so it should only read values the subsystems have already
+ * published, such as their {@link com.team195.lib.util.DoubleSignal}s.
+ */
+public class WaitForConditionAction implements Action {
+	private final BooleanSupplier mCondition;
+	private final TimeoutTimer mTimeoutTimer;
+
+	private ActionScheduler.WaitCondition mWaitCondition = null;
+
+
+	public WaitForConditionAction(BooleanSupplier condition, double timeout) {
+		mCondition = condition;
+		mTimeoutTimer = new TimeoutTimer(timeout);
+	}
+
+	/**
+	 * For subclasses that build their condition in {@link #createCondition()}.
+	 */
+	protected WaitForConditionAction(double timeout) {
+		this(null, timeout);
+	}
+
+	/**
+	 * Called each time the action starts. Override to build a condition that depends on when the wait begins, e.g.
+	 * {@link com.team195.lib.util.BooleanSignal#fallingEdge()}.
+	 */
+	protected BooleanSupplier createCondition() {
+		return mCondition;
+	}
+
+	/**
+	 * @return True if the wait ended because the condition was met
+	 */
+	protected boolean isConditionMet() {
+		return mWaitCondition != null && mWaitCondition.isMet();
+	}
+
+	@Override
+	public boolean isFinished() {
+		return isConditionMet() || mTimeoutTimer.isTimedOut();
+	}
+
+	@Override
+	public void update() {
+	}
+
+	@Override
+	public void done() {
+		if (mWaitCondition != null) {
+			mWaitCondition.cancel();
+		}
+	}
+
+	@Override
+	public void start() {
+		mWaitCondition = ActionScheduler.getCurrent().waitFor(createCondition());
+	}
+}
@@ -1,35 +1,18 @@
 package com.team195.frc2019.auto.actions;
 
 import com.team195.frc2019.subsystems.Elevator;
-import com.team195.lib.util.TimeoutTimer;
 
-public class WaitForElevatorLimitAction implements Action {
+public class WaitForElevatorLimitAction extends WaitForConditionAction {
 	private final Elevator mElevator = Elevator.getInstance();
-	private final TimeoutTimer mTimeoutTimer;
-
-	private boolean prevButtonVal = true;
 
 
 	public WaitForElevatorLimitAction (double timeout) {
-		mTimeoutTimer = new TimeoutTimer(timeout);
-	}
-
-	@Override
-	public boolean isFinished() {
-		return (mTimeoutTimer.isTimedOut() || mElevator.isAtLowerLimit());
-	}
-
-	@Override
-	public void update() {
+		super(Elevator.getInstance().getLowerLimitSignal().isTrue(), timeout);
 	}
 
 	@Override
 	public void done() {
+		super.done();
 		mElevator.setElevatorPosition(0);
 	}
-
-	@Override
-	public void start() {
-
-	}
 }
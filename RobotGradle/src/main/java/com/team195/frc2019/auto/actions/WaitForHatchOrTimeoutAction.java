@@ -4,42 +4,37 @@ import com.team195.frc2019.constants.AutoConstants;
 import com.team195.frc2019.constants.Constants;
 import com.team195.frc2019.controllers.LEDController;
 import com.team195.frc2019.subsystems.Turret;
-import com.team195.lib.util.TimeoutTimer;
 
-public class WaitForHatchOrTimeoutAction implements Action {
+import java.util.function.BooleanSupplier;
+
+public class WaitForHatchOrTimeoutAction extends WaitForConditionAction {
 	private static final Turret mTurret = Turret.getInstance();
 	private static final LEDController mLEDController = LEDController.getInstance();
 
-	private final TimeoutTimer mTimeoutTimer;
-
 
 	public WaitForHatchOrTimeoutAction() {
 		this(AutoConstants.kLimitSwitchTriggerTimeout);
 	}
 
 	public WaitForHatchOrTimeoutAction(double timeout) {
-		mTimeoutTimer = new TimeoutTimer(timeout);
-	}
-
-	@Override
-	public boolean isFinished() {
-		return (mTimeoutTimer.isTimedOut() || !mTurret.getLimitSwitchValue());
+		super(timeout);
 	}
 
+	/**
+	 * Met while the hatch limit switch is closed, or once it has closed after the action starts even if it has opened
+	 * again by the time the condition is checked.
+	 */
 	@Override
-	public void update() {
+	protected BooleanSupplier createCondition() {
+		return mTurret.getHatchLimitSwitchSignal().isFalseOrFallingEdge();
 	}
 
 	@Override
 	public void done() {
+		super.done();
 		if (!mTurret.getLimitSwitchValue()) {
 			mLEDController.setLEDColor(Constants.kGotGamePieceColor);
 			mLEDController.setRequestedState(LEDController.LEDState.BLINK);
 		}
 	}
-
-	@Override
-	public void start() {
-
-	}
 }
@@ -1,33 +1,15 @@
 package com.team195.frc2019.auto.actions;
 
-import com.team195.frc2019.RobotState;
-import edu.wpi.first.wpilibj.Timer;
+import com.team195.frc2019.constants.AutoConstants;
+import com.team195.frc2019.subsystems.RobotStateEstimator;
 
-public class WaitUntilCrossXBoundaryCommand implements Action {
-
-    private double mXBoundary = 0;
+public class WaitUntilCrossXBoundaryCommand extends WaitForConditionAction {
 
     public WaitUntilCrossXBoundaryCommand(double x) {
-        mXBoundary = x;
-    }
-
-    @Override
-    public boolean isFinished() {
-        return RobotState.getInstance().getFieldToVehicle(Timer.getFPGATimestamp()).getTranslation().x() > mXBoundary;
-    }
-
-    @Override
-    public void update() {
-
+        this(x, AutoConstants.kCrossBoundaryTimeout);
     }
 
-    @Override
-    public void done() {
-
-    }
-
-    @Override
-    public void start() {
-
+    public WaitUntilCrossXBoundaryCommand(double x, double timeout) {
+        super(RobotStateEstimator.getInstance().getFieldXSignal().greaterThan(x), timeout);
     }
 }
@@ -11,6 +11,7 @@ import java.util.HashSet;
 public class AutomatedAction implements Action {
 
 	private HashSet<Subsystem> requiredSubsystems = new HashSet<>();
+	private long requirementMask = 0;
 	private final TimeoutTimer mTimeoutTimer;
 	private double mTimeout;
 	private SeriesAction mAction;
@@ -40,12 +41,22 @@ public class AutomatedAction implements Action {
 
 	public void addRequirements(Subsystem... subsystems) {
 		requiredSubsystems.addAll(Arrays.asList(subsystems));
+		for (Subsystem subsystem : subsystems) {
+			requirementMask |= subsystem.getRequirementMask();
+		}
 	}
 
 	public HashSet<Subsystem> getRequiredSubsystems() {
 		return requiredSubsystems;
 	}
 
+	/**
+	 * @return The {@link Subsystem#getRequirementMask()} of every required subsystem, or'd together
+	 */
+	public long getRequirementMask() {
+		return requirementMask;
+	}
+
 	public boolean isStarted() {
 		return mStarted;
 	}
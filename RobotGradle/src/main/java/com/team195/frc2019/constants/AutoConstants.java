@@ -10,4 +10,5 @@ public class AutoConstants {
     public final static double kDefaultBallShootWait = 0.4;
     public final static double kLimitSwitchTriggerTimeout = 5;
     public final static double kDefaultButtonTimeout = 2;
+    public final static double kCrossBoundaryTimeout = 15;
 }
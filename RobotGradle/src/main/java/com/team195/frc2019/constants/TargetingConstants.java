@@ -10,4 +10,28 @@ public class TargetingConstants {
 	public static final double kVisionOffThreshold = 35;
 //	public static final double kVisionOffThreshold = 25.2;
 //	public static final double kVisionOffThreshold = 9.7;
+
+	//Limelight 2 camera model, and the outline of both strips of the 2019 hatch target (in)
+	public static final int kLimelightImageWidth = 320;
+	public static final int kLimelightImageHeight = 240;
+	public static final double kLimelightHorizontalFov = 59.6;
+	public static final double kLimelightVerticalFov = 49.7;
+	public static final double kHatchTargetOutlineWidth = 14.627;
+	public static final double kHatchTargetOutlineHeight = 5.826;
+	public static final double kTargetCornerInlierThreshold = 2.0;
+
+	//Target tracking. Noise is the spectral density of unmodeled changes in rate, std devs are per frame.
+	public static final double kTrackLostTimeout = 0.25;
+	public static final double kTrackMaxPredictionTime = 0.1;
+	public static final int kTrackMaxConsecutiveOutliers = 3;
+	public static final double kTrackGateSigma = 4.0;
+	public static final double kTrackAngleProcessNoise = 2000.0;
+	public static final double kTrackAngleStdDev = 0.3;
+	public static final double kTrackAngleInitialRateStdDev = 60.0;
+	public static final double kTrackAreaProcessNoise = 50.0;
+	public static final double kTrackAreaStdDev = 0.3;
+	public static final double kTrackAreaInitialRateStdDev = 10.0;
+	public static final double kTrackSkewProcessNoise = 500.0;
+	public static final double kTrackSkewStdDev = 2.0;
+	public static final double kTrackSkewInitialRateStdDev = 30.0;
 }
@@ -14,6 +14,10 @@ import com.team195.frc2019.subsystems.positions.BallIntakeArmPositions;
 import com.team195.frc2019.subsystems.positions.ElevatorPositions;
 import com.team195.frc2019.subsystems.positions.TurretPositions;
 import com.team195.lib.drivers.dashjoy.CKDashJoystick;
+import com.team195.lib.drivers.dashjoy.DashJoyController;
+import com.team195.lib.drivers.dashjoy.DashJoyLatencyTracker;
+import com.team195.lib.drivers.dashjoy.DashJoyState;
+import com.team195.lib.drivers.dashjoy.JoystickBindings;
 import com.team195.lib.util.ElapsedTimer;
 import com.team195.lib.util.TeleopActionRunner;
 import com.team195.lib.util.ThreadRateControl;
@@ -21,6 +25,7 @@ import com.team254.lib.util.CheesyDriveHelper;
 import com.team254.lib.util.CrashTracker;
 import com.team254.lib.util.CrashTrackingRunnable;
 import com.team254.lib.util.DriveSignal;
+import edu.wpi.first.hal.HALUtil;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Notifier;
 
@@ -40,8 +45,17 @@ public class HIDController {
 	private final CKDashJoystick buttonBox1 = Controllers.getInstance().getButtonBox1();
 	private final CKDashJoystick buttonBox2 = Controllers.getInstance().getButtonBox2();
 
+	private final JoystickBindings mDriveBindings = new JoystickBindings(driveJoystick);
+	private final JoystickBindings mArmControlBindings = new JoystickBindings(armControlJoystick);
+	private final JoystickBindings mButtonBox1Bindings = new JoystickBindings(buttonBox1);
+	private final JoystickBindings mButtonBox2Bindings = new JoystickBindings(buttonBox2);
+
 	private final Object taskRunningLock_ = new Object();
 
+	private final DashJoyLatencyTracker mLatencyTracker = DashJoyLatencyTracker.getInstance();
+	//Buttons in a snapshot count from 0, so button n is bit n - 1
+	private final DashJoyState mDriveState = new DashJoyState();
+
 	private CheesyDriveHelper mCheesyDriveHelper = new CheesyDriveHelper();
 	private Drive mDrive = Drive.getInstance();
 
@@ -54,12 +68,66 @@ public class HIDController {
 
 	private static final double HID_RATE_CONTROL = 0.020;
 
+	//Run as soon as new joystick data arrives instead of on the Notifier period
+	private static final boolean EVENT_DRIVEN_HID = true;
+	//Packets arriving faster than this are coalesced into one cycle
+	private static final double HID_MIN_PERIOD = 0.010;
+	//Run anyway if no new data arrives for this long, so stale input and timed actions are still handled
+	private static final long HID_WATCHDOG_PERIOD_MS = (long) (HID_RATE_CONTROL * 1000);
+
 	private final Notifier mHIDNotifier;
 
+	private final DashJoyController mDashJoyController = DashJoyController.getInstance();
+	private volatile boolean mEventLoopRunning = false;
+	private Thread mEventLoopThread = null;
+
 	private final CrashTrackingRunnable mHIDRunnable = new CrashTrackingRunnable() {
 		@Override
 		public void runCrashTracked() {
-		synchronized (taskRunningLock_) {
+			synchronized (taskRunningLock_) {
+				runHIDCycle();
+			}
+		}
+	};
+
+	private final CrashTrackingRunnable mEventDrivenHIDRunnable = new CrashTrackingRunnable() {
+		@Override
+		public void runCrashTracked() {
+			final long minPeriodNs = (long) (HID_MIN_PERIOD * 1e9);
+			long lastUpdateCount = mDashJoyController.getUpdateCount();
+			long lastRunTime = System.nanoTime() - minPeriodNs;
+			boolean dashJoyStale = false;
+
+			try {
+				while (mEventLoopRunning) {
+					//Once DashJoy goes quiet the backup Joysticks are in use, which update with Driver Station packets
+					long updateCount;
+					if (dashJoyStale) {
+						DriverStation.getInstance().waitForData(HID_RATE_CONTROL);
+						updateCount = mDashJoyController.getUpdateCount();
+					} else {
+						updateCount = mDashJoyController.waitForUpdate(lastUpdateCount, HID_WATCHDOG_PERIOD_MS);
+					}
+					dashJoyStale = updateCount == lastUpdateCount;
+
+					long rateLimitWait = lastRunTime + minPeriodNs - System.nanoTime();
+					if (rateLimitWait > 0)
+						Thread.sleep(rateLimitWait / 1000000, (int) (rateLimitWait % 1000000));
+
+					//Anything that arrived while rate limited is handled by this cycle
+					lastUpdateCount = mDashJoyController.getUpdateCount();
+					lastRunTime = System.nanoTime();
+					runHIDCycle();
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	};
+
+	private void runHIDCycle() {
+		//Everything runs inside the try, since an escaping exception would end the event loop thread
+		try {
 			if (firstRun) {
 				Thread.currentThread().setName("HIDController");
 				Thread.currentThread().setPriority(Constants.kRobotThreadPriority);
@@ -69,253 +137,246 @@ public class HIDController {
 
 				firstRun = false;
 			}
-			try {
-				if (Infrastructure.getInstance().isDuringAuto() && !stoppedAuto) {
-					AutoModeExecutor autoModeExecutor = Robot.mAutoModeExecutor;
-					if (driveJoystick.isAxisInputActive()) {
-						ConsoleReporter.report("Stopping auto");
-						if (autoModeExecutor != null)
-							autoModeExecutor.stop();
-						stoppedAuto = true;
-					}
-				} else {
-					//User Control Interface code here
-
-					if (!USE_CHEESY_DRIVE) {
-						double scalingFactor = driveJoystick.getRawButton(6) ? 1 : 1;
-
-						double throttle = -driveJoystick.getSmoothedAxis(1, Constants.kJoystickDeadband, 2) * scalingFactor;
-						double turn = driveJoystick.getNormalizedAxis(4, Constants.kJoystickDeadband) * scalingFactor * 0.5;
-						if (VisionTracker.getInstance().isVisionEnabled() && VisionTracker.getInstance().getTargetMode() == VisionTracker.TargetMode.HATCH) {
-							if (Turret.getInstance().getSetpoint() == TurretPositions.Right90) {
-								if (VisionTracker.getInstance().isTargetFound())
-									throttle = -Math.max(Math.min(VisionTracker.getInstance().getTargetHorizAngleDev() * 0.01, 1), -1);
-							} else if (Turret.getInstance().getSetpoint() == TurretPositions.Left90) {
-								if (VisionTracker.getInstance().isTargetFound())
-									throttle = Math.max(Math.min(VisionTracker.getInstance().getTargetHorizAngleDev() * 0.01, 1), -1);
-							} else {
-								if (VisionTracker.getInstance().isTargetFound())
-									turn = Math.max(Math.min(VisionTracker.getInstance().getTargetHorizAngleDev() * 0.007, 1), -1);
-							}
-						}
-
-						if (Elevator.getInstance().getPosition() > CalConstants.kElevatorLowSensitivityThreshold) {
-							throttle *= CalConstants.kElevatorLowSensitivityFactor;
-							turn *= CalConstants.kElevatorLowSensitivityFactor;
-						}
-
-						if (mDrive.getDriveControlState() == Drive.DriveControlState.OPEN_LOOP) {
-							mDrive.setBrakeMode(driveJoystick.getRawButton(5) || driveJoystick.getRawButton(6) || VisionTracker.getInstance().isVisionEnabled());
-							mDrive.setOpenLoop(new DriveSignal(Math.max(Math.min(throttle + turn, 1), -1), Math.max(Math.min(throttle - turn, 1), -1)));
-						}
-					} else {
-						double throttle = -driveJoystick.getNormalizedAxis(1, Constants.kJoystickDeadband);
-						double turn = driveJoystick.getNormalizedAxis(4, Constants.kJoystickDeadband) * 0.6;
-
-						if (VisionTracker.getInstance().isVisionEnabled() && VisionTracker.getInstance().getTargetMode() == VisionTracker.TargetMode.HATCH) {
-							if (Turret.getInstance().getSetpoint() == TurretPositions.Right90) {
-								if (VisionTracker.getInstance().isTargetFound())
-									throttle = -Math.max(Math.min(VisionTracker.getInstance().getTargetHorizAngleDev() * 0.01, 1), -1);
-							} else if (Turret.getInstance().getSetpoint() == TurretPositions.Left90) {
-								if (VisionTracker.getInstance().isTargetFound())
-									throttle = Math.max(Math.min(VisionTracker.getInstance().getTargetHorizAngleDev() * 0.01, 1), -1);
-							} else {
-								if (VisionTracker.getInstance().isTargetFound())
-									turn = Math.max(Math.min(VisionTracker.getInstance().getTargetHorizAngleDev() * 0.01, 0.1), -0.1);
-							}
-						}
 
-						if (Elevator.getInstance().getPosition() > CalConstants.kElevatorLowSensitivityThreshold) {
-							throttle *= CalConstants.kElevatorLowSensitivityFactor;
-							turn *= CalConstants.kElevatorLowSensitivityFactor;
+			if (Infrastructure.getInstance().isDuringAuto() && !stoppedAuto) {
+				AutoModeExecutor autoModeExecutor = Robot.mAutoModeExecutor;
+				if (driveJoystick.isAxisInputActive()) {
+					ConsoleReporter.report("Stopping auto");
+					if (autoModeExecutor != null)
+						autoModeExecutor.stop();
+					stoppedAuto = true;
+				}
+			} else {
+				//User Control Interface code here
+				//Drive from one snapshot, so the latency stamp is that of the packet the drive command is built from
+				driveJoystick.getState(mDriveState);
+				long driveInputTimestamp = mDriveState.timestamp;
+				mLatencyTracker.onInputConsumed(driveInputTimestamp, HALUtil.getFPGATime());
+
+				if (!USE_CHEESY_DRIVE) {
+					double scalingFactor = mDriveState.getButton(5) ? 1 : 1;
+
+					double throttle = -CKDashJoystick.getSmoothedAxis(mDriveState, 1, Constants.kJoystickDeadband, 2) * scalingFactor;
+					double turn = CKDashJoystick.getNormalizedAxis(mDriveState, 4, Constants.kJoystickDeadband) * scalingFactor * 0.5;
+					if (VisionTracker.getInstance().isVisionEnabled() && VisionTracker.getInstance().getTargetMode() == VisionTracker.TargetMode.HATCH) {
+						if (Turret.getInstance().getSetpoint() == TurretPositions.Right90) {
+							if (VisionTracker.getInstance().isTrackValid())
+								throttle = -Math.max(Math.min(VisionTracker.getInstance().getTargetHorizAngleDev() * 0.01, 1), -1);
+						} else if (Turret.getInstance().getSetpoint() == TurretPositions.Left90) {
+							if (VisionTracker.getInstance().isTrackValid())
+								throttle = Math.max(Math.min(VisionTracker.getInstance().getTargetHorizAngleDev() * 0.01, 1), -1);
+						} else {
+							if (VisionTracker.getInstance().isTrackValid())
+								turn = Math.max(Math.min(VisionTracker.getInstance().getTargetHorizAngleDev() * 0.007, 1), -1);
 						}
+					}
 
-						if (mDrive.getDriveControlState() == Drive.DriveControlState.OPEN_LOOP) {
-							boolean brake = driveJoystick.getRawButton(5) || driveJoystick.getRawButton(6) || VisionTracker.getInstance().isVisionEnabled();
-							mDrive.setBrakeMode(brake || autoBrake);
-
-							if (brake)
-								autoBrakeTimer.start();
-
-							autoBrake = autoBrakeTimer.hasElapsed() < kBrakeTimeout;
-
-
-							boolean quickTurn = driveJoystick.getRawButton(6) || VisionTracker.getInstance().isVisionEnabled();
-							if (quickTurn)
-								turn *= 0.5;
-
-							DriveSignal d = mCheesyDriveHelper.cheesyDrive(throttle, turn, quickTurn, true);
+					if (Elevator.getInstance().getPosition() > CalConstants.kElevatorLowSensitivityThreshold) {
+						throttle *= CalConstants.kElevatorLowSensitivityFactor;
+						turn *= CalConstants.kElevatorLowSensitivityFactor;
+					}
 
-							mDrive.setOpenLoop(d);
+					if (mDrive.getDriveControlState() == Drive.DriveControlState.OPEN_LOOP) {
+						mDrive.setBrakeMode(mDriveState.getButton(4) || mDriveState.getButton(5) || VisionTracker.getInstance().isVisionEnabled());
+						mDrive.setOpenLoop(new DriveSignal(Math.max(Math.min(throttle + turn, 1), -1), Math.max(Math.min(throttle - turn, 1), -1)));
+						mLatencyTracker.onDemandSet(driveInputTimestamp);
+					}
+				} else {
+					double throttle = -CKDashJoystick.getNormalizedAxis(mDriveState, 1, Constants.kJoystickDeadband);
+					double turn = CKDashJoystick.getNormalizedAxis(mDriveState, 4, Constants.kJoystickDeadband) * 0.6;
+
+					if (VisionTracker.getInstance().isVisionEnabled() && VisionTracker.getInstance().getTargetMode() == VisionTracker.TargetMode.HATCH) {
+						if (Turret.getInstance().getSetpoint() == TurretPositions.Right90) {
+							if (VisionTracker.getInstance().isTrackValid())
+								throttle = -Math.max(Math.min(VisionTracker.getInstance().getTargetHorizAngleDev() * 0.01, 1), -1);
+						} else if (Turret.getInstance().getSetpoint() == TurretPositions.Left90) {
+							if (VisionTracker.getInstance().isTrackValid())
+								throttle = Math.max(Math.min(VisionTracker.getInstance().getTargetHorizAngleDev() * 0.01, 1), -1);
+						} else {
+							if (VisionTracker.getInstance().isTrackValid())
+								turn = Math.max(Math.min(VisionTracker.getInstance().getTargetHorizAngleDev() * 0.01, 0.1), -0.1);
 						}
 					}
 
-					if (driveJoystick.getRawButton(1)) {
-						VisionTracker.getInstance().setTargetMode(VisionTracker.TargetMode.HATCH);
-						if (!VisionTracker.getInstance().isTargetAreaReached())
-							VisionTracker.getInstance().setVisionEnabled(true);
-						else
-							VisionTracker.getInstance().setVisionEnabled(false);
-					} else if (driveJoystick.getRawButton(2)) {
-						VisionTracker.getInstance().setTargetMode(VisionTracker.TargetMode.HATCH);
-						VisionTracker.getInstance().setVisionEnabled(true);
-					} else {
-						if (VisionTracker.getInstance().getTargetMode() == VisionTracker.TargetMode.HATCH)
-							VisionTracker.getInstance().setVisionEnabled(false);
+					if (Elevator.getInstance().getPosition() > CalConstants.kElevatorLowSensitivityThreshold) {
+						throttle *= CalConstants.kElevatorLowSensitivityFactor;
+						turn *= CalConstants.kElevatorLowSensitivityFactor;
 					}
 
-					if (driveJoystick.getRisingEdgeTrigger(2, Constants.kJoystickTriggerThreshold)) {
+					if (mDrive.getDriveControlState() == Drive.DriveControlState.OPEN_LOOP) {
+						boolean brake = mDriveState.getButton(4) || mDriveState.getButton(5) || VisionTracker.getInstance().isVisionEnabled();
+						mDrive.setBrakeMode(brake || autoBrake);
 
-					} else if (driveJoystick.getRisingEdgeTrigger(3, Constants.kJoystickTriggerThreshold)) {
-						TeleopActionRunner.runAction(AutomatedActions.intakeBallOn((t) -> driveJoystick.getRawAxis(3) > Constants.kJoystickTriggerThreshold));
-					}
+						if (brake)
+							autoBrakeTimer.start();
 
-					if (buttonBox1.getRisingEdgeButton(1)) {
-						TeleopActionRunner.runAction(AutomatedActions.intakeBallOn((t) -> buttonBox1.getRawButton(1)));
-					} else if (buttonBox1.getRisingEdgeButton(2)) {
-						TeleopActionRunner.runAction(AutomatedActions.elevatorSet(ElevatorPositions.CargoBall));
-					} else if (buttonBox1.getRisingEdgeButton(3)) {
-						TeleopActionRunner.runAction(AutomatedActions.elevatorSet(ElevatorPositions.RocketBallLow));
-					} else if (buttonBox1.getRisingEdgeButton(4)) {
-						TeleopActionRunner.runAction(AutomatedActions.elevatorSet(ElevatorPositions.RocketBallMed));
-					} else if (buttonBox1.getRisingEdgeButton(5)) {
-						TeleopActionRunner.runAction(AutomatedActions.elevatorSet(ElevatorPositions.RocketBallHigh));
-					} else if (buttonBox1.getRisingEdgeButton(7)) {
-						TeleopActionRunner.runAction(AutomatedActions.pickupHatchFeederStation((t) -> driveJoystick));
-					} else if (buttonBox1.getRisingEdgeButton(8)) {
-						TeleopActionRunner.runAction(AutomatedActions.elevatorSet(ElevatorPositions.CargoHatch));
-					} else if (buttonBox1.getRisingEdgeButton(9)) {
-						TeleopActionRunner.runAction(AutomatedActions.elevatorSet(ElevatorPositions.RocketHatchLow));
-					} else if (buttonBox1.getRisingEdgeButton(10)) {
-						TeleopActionRunner.runAction(AutomatedActions.elevatorSet(ElevatorPositions.RocketHatchMed));
-					} else if (buttonBox1.getRisingEdgeButton(11)) {
-						TeleopActionRunner.runAction(AutomatedActions.elevatorSet(ElevatorPositions.RocketHatchHigh));
-					} else if (buttonBox1.getRisingEdgeButton(12)) {
-
-					} else if (buttonBox1.getRisingEdgeButton(13)) {
-						TeleopActionRunner.runAction(AutomatedActions.reverseHatchPickup());
-					} else if (buttonBox1.getRisingEdgeButton(14)) {
-						TeleopActionRunner.runAction(AutomatedActions.reverseHatchPlaceLow());
-					} else if (buttonBox1.getRisingEdgeButton(15)) {
-						TeleopActionRunner.runAction(AutomatedActions.reverseHatchPlaceLow());
-					} else if (buttonBox1.getRisingEdgeButton(16)) {
-						TeleopActionRunner.runAction(AutomatedActions.reverseHatchPlaceMid());
-					}
+						autoBrake = autoBrakeTimer.hasElapsed() < kBrakeTimeout;
 
 
-					if (buttonBox2.getRisingEdgeButton(1)) {
-						TeleopActionRunner.runAction(AutomatedActions.reverseHatchPlaceHigh());
-					} else if (buttonBox2.getRisingEdgeButton(3)) {
-						TeleopActionRunner.runAction(AutomatedActions.ballArmSet(BallIntakeArmPositions.Up));
-					} else if (buttonBox2.getRisingEdgeButton(4)) {
-						TeleopActionRunner.runAction(AutomatedActions.ballArmSet(BallIntakeArmPositions.Down));
-					} else if (buttonBox2.getRisingEdgeButton(5)) {
-						TeleopActionRunner.runAction(AutomatedActions.reverseIntakeBall((t) -> buttonBox2.getRawButton(5)));
-					} else if (buttonBox2.getRisingEdgeButton(6)) {
-						TeleopActionRunner.runAction(AutomatedActions.climbAutomatedLvl2((t) -> buttonBox2.getRawButton(6)));
-					} else if (buttonBox2.getRisingEdgeButton(7)) {
-						if (DriverStation.getInstance().getMatchTime() < 30 && DriverStation.getInstance().isOperatorControl()
-						|| !DriverStation.getInstance().isFMSAttached())
-							TeleopActionRunner.runAction(AutomatedAction.fromAction(new DropBallArmClimbBarAction(), Constants.kActionTimeoutS));
-					} else if (buttonBox2.getRisingEdgeButton(8)) {
-
-					} else if (buttonBox2.getRisingEdgeButton(9)) {
-						TeleopActionRunner.runAction(AutomatedActions.ballOuttake((t) -> buttonBox2.getRawButton(9)));
-					} else if (buttonBox2.getRisingEdgeButton(10)) {
-						TeleopActionRunner.runAction(AutomatedAction.fromAction(new SetBeakAction(false), 1));
-					} else if (buttonBox2.getRisingEdgeButton(11)) {
-						TeleopActionRunner.runAction(AutomatedAction.fromAction(new SetDrivePTOAction(false), 1));
-						mDrive.setOpenLoop(DriveSignal.NEUTRAL);
-					} else if (buttonBox2.getRisingEdgeButton(12)) {
-						TeleopActionRunner.runAction(AutomatedActions.climbOpen((t) -> buttonBox2.getRawButton(12), (t) -> -driveJoystick.getNormalizedAxis(1, 0.1), (t) -> -driveJoystick.getNormalizedAxis(5, 0.1)));
-					} else if (buttonBox2.getRisingEdgeButton(13)) {
-						TeleopActionRunner.runAction(AutomatedActions.climbMax((t) -> buttonBox2.getRawButton(13)));
-					} else if (buttonBox2.getRisingEdgeButton(14)) {
-						//Flash LEDs
-						LEDController.getInstance().setRequestedState(LEDController.LEDState.BLINK);
-					}
+						boolean quickTurn = mDriveState.getButton(5) || VisionTracker.getInstance().isVisionEnabled();
+						if (quickTurn)
+							turn *= 0.5;
 
+						DriveSignal d = mCheesyDriveHelper.cheesyDrive(throttle, turn, quickTurn, true);
 
-					if (armControlJoystick.getRisingEdgeButton(1)) {
-						//Flash LEDs to signal Human Player
-						LEDController.getInstance().setLEDColor(Constants.kRequestGamePieceColor);
-						LEDController.getInstance().setRequestedState(LEDController.LEDState.BLINK);
-					} else if (armControlJoystick.getRisingEdgeButton(2)) {
-						TeleopActionRunner.runAction(AutomatedAction.fromAction(new SetTurretPositionJoystickAction((t) -> armControlJoystick.getRawButton(2),
-								(t) -> armControlJoystick.getNormalizedAxis(2, 0.1)), 300, Turret.getInstance()));
-					} else if (armControlJoystick.getRisingEdgeButton(3)) {
-						//Ball Outtake turret and arm
-						TeleopActionRunner.runAction(AutomatedActions.shootBall((t) -> armControlJoystick.getRawButton(3)));
-					} else if (armControlJoystick.getRisingEdgeButton(4)) {
-						TeleopActionRunner.runAction(AutomatedActions.placeHatch());
-					} else if (armControlJoystick.getRisingEdgeButton(5)) {
-
-					} else if (armControlJoystick.getRisingEdgeButton(6)) {
-
-					} else if (armControlJoystick.getRisingEdgeButton(7)) {
-						//Rehome Elevator
-						TeleopActionRunner.runAction(AutomatedActions.homeElevator());
-					} else if (armControlJoystick.getRisingEdgeButton(8)) {
-						//Turret Open Loop
-						TeleopActionRunner.runAction(AutomatedAction.fromAction(new SetTurretOpenLoopAction((t) -> armControlJoystick.getRawButton(8),
-								(t) -> -armControlJoystick.getNormalizedAxis(2, 0.1) / 3.0), 300, Turret.getInstance()));
-					} else if (armControlJoystick.getRisingEdgeButton(9)) {
-						//Rehome Arm
-					} else if (armControlJoystick.getRisingEdgeButton(11)) {
-						//Rehome turret
-						Turret.getInstance().zeroSensors();
-						Turret.getInstance().setTurretControlMode(Turret.TurretControlMode.POSITION);
-					} else if (armControlJoystick.getRisingEdgeButton(12)) {
-						TeleopActionRunner.runAction(AutomatedActions.lowerIntakeAndResetTurret());
+						mDrive.setOpenLoop(d);
+						mLatencyTracker.onDemandSet(driveInputTimestamp);
 					}
+				}
 
-					switch (armControlJoystick.getPOV()) {
-						case 0:
-							TeleopActionRunner.runAction(AutomatedActions.setTurretPosition(TurretPositions.Home));
-							break;
-						case 90:
-							TeleopActionRunner.runAction(AutomatedActions.setTurretPosition(TurretPositions.Left90));
-							break;
-						case 180:
-							TeleopActionRunner.runAction(AutomatedActions.setTurretPosition(TurretPositions.Back180));
-							break;
-						case 270:
-							TeleopActionRunner.runAction(AutomatedActions.setTurretPosition(TurretPositions.Right90));
-							break;
-						default:
-							break;
-					}
+				if (mDriveState.getButton(0)) {
+					VisionTracker.getInstance().setTargetMode(VisionTracker.TargetMode.HATCH);
+					if (!VisionTracker.getInstance().isTargetAreaReached())
+						VisionTracker.getInstance().setVisionEnabled(true);
+					else
+						VisionTracker.getInstance().setVisionEnabled(false);
+				} else if (mDriveState.getButton(1)) {
+					VisionTracker.getInstance().setTargetMode(VisionTracker.TargetMode.HATCH);
+					VisionTracker.getInstance().setVisionEnabled(true);
+				} else {
+					if (VisionTracker.getInstance().getTargetMode() == VisionTracker.TargetMode.HATCH)
+						VisionTracker.getInstance().setVisionEnabled(false);
 				}
-			} catch (Exception ex) {
-				ConsoleReporter.report(ex);
-			} catch (Throwable t) {
-				ConsoleReporter.report(t);
-				CrashTracker.logThrowableCrash(t);
-			}
-		}
 
-		if (Turret.getInstance().isBeakListenerEnabled()) {
-			if (Turret.getInstance().getLimitSwitchFallingEdge())
-				TeleopActionRunner.runAction(new AutomatedAction(new SetBeakAction(true), 4));
-		}
+				mDriveBindings.update();
+				mButtonBox1Bindings.update();
+				mButtonBox2Bindings.update();
+				mArmControlBindings.update();
+
+				switch (armControlJoystick.getPOV()) {
+					case 0:
+						TeleopActionRunner.runAction(AutomatedActions.setTurretPosition(TurretPositions.Home));
+						break;
+					case 90:
+						TeleopActionRunner.runAction(AutomatedActions.setTurretPosition(TurretPositions.Left90));
+						break;
+					case 180:
+						TeleopActionRunner.runAction(AutomatedActions.setTurretPosition(TurretPositions.Back180));
+						break;
+					case 270:
+						TeleopActionRunner.runAction(AutomatedActions.setTurretPosition(TurretPositions.Right90));
+						break;
+					default:
+						break;
+				}
+			}
 
-		TeleopActionRunner.processActions();
+			if (Turret.getInstance().isBeakListenerEnabled()) {
+				if (Turret.getInstance().getLimitSwitchFallingEdge())
+					TeleopActionRunner.runAction(new AutomatedAction(new SetBeakAction(true), 4));
+			}
+		} catch (Exception ex) {
+			ConsoleReporter.report(ex);
+		} catch (Throwable t) {
+			ConsoleReporter.report(t);
+			CrashTracker.logThrowableCrash(t);
 		}
-	};
+	}
 
 	private HIDController() {
+		registerBindings();
 		mHIDNotifier = new Notifier(mHIDRunnable);
 	}
 
+	private void registerBindings() {
+		mDriveBindings
+				.onAxisThreshold(3, Constants.kJoystickTriggerThreshold, () -> TeleopActionRunner.runAction(AutomatedActions.intakeBallOn((t) -> driveJoystick.getRawAxis(3) > Constants.kJoystickTriggerThreshold)));
+
+		mButtonBox1Bindings
+				.onRisingEdge(1, () -> TeleopActionRunner.runAction(AutomatedActions.intakeBallOn((t) -> buttonBox1.getRawButton(1))))
+				.onRisingEdge(2, () -> TeleopActionRunner.runAction(AutomatedActions.elevatorSet(ElevatorPositions.CargoBall)))
+				.onRisingEdge(3, () -> TeleopActionRunner.runAction(AutomatedActions.elevatorSet(ElevatorPositions.RocketBallLow)))
+				.onRisingEdge(4, () -> TeleopActionRunner.runAction(AutomatedActions.elevatorSet(ElevatorPositions.RocketBallMed)))
+				.onRisingEdge(5, () -> TeleopActionRunner.runAction(AutomatedActions.elevatorSet(ElevatorPositions.RocketBallHigh)))
+				.onRisingEdge(7, () -> TeleopActionRunner.runAction(AutomatedActions.pickupHatchFeederStation((t) -> driveJoystick)))
+				.onRisingEdge(8, () -> TeleopActionRunner.runAction(AutomatedActions.elevatorSet(ElevatorPositions.CargoHatch)))
+				.onRisingEdge(9, () -> TeleopActionRunner.runAction(AutomatedActions.elevatorSet(ElevatorPositions.RocketHatchLow)))
+				.onRisingEdge(10, () -> TeleopActionRunner.runAction(AutomatedActions.elevatorSet(ElevatorPositions.RocketHatchMed)))
+				.onRisingEdge(11, () -> TeleopActionRunner.runAction(AutomatedActions.elevatorSet(ElevatorPositions.RocketHatchHigh)))
+				.onRisingEdge(13, () -> TeleopActionRunner.runAction(AutomatedActions.reverseHatchPickup()))
+				.onRisingEdge(14, () -> TeleopActionRunner.runAction(AutomatedActions.reverseHatchPlaceLow()))
+				.onRisingEdge(15, () -> TeleopActionRunner.runAction(AutomatedActions.reverseHatchPlaceLow()))
+				.onRisingEdge(16, () -> TeleopActionRunner.runAction(AutomatedActions.reverseHatchPlaceMid()));
+
+		mButtonBox2Bindings
+				.onRisingEdge(1, () -> TeleopActionRunner.runAction(AutomatedActions.reverseHatchPlaceHigh()))
+				.onRisingEdge(3, () -> TeleopActionRunner.runAction(AutomatedActions.ballArmSet(BallIntakeArmPositions.Up)))
+				.onRisingEdge(4, () -> TeleopActionRunner.runAction(AutomatedActions.ballArmSet(BallIntakeArmPositions.Down)))
+				.onRisingEdge(5, () -> TeleopActionRunner.runAction(AutomatedActions.reverseIntakeBall((t) -> buttonBox2.getRawButton(5))))
+				.onRisingEdge(6, () -> TeleopActionRunner.runAction(AutomatedActions.climbAutomatedLvl2((t) -> buttonBox2.getRawButton(6))))
+				.onRisingEdge(7, () -> {
+					if (DriverStation.getInstance().getMatchTime() < 30 && DriverStation.getInstance().isOperatorControl()
+					|| !DriverStation.getInstance().isFMSAttached())
+						TeleopActionRunner.runAction(AutomatedAction.fromAction(new DropBallArmClimbBarAction(), Constants.kActionTimeoutS));
+				})
+				.onRisingEdge(9, () -> TeleopActionRunner.runAction(AutomatedActions.ballOuttake((t) -> buttonBox2.getRawButton(9))))
+				.onRisingEdge(10, () -> TeleopActionRunner.runAction(AutomatedAction.fromAction(new SetBeakAction(false), 1)))
+				.onRisingEdge(11, () -> {
+					TeleopActionRunner.runAction(AutomatedAction.fromAction(new SetDrivePTOAction(false), 1));
+					mDrive.setOpenLoop(DriveSignal.NEUTRAL);
+				})
+				.onRisingEdge(12, () -> TeleopActionRunner.runAction(AutomatedActions.climbOpen((t) -> buttonBox2.getRawButton(12), (t) -> -driveJoystick.getNormalizedAxis(1, 0.1), (t) -> -driveJoystick.getNormalizedAxis(5, 0.1))))
+				.onRisingEdge(13, () -> TeleopActionRunner.runAction(AutomatedActions.climbMax((t) -> buttonBox2.getRawButton(13))))
+				//Flash LEDs
+				.onRisingEdge(14, () -> LEDController.getInstance().setRequestedState(LEDController.LEDState.BLINK));
+
+		mArmControlBindings
+				.onRisingEdge(1, () -> {
+					//Flash LEDs to signal Human Player
+					LEDController.getInstance().setLEDColor(Constants.kRequestGamePieceColor);
+					LEDController.getInstance().setRequestedState(LEDController.LEDState.BLINK);
+				})
+				.onRisingEdge(2, () -> TeleopActionRunner.runAction(AutomatedAction.fromAction(new SetTurretPositionJoystickAction((t) -> armControlJoystick.getRawButton(2),
+						(t) -> armControlJoystick.getNormalizedAxis(2, 0.1)), 300, Turret.getInstance())))
+				//Ball Outtake turret and arm
+				.onRisingEdge(3, () -> TeleopActionRunner.runAction(AutomatedActions.shootBall((t) -> armControlJoystick.getRawButton(3))))
+				.onRisingEdge(4, () -> TeleopActionRunner.runAction(AutomatedActions.placeHatch()))
+				//Rehome Elevator
+				.onRisingEdge(7, () -> TeleopActionRunner.runAction(AutomatedActions.homeElevator()))
+				//Turret Open Loop
+				.onRisingEdge(8, () -> TeleopActionRunner.runAction(AutomatedAction.fromAction(new SetTurretOpenLoopAction((t) -> armControlJoystick.getRawButton(8),
+						(t) -> -armControlJoystick.getNormalizedAxis(2, 0.1) / 3.0), 300, Turret.getInstance())))
+				.onRisingEdge(11, () -> {
+					//Rehome turret
+					Turret.getInstance().zeroSensors();
+					Turret.getInstance().setTurretControlMode(Turret.TurretControlMode.POSITION);
+				})
+				.onRisingEdge(12, () -> TeleopActionRunner.runAction(AutomatedActions.lowerIntakeAndResetTurret()));
+	}
+
 	public void start() {
 		synchronized (taskRunningLock_) {
-			mHIDNotifier.startPeriodic(HID_RATE_CONTROL);
+			if (EVENT_DRIVEN_HID) {
+				//A loop thread that died is replaced rather than treated as running
+				if (mEventLoopThread == null || !mEventLoopThread.isAlive()) {
+					mEventLoopRunning = true;
+					mEventLoopThread = new Thread(mEventDrivenHIDRunnable, "HIDController");
+					mEventLoopThread.setPriority(Constants.kRobotThreadPriority);
+					mEventLoopThread.setDaemon(true);
+					mEventLoopThread.start();
+				}
+			} else {
+				mHIDNotifier.startPeriodic(HID_RATE_CONTROL);
+			}
 		}
 	}
 
 	public void stop() {
 		synchronized (taskRunningLock_) {
-			mHIDNotifier.stop();
+			if (EVENT_DRIVEN_HID) {
+				if (mEventLoopThread != null) {
+					//The loop notices within a watchdog period, and no cycle runs once this returns
+					mEventLoopRunning = false;
+					try {
+						mEventLoopThread.join();
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+					mEventLoopThread = null;
+				}
+			} else {
+				mHIDNotifier.stop();
+			}
 		}
 	}
 }
@@ -36,7 +36,7 @@ public class LEDController extends Thread {
     private double mBlinkDuration;
     private int mBlinkCount;
     private double mTotalBlinkDuration;
-    private ThreadRateControl threadRateControl = new ThreadRateControl();
+    private ThreadRateControl threadRateControl = null;
     private MorseCodeTranslator morseCodeTranslator = new MorseCodeTranslator();
     private LinkedList<String> requestedMorseMessage;
     private LinkedList<String> runningMorseMessage;
@@ -48,9 +48,13 @@ public class LEDController extends Thread {
     private boolean loopMsg = false;
 
     private LEDController() throws Exception {
+    	this(new LEDDriverCANifier(new CANifier(DeviceIDConstants.kCANifierLEDId)));
+    }
+
+    private LEDController(LEDDriver ledDriver) {
     	super();
 		super.setPriority(Constants.kLEDThreadPriority);
-        mLED = new LEDDriverCANifier(new CANifier(DeviceIDConstants.kCANifierLEDId));
+        mLED = ledDriver;
         mLED.set(false);
 
         // Force a relay change.
@@ -63,7 +67,7 @@ public class LEDController extends Thread {
         mTotalBlinkDuration = kDefaultTotalBlinkDuration;
     }
 
-    public static LEDController getInstance() {
+    public static synchronized LEDController getInstance() {
         if(instance == null) {
             try {
                 instance = new LEDController();
@@ -75,6 +79,16 @@ public class LEDController extends Thread {
         return instance;
     }
 
+	/**
+	 * Create the controller on another LED driver, e.g. a simulated one. Must be called before the first getInstance().
+	 */
+	public static synchronized LEDController createInstance(LEDDriver ledDriver) {
+		if (instance != null)
+			throw new IllegalStateException("LEDController has already been created");
+		instance = new LEDController(ledDriver);
+		return instance;
+	}
+
     @Override
 	public void start() {
 		mSystemState = SystemState.OFF;
@@ -90,6 +104,8 @@ public class LEDController extends Thread {
     @Override
 	public void run() {
 	    Thread.currentThread().setName("LEDController");
+		if (threadRateControl == null)
+			threadRateControl = new ThreadRateControl();
 		threadRateControl.start();
     	while (runThread) {
 			synchronized (LEDController.this) {
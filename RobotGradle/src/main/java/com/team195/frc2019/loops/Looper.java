@@ -5,6 +5,7 @@ import com.team195.frc2019.reporters.ConsoleReporter;
 import com.team195.frc2019.reporters.MessageLevel;
 import com.team195.lib.util.Reportable;
 import com.team195.lib.util.TimeoutTimer;
+import com.team254.lib.util.CrashTracker;
 import com.team254.lib.util.CrashTrackingRunnable;
 import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj.Timer;
@@ -31,9 +32,13 @@ public class Looper implements ILooper, Reportable {
     private boolean isFirstRun = true;
 
     private final CrashTrackingRunnable runnable_;
+    private final int dtContext_;
+    private final int loopTimeContext_;
 
     public Looper(String name) {
         this.name = name;
+        dtContext_ = CrashTracker.registerContextChannel(name + "_dt");
+        loopTimeContext_ = CrashTracker.registerContextChannel(name + "_loop_time");
         runnable_ = new CrashTrackingRunnable() {
             @Override
             public void runCrashTracked() {
@@ -56,6 +61,8 @@ public class Looper implements ILooper, Reportable {
                         }
                         dt_ = now - timestamp_;
                         timestamp_ = now;
+                        CrashTracker.recordContext(dtContext_, now, dt_);
+                        CrashTracker.recordContext(loopTimeContext_, now, Timer.getFPGATimestamp() - now);
                     }
                 }
             }
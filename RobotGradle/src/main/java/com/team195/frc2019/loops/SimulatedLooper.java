@@ -0,0 +1,145 @@
+package com.team195.frc2019.loops;
+
+import com.team195.frc2019.constants.Constants;
+import com.team195.frc2019.reporters.ConsoleReporter;
+import com.team195.lib.util.Reportable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs loops like Looper, but on a virtual clock stepped by the caller instead of a Notifier, so robot code can run
+ * headless and faster than real time. Also records how long the loops actually take to run, for profiling the control
+ * code off the robot.
+ */
+public class SimulatedLooper implements ILooper, Reportable {
+    public final double kPeriod;
+
+    private final List<Loop> loops_ = new ArrayList<>();
+    private final String name;
+    private boolean running_ = false;
+    private boolean isFirstStart = true;
+    private double timestamp_ = 0;
+    private double dt_ = 0;
+
+    private int num_loops_ = 0;
+    private long total_loop_ns_ = 0;
+    private long max_loop_ns_ = 0;
+
+    public SimulatedLooper(String name) {
+        this(name, Constants.kLooperDt);
+    }
+
+    public SimulatedLooper(String name, double period) {
+        this.name = name;
+        kPeriod = period;
+    }
+
+    @Override
+    public synchronized void register(Loop loop) {
+        loops_.add(loop);
+    }
+
+    public synchronized void start(double timestamp) {
+        if (!running_) {
+            timestamp_ = timestamp;
+            try {
+                if (isFirstStart) {
+                    loops_.forEach((l) -> l.onFirstStart(timestamp_));
+                }
+                loops_.forEach((l) -> l.onStart(timestamp_));
+            }
+            catch (Exception ex) {
+                ConsoleReporter.report(ex);
+            }
+            running_ = true;
+            isFirstStart = false;
+        }
+    }
+
+    /**
+     * Advance the clock by one period and run the loops.
+     */
+    public synchronized void step() {
+        if (running_) {
+            final double now = timestamp_ + kPeriod;
+            final long start = System.nanoTime();
+            try {
+                loops_.forEach((l) -> l.onLoop(now));
+            }
+            catch (Exception ex) {
+                ConsoleReporter.report(ex);
+            }
+            final long elapsed = System.nanoTime() - start;
+            ++num_loops_;
+            total_loop_ns_ += elapsed;
+            max_loop_ns_ = Math.max(max_loop_ns_, elapsed);
+            dt_ = now - timestamp_;
+            timestamp_ = now;
+        }
+    }
+
+    /**
+     * Step until the clock has advanced by duration seconds.
+     */
+    public synchronized void run(double duration) {
+        final int steps = (int) Math.round(duration / kPeriod);
+        for (int i = 0; i < steps && running_; ++i) {
+            step();
+        }
+    }
+
+    public synchronized void stop() {
+        if (running_) {
+            running_ = false;
+            try {
+                loops_.forEach((l) -> l.onStop(timestamp_));
+            }
+            catch (Exception ex) {
+                ConsoleReporter.report(ex);
+            }
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return running_;
+    }
+
+    public synchronized double getTimestamp() {
+        return timestamp_;
+    }
+
+    public synchronized int getNumLoops() {
+        return num_loops_;
+    }
+
+    /**
+     * Mean wall clock time taken by one step of the loops (s).
+     */
+    public synchronized double getMeanLoopTime() {
+        return num_loops_ == 0 ? 0 : total_loop_ns_ / 1e9 / num_loops_;
+    }
+
+    /**
+     * Longest wall clock time taken by one step of the loops (s).
+     */
+    public synchronized double getMaxLoopTime() {
+        return max_loop_ns_ / 1e9;
+    }
+
+    public synchronized void resetLoopTimes() {
+        num_loops_ = 0;
+        total_loop_ns_ = 0;
+        max_loop_ns_ = 0;
+    }
+
+    @Override
+    public synchronized List<Object> generateReport() {
+        ArrayList<Object> l = new ArrayList<>();
+        l.add(name+"_dt");
+        l.add(dt_);
+        l.add(name+"_loop_time");
+        l.add(getMeanLoopTime());
+        return l;
+    }
+}
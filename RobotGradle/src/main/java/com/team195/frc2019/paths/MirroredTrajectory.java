@@ -1,20 +1,52 @@
 package com.team195.frc2019.paths;
 
 import com.team254.lib.geometry.Pose2dWithCurvature;
+import com.team254.lib.trajectory.MirroredTimedView;
+import com.team254.lib.trajectory.TimedView;
 import com.team254.lib.trajectory.Trajectory;
 import com.team254.lib.trajectory.TrajectoryUtil;
+import com.team254.lib.trajectory.TrajectoryView;
 import com.team254.lib.trajectory.timing.TimedState;
 
+/**
+ * A trajectory and its mirror image for starting on the other side of the field.  Only the right side is stored; the
+ * left side is a zero-copy view that mirrors states on access.  get(true) materializes a stored copy of the left side
+ * the first time it is called, so only the side an auto mode actually selects is ever copied.
+ */
 public class MirroredTrajectory {
 	public MirroredTrajectory(Trajectory<TimedState<Pose2dWithCurvature>> right) {
 		this.right = right;
-		this.left = TrajectoryUtil.mirrorTimed(right);
+		this.left = TrajectoryUtil.mirrorTimedView(right);
 	}
 
+	/**
+	 * The trajectory for the selected side, with states stored rather than mirrored on access.
+	 */
 	public Trajectory<TimedState<Pose2dWithCurvature>> get(boolean left) {
-		return left ? this.left : this.right;
+		if (!left) {
+			return this.right;
+		}
+		synchronized (this) {
+			if (mMaterializedLeft == null) {
+				mMaterializedLeft = TrajectoryUtil.mirrorTimed(right);
+			}
+			return mMaterializedLeft;
+		}
+	}
+
+	/**
+	 * A view of the selected side that never copies the trajectory.
+	 */
+	public TrajectoryView<TimedState<Pose2dWithCurvature>> getView(boolean left) {
+		return left ? new MirroredTimedView<>(right) : new TimedView<>(right);
+	}
+
+	public synchronized boolean isLeftMaterialized() {
+		return mMaterializedLeft != null;
 	}
 
 	public final Trajectory<TimedState<Pose2dWithCurvature>> left;
 	public final Trajectory<TimedState<Pose2dWithCurvature>> right;
-}
\ No newline at end of file
+
+	private Trajectory<TimedState<Pose2dWithCurvature>> mMaterializedLeft = null;
+}
@@ -1,6 +1,7 @@
 package com.team195.frc2019.paths;
 
 import com.team195.frc2019.planners.DriveMotionPlanner;
+import com.team195.frc2019.planners.TrajectoryReplanner;
 import com.team195.frc2019.reporters.ConsoleReporter;
 import com.team254.lib.geometry.Pose2d;
 import com.team254.lib.geometry.Pose2dWithCurvature;
@@ -15,20 +16,43 @@ import java.util.Collections;
 import java.util.List;
 
 public class TrajectoryGenerator {
-    private static final double kMaxVoltage = 9.0;
-    private static final double kMaxAccel = 40.0;
-    private static final double kMaxVelocity = 60.0;
-
-    private static final double kFirstPathMaxVoltage = 9.0;
-    private static final double kFirstPathMaxAccel = 80.0;
-    private static final double kFirstPathMaxVel = 100.0;
+    /**
+     * Velocity, acceleration, voltage and centripetal limits used to time the path set.  The first path of each auto
+     * (leaving the HAB) runs with its own, faster limits.
+     */
+    public static class TimingParameters {
+        public final double max_vel;  // inches/s
+        public final double max_accel;  // inches/s^2
+        public final double max_voltage;  // V
+        public final double first_path_max_vel;  // inches/s
+        public final double first_path_max_accel;  // inches/s^2
+        public final double first_path_max_voltage;  // V
+        public final double max_centripetal_accel;  // inches/s^2
+
+        public TimingParameters(double max_vel, double max_accel, double max_voltage,
+                                double first_path_max_vel, double first_path_max_accel, double first_path_max_voltage,
+                                double max_centripetal_accel) {
+            this.max_vel = max_vel;
+            this.max_accel = max_accel;
+            this.max_voltage = max_voltage;
+            this.first_path_max_vel = first_path_max_vel;
+            this.first_path_max_accel = first_path_max_accel;
+            this.first_path_max_voltage = first_path_max_voltage;
+            this.max_centripetal_accel = max_centripetal_accel;
+        }
 
-    private static final double kMaxCentripetalAccel = 100.0;
+        List<TimingConstraint<Pose2dWithCurvature>> constraints() {
+            return Collections.singletonList(new CentripetalAccelerationConstraint(max_centripetal_accel));
+        }
+    }
 
+    public static final TimingParameters kDefaultTimingParameters =
+            new TimingParameters(60.0, 40.0, 9.0, 100.0, 80.0, 9.0, 100.0);
 
     private static TrajectoryGenerator mInstance = new TrajectoryGenerator();
     private final DriveMotionPlanner mMotionPlanner;
     private TrajectorySet mTrajectorySet = null;
+    private TimingParameters mTimingParameters = kDefaultTimingParameters;
 
     public static TrajectoryGenerator getInstance() {
         return mInstance;
@@ -41,15 +65,30 @@ public class TrajectoryGenerator {
     public void generateTrajectories() {
         if (mTrajectorySet == null) {
             ConsoleReporter.report("Generating trajectories...");
-            mTrajectorySet = new TrajectorySet();
+            mTrajectorySet = new TrajectorySet(mTimingParameters);
             ConsoleReporter.report("Finished trajectory generation");
         }
     }
 
+    /**
+     * Rebuild the trajectory set with new timing parameters.  Spline geometry is cached by waypoints, so only time
+     * parameterization is repeated for paths whose waypoints are unchanged.
+     */
+    public void regenerateTrajectories(TimingParameters params) {
+        ConsoleReporter.report("Regenerating trajectories...");
+        mTimingParameters = params;
+        mTrajectorySet = new TrajectorySet(params);
+        ConsoleReporter.report("Finished trajectory regeneration");
+    }
+
     public TrajectorySet getTrajectorySet() {
         return mTrajectorySet;
     }
 
+    public TimingParameters getTimingParameters() {
+        return mTimingParameters;
+    }
+
     public MirroredTrajectory generateMirroredTrajectory(
             boolean reversed,
             final List<Pose2d> waypoints,
@@ -82,6 +121,39 @@ public class TrajectoryGenerator {
         return mMotionPlanner.generateTrajectory(reversed, waypoints, constraints, start_vel, end_vel, max_vel, max_accel, max_voltage);
     }
 
+    public Trajectory<TimedState<Pose2dWithCurvature>> retimeTrajectory(
+            final Trajectory<TimedState<Pose2dWithCurvature>> trajectory,
+            final List<TimingConstraint<Pose2dWithCurvature>> constraints,
+            double start_vel,  // inches/s
+            double end_vel,  // inches/s
+            double max_vel,  // inches/s
+            double max_accel,  // inches/s^2
+            double max_voltage) {
+        return mMotionPlanner.retimeTrajectory(trajectory, constraints, start_vel, end_vel, max_vel, max_accel, max_voltage);
+    }
+
+    public MirroredTrajectory retimeMirroredTrajectory(
+            final MirroredTrajectory trajectory,
+            final List<TimingConstraint<Pose2dWithCurvature>> constraints,
+            double max_vel,  // inches/s
+            double max_accel,  // inches/s^2
+            double max_voltage) {
+        return new MirroredTrajectory(retimeTrajectory(trajectory.right, constraints, 0.0, 0.0, max_vel, max_accel, max_voltage));
+    }
+
+    /**
+     * Re-plan from the robot's current pose to the end of a stored path in the background, with the timing parameters
+     * the current path set was built with.  See TrajectoryReplanner.
+     */
+    public TrajectoryReplanner.Plan replanTrajectory(
+            final Pose2d current_pose,
+            double current_vel,  // inches/s
+            final Trajectory<TimedState<Pose2dWithCurvature>> fallback,
+            double budget) {  // s
+        final TimingParameters params = mTimingParameters;
+        return TrajectoryReplanner.getInstance().replan(current_pose, current_vel, fallback, params.constraints(),
+                params.max_vel, params.max_accel, params.max_voltage, budget);
+    }
 
     public static final Pose2d kLeftRocketPose = new Pose2d(225, 145, Rotation2d.fromDegrees(90));
     public static final Pose2d kRightRocketPose = kLeftRocketPose.mirror();
@@ -146,146 +218,146 @@ public class TrajectoryGenerator {
         public final MirroredTrajectory test90DegPath;
 
 
-        private TrajectorySet() {
+        private TrajectorySet(TimingParameters params) {
             lowStartToCloseRocketFarHatch = generateMirroredTrajectory(true, Arrays.asList(
                     kLowStartBackwardsPose,
                     kCloseRocketFarHatchIntermediatePose,
                     kCloseRocketFarHatchPose),
-                    Collections.singletonList(new CentripetalAccelerationConstraint(kMaxCentripetalAccel)),
-                    kFirstPathMaxVel,
-                    kFirstPathMaxAccel,
-                    kFirstPathMaxVoltage);
+                    params.constraints(),
+                    params.first_path_max_vel,
+                    params.first_path_max_accel,
+                    params.first_path_max_voltage);
 
             highStartToCloseRocketFarHatch = generateMirroredTrajectory(true, Arrays.asList(
                     kHighStartBackwardsPose,
                     kCloseRocketFarHatchIntermediatePose,
                     kHighStartCloseRocketPoint1,
                     kCloseRocketFarHatchPose),
-                    Collections.singletonList(new CentripetalAccelerationConstraint(kMaxCentripetalAccel)),
-                    kFirstPathMaxVel,
-                    kFirstPathMaxAccel,
-                    kFirstPathMaxVoltage);
+                    params.constraints(),
+                    params.first_path_max_vel,
+                    params.first_path_max_accel,
+                    params.first_path_max_voltage);
 
             closeRocketFarHatchToTurn1 = generateMirroredTrajectory(false, Arrays.asList(
                     kCloseRocketFarHatchPose,
                     kCloseRocketFarHatchTurn1Point1Pose),
-                    Collections.singletonList(new CentripetalAccelerationConstraint(kMaxCentripetalAccel)),
-                    kMaxVelocity,
-                    kMaxAccel,
-                    kMaxVoltage);
+                    params.constraints(),
+                    params.max_vel,
+                    params.max_accel,
+                    params.max_voltage);
 
             closeRocketFarHatchTurn1ToFeederStation = generateMirroredTrajectory(true, Arrays.asList(
                     kCloseRocketFarHatchTurn1Point1Pose,
                     kCloseRocketFarHatchTurn1Point2Pose,
                     kCloseSideFeederStation),
-                    Collections.singletonList(new CentripetalAccelerationConstraint(kMaxCentripetalAccel)),
-                    kMaxVelocity,
-                    kMaxAccel,
-                    kMaxVoltage);
+                    params.constraints(),
+                    params.max_vel,
+                    params.max_accel,
+                    params.max_voltage);
 
             closeRocketFeederStationToTurn2 = generateMirroredTrajectory(false, Arrays.asList(
                     kCloseSideFeederStation,
                     kCloseRocketCloseHatchTurn2Pose),
-                    Collections.singletonList(new CentripetalAccelerationConstraint(kMaxCentripetalAccel)),
-                    kMaxVelocity,
-                    kMaxAccel,
-                    kMaxVoltage);
+                    params.constraints(),
+                    params.max_vel,
+                    params.max_accel,
+                    params.max_voltage);
 
             closeRocketTurn2ToCloseHatch = generateMirroredTrajectory(true, Arrays.asList(
                     kCloseRocketCloseHatchTurn2Pose,
                     kCloseRocketCloseHatchPose),
-                    Collections.singletonList(new CentripetalAccelerationConstraint(kMaxCentripetalAccel)),
-                    kMaxVelocity,
-                    kMaxAccel,
-                    kMaxVoltage);
+                    params.constraints(),
+                    params.max_vel,
+                    params.max_accel,
+                    params.max_voltage);
 
             closeRocketCloseHatchToBall = generateMirroredTrajectory(false, Arrays.asList(
                     kCloseRocketCloseHatchPose,
                     kCloseSideBallReservoir),
-                    Collections.singletonList(new CentripetalAccelerationConstraint(kMaxCentripetalAccel)),
-                    kMaxVelocity,
-                    kMaxAccel,
-                    kMaxVoltage);
+                    params.constraints(),
+                    params.max_vel,
+                    params.max_accel,
+                    params.max_voltage);
 
             lowStartToSideCargoForwardFacing = generateMirroredTrajectory(false, Arrays.asList(
                     kLowStartForwardsPose,
                     kCloseCargoSideHatchForwardFacingPose),
-                    Collections.singletonList(new CentripetalAccelerationConstraint(kMaxCentripetalAccel)),
-                    kFirstPathMaxVel,
-                    kFirstPathMaxAccel,
-                    kFirstPathMaxVoltage);
+                    params.constraints(),
+                    params.first_path_max_vel,
+                    params.first_path_max_accel,
+                    params.first_path_max_voltage);
 
             highStartToSideCargoForwardFacing = generateMirroredTrajectory(false, Arrays.asList(
                     kHighStartForwardsPose,
                     kCloseCargoSideHatchForwardFacingPose),
-                    Collections.singletonList(new CentripetalAccelerationConstraint(kMaxCentripetalAccel)),
-                    kFirstPathMaxVel,
-                    kFirstPathMaxAccel,
-                    kFirstPathMaxVoltage);
+                    params.constraints(),
+                    params.first_path_max_vel,
+                    params.first_path_max_accel,
+                    params.first_path_max_voltage);
 
             sideCargoForwardFacingToFeederStation = generateMirroredTrajectory(true, Arrays.asList(
                     kCloseCargoSideHatchForwardFacingPose,
                     kCloseSideFeederStation),
-                    Collections.singletonList(new CentripetalAccelerationConstraint(kMaxCentripetalAccel)),
-                    kMaxVelocity,
-                    kMaxAccel,
-                    kMaxVoltage);
+                    params.constraints(),
+                    params.max_vel,
+                    params.max_accel,
+                    params.max_voltage);
 
             feederStationToFrontCargoTurn1 = generateMirroredTrajectory(false, Arrays.asList(
                     kCloseSideFeederStation,
                     kCloseCargoFrontHatchTurn1Pose),
-                    Collections.singletonList(new CentripetalAccelerationConstraint(kMaxCentripetalAccel)),
-                    kMaxVelocity,
-                    kMaxAccel,
-                    kMaxVoltage);
+                    params.constraints(),
+                    params.max_vel,
+                    params.max_accel,
+                    params.max_voltage);
 
             frontCargoTurn1ToFrontCargoHatch = generateMirroredTrajectory(true, Arrays.asList(
                     kCloseCargoFrontHatchTurn1Pose,
                     kCloseCargoFrontHatchPose),
-                    Collections.singletonList(new CentripetalAccelerationConstraint(kMaxCentripetalAccel)),
-                    kMaxVelocity,
-                    kMaxAccel,
-                    kMaxVoltage);
+                    params.constraints(),
+                    params.max_vel,
+                    params.max_accel,
+                    params.max_voltage);
 
             frontCargoHatchToBall = generateMirroredTrajectory(false, Arrays.asList(
                     kCloseCargoFrontHatchPose,
                     kCloseSideBallReservoir),
-                    Collections.singletonList(new CentripetalAccelerationConstraint(kMaxCentripetalAccel)),
-                    kMaxVelocity,
-                    kMaxAccel,
-                    kMaxVoltage);
+                    params.constraints(),
+                    params.max_vel,
+                    params.max_accel,
+                    params.max_voltage);
 
             feederStationToFrontCargoHatchForward = generateMirroredTrajectory(false, Arrays.asList(
                     kCloseSideFeederStation,
                     kCloseCargoFrontHatchForwardFacingPose),
-                    Collections.singletonList(new CentripetalAccelerationConstraint(kMaxCentripetalAccel)),
-                    kMaxVelocity,
-                    kMaxAccel,
-                    kMaxVoltage);
+                    params.constraints(),
+                    params.max_vel,
+                    params.max_accel,
+                    params.max_voltage);
 
             frontCargoHatchForwardToFeederStation = generateMirroredTrajectory(true, Arrays.asList(
                     kCloseCargoFrontHatchForwardFacingPose,
                     kCloseSideFeederStation),
-                    Collections.singletonList(new CentripetalAccelerationConstraint(kMaxCentripetalAccel)),
-                    kMaxVelocity,
-                    kMaxAccel,
-                    kMaxVoltage);
+                    params.constraints(),
+                    params.max_vel,
+                    params.max_accel,
+                    params.max_voltage);
 
             testPath = generateMirroredTrajectory(false, Arrays.asList(
                     new Pose2d(0, 0, Rotation2d.fromDegrees(0)),
                     new Pose2d(100, 0, Rotation2d.fromDegrees(0))),
-                    Collections.singletonList(new CentripetalAccelerationConstraint(kMaxCentripetalAccel)),
-                    kMaxVelocity,
-                    kMaxAccel,
-                    kMaxVoltage);
+                    params.constraints(),
+                    params.max_vel,
+                    params.max_accel,
+                    params.max_voltage);
 
             test90DegPath = generateMirroredTrajectory(false, Arrays.asList(
                     new Pose2d(130, 85, Rotation2d.fromDegrees(-90)),
                     new Pose2d(290, -85, Rotation2d.fromDegrees(0))),
-                    Collections.singletonList(new CentripetalAccelerationConstraint(kMaxCentripetalAccel)),
-                    kMaxVelocity,
-                    kMaxAccel,
-                    kMaxVoltage);
+                    params.constraints(),
+                    params.max_vel,
+                    params.max_accel,
+                    params.max_voltage);
         }
 
     }
@@ -2,6 +2,7 @@ package com.team195.frc2019.planners;
 
 import com.team195.frc2019.constants.CalConstants;
 import com.team195.lib.util.FastDoubleToString;
+import com.team254.lib.geometry.MutablePose2d;
 import com.team254.lib.geometry.Pose2d;
 import com.team254.lib.geometry.Pose2dWithCurvature;
 import com.team254.lib.geometry.Rotation2d;
@@ -36,6 +37,14 @@ public class DriveMotionPlanner implements CSVWritable {
 
     public void setFollowerType(FollowerType type) {
         mFollowerType = type;
+        if (type == FollowerType.PURE_PURSUIT && mPackedTrajectory != null) {
+            // Pure pursuit searches the generic trajectory for its lookahead, so hand the current trajectory back to
+            // the default follower from wherever the packed one has got to.
+            mCurrentTrajectory.advance(mPackedProgress - mCurrentTrajectory.getProgress());
+            mSetpoint = mCurrentTrajectory.getState();
+            mError = mScratchError.toPose2d();
+            mPackedTrajectory = null;
+        }
     }
 
     final DifferentialDrive mModel;
@@ -50,13 +59,37 @@ public class DriveMotionPlanner implements CSVWritable {
     DifferentialDrive.ChassisState prev_velocity_ = new DifferentialDrive.ChassisState();
     double mDt = 0.0;
 
+    // Allocation-free follower state.  When enabled, setTrajectory() packs the trajectory once and update() samples it
+    // into preallocated scratch objects instead of creating new geometry, dynamics and output objects every tick.
+    boolean mAllocationFree = false;
+    PackedTimedTrajectory mPackedTrajectory = null;
+    double mPackedProgress = 0.0;
+    final PackedTimedTrajectory.Sample mPackedSetpoint = new PackedTimedTrajectory.Sample();
+    final DifferentialDrive.ChassisState mScratchVelocity = new DifferentialDrive.ChassisState();
+    final DifferentialDrive.ChassisState mScratchAcceleration = new DifferentialDrive.ChassisState();
+    final DifferentialDrive.WheelState mScratchWheelVelocity = new DifferentialDrive.WheelState();
+    final DifferentialDrive.DriveDynamics mScratchDynamics = new DifferentialDrive.DriveDynamics();
+    final DifferentialDrive.DriveDynamics mScratchFeedforwardDynamics = new DifferentialDrive.DriveDynamics();
+    final Output mScratchOutput = new Output();
+    final MutablePose2d mScratchError = new MutablePose2d();
+
+    // Spline geometry, keyed by waypoints and sampling tolerances.
+    final TrajectoryGeometryCache mGeometryCache = new TrajectoryGeometryCache();
+
     public DriveMotionPlanner() {
+        mModel = createDriveModel();
+    }
+
+    /**
+     * The characterized drivetrain model from CalConstants.
+     */
+    public static DifferentialDrive createDriveModel() {
         final DCMotorTransmission transmission = new DCMotorTransmission(
                 1.0 / CalConstants.kDriveKv,
                 Units.inches_to_meters(CalConstants.kDriveWheelRadiusInches) * Units.inches_to_meters(CalConstants
                         .kDriveWheelRadiusInches) * CalConstants.kRobotLinearInertia / (2.0 * CalConstants.kDriveKa),
                 CalConstants.kDriveVIntercept);
-        mModel = new DifferentialDrive(
+        return new DifferentialDrive(
                 CalConstants.kRobotLinearInertia,
                 CalConstants.kRobotAngularInertia,
                 CalConstants.kRobotAngularDrag,
@@ -66,9 +99,31 @@ public class DriveMotionPlanner implements CSVWritable {
         );
     }
 
+    /**
+     * Select the allocation-free follower.  Takes effect on the next call to setTrajectory().  Outputs are identical to
+     * the default follower, but update() returns the same Output instance every tick.  error()/setpoint() build new
+     * objects on request; error(MutablePose2d)/setpoint(Sample) fill in the caller's.  PURE_PURSUIT needs the generic
+     * trajectory for its lookahead search, so it always uses the default follower and allocates every tick; selecting
+     * it mid-trajectory hands the trajectory back to the default follower.
+     */
+    public void setAllocationFree(boolean allocation_free) {
+        mAllocationFree = allocation_free;
+    }
+
+    public TrajectoryGeometryCache getGeometryCache() {
+        return mGeometryCache;
+    }
+
     public void setTrajectory(final TrajectoryIterator<TimedState<Pose2dWithCurvature>> trajectory) {
         mCurrentTrajectory = trajectory;
         mSetpoint = trajectory.getState();
+        if (mAllocationFree && mFollowerType != FollowerType.PURE_PURSUIT) {
+            mPackedTrajectory = PackedTimedTrajectory.fromTrajectory(trajectory.trajectory());
+            mPackedProgress = trajectory.getProgress();
+            mPackedTrajectory.sample(mPackedProgress, mPackedSetpoint);
+        } else {
+            mPackedTrajectory = null;
+        }
         for (int i = 0; i < trajectory.trajectory().length(); ++i) {
             if (trajectory.trajectory().getState(i).velocity() > Util.kEpsilon) {
                 mIsReversed = false;
@@ -82,6 +137,7 @@ public class DriveMotionPlanner implements CSVWritable {
 
     public void reset() {
         mError = Pose2d.identity();
+        mScratchError.setIdentity();
         mOutput = new Output();
         mLastTime = Double.POSITIVE_INFINITY;
     }
@@ -105,6 +161,15 @@ public class DriveMotionPlanner implements CSVWritable {
             double max_vel,  // inches/s
             double max_accel,  // inches/s^2
             double max_voltage) {
+        return timeParameterizeTrajectory(reversed, generateGeometry(reversed, waypoints), constraints, start_vel,
+                end_vel, max_vel, max_accel, max_voltage);
+    }
+
+    /**
+     * The untimed path through waypoints.  Spline fits are cached by waypoints, so regenerating a trajectory with
+     * different timing parameters only re-runs the (much cheaper) time parameterization.
+     */
+    public Trajectory<Pose2dWithCurvature> generateGeometry(boolean reversed, final List<Pose2d> waypoints) {
         List<Pose2d> waypoints_maybe_flipped = waypoints;
         final Pose2d flip = Pose2d.fromRotation(new Rotation2d(-1, 0, false));
         // TODO re-architect the spline generator to support reverse.
@@ -116,8 +181,8 @@ public class DriveMotionPlanner implements CSVWritable {
         }
 
         // Create a trajectory from splines.
-        Trajectory<Pose2dWithCurvature> trajectory = TrajectoryUtil.trajectoryFromSplineWaypoints(
-                waypoints_maybe_flipped, kMaxDx, kMaxDy, kMaxDTheta);
+        Trajectory<Pose2dWithCurvature> trajectory = mGeometryCache.get(waypoints_maybe_flipped, kMaxDx, kMaxDy,
+                kMaxDTheta);
 
         if (reversed) {
             List<Pose2dWithCurvature> flipped = new ArrayList<>(trajectory.length());
@@ -127,6 +192,32 @@ public class DriveMotionPlanner implements CSVWritable {
             }
             trajectory = new Trajectory<>(flipped);
         }
+        return trajectory;
+    }
+
+    /**
+     * Time-parameterize a path from generateGeometry(), or the states of an existing timed trajectory, against new
+     * timing parameters.
+     */
+    public Trajectory<TimedState<Pose2dWithCurvature>> timeParameterizeTrajectory(
+            boolean reversed,
+            final Trajectory<Pose2dWithCurvature> trajectory,
+            final List<TimingConstraint<Pose2dWithCurvature>> constraints,
+            double start_vel,
+            double end_vel,
+            double max_vel,  // inches/s
+            double max_accel,  // inches/s^2
+            double max_voltage) {
+        // Generate the timed trajectory.
+        Trajectory<TimedState<Pose2dWithCurvature>> timed_trajectory = TimingUtil.timeParameterizeTrajectory
+                (reversed, new
+                        DistanceView<>(trajectory), kMaxDx, allConstraints(constraints, max_voltage), start_vel,
+                        end_vel, max_vel, max_accel);
+        return timed_trajectory;
+    }
+
+    private List<TimingConstraint<Pose2dWithCurvature>> allConstraints(
+            final List<TimingConstraint<Pose2dWithCurvature>> constraints, double max_voltage) {
         // Create the constraint that the robot must be able to traverse the trajectory without ever applying more
         // than the specified voltage.
         final DifferentialDriveDynamicsConstraint<Pose2dWithCurvature> drive_constraints = new
@@ -136,19 +227,48 @@ public class DriveMotionPlanner implements CSVWritable {
         if (constraints != null) {
             all_constraints.addAll(constraints);
         }
-        // Generate the timed trajectory.
-        Trajectory<TimedState<Pose2dWithCurvature>> timed_trajectory = TimingUtil.timeParameterizeTrajectory
-                (reversed, new
-                        DistanceView<>(trajectory), kMaxDx, all_constraints, start_vel, end_vel, max_vel, max_accel);
-        return timed_trajectory;
+        return all_constraints;
+    }
+
+    /**
+     * Re-time an existing timed trajectory against new timing parameters without refitting its splines.  Direction is
+     * taken from the sign of the first nonzero velocity.  The existing states are re-timed as they are (not resampled),
+     * so the result is identical to calling generateTrajectory() with the new parameters.
+     */
+    public Trajectory<TimedState<Pose2dWithCurvature>> retimeTrajectory(
+            final Trajectory<TimedState<Pose2dWithCurvature>> timed_trajectory,
+            final List<TimingConstraint<Pose2dWithCurvature>> constraints,
+            double start_vel,
+            double end_vel,
+            double max_vel,  // inches/s
+            double max_accel,  // inches/s^2
+            double max_voltage) {
+        boolean reversed = false;
+        List<Pose2dWithCurvature> states = new ArrayList<>(timed_trajectory.length());
+        for (int i = 0; i < timed_trajectory.length(); ++i) {
+            states.add(timed_trajectory.getState(i).state());
+        }
+        for (int i = 0; i < timed_trajectory.length(); ++i) {
+            if (timed_trajectory.getState(i).velocity() > Util.kEpsilon) {
+                break;
+            } else if (timed_trajectory.getState(i).velocity() < -Util.kEpsilon) {
+                reversed = true;
+                break;
+            }
+        }
+        return TimingUtil.timeParameterizeTrajectory(reversed, states, allConstraints(constraints, max_voltage),
+                start_vel, end_vel, max_vel, max_accel);
     }
 
     @Override
     public String toCSV() {
 //        DecimalFormat fmt = new DecimalFormat("#0.000");
-        return FastDoubleToString.format(mOutput.left_velocity) + "," + FastDoubleToString.format(mOutput.right_velocity) + "," + FastDoubleToString.format
-                (mOutput.left_feedforward_voltage) + "," + FastDoubleToString.format(mOutput.right_feedforward_voltage) + "," +
-                mSetpoint.toCSV();
+        final StringBuilder sb = new StringBuilder(128);
+        FastDoubleToString.format(mOutput.left_velocity, 2, sb).append(',');
+        FastDoubleToString.format(mOutput.right_velocity, 2, sb).append(',');
+        FastDoubleToString.format(mOutput.left_feedforward_voltage, 2, sb).append(',');
+        FastDoubleToString.format(mOutput.right_feedforward_voltage, 2, sb).append(',');
+        return sb.append(setpoint().toCSV()).toString();
     }
 
     public static class Output {
@@ -175,6 +295,16 @@ public class DriveMotionPlanner implements CSVWritable {
         public double left_feedforward_voltage;
         public double right_feedforward_voltage;
 
+        public void set(double left_velocity, double right_velocity, double left_accel, double right_accel,
+                        double left_feedforward_voltage, double right_feedforward_voltage) {
+            this.left_velocity = left_velocity;
+            this.right_velocity = right_velocity;
+            this.left_accel = left_accel;
+            this.right_accel = right_accel;
+            this.left_feedforward_voltage = left_feedforward_voltage;
+            this.right_feedforward_voltage = right_feedforward_voltage;
+        }
+
         public void flip() {
             double tmp_left_velocity = left_velocity;
             left_velocity = -right_velocity;
@@ -190,16 +320,48 @@ public class DriveMotionPlanner implements CSVWritable {
         }
     }
 
-    protected Output updatePID(DifferentialDrive.DriveDynamics dynamics, Pose2d current_state) {
-        DifferentialDrive.ChassisState adjusted_velocity = new DifferentialDrive.ChassisState();
+    /**
+     * Feedforward dynamics for a setpoint, solved into scratch state.  Both followers start from this.
+     */
+    protected DifferentialDrive.DriveDynamics solveFeedforward(double velocity, double curvature,
+                                                               double dcurvature_ds, double acceleration) {
+        final double velocity_m = Units.inches_to_meters(velocity);
+        final double curvature_m = Units.meters_to_inches(curvature);
+        final double dcurvature_ds_m = Units.meters_to_inches(Units.meters_to_inches(dcurvature_ds));
+        final double acceleration_m = Units.inches_to_meters(acceleration);
+        mScratchVelocity.linear = velocity_m;
+        mScratchVelocity.angular = velocity_m * curvature_m;
+        mScratchAcceleration.linear = acceleration_m;
+        mScratchAcceleration.angular = acceleration_m * curvature_m + velocity_m * velocity_m * dcurvature_ds_m;
+        return mModel.solveInverseDynamics(mScratchVelocity, mScratchAcceleration, mScratchDynamics);
+    }
+
+    /**
+     * Applies the FEEDFORWARD_ONLY, PID or NONLINEAR_FEEDBACK law to the feedforward dynamics and the current error
+     * (mScratchError), writing the result into out.  PURE_PURSUIT is handled by update(double, Pose2d) alone.
+     */
+    protected Output updateFeedback(DifferentialDrive.DriveDynamics dynamics, Output out) {
+        if (mFollowerType == FollowerType.PID) {
+            return updatePID(dynamics, out);
+        } else if (mFollowerType == FollowerType.NONLINEAR_FEEDBACK) {
+            return updateNonlinearFeedback(dynamics, out);
+        }
+        out.set(dynamics.wheel_velocity.left, dynamics.wheel_velocity.right, dynamics.wheel_acceleration.left,
+                dynamics.wheel_acceleration.right, dynamics.voltage.left, dynamics.voltage.right);
+        return out;
+    }
+
+    protected Output updatePID(DifferentialDrive.DriveDynamics dynamics, Output out) {
+        final DifferentialDrive.ChassisState adjusted_velocity = mScratchVelocity;
         // Feedback on longitudinal error (distance).
         final double kPathKX = 5.0;
         final double kPathKY = 1.0;
         final double kPathKTheta = 5.0;
         adjusted_velocity.linear = dynamics.chassis_velocity.linear + kPathKX * Units.inches_to_meters
-                (mError.getTranslation().x());
+                (mScratchError.getTranslation().x());
         adjusted_velocity.angular = dynamics.chassis_velocity.angular + dynamics.chassis_velocity.linear * kPathKY *
-                Units.inches_to_meters(mError.getTranslation().y()) + kPathKTheta * mError.getRotation().getRadians();
+                Units.inches_to_meters(mScratchError.getTranslation().y()) + kPathKTheta * mScratchError.getRotation()
+                .getRadians();
 
         double curvature = adjusted_velocity.angular / adjusted_velocity.linear;
         if (Double.isInfinite(curvature)) {
@@ -208,16 +370,19 @@ public class DriveMotionPlanner implements CSVWritable {
         }
 
         // Compute adjusted left and right wheel velocities.
-        final DifferentialDrive.WheelState wheel_velocities = mModel.solveInverseKinematics(adjusted_velocity);
+        final DifferentialDrive.WheelState wheel_velocities = mModel.solveInverseKinematics(adjusted_velocity,
+                mScratchWheelVelocity);
         final double left_voltage = dynamics.voltage.left + (wheel_velocities.left - dynamics.wheel_velocity
                 .left) / mModel.left_transmission().speed_per_volt();
         final double right_voltage = dynamics.voltage.right + (wheel_velocities.right - dynamics.wheel_velocity
                 .right) / mModel.right_transmission().speed_per_volt();
 
-        return new Output(wheel_velocities.left, wheel_velocities.right, dynamics.wheel_acceleration.left, dynamics
+        out.set(wheel_velocities.left, wheel_velocities.right, dynamics.wheel_acceleration.left, dynamics
                 .wheel_acceleration.right, left_voltage, right_voltage);
+        return out;
     }
 
+    // Allocates: the lookahead search previews the generic trajectory and builds an arc every tick.
     protected Output updatePurePursuit(DifferentialDrive.DriveDynamics dynamics, Pose2d current_state) {
         double lookahead_time = CalConstants.kPathLookaheadTime;
         final double kLookaheadSearchDt = 0.01;
@@ -237,7 +402,7 @@ public class DriveMotionPlanner implements CSVWritable {
                     , lookahead_state.velocity(), lookahead_state.acceleration());
         }
 
-        DifferentialDrive.ChassisState adjusted_velocity = new DifferentialDrive.ChassisState();
+        final DifferentialDrive.ChassisState adjusted_velocity = mScratchVelocity;
         // Feedback on longitudinal error (distance).
         adjusted_velocity.linear = dynamics.chassis_velocity.linear + CalConstants.kPathKX * Units.inches_to_meters
                 (mError.getTranslation().x());
@@ -254,13 +419,14 @@ public class DriveMotionPlanner implements CSVWritable {
             adjusted_velocity.angular = curvature * dynamics.chassis_velocity.linear;
         }
 
-        dynamics.chassis_velocity = adjusted_velocity;
-        dynamics.wheel_velocity = mModel.solveInverseKinematics(adjusted_velocity);
+        dynamics.chassis_velocity.linear = adjusted_velocity.linear;
+        dynamics.chassis_velocity.angular = adjusted_velocity.angular;
+        mModel.solveInverseKinematics(adjusted_velocity, dynamics.wheel_velocity);
         return new Output(dynamics.wheel_velocity.left, dynamics.wheel_velocity.right, dynamics.wheel_acceleration
                 .left, dynamics.wheel_acceleration.right, dynamics.voltage.left, dynamics.voltage.right);
     }
 
-    protected Output updateNonlinearFeedback(DifferentialDrive.DriveDynamics dynamics, Pose2d current_state) {
+    protected Output updateNonlinearFeedback(DifferentialDrive.DriveDynamics dynamics, Output out) {
         // Implements eqn. 5.12 from https://www.dis.uniroma1.it/~labrob/pub/papers/Ramsete01.pdf
         final double kBeta =  2.0;//2.0;  // >0.
         final double kZeta = 0.7;//0.7;  // Damping coefficient, [0, 1].
@@ -270,36 +436,43 @@ public class DriveMotionPlanner implements CSVWritable {
                 .linear + dynamics.chassis_velocity.angular * dynamics.chassis_velocity.angular);
 
         // Compute error components.
-        final double angle_error_rads = mError.getRotation().getRadians();
+        final double angle_error_rads = mScratchError.getRotation().getRadians();
         final double sin_x_over_x = Util.epsilonEquals(angle_error_rads, 0.0, 1E-2) ?
-                1.0 : mError.getRotation().sin() / angle_error_rads;
-        final DifferentialDrive.ChassisState adjusted_velocity = new DifferentialDrive.ChassisState(
-                dynamics.chassis_velocity.linear * mError.getRotation().cos() +
-                        k * Units.inches_to_meters(mError.getTranslation().x()),
-                dynamics.chassis_velocity.angular + k * angle_error_rads +
-                        dynamics.chassis_velocity.linear * kBeta * sin_x_over_x * Units.inches_to_meters(mError
-                                .getTranslation().y()));
+                1.0 : mScratchError.getRotation().sin() / angle_error_rads;
+        final double adjusted_linear = dynamics.chassis_velocity.linear * mScratchError.getRotation().cos() +
+                k * Units.inches_to_meters(mScratchError.getTranslation().x());
+        final double adjusted_angular = dynamics.chassis_velocity.angular + k * angle_error_rads +
+                dynamics.chassis_velocity.linear * kBeta * sin_x_over_x * Units.inches_to_meters(mScratchError
+                        .getTranslation().y());
 
         // Compute adjusted left and right wheel velocities.
-        dynamics.chassis_velocity = adjusted_velocity;
-        dynamics.wheel_velocity = mModel.solveInverseKinematics(adjusted_velocity);
+        dynamics.chassis_velocity.linear = adjusted_linear;
+        dynamics.chassis_velocity.angular = adjusted_angular;
+        mModel.solveInverseKinematics(dynamics.chassis_velocity, dynamics.wheel_velocity);
 
         dynamics.chassis_acceleration.linear = mDt == 0 ? 0.0 : (dynamics.chassis_velocity.linear - prev_velocity_
                 .linear) / mDt;
         dynamics.chassis_acceleration.angular = mDt == 0 ? 0.0 : (dynamics.chassis_velocity.angular - prev_velocity_
                 .angular) / mDt;
 
-        prev_velocity_ = dynamics.chassis_velocity;
+        prev_velocity_.linear = dynamics.chassis_velocity.linear;
+        prev_velocity_.angular = dynamics.chassis_velocity.angular;
 
-        DifferentialDrive.WheelState feedforward_voltages = mModel.solveInverseDynamics(dynamics.chassis_velocity,
-                dynamics.chassis_acceleration).voltage;
+        final DifferentialDrive.WheelState feedforward_voltages = mModel.solveInverseDynamics(dynamics
+                .chassis_velocity, dynamics.chassis_acceleration, mScratchFeedforwardDynamics).voltage;
 
-        return new Output(dynamics.wheel_velocity.left, dynamics.wheel_velocity.right, dynamics.wheel_acceleration
-                .left, dynamics.wheel_acceleration.right, feedforward_voltages.left, feedforward_voltages.right);
+        out.set(dynamics.wheel_velocity.left, dynamics.wheel_velocity.right, dynamics.wheel_acceleration.left,
+                dynamics.wheel_acceleration.right, feedforward_voltages.left, feedforward_voltages.right);
+        return out;
     }
 
     public Output update(double timestamp, Pose2d current_state) {
         if (mCurrentTrajectory == null) return new Output();
+        if (mPackedTrajectory != null) {
+            return updateAllocationFree(timestamp, current_state.getTranslation().x(),
+                    current_state.getTranslation().y(), current_state.getRotation().cos(),
+                    current_state.getRotation().sin());
+        }
 
         if (mCurrentTrajectory.getProgress() == 0.0 && !Double.isFinite(mLastTime)) {
             mLastTime = timestamp;
@@ -312,27 +485,15 @@ public class DriveMotionPlanner implements CSVWritable {
 
         if (!mCurrentTrajectory.isDone()) {
             // Generate feedforward voltages.
-            final double velocity_m = Units.inches_to_meters(mSetpoint.velocity());
-            final double curvature_m = Units.meters_to_inches(mSetpoint.state().getCurvature());
-            final double dcurvature_ds_m = Units.meters_to_inches(Units.meters_to_inches(mSetpoint.state()
-                    .getDCurvatureDs()));
-            final double acceleration_m = Units.inches_to_meters(mSetpoint.acceleration());
-            final DifferentialDrive.DriveDynamics dynamics = mModel.solveInverseDynamics(
-                    new DifferentialDrive.ChassisState(velocity_m, velocity_m * curvature_m),
-                    new DifferentialDrive.ChassisState(acceleration_m,
-                            acceleration_m * curvature_m + velocity_m * velocity_m * dcurvature_ds_m));
+            final DifferentialDrive.DriveDynamics dynamics = solveFeedforward(mSetpoint.velocity(),
+                    mSetpoint.state().getCurvature(), mSetpoint.state().getDCurvatureDs(), mSetpoint.acceleration());
             mError = current_state.inverse().transformBy(mSetpoint.state().getPose());
+            mScratchError.set(mError);
 
-            if (mFollowerType == FollowerType.FEEDFORWARD_ONLY) {
-                mOutput = new Output(dynamics.wheel_velocity.left, dynamics.wheel_velocity.right, dynamics
-                        .wheel_acceleration.left, dynamics.wheel_acceleration.right, dynamics.voltage
-                        .left, dynamics.voltage.right);
-            } else if (mFollowerType == FollowerType.PURE_PURSUIT) {
+            if (mFollowerType == FollowerType.PURE_PURSUIT) {
                 mOutput = updatePurePursuit(dynamics, current_state);
-            } else if (mFollowerType == FollowerType.PID) {
-                mOutput = updatePID(dynamics, current_state);
-            } else if (mFollowerType == FollowerType.NONLINEAR_FEEDBACK) {
-                mOutput = updateNonlinearFeedback(dynamics, current_state);
+            } else {
+                mOutput = updateFeedback(dynamics, new Output());
             }
         } else {
             // TODO Possibly switch to a pose stabilizing controller?
@@ -341,15 +502,91 @@ public class DriveMotionPlanner implements CSVWritable {
         return mOutput;
     }
 
+    /**
+     * Same as update(double, Pose2d), but takes the robot pose as a MutablePose2d so that callers which keep their pose
+     * in place (e.g. RobotState.getFieldToVehicle(double, MutablePose2d)) do not allocate one every tick.
+     */
+    public Output update(double timestamp, MutablePose2d current_state) {
+        if (mCurrentTrajectory == null) return new Output();
+        if (mPackedTrajectory != null) {
+            return updateAllocationFree(timestamp, current_state.getTranslation().x(),
+                    current_state.getTranslation().y(), current_state.getRotation().cos(),
+                    current_state.getRotation().sin());
+        }
+        return update(timestamp, current_state.toPose2d());
+    }
+
+    // update() over the packed trajectory: samples the setpoint and computes the error in place, then runs the same
+    // feedback as the default follower into mScratchOutput.  The robot pose is passed as its components so that
+    // neither Pose2d nor MutablePose2d callers need to convert.  Never sees PURE_PURSUIT; see setFollowerType().
+    protected Output updateAllocationFree(double timestamp, double x, double y, double cos, double sin) {
+        if (mPackedProgress == 0.0 && !Double.isFinite(mLastTime)) {
+            mLastTime = timestamp;
+        }
+
+        mDt = timestamp - mLastTime;
+        mLastTime = timestamp;
+        mPackedProgress = Math.max(mPackedTrajectory.first_t(),
+                Math.min(mPackedTrajectory.last_t(), mPackedProgress + mDt));
+        mPackedTrajectory.sample(mPackedProgress, mPackedSetpoint.index_floor, mPackedSetpoint);
+        final PackedTimedTrajectory.Sample setpoint = mPackedSetpoint;
+
+        if (isDone()) {
+            mScratchOutput.set(0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+            mOutput = mScratchOutput;
+            return mOutput;
+        }
+
+        // Generate feedforward voltages.
+        final DifferentialDrive.DriveDynamics dynamics = solveFeedforward(setpoint.velocity, setpoint.curvature,
+                setpoint.dcurvature_ds, setpoint.acceleration);
+
+        // mError = current_state.inverse().transformBy(setpoint pose)
+        mScratchError.set(x, y, cos, sin).inverseInPlace()
+                .transformByInPlace(setpoint.x, setpoint.y, setpoint.cos, setpoint.sin);
+
+        mOutput = updateFeedback(dynamics, mScratchOutput);
+        return mOutput;
+    }
+
     public boolean isDone() {
+        if (mPackedTrajectory != null) {
+            return Math.max(0.0, mPackedTrajectory.last_t() - mPackedProgress) == 0.0;
+        }
         return mCurrentTrajectory != null && mCurrentTrajectory.isDone();
     }
 
     public Pose2d error() {
+        if (mPackedTrajectory != null) {
+            return mScratchError.toPose2d();
+        }
         return mError;
     }
 
     public TimedState<Pose2dWithCurvature> setpoint() {
+        if (mPackedTrajectory != null) {
+            return mPackedSetpoint.toTimedState();
+        }
         return mSetpoint;
     }
+
+    /**
+     * As error(), but copies the error into out instead of allocating.
+     */
+    public MutablePose2d error(final MutablePose2d out) {
+        if (mPackedTrajectory != null) {
+            return out.set(mScratchError);
+        }
+        return out.set(mError);
+    }
+
+    /**
+     * As setpoint(), but copies the setpoint into out instead of allocating.
+     */
+    public PackedTimedTrajectory.Sample setpoint(final PackedTimedTrajectory.Sample out) {
+        if (mPackedTrajectory != null) {
+            return out.set(mPackedSetpoint);
+        }
+        return out.set(mSetpoint);
+    }
 }
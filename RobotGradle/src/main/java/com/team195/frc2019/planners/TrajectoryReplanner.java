@@ -0,0 +1,231 @@
+package com.team195.frc2019.planners;
+
+import com.team195.frc2019.reporters.ConsoleReporter;
+import com.team195.frc2019.reporters.MessageLevel;
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Pose2dWithCurvature;
+import com.team254.lib.trajectory.Trajectory;
+import com.team254.lib.trajectory.timing.TimedState;
+import com.team254.lib.trajectory.timing.TimingConstraint;
+import com.team254.lib.util.Util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/**
+ * Regenerates trajectories from the robot's current pose and velocity on a background thread, e.g. after the robot has
+ * been pushed off its precomputed path.  Every request carries a hard time budget and a fallback trajectory: if
+ * generation fails or misses the deadline, the fallback is used instead and the late result is discarded.  Generation
+ * checks its deadline as it time-parameterizes each state, so a request that has missed it stops there instead of
+ * holding up the next one on the (single) generation thread.
+ */
+public class TrajectoryReplanner {
+    private static TrajectoryReplanner mInstance = new TrajectoryReplanner();
+
+    public static TrajectoryReplanner getInstance() {
+        return mInstance;
+    }
+
+    // Not shared with TrajectoryGenerator so that re-planning never waits on, or disturbs, another generator.
+    private final DriveMotionPlanner mMotionPlanner = new DriveMotionPlanner();
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor((r) -> {
+        Thread thread = new Thread(r, "TrajectoryReplanner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongSupplier mClock;
+
+    public TrajectoryReplanner() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * @param clock Monotonic time (ns) that budgets are measured against.
+     */
+    TrajectoryReplanner(final LongSupplier clock) {
+        mClock = clock;
+    }
+
+    /**
+     * Re-plan to the end of fallback, in the same direction, starting from current_pose.
+     *
+     * @param current_pose The robot's pose on the field.
+     * @param current_vel  The robot's linear velocity (inches/s).  Only the magnitude is used.
+     * @param budget       Maximum time to wait for the new trajectory (s).
+     */
+    public Plan replan(
+            final Pose2d current_pose,
+            double current_vel,
+            final Trajectory<TimedState<Pose2dWithCurvature>> fallback,
+            final List<TimingConstraint<Pose2dWithCurvature>> constraints,
+            double max_vel,  // inches/s
+            double max_accel,  // inches/s^2
+            double max_voltage,
+            double budget) {
+        final List<Pose2d> waypoints = new ArrayList<>(2);
+        waypoints.add(current_pose);
+        waypoints.add(fallback.getLastState().state().getPose());
+        return replan(isReversed(fallback), waypoints, current_vel, fallback, constraints, max_vel, max_accel,
+                max_voltage, budget);
+    }
+
+    /**
+     * Re-plan through waypoints, whose first element should be the robot's current pose.
+     *
+     * @param current_vel The robot's linear velocity (inches/s).  Only the magnitude is used.
+     * @param budget      Maximum time to wait for the new trajectory (s).
+     */
+    public Plan replan(
+            boolean reversed,
+            final List<Pose2d> waypoints,
+            double current_vel,
+            final Trajectory<TimedState<Pose2dWithCurvature>> fallback,
+            final List<TimingConstraint<Pose2dWithCurvature>> constraints,
+            double max_vel,  // inches/s
+            double max_accel,  // inches/s^2
+            double max_voltage,
+            double budget) {
+        final long deadline = mClock.getAsLong() + (long) (budget * 1e9);
+        final double start_vel = Math.min(Math.abs(current_vel), max_vel);
+        final List<Pose2d> waypoints_copy = new ArrayList<>(waypoints);
+        final List<TimingConstraint<Pose2dWithCurvature>> constraints_with_deadline = new ArrayList<>();
+        if (constraints != null) {
+            constraints_with_deadline.addAll(constraints);
+        }
+        constraints_with_deadline.add(new DeadlineConstraint(mClock, deadline));
+        final Future<Trajectory<TimedState<Pose2dWithCurvature>>> future = mExecutor.submit(() ->
+                mMotionPlanner.generateTrajectory(reversed, waypoints_copy, constraints_with_deadline, start_vel, 0.0,
+                        max_vel, max_accel, max_voltage));
+        return new Plan(future, fallback, mClock, deadline);
+    }
+
+    public static boolean isReversed(final Trajectory<TimedState<Pose2dWithCurvature>> trajectory) {
+        for (int i = 0; i < trajectory.length(); ++i) {
+            if (trajectory.getState(i).velocity() > Util.kEpsilon) {
+                return false;
+            } else if (trajectory.getState(i).velocity() < -Util.kEpsilon) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Places no limits, but stops time parameterization (which evaluates every constraint at every state) once the plan
+     * has been given up on or its deadline has passed.
+     */
+    private static class DeadlineConstraint implements TimingConstraint<Pose2dWithCurvature> {
+        private final LongSupplier mClock;
+        private final long mDeadline;
+
+        DeadlineConstraint(final LongSupplier clock, long deadline) {
+            mClock = clock;
+            mDeadline = deadline;
+        }
+
+        @Override
+        public double getMaxVelocity(Pose2dWithCurvature state) {
+            if (Thread.currentThread().isInterrupted() || mClock.getAsLong() - mDeadline >= 0) {
+                throw new CancellationException("Trajectory re-plan abandoned");
+            }
+            return Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public MinMaxAcceleration getMinMaxAcceleration(Pose2dWithCurvature state, double velocity) {
+            return MinMaxAcceleration.kNoLimits;
+        }
+    }
+
+    /**
+     * A pending re-plan.  Resolves exactly once, to either the new trajectory or the fallback.
+     */
+    public static class Plan {
+        private final Future<Trajectory<TimedState<Pose2dWithCurvature>>> mFuture;
+        private final Trajectory<TimedState<Pose2dWithCurvature>> mFallback;
+        private final LongSupplier mClock;
+        private final long mDeadline;
+        private Trajectory<TimedState<Pose2dWithCurvature>> mResult = null;
+        private boolean mUsedFallback = false;
+
+        Plan(final Future<Trajectory<TimedState<Pose2dWithCurvature>>> future,
+             final Trajectory<TimedState<Pose2dWithCurvature>> fallback, final LongSupplier clock, long deadline) {
+            mFuture = future;
+            mFallback = fallback;
+            mClock = clock;
+            mDeadline = deadline;
+        }
+
+        /**
+         * The resolved trajectory, or null if generation is still running and the deadline has not passed.  Never
+         * blocks.
+         */
+        public synchronized Trajectory<TimedState<Pose2dWithCurvature>> poll() {
+            if (mResult == null) {
+                if (mFuture.isDone()) {
+                    resolve(0);
+                } else if (mClock.getAsLong() - mDeadline >= 0) {
+                    giveUp("Trajectory re-plan missed its deadline, using stored path");
+                }
+            }
+            return mResult;
+        }
+
+        /**
+         * Wait until the deadline for the new trajectory.  Returns the fallback if it is not ready in time.
+         */
+        public synchronized Trajectory<TimedState<Pose2dWithCurvature>> get() {
+            if (mResult == null) {
+                resolve(Math.max(0, mDeadline - mClock.getAsLong()));
+            }
+            return mResult;
+        }
+
+        public synchronized boolean isResolved() {
+            return mResult != null;
+        }
+
+        /**
+         * Whether the plan resolved to the fallback.  Only meaningful once resolved.
+         */
+        public synchronized boolean usedFallback() {
+            return mUsedFallback;
+        }
+
+        private void resolve(long timeout_ns) {
+            try {
+                final Trajectory<TimedState<Pose2dWithCurvature>> trajectory = mFuture.get(timeout_ns,
+                        TimeUnit.NANOSECONDS);
+                if (trajectory == null || trajectory.isEmpty()) {
+                    giveUp("Trajectory re-plan produced no trajectory, using stored path");
+                } else {
+                    mResult = trajectory;
+                }
+            } catch (TimeoutException e) {
+                giveUp("Trajectory re-plan missed its deadline, using stored path");
+            } catch (ExecutionException | CancellationException e) {
+                giveUp("Trajectory re-plan failed, using stored path: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                giveUp("Trajectory re-plan interrupted, using stored path");
+            }
+        }
+
+        private void giveUp(String reason) {
+            // Skips the job if it has not started, or stops it at its next deadline check.
+            mFuture.cancel(true);
+            mResult = mFallback;
+            mUsedFallback = true;
+            ConsoleReporter.report(reason, MessageLevel.WARNING);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.team195.frc2019.simulation;
+
+import com.team195.frc2019.auto.AutoModeBase;
+import com.team195.frc2019.auto.actions.Action;
+import com.team195.frc2019.loops.SimulatedLooper;
+import com.team195.lib.util.FastDoubleToString;
+import com.team195.lib.util.TimeSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Runs an auto mode to completion on the virtual clock of a SimulatedLooper, as fast as the CPU allows. Between
+ * action updates the looper is stepped by the mode's update rate instead of sleeping, and time based actions read the
+ * looper's clock through TimeSource. Reports the total auto time, when each top level action started and finished, and
+ * the path tracking error.
+ *
+ * To replay one of the robot's modes, run it on a SimulatedRobot, which runs the real subsystems that its actions
+ * command.
+ */
+public class AutoModeReplay {
+	private final SimulatedLooper mLooper;
+	private final DoubleSupplier mTrackingError;
+
+	public AutoModeReplay(SimulatedLooper looper) {
+		this(looper, null);
+	}
+
+	/**
+	 * Replay on robot's looper, sampling SimulatedRobot::getTrackingError.
+	 */
+	public AutoModeReplay(SimulatedRobot robot) {
+		this(robot.getLooper(), robot::getTrackingError);
+	}
+
+	/**
+	 * @param trackingError Path tracking error (inches) sampled after every looper step, e.g.
+	 *                      SimulatedRobot::getTrackingError, or NaN while no path is being followed. May be null.
+	 */
+	public AutoModeReplay(SimulatedLooper looper, DoubleSupplier trackingError) {
+		mLooper = looper;
+		mTrackingError = trackingError;
+	}
+
+	/**
+	 * Run mode until its routine finishes or timeout seconds of simulated time have passed. Starts the looper if it is
+	 * not already running. Blocks the calling thread.
+	 */
+	public synchronized Result run(AutoModeBase mode, double timeout) {
+		if (!mLooper.isRunning()) {
+			mLooper.start(mLooper.getTimestamp());
+		}
+
+		final Result result = new Result(getName(mode), mLooper.getTimestamp());
+		final double endTime = result.mStartTime + timeout;
+		final int stepsPerUpdate = Math.max(1, (int) Math.round(mode.getUpdateRate() / mLooper.kPeriod));
+		final Map<Action, ActionTiming> runningActions = new IdentityHashMap<>();
+
+		// A running SimulatedRobot has already installed its looper's clock.
+		final boolean installClock = !TimeSource.isSimulated();
+		if (installClock) {
+			TimeSource.setSimulatedClock(mLooper::getTimestamp);
+		}
+		mode.setUpdateStepper(() -> {
+			for (int i = 0; i < stepsPerUpdate; ++i) {
+				mLooper.step();
+				if (mTrackingError != null) {
+					final double trackingError = mTrackingError.getAsDouble();
+					if (!Double.isNaN(trackingError)) {
+						result.addTrackingError(trackingError);
+					}
+				}
+			}
+			if (mLooper.getTimestamp() >= endTime || !mLooper.isRunning()) {
+				result.mTimedOut = true;
+				mode.stop();
+			}
+		});
+		mode.setActionListener(new AutoModeBase.ActionListener() {
+			@Override
+			public void onActionStart(Action action) {
+				ActionTiming timing = new ActionTiming(getName(action), mLooper.getTimestamp() - result.mStartTime);
+				runningActions.put(action, timing);
+				result.mActionTimings.add(timing);
+			}
+
+			@Override
+			public void onActionDone(Action action) {
+				ActionTiming timing = runningActions.remove(action);
+				if (timing != null) {
+					timing.mEndTime = mLooper.getTimestamp() - result.mStartTime;
+					timing.mFinished = true;
+				}
+			}
+		});
+
+		final long wallStart = System.nanoTime();
+		try {
+			mode.run();
+		} finally {
+			mode.stop();
+			mode.setUpdateStepper(null);
+			mode.setActionListener(null);
+			if (installClock) {
+				TimeSource.clearSimulatedClock();
+			}
+		}
+		result.mWallTime = (System.nanoTime() - wallStart) / 1e9;
+		result.mTotalTime = mLooper.getTimestamp() - result.mStartTime;
+		for (ActionTiming timing : runningActions.values()) {
+			timing.mEndTime = result.mTotalTime;
+		}
+		return result;
+	}
+
+	private static String getName(Object o) {
+		String name = o.getClass().getSimpleName();
+		return name.isEmpty() ? o.getClass().getName() : name;
+	}
+
+	public static class ActionTiming {
+		private final String mName;
+		private final double mStartTime;
+		private double mEndTime = Double.NaN;
+		private boolean mFinished = false;
+
+		ActionTiming(String name, double startTime) {
+			mName = name;
+			mStartTime = startTime;
+		}
+
+		public String getName() {
+			return mName;
+		}
+
+		/**
+		 * Time the action started, relative to the start of the mode (s).
+		 */
+		public double getStartTime() {
+			return mStartTime;
+		}
+
+		/**
+		 * Time the action finished, or the mode was stopped, relative to the start of the mode (s).
+		 */
+		public double getEndTime() {
+			return mEndTime;
+		}
+
+		public double getDuration() {
+			return mEndTime - mStartTime;
+		}
+
+		/**
+		 * False if the mode timed out while the action was running.
+		 */
+		public boolean isFinished() {
+			return mFinished;
+		}
+
+		@Override
+		public String toString() {
+			return mName + ": " + FastDoubleToString.format(mStartTime) + " - " + FastDoubleToString.format(mEndTime) +
+					" (" + FastDoubleToString.format(getDuration()) + " s)" + (mFinished ? "" : " UNFINISHED");
+		}
+	}
+
+	public static class Result {
+		private final String mModeName;
+		private final double mStartTime;
+		private final List<ActionTiming> mActionTimings = new ArrayList<>();
+		private double mTotalTime = 0;
+		private double mWallTime = 0;
+		private boolean mTimedOut = false;
+		private int mNumTrackingSamples = 0;
+		private double mSumTrackingError = 0;
+		private double mMaxTrackingError = 0;
+
+		Result(String modeName, double startTime) {
+			mModeName = modeName;
+			mStartTime = startTime;
+		}
+
+		private void addTrackingError(double error) {
+			++mNumTrackingSamples;
+			mSumTrackingError += error;
+			mMaxTrackingError = Math.max(mMaxTrackingError, error);
+		}
+
+		public String getModeName() {
+			return mModeName;
+		}
+
+		/**
+		 * Simulated time taken by the mode (s).
+		 */
+		public double getTotalTime() {
+			return mTotalTime;
+		}
+
+		/**
+		 * Real time taken to simulate the mode (s).
+		 */
+		public double getWallTime() {
+			return mWallTime;
+		}
+
+		/**
+		 * True if the mode's routine ran to the end before the timeout.
+		 */
+		public boolean isCompleted() {
+			return !mTimedOut;
+		}
+
+		public List<ActionTiming> getActionTimings() {
+			return Collections.unmodifiableList(mActionTimings);
+		}
+
+		/**
+		 * Number of looper steps that were following a path, and so sampled the tracking error.
+		 */
+		public int getNumTrackingSamples() {
+			return mNumTrackingSamples;
+		}
+
+		/**
+		 * Mean path tracking error over the looper steps that were following a path (inches).
+		 */
+		public double getMeanTrackingError() {
+			return mNumTrackingSamples == 0 ? 0 : mSumTrackingError / mNumTrackingSamples;
+		}
+
+		/**
+		 * Largest path tracking error (inches).
+		 */
+		public double getMaxTrackingError() {
+			return mMaxTrackingError;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			sb.append(mModeName).append(isCompleted() ? "" : " (TIMED OUT)").append(": ")
+					.append(FastDoubleToString.format(mTotalTime)).append(" s, simulated in ")
+					.append(FastDoubleToString.format(mWallTime)).append(" s, tracking error mean ")
+					.append(FastDoubleToString.format(getMeanTrackingError())).append(" in, max ")
+					.append(FastDoubleToString.format(mMaxTrackingError)).append(" in");
+			for (ActionTiming timing : mActionTimings) {
+				sb.append("\n\t").append(timing);
+			}
+			return sb.toString();
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package com.team195.frc2019.simulation;
+
+import com.team195.frc2019.constants.CalConstants;
+import com.team195.frc2019.planners.DriveMotionPlanner;
+import com.team195.lib.drivers.SimIMU;
+import com.team195.lib.drivers.motorcontrol.SimMotorController;
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Twist2d;
+import com.team254.lib.physics.DifferentialDrive;
+import com.team254.lib.util.Units;
+
+/**
+ * Simulates the drivetrain for running drive code off the robot. Each update takes the voltages commanded by the left
+ * and right master controllers, solves the characterized DifferentialDrive model (the same one the DriveMotionPlanner
+ * plans against) and feeds the resulting motor positions and velocities and robot heading back into the simulated
+ * controllers and IMU.
+ */
+public class DriveSimulator {
+	private final SimMotorController mLeftMaster;
+	private final SimMotorController mRightMaster;
+	private final SimIMU mIMU;
+	private final DifferentialDrive mModel;
+	private final double mGearRatio;
+	private SimMotorController mLeftEncoder = null;
+	private SimMotorController mRightEncoder = null;
+
+	private final DifferentialDrive.WheelState mWheelVelocity = new DifferentialDrive.WheelState();  // rad/s
+	private final DifferentialDrive.WheelState mWheelPosition = new DifferentialDrive.WheelState();  // rad
+	private final DifferentialDrive.WheelState mVoltage = new DifferentialDrive.WheelState();  // V
+	private Pose2d mPose = Pose2d.identity();
+
+	public DriveSimulator(SimMotorController leftMaster, SimMotorController rightMaster, SimIMU imu) {
+		this(leftMaster, rightMaster, imu, DriveMotionPlanner.createDriveModel(),
+				CalConstants.kDriveGearRatioMotorConversionFactor);
+	}
+
+	/**
+	 * @param gearRatio Motor rotations per wheel rotation
+	 */
+	public DriveSimulator(SimMotorController leftMaster, SimMotorController rightMaster, SimIMU imu,
+	                      DifferentialDrive model, double gearRatio) {
+		mLeftMaster = leftMaster;
+		mRightMaster = rightMaster;
+		mIMU = imu;
+		mModel = model;
+		mGearRatio = gearRatio;
+	}
+
+	/**
+	 * Also feed the wheel positions (rotations) and velocities (RPM) into these controllers, i.e. the controllers the
+	 * drive encoders are wired to.
+	 */
+	public synchronized void setWheelEncoders(SimMotorController leftEncoder, SimMotorController rightEncoder) {
+		mLeftEncoder = leftEncoder;
+		mRightEncoder = rightEncoder;
+	}
+
+	/**
+	 * Run the motor controllers and integrate the drivetrain for dt seconds.
+	 */
+	public synchronized void update(double dt) {
+		mVoltage.left = mLeftMaster.calculateOutputVoltage(dt);
+		mVoltage.right = mRightMaster.calculateOutputVoltage(dt);
+
+		DifferentialDrive.DriveDynamics dynamics = mModel.solveForwardDynamics(mWheelVelocity, mVoltage);
+		mWheelVelocity.left = integrateVelocity(mWheelVelocity.left, dynamics.wheel_acceleration.left, mVoltage.left,
+				mModel.left_transmission().friction_voltage(), dt);
+		mWheelVelocity.right = integrateVelocity(mWheelVelocity.right, dynamics.wheel_acceleration.right,
+				mVoltage.right, mModel.right_transmission().friction_voltage(), dt);
+		mWheelPosition.left += mWheelVelocity.left * dt;
+		mWheelPosition.right += mWheelVelocity.right * dt;
+
+		DifferentialDrive.ChassisState chassis = mModel.solveForwardKinematics(mWheelVelocity);
+		mPose = mPose.transformBy(Pose2d.exp(new Twist2d(Units.meters_to_inches(chassis.linear) * dt, 0.0,
+				chassis.angular * dt)));
+
+		mLeftMaster.setSimulatedState(mWheelPosition.left / (2.0 * Math.PI) * mGearRatio,
+				Units.rads_per_sec_to_rpm(mWheelVelocity.left) * mGearRatio);
+		mRightMaster.setSimulatedState(mWheelPosition.right / (2.0 * Math.PI) * mGearRatio,
+				Units.rads_per_sec_to_rpm(mWheelVelocity.right) * mGearRatio);
+		mIMU.setSimulatedYaw(mPose.getRotation().getDegrees());
+		if (mLeftEncoder != null) {
+			mLeftEncoder.setSimulatedState(mWheelPosition.left / (2.0 * Math.PI),
+					Units.rads_per_sec_to_rpm(mWheelVelocity.left));
+			mRightEncoder.setSimulatedState(mWheelPosition.right / (2.0 * Math.PI),
+					Units.rads_per_sec_to_rpm(mWheelVelocity.right));
+		}
+	}
+
+	/**
+	 * Friction alone can stop a wheel but not reverse it.
+	 */
+	private static double integrateVelocity(double velocity, double acceleration, double voltage,
+	                                        double frictionVoltage, double dt) {
+		double newVelocity = velocity + acceleration * dt;
+		if (Math.abs(voltage) < frictionVoltage && Math.signum(newVelocity) != Math.signum(velocity)) {
+			return 0.0;
+		}
+		return newVelocity;
+	}
+
+	public synchronized void reset(Pose2d pose) {
+		mPose = pose;
+		mWheelVelocity.left = mWheelVelocity.right = 0.0;
+		mIMU.setSimulatedYaw(pose.getRotation().getDegrees());
+	}
+
+	/**
+	 * True pose of the robot on the field (inches).
+	 */
+	public synchronized Pose2d getPose() {
+		return mPose;
+	}
+
+	/**
+	 * Wheel velocities (rad/s).
+	 */
+	public synchronized DifferentialDrive.WheelState getWheelVelocity() {
+		return new DifferentialDrive.WheelState(mWheelVelocity.left, mWheelVelocity.right);
+	}
+
+	public SimMotorController getLeftMaster() {
+		return mLeftMaster;
+	}
+
+	public SimMotorController getRightMaster() {
+		return mRightMaster;
+	}
+
+	public SimIMU getIMU() {
+		return mIMU;
+	}
+}
@@ -0,0 +1,89 @@
+package com.team195.frc2019.simulation;
+
+import com.team195.lib.drivers.motorcontrol.SimMotorController;
+import com.team254.lib.physics.ControlledActuatorLinearSim;
+
+/**
+ * Simulates a mechanism positioned by one motor controller, e.g. the elevator, turret or ball intake arm. The motor is
+ * not modelled: the mechanism moves at a fixed speed toward the MotionMagic/Position setpoint, toward the end of travel
+ * in the direction of the output in open loop, and holds still otherwise. The resulting sensor state is fed back into
+ * the controller. Zeroing the controller's encoder moves the sensor origin, not the mechanism, as on the robot.
+ */
+public class SimulatedMechanism {
+	private static final double kLimitTolerance = 1e-6;
+
+	private final SimMotorController mMotor;
+	private final ControlledActuatorLinearSim mActuator;
+	private final double mMinPosition;
+	private final double mMaxPosition;
+
+	private double mPosition;
+	private double mSensorOffset = 0;
+	private double mLastSensorPosition;
+
+	/**
+	 * @param minPosition     Lower end of travel (rotations)
+	 * @param maxPosition     Upper end of travel (rotations)
+	 * @param velocity        Speed of travel (rotations/s)
+	 * @param initialPosition Position at startup, where the encoder reads zero (rotations)
+	 */
+	public SimulatedMechanism(SimMotorController motor, double minPosition, double maxPosition, double velocity,
+	                          double initialPosition) {
+		mMotor = motor;
+		mActuator = new ControlledActuatorLinearSim(minPosition, maxPosition, velocity);
+		mMinPosition = minPosition;
+		mMaxPosition = maxPosition;
+		reset(initialPosition);
+	}
+
+	public synchronized void reset(double position) {
+		mPosition = position;
+		mActuator.reset(position);
+		mSensorOffset = position;
+		mLastSensorPosition = 0;
+		mMotor.setSimulatedState(0, 0);
+	}
+
+	public synchronized void update(double dt) {
+		final double sensorPosition = mMotor.getPosition();
+		if (sensorPosition != mLastSensorPosition) {
+			// The encoder was set by the robot code.
+			mSensorOffset = mPosition - sensorPosition;
+		}
+
+		switch (mMotor.getMotionControlMode()) {
+			case Position:
+			case MotionMagic:
+				mActuator.setCommandedPosition(mMotor.getSetpoint() + mSensorOffset);
+				break;
+			case PercentOut:
+			case Voltage:
+				final double output = mMotor.getSetpoint();
+				mActuator.setCommandedPosition(output > 0 ? mMaxPosition : (output < 0 ? mMinPosition : mPosition));
+				break;
+			default:
+				mActuator.setCommandedPosition(mPosition);
+				break;
+		}
+
+		final double prevPosition = mPosition;
+		mPosition = mActuator.update(dt);
+		mLastSensorPosition = mPosition - mSensorOffset;
+		mMotor.setSimulatedState(mLastSensorPosition, (mPosition - prevPosition) / dt * 60.0);
+	}
+
+	/**
+	 * True position of the mechanism (rotations).
+	 */
+	public synchronized double getPosition() {
+		return mPosition;
+	}
+
+	public synchronized boolean isAtForwardLimit() {
+		return mPosition >= mMaxPosition - kLimitTolerance;
+	}
+
+	public synchronized boolean isAtReverseLimit() {
+		return mPosition <= mMinPosition + kLimitTolerance;
+	}
+}
@@ -0,0 +1,218 @@
+package com.team195.frc2019.simulation;
+
+import com.team195.frc2019.RobotState;
+import com.team195.frc2019.SubsystemManager;
+import com.team195.frc2019.auto.ActionScheduler;
+import com.team195.frc2019.constants.CalConstants;
+import com.team195.frc2019.constants.Constants;
+import com.team195.frc2019.constants.DeviceIDConstants;
+import com.team195.frc2019.controllers.LEDController;
+import com.team195.frc2019.loops.Loop;
+import com.team195.frc2019.loops.SimulatedLooper;
+import com.team195.frc2019.subsystems.BallIntakeArm;
+import com.team195.frc2019.subsystems.Drive;
+import com.team195.frc2019.subsystems.Elevator;
+import com.team195.frc2019.subsystems.RobotStateEstimator;
+import com.team195.frc2019.subsystems.Turret;
+import com.team195.frc2019.subsystems.positions.BallIntakeArmPositions;
+import com.team195.lib.drivers.LEDDriver;
+import com.team195.lib.drivers.SimIMU;
+import com.team195.lib.drivers.SimSolenoid;
+import com.team195.lib.drivers.motorcontrol.SimMotorController;
+import com.team195.lib.util.RGBColor;
+import com.team195.lib.util.TimeSource;
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.util.DriveSignal;
+
+/**
+ * The robot's subsystems running on simulated hardware. Drive, Elevator, BallIntakeArm and Turret are created on
+ * SimMotorControllers, SimSolenoids and a SimIMU, and their loops run through a SubsystemManager and the ActionScheduler
+ * as on the robot, but on a SimulatedLooper. After every loop a DriveSimulator moves the drivetrain and
+ * SimulatedMechanisms move the elevator, turret and ball intake arm.
+ * <p>
+ * The subsystems are singletons, so there is one simulated robot per JVM and it must be created before anything else
+ * calls their getInstance().
+ */
+public class SimulatedRobot {
+	private static SimulatedRobot mInstance = null;
+
+	/**
+	 * The simulated robot for this JVM. It is built on the subsystems' createInstance(), which only works once, so it
+	 * cannot be rebuilt and every caller, e.g. every test in a Gradle test JVM, shares the same robot. Each user should
+	 * start() it, reset() it, and stop() it when done. Subsystem state is not reset: a test that depends on where the
+	 * elevator, turret or ball intake arm are, or on their control modes, has to command them there first.
+	 */
+	public static synchronized SimulatedRobot getInstance() {
+		if (mInstance == null)
+			mInstance = new SimulatedRobot();
+		return mInstance;
+	}
+
+	private final SimulatedLooper mLooper = new SimulatedLooper("Simulation", Constants.kLooperDt);
+	private final DriveSimulator mDriveSimulator;
+	private final SimulatedMechanism mElevatorMechanism;
+	private final SimulatedMechanism mTurretMechanism;
+	private final SimulatedMechanism mBallIntakeArmMechanism;
+	private final SimMotorController mElevatorLimitSwitchMotor;
+	private final SimMotorController mBallArmRotationMotor;
+	private final SimMotorController mBallShooterRollerMotor;
+	private final Drive mDrive;
+
+	private boolean mHatchPresent = false;
+
+	private final Loop mPlantLoop = new Loop() {
+		@Override
+		public void onFirstStart(double timestamp) {
+		}
+
+		@Override
+		public void onStart(double timestamp) {
+		}
+
+		@Override
+		public void onLoop(double timestamp) {
+			updatePlant(mLooper.kPeriod);
+		}
+
+		@Override
+		public void onStop(double timestamp) {
+		}
+
+		@Override
+		public String getName() {
+			return "SimulatedPlant";
+		}
+	};
+
+	private SimulatedRobot() {
+		LEDController.createInstance(new LEDDriver() {
+			@Override
+			public void set(boolean on) {
+			}
+
+			@Override
+			public void setLEDColor(RGBColor rgbColor) {
+			}
+		});
+
+		SimMotorController leftDriveEncoder = SimMotorController.create775Pro(DeviceIDConstants.kElevatorSlaveALeftId, 0);
+		SimMotorController rightDriveEncoder = SimMotorController.create775Pro(DeviceIDConstants.kElevatorSlaveBRightId, 0);
+		SimMotorController elevatorMaster = SimMotorController.create775Pro(DeviceIDConstants.kElevatorMasterLeftId, 0);
+		mElevatorLimitSwitchMotor = SimMotorController.create775Pro(DeviceIDConstants.kElevatorSlaveCRightId, 0);
+		Elevator.createInstance(new Elevator.Hardware(elevatorMaster, leftDriveEncoder, rightDriveEncoder,
+				mElevatorLimitSwitchMotor));
+		mElevatorMechanism = new SimulatedMechanism(elevatorMaster, CalConstants.kElevatorPositionReverseSoftLimit,
+				CalConstants.kElevatorPositionForwardSoftLimit, CalConstants.kElevatorPositionCruiseVel / 60.0, 0);
+
+		mBallArmRotationMotor = SimMotorController.create775Pro(DeviceIDConstants.kBallIntakeRotationMotorId, 0);
+		BallIntakeArm.createInstance(new BallIntakeArm.Hardware(mBallArmRotationMotor,
+				SimMotorController.create775Pro(DeviceIDConstants.kBallIntakeRollerMotorId, 0), new SimSolenoid()));
+		// The arm starts up against its limit switch.
+		mBallIntakeArmMechanism = new SimulatedMechanism(mBallArmRotationMotor, BallIntakeArmPositions.Down, 0,
+				CalConstants.kBallIntakeArmUpPositionCruiseVel / 60.0, 0);
+
+		SimMotorController turretRotationMotor = SimMotorController.create775Pro(DeviceIDConstants.kTurretMotorId, 0);
+		mBallShooterRollerMotor = SimMotorController.create775Pro(DeviceIDConstants.kBallShooterMotorId, 0);
+		Turret.createInstance(new Turret.Hardware(turretRotationMotor, mBallShooterRollerMotor, new SimSolenoid(),
+				new SimSolenoid(), new SimSolenoid(), new SimSolenoid()));
+		mTurretMechanism = new SimulatedMechanism(turretRotationMotor, CalConstants.kTurretReverseSoftLimit,
+				CalConstants.kTurretForwardSoftLimit, CalConstants.kTurretPositionCruiseVel / 60.0, 0);
+
+		SimMotorController leftDriveMaster = SimMotorController.createNEO(DeviceIDConstants.kLeftDriveMasterId, 0);
+		SimMotorController rightDriveMaster = SimMotorController.createNEO(DeviceIDConstants.kRightDriveMasterId, 0);
+		SimIMU imu = new SimIMU();
+		mDrive = Drive.createInstance(new Drive.Hardware(leftDriveMaster,
+				SimMotorController.createNEO(DeviceIDConstants.kLeftDriveSlaveAId, 0),
+				SimMotorController.createNEO(DeviceIDConstants.kLeftDriveSlaveBId, 0),
+				rightDriveMaster,
+				SimMotorController.createNEO(DeviceIDConstants.kRightDriveSlaveAId, 0),
+				SimMotorController.createNEO(DeviceIDConstants.kRightDriveSlaveBId, 0),
+				new SimSolenoid(), imu));
+		mDriveSimulator = new DriveSimulator(leftDriveMaster, rightDriveMaster, imu);
+		mDriveSimulator.setWheelEncoders(leftDriveEncoder, rightDriveEncoder);
+
+		updateLimitSwitches();
+
+		SubsystemManager subsystemManager = SubsystemManager.createSimulated(RobotStateEstimator.getInstance(), mDrive,
+				Elevator.getInstance(), BallIntakeArm.getInstance(), Turret.getInstance());
+		subsystemManager.registerEnabledLoops(mLooper);
+		subsystemManager.register(ActionScheduler.getInstance());
+		mLooper.register(mPlantLoop);
+	}
+
+	/**
+	 * Start the loops, with TimeSource reading the looper's clock until stop().
+	 */
+	public synchronized void start() {
+		TimeSource.setSimulatedClock(mLooper::getTimestamp);
+		mLooper.start(mLooper.getTimestamp());
+	}
+
+	public synchronized void stop() {
+		mLooper.stop();
+		TimeSource.clearSimulatedClock();
+	}
+
+	/**
+	 * Place the robot at pose, stopped, with no hatch, and reset odometry to match.
+	 */
+	public synchronized void reset(Pose2d pose) {
+		mHatchPresent = false;
+		updateLimitSwitches();
+		mDriveSimulator.reset(pose);
+		mDrive.setOpenLoop(DriveSignal.NEUTRAL);
+		RobotState.getInstance().reset(mLooper.getTimestamp(), pose);
+	}
+
+	/**
+	 * Whether the hatch limit switch on the turret sees a hatch.
+	 */
+	public synchronized void setHatchPresent(boolean hatchPresent) {
+		mHatchPresent = hatchPresent;
+	}
+
+	private synchronized void updatePlant(double dt) {
+		mDriveSimulator.update(dt);
+		mElevatorMechanism.update(dt);
+		mTurretMechanism.update(dt);
+		mBallIntakeArmMechanism.update(dt);
+		updateLimitSwitches();
+	}
+
+	private void updateLimitSwitches() {
+		mElevatorLimitSwitchMotor.setSimulatedLimits(false, mElevatorMechanism.isAtReverseLimit());
+		mBallArmRotationMotor.setSimulatedLimits(mBallIntakeArmMechanism.isAtForwardLimit(), false);
+		// The switch is open while there is a hatch in the beak.
+		mBallShooterRollerMotor.setSimulatedLimits(false, !mHatchPresent);
+	}
+
+	/**
+	 * Distance between the true pose of the robot and the Drive's path setpoint (inches), or NaN when not following a
+	 * path, including once the Drive has finished its path but is still holding it.
+	 */
+	public synchronized double getTrackingError() {
+		if (mDrive.getDriveControlState() != Drive.DriveControlState.PATH_FOLLOWING || mDrive.isDoneWithTrajectory())
+			return Double.NaN;
+		return mDriveSimulator.getPose().getTranslation().distance(mDrive.getPathSetpoint().getTranslation());
+	}
+
+	public SimulatedLooper getLooper() {
+		return mLooper;
+	}
+
+	public DriveSimulator getDriveSimulator() {
+		return mDriveSimulator;
+	}
+
+	public SimulatedMechanism getElevatorMechanism() {
+		return mElevatorMechanism;
+	}
+
+	public SimulatedMechanism getTurretMechanism() {
+		return mTurretMechanism;
+	}
+
+	public SimulatedMechanism getBallIntakeArmMechanism() {
+		return mBallIntakeArmMechanism;
+	}
+}
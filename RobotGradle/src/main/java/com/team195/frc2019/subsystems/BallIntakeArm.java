@@ -18,24 +18,26 @@ import com.team195.frc2019.subsystems.positions.BallIntakeArmPositions;
 import com.team195.frc2019.subsystems.positions.ElevatorPositions;
 import com.team195.frc2019.subsystems.positions.TurretPositions;
 import com.team195.lib.drivers.CKSolenoid;
+import com.team195.lib.drivers.SolenoidOutput;
 import com.team195.lib.drivers.motorcontrol.CKTalonSRX;
 import com.team195.lib.drivers.motorcontrol.MCControlMode;
 import com.team195.lib.drivers.motorcontrol.MCNeutralMode;
 import com.team195.lib.drivers.motorcontrol.PDPBreaker;
+import com.team195.lib.drivers.motorcontrol.TuneableMotorController;
 import com.team195.lib.util.*;
 
 import java.util.List;
 
 public class BallIntakeArm extends Subsystem implements InterferenceSystem {
 
-	private static BallIntakeArm mInstance = new BallIntakeArm();
+	private static BallIntakeArm mInstance = null;
 
-	private final CKTalonSRX mBallArmRotationMotor;
-	private final CKTalonSRX mBallArmRollerMotor;
+	private final TuneableMotorController mBallArmRotationMotor;
+	private final TuneableMotorController mBallArmRollerMotor;
 
 	private final MotionInterferenceChecker ballArmUpCheck;
 
-	private final CKSolenoid mBallIntakeBarDropSolenoid;
+	private final SolenoidOutput mBallIntakeBarDropSolenoid;
 
 	private BallIntakeArmControlMode mBallIntakeArmControlMode = BallIntakeArmControlMode.DISABLED;
 
@@ -47,28 +49,20 @@ public class BallIntakeArm extends Subsystem implements InterferenceSystem {
 
 	private boolean mBallIntakeBarClimbLatched = false;
 
-	private BallIntakeArm() {
+	private BallIntakeArm(Hardware hardware) {
 		mPeriodicIO = new PeriodicIO();
 
-		mBallArmRotationMotor = new CKTalonSRX(DeviceIDConstants.kBallIntakeRotationMotorId, false, PDPBreaker.B30A);
-		mBallArmRotationMotor.setSensorPhase(true);
+		mBallArmRotationMotor = hardware.ballArmRotationMotor;
 
-		mBallArmRollerMotor = new CKTalonSRX(DeviceIDConstants.kBallIntakeRollerMotorId, false, PDPBreaker.B30A);
-		mBallArmRollerMotor.setInverted(true);
-		mBallArmRollerMotor.setSensorPhase(true);
+		mBallArmRollerMotor = hardware.ballArmRollerMotor;
 		mBallArmRollerMotor.setMCOpenLoopRampRate(CalConstants.kBallArmRollerOpenLoopRamp);
-		mBallArmRollerMotor.configCurrentLimit(CalConstants.kBallArmRollerContinuousCurrentLimit, CalConstants.kBallArmRollerPeakCurrentThreshold, CalConstants.kBallArmRollerPeakCurrentThresholdExceedDuration);
 
 		mBallArmRotationMotor.setPIDGainSlot(0);
-		mBallArmRotationMotor.setFeedbackDevice(RemoteFeedbackDevice.RemoteSensor0, DeviceIDConstants.kBallIntakeRollerMotorId);
-		mBallArmRotationMotor.configForwardLimitSwitchSource(LimitSwitchSource.FeedbackConnector, LimitSwitchNormal.NormallyOpen);
 		mBallArmRotationMotor.setPIDF(CalConstants.kBallIntakeArmUpPositionKp, CalConstants.kBallIntakeArmUpPositionKi, CalConstants.kBallIntakeArmUpPositionKd, CalConstants.kBallIntakeArmUpPositionKf);
 		mBallArmRotationMotor.setMotionParameters(CalConstants.kBallIntakeArmUpPositionCruiseVel, CalConstants.kBallIntakeArmUpPositionMMAccel);
 		mBallArmRotationMotor.setPIDGainSlot(0);
 		zeroSensors();
-		mBallArmRotationMotor.configForwardSoftLimitEnable(false);
-		mBallArmRotationMotor.configReverseSoftLimitEnable(false);
-		mBallArmRotationMotor.configCurrentLimit(CalConstants.kBallArmRotationContinuousCurrentLimit, CalConstants.kBallArmRotationPeakCurrentThreshold, CalConstants.kBallArmRotationPeakCurrentThresholdExceedDuration);
+		mBallArmRotationMotor.disableSoftLimits();
 		mBallArmRotationMotor.setControlMode(MCControlMode.Disabled);
 		mBallArmRotationMotor.setBrakeCoastMode(MCNeutralMode.Brake);
 
@@ -85,14 +79,42 @@ public class BallIntakeArm extends Subsystem implements InterferenceSystem {
 						|| (Math.abs(Turret.getInstance().getPosition() - TurretPositions.Back180) < TurretPositions.PositionDelta))
 		);
 
-		mBallIntakeBarDropSolenoid = new CKSolenoid(DeviceIDConstants.kBallIntakeBarSolenoidId);
+		mBallIntakeBarDropSolenoid = hardware.ballIntakeBarDropSolenoid;
 
 		mBallIntakeArmEncoderPresent = new CachedValue<>(500, (t) -> mBallArmRollerMotor.isEncoderPresent());
 		mBallIntakeArmMasterHasReset = new CachedValue<>(500, (t) -> mBallArmRotationMotor.hasMotorControllerReset() != DiagnosticMessage.NO_MSG);
 
 	}
 
-	public static BallIntakeArm getInstance() {
+	private static Hardware createRobotHardware() {
+		CKTalonSRX ballArmRotationMotor = new CKTalonSRX(DeviceIDConstants.kBallIntakeRotationMotorId, false, PDPBreaker.B30A);
+		ballArmRotationMotor.setSensorPhase(true);
+
+		CKTalonSRX ballArmRollerMotor = new CKTalonSRX(DeviceIDConstants.kBallIntakeRollerMotorId, false, PDPBreaker.B30A);
+		ballArmRollerMotor.setInverted(true);
+		ballArmRollerMotor.setSensorPhase(true);
+		ballArmRollerMotor.configCurrentLimit(CalConstants.kBallArmRollerContinuousCurrentLimit, CalConstants.kBallArmRollerPeakCurrentThreshold, CalConstants.kBallArmRollerPeakCurrentThresholdExceedDuration);
+
+		ballArmRotationMotor.setFeedbackDevice(RemoteFeedbackDevice.RemoteSensor0, DeviceIDConstants.kBallIntakeRollerMotorId);
+		ballArmRotationMotor.configForwardLimitSwitchSource(LimitSwitchSource.FeedbackConnector, LimitSwitchNormal.NormallyOpen);
+		ballArmRotationMotor.configCurrentLimit(CalConstants.kBallArmRotationContinuousCurrentLimit, CalConstants.kBallArmRotationPeakCurrentThreshold, CalConstants.kBallArmRotationPeakCurrentThresholdExceedDuration);
+
+		return new Hardware(ballArmRotationMotor, ballArmRollerMotor, new CKSolenoid(DeviceIDConstants.kBallIntakeBarSolenoidId));
+	}
+
+	public static synchronized BallIntakeArm getInstance() {
+		if (mInstance == null)
+			mInstance = new BallIntakeArm(createRobotHardware());
+		return mInstance;
+	}
+
+	/**
+	 * Create the ball intake arm on other hardware, e.g. simulated devices. Must be called before the first getInstance().
+	 */
+	public static synchronized BallIntakeArm createInstance(Hardware hardware) {
+		if (mInstance != null)
+			throw new IllegalStateException("BallIntakeArm has already been created");
+		mInstance = new BallIntakeArm(hardware);
 		return mInstance;
 	}
 
@@ -249,8 +271,7 @@ public class BallIntakeArm extends Subsystem implements InterferenceSystem {
 	};
 
 	public void configureClimbCurrentLimit() {
-		mBallArmRotationMotor.configForwardSoftLimitEnable(false);
-		mBallArmRotationMotor.configReverseSoftLimitEnable(false);
+		mBallArmRotationMotor.disableSoftLimits();
 	}
 
 	public void dropClimbBar() {
@@ -307,6 +328,21 @@ public class BallIntakeArm extends Subsystem implements InterferenceSystem {
 
 	}
 
+	/**
+	 * Devices the ball intake arm runs on. The arm encoder is wired to the roller controller and read remotely.
+	 */
+	public static class Hardware {
+		public final TuneableMotorController ballArmRotationMotor, ballArmRollerMotor;
+		public final SolenoidOutput ballIntakeBarDropSolenoid;
+
+		public Hardware(TuneableMotorController ballArmRotationMotor, TuneableMotorController ballArmRollerMotor,
+		                SolenoidOutput ballIntakeBarDropSolenoid) {
+			this.ballArmRotationMotor = ballArmRotationMotor;
+			this.ballArmRollerMotor = ballArmRollerMotor;
+			this.ballIntakeBarDropSolenoid = ballIntakeBarDropSolenoid;
+		}
+	}
+
 	@SuppressWarnings("WeakerAccess")
 	public static class PeriodicIO {
 		//Making members public here will automatically add them to logs
@@ -15,19 +15,24 @@ import com.team195.frc2019.reporters.ReflectingLogDataGenerator;
 import com.team195.lib.drivers.CKDoubleSolenoid;
 import com.team195.lib.drivers.CKIMU;
 import com.team195.lib.drivers.NavX;
+import com.team195.lib.drivers.SolenoidOutput;
+import com.team195.lib.drivers.dashjoy.DashJoyLatencyTracker;
 import com.team195.lib.drivers.motorcontrol.*;
 import com.team195.lib.util.CachedValue;
 import com.team195.lib.util.FastDoubleToString;
 import com.team195.lib.util.MotorDiagnostics;
+import com.team195.lib.util.TimeSource;
+import com.team254.lib.geometry.MutablePose2d;
 import com.team254.lib.geometry.Pose2d;
 import com.team254.lib.geometry.Pose2dWithCurvature;
 import com.team254.lib.geometry.Rotation2d;
+import com.team254.lib.trajectory.PackedTimedTrajectory;
 import com.team254.lib.trajectory.TrajectoryIterator;
 import com.team254.lib.trajectory.timing.TimedState;
 import com.team254.lib.util.DriveSignal;
-import com.team254.lib.util.ReflectingCSVWriter;
+import com.team254.lib.util.AsyncReflectingCSVWriter;
+import com.team254.lib.util.CrashTracker;
 import com.team254.lib.util.Util;
-import edu.wpi.first.wpilibj.Timer;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -37,17 +42,24 @@ import java.util.stream.Collectors;
 public class Drive extends Subsystem {
 
 	private static final int kLowGearVelocityControlSlot = 0;
-	private static Drive mInstance = new Drive();
-	private final CKSparkMax mLeftMaster, mRightMaster, mLeftSlaveA, mRightSlaveA, mLeftSlaveB, mRightSlaveB;
-	private final CKDoubleSolenoid mPTOShifter;
+	private static Drive mInstance = null;
+	private final TuneableMotorController mLeftMaster, mRightMaster, mLeftSlaveA, mRightSlaveA, mLeftSlaveB, mRightSlaveB;
+	private final SolenoidOutput mPTOShifter;
 	private DriveControlState mDriveControlState;
 	private CKIMU mGyro;
 	private PeriodicIO mPeriodicIO;
-	private ReflectingCSVWriter<PeriodicIO> mCSVWriter = null;
+	private AsyncReflectingCSVWriter<PeriodicIO> mCSVWriter = null;
 	private ReflectingLogDataGenerator<PeriodicIO> mLogDataGenerator = new ReflectingLogDataGenerator<>(PeriodicIO.class);
 	private DriveMotionPlanner mMotionPlanner;
 	private Rotation2d mGyroOffset = Rotation2d.identity();
 	private boolean mOverrideTrajectory = false;
+	private final MutablePose2d mFieldToVehicle = new MutablePose2d();
+
+	private final int mLeftVelocityContext = CrashTracker.registerContextChannel("Drive_left_velocity_RPM");
+	private final int mRightVelocityContext = CrashTracker.registerContextChannel("Drive_right_velocity_RPM");
+	private final int mLeftDemandContext = CrashTracker.registerContextChannel("Drive_left_demand");
+	private final int mRightDemandContext = CrashTracker.registerContextChannel("Drive_right_demand");
+	private final int mHeadingContext = CrashTracker.registerContextChannel("Drive_gyro_heading");
 
 	private AtomicBoolean mIsBrakeMode = new AtomicBoolean(false);
 	private AtomicBoolean mForceBrakeUpdate = new AtomicBoolean(false);
@@ -111,58 +123,22 @@ public class Drive extends Subsystem {
 		}
 	};
 
-	private Drive() {
+	private Drive(Hardware hardware) {
 		mPeriodicIO = new PeriodicIO();
 
-		mLeftMaster = new CKSparkMax(DeviceIDConstants.kLeftDriveMasterId, CANSparkMaxLowLevel.MotorType.kBrushless, true, PDPBreaker.B40A);
-		mLeftMaster.addConfigStatement((t) -> mLeftMaster.setInverted(false));
-		mLeftMaster.addConfigStatement((t) -> mLeftMaster.setPIDF(CalConstants.kDriveLowGearVelocityKp, CalConstants.kDriveLowGearVelocityKi, CalConstants.kDriveLowGearVelocityKd, CalConstants.kDriveLowGearVelocityKf));
-		mLeftMaster.addConfigStatement((t) -> mLeftMaster.setDFilter(CalConstants.kDriveLowGearVelocityDFilter));
-		mLeftMaster.addConfigStatement((t) -> mLeftMaster.setMotionParameters(CalConstants.kDriveLowGearPositionCruiseVel, CalConstants.kDriveLowGearPositionAccel));
-		mLeftMaster.addConfigStatement((t) -> mLeftMaster.setCurrentLimit(CalConstants.kDriveLowGearCurrentLim));
-		mLeftMaster.addConfigStatement((t) -> mLeftMaster.setClosedLoopRampRate(CalConstants.kDriveVoltageRampRate));
-		mLeftMaster.setEncoderFactor(1);
-		mLeftMaster.setAllowedClosedLoopError(0);
-		mLeftMaster.writeToFlash();
-
-		mLeftSlaveA = new CKSparkMax(DeviceIDConstants.kLeftDriveSlaveAId, CANSparkMaxLowLevel.MotorType.kBrushless, mLeftMaster, PDPBreaker.B40A, false);
-		mLeftSlaveA.addConfigStatement((t) -> mLeftSlaveA.setCurrentLimit(CalConstants.kDriveLowGearCurrentLim));
-		mLeftSlaveA.addConfigStatement((t) -> mLeftSlaveA.setClosedLoopRampRate(CalConstants.kDriveVoltageRampRate));
-		mLeftSlaveA.writeToFlash();
-
-		mLeftSlaveB = new CKSparkMax(DeviceIDConstants.kLeftDriveSlaveBId, CANSparkMaxLowLevel.MotorType.kBrushless, mLeftMaster, PDPBreaker.B40A, false);
-		mLeftSlaveB.addConfigStatement((t) -> mLeftSlaveB.setCurrentLimit(CalConstants.kDriveLowGearCurrentLim));
-		mLeftSlaveB.addConfigStatement((t) -> mLeftSlaveB.setClosedLoopRampRate(CalConstants.kDriveVoltageRampRate));
-
-		mLeftSlaveB.writeToFlash();
-
-		mRightMaster = new CKSparkMax(DeviceIDConstants.kRightDriveMasterId, CANSparkMaxLowLevel.MotorType.kBrushless, true, PDPBreaker.B40A);
-		mRightMaster.addConfigStatement((t) -> mRightMaster.setInverted(true));
-		mRightMaster.addConfigStatement((t) -> mRightMaster.setPIDF(CalConstants.kDriveLowGearVelocityKp, CalConstants.kDriveLowGearVelocityKi, CalConstants.kDriveLowGearVelocityKd, CalConstants.kDriveLowGearVelocityKf));
-		mRightMaster.addConfigStatement((t) -> mRightMaster.setDFilter(CalConstants.kDriveLowGearVelocityDFilter));
-		mRightMaster.addConfigStatement((t) -> mRightMaster.setMotionParameters(CalConstants.kDriveLowGearPositionCruiseVel, CalConstants.kDriveLowGearPositionAccel));
-		mRightMaster.addConfigStatement((t) -> mRightMaster.setCurrentLimit(CalConstants.kDriveLowGearCurrentLim));
-		mRightMaster.addConfigStatement((t) -> mRightMaster.setClosedLoopRampRate(CalConstants.kDriveVoltageRampRate));
-		mRightMaster.setEncoderFactor(1);
-		mLeftMaster.setAllowedClosedLoopError(0);
-		mRightMaster.writeToFlash();
-
-		mRightSlaveA = new CKSparkMax(DeviceIDConstants.kRightDriveSlaveAId, CANSparkMaxLowLevel.MotorType.kBrushless, mRightMaster, PDPBreaker.B40A, false);
-		mRightSlaveA.addConfigStatement((t) -> mRightSlaveA.setCurrentLimit(CalConstants.kDriveLowGearCurrentLim));
-		mRightSlaveA.addConfigStatement((t) -> mRightSlaveA.setClosedLoopRampRate(CalConstants.kDriveVoltageRampRate));
-		mRightSlaveA.writeToFlash();
+		mLeftMaster = hardware.leftMaster;
+		mLeftSlaveA = hardware.leftSlaveA;
+		mLeftSlaveB = hardware.leftSlaveB;
+		mRightMaster = hardware.rightMaster;
+		mRightSlaveA = hardware.rightSlaveA;
+		mRightSlaveB = hardware.rightSlaveB;
 
-		mRightSlaveB = new CKSparkMax(DeviceIDConstants.kRightDriveSlaveBId, CANSparkMaxLowLevel.MotorType.kBrushless, mRightMaster, PDPBreaker.B40A, false);
-		mRightSlaveB.addConfigStatement((t) -> mRightSlaveB.setCurrentLimit(CalConstants.kDriveLowGearCurrentLim));
-		mRightSlaveB.addConfigStatement((t) -> mRightSlaveB.setClosedLoopRampRate(CalConstants.kDriveVoltageRampRate));
-		mRightSlaveB.writeToFlash();
-
-		mPTOShifter = new CKDoubleSolenoid(DeviceIDConstants.kPTOShifterSolenoidId);
+		mPTOShifter = hardware.ptoShifter;
 		mPTOShifter.set(false);
 
 		reloadGains();
 
-		mGyro = new NavX();
+		mGyro = hardware.gyro;
 
 		setOpenLoop(DriveSignal.NEUTRAL);
 
@@ -171,6 +147,7 @@ public class Drive extends Subsystem {
 		setBrakeMode(true);
 
 		mMotionPlanner = new DriveMotionPlanner();
+		mMotionPlanner.setAllocationFree(true);
 
 		mLeftDriveEncoderPresent = new CachedValue<>(500, (t) -> mElevator.isLeftDriveEncoderPresent());
 		mRightDriveEncoderPresent = new CachedValue<>(500, (t) -> mElevator.isRightDriveEncoderPresent());
@@ -186,24 +163,96 @@ public class Drive extends Subsystem {
 //		}
 	}
 
+	private static Hardware createRobotHardware() {
+		CKSparkMax leftMaster = new CKSparkMax(DeviceIDConstants.kLeftDriveMasterId, CANSparkMaxLowLevel.MotorType.kBrushless, true, PDPBreaker.B40A);
+		leftMaster.addConfigStatement((t) -> leftMaster.setInverted(false));
+		leftMaster.addConfigStatement((t) -> leftMaster.setPIDF(CalConstants.kDriveLowGearVelocityKp, CalConstants.kDriveLowGearVelocityKi, CalConstants.kDriveLowGearVelocityKd, CalConstants.kDriveLowGearVelocityKf));
+		leftMaster.addConfigStatement((t) -> leftMaster.setDFilter(CalConstants.kDriveLowGearVelocityDFilter));
+		leftMaster.addConfigStatement((t) -> leftMaster.setMotionParameters(CalConstants.kDriveLowGearPositionCruiseVel, CalConstants.kDriveLowGearPositionAccel));
+		leftMaster.addConfigStatement((t) -> leftMaster.setCurrentLimit(CalConstants.kDriveLowGearCurrentLim));
+		leftMaster.addConfigStatement((t) -> leftMaster.setClosedLoopRampRate(CalConstants.kDriveVoltageRampRate));
+		leftMaster.setEncoderFactor(1);
+		leftMaster.setAllowedClosedLoopError(0);
+		leftMaster.writeToFlash();
+
+		CKSparkMax leftSlaveA = new CKSparkMax(DeviceIDConstants.kLeftDriveSlaveAId, CANSparkMaxLowLevel.MotorType.kBrushless, leftMaster, PDPBreaker.B40A, false);
+		leftSlaveA.addConfigStatement((t) -> leftSlaveA.setCurrentLimit(CalConstants.kDriveLowGearCurrentLim));
+		leftSlaveA.addConfigStatement((t) -> leftSlaveA.setClosedLoopRampRate(CalConstants.kDriveVoltageRampRate));
+		leftSlaveA.writeToFlash();
+
+		CKSparkMax leftSlaveB = new CKSparkMax(DeviceIDConstants.kLeftDriveSlaveBId, CANSparkMaxLowLevel.MotorType.kBrushless, leftMaster, PDPBreaker.B40A, false);
+		leftSlaveB.addConfigStatement((t) -> leftSlaveB.setCurrentLimit(CalConstants.kDriveLowGearCurrentLim));
+		leftSlaveB.addConfigStatement((t) -> leftSlaveB.setClosedLoopRampRate(CalConstants.kDriveVoltageRampRate));
+
+		leftSlaveB.writeToFlash();
+
+		CKSparkMax rightMaster = new CKSparkMax(DeviceIDConstants.kRightDriveMasterId, CANSparkMaxLowLevel.MotorType.kBrushless, true, PDPBreaker.B40A);
+		rightMaster.addConfigStatement((t) -> rightMaster.setInverted(true));
+		rightMaster.addConfigStatement((t) -> rightMaster.setPIDF(CalConstants.kDriveLowGearVelocityKp, CalConstants.kDriveLowGearVelocityKi, CalConstants.kDriveLowGearVelocityKd, CalConstants.kDriveLowGearVelocityKf));
+		rightMaster.addConfigStatement((t) -> rightMaster.setDFilter(CalConstants.kDriveLowGearVelocityDFilter));
+		rightMaster.addConfigStatement((t) -> rightMaster.setMotionParameters(CalConstants.kDriveLowGearPositionCruiseVel, CalConstants.kDriveLowGearPositionAccel));
+		rightMaster.addConfigStatement((t) -> rightMaster.setCurrentLimit(CalConstants.kDriveLowGearCurrentLim));
+		rightMaster.addConfigStatement((t) -> rightMaster.setClosedLoopRampRate(CalConstants.kDriveVoltageRampRate));
+		rightMaster.setEncoderFactor(1);
+		leftMaster.setAllowedClosedLoopError(0);
+		rightMaster.writeToFlash();
+
+		CKSparkMax rightSlaveA = new CKSparkMax(DeviceIDConstants.kRightDriveSlaveAId, CANSparkMaxLowLevel.MotorType.kBrushless, rightMaster, PDPBreaker.B40A, false);
+		rightSlaveA.addConfigStatement((t) -> rightSlaveA.setCurrentLimit(CalConstants.kDriveLowGearCurrentLim));
+		rightSlaveA.addConfigStatement((t) -> rightSlaveA.setClosedLoopRampRate(CalConstants.kDriveVoltageRampRate));
+		rightSlaveA.writeToFlash();
+
+		CKSparkMax rightSlaveB = new CKSparkMax(DeviceIDConstants.kRightDriveSlaveBId, CANSparkMaxLowLevel.MotorType.kBrushless, rightMaster, PDPBreaker.B40A, false);
+		rightSlaveB.addConfigStatement((t) -> rightSlaveB.setCurrentLimit(CalConstants.kDriveLowGearCurrentLim));
+		rightSlaveB.addConfigStatement((t) -> rightSlaveB.setClosedLoopRampRate(CalConstants.kDriveVoltageRampRate));
+		rightSlaveB.writeToFlash();
+
+		return new Hardware(leftMaster, leftSlaveA, leftSlaveB, rightMaster, rightSlaveA, rightSlaveB,
+				new CKDoubleSolenoid(DeviceIDConstants.kPTOShifterSolenoidId), new NavX());
+	}
+
 	public void configureClimbCurrentLimit() {
 		setBrakeMode(true);
-		mLeftMaster.addConfigStatement((t) -> mLeftMaster.setSmartCurrentLimit(CalConstants.kDriveLeftClimbCurrentLim));
-		mLeftSlaveA.addConfigStatement((t) -> mLeftSlaveA.setSmartCurrentLimit(CalConstants.kDriveLeftClimbCurrentLim));
-		mLeftSlaveB.addConfigStatement((t) -> mLeftSlaveB.setSmartCurrentLimit(CalConstants.kDriveLeftClimbCurrentLim));
+		setConfiguredCurrentLimit(mLeftMaster, CalConstants.kDriveLeftClimbCurrentLim);
+		setConfiguredCurrentLimit(mLeftSlaveA, CalConstants.kDriveLeftClimbCurrentLim);
+		setConfiguredCurrentLimit(mLeftSlaveB, CalConstants.kDriveLeftClimbCurrentLim);
 
-		mRightMaster.addConfigStatement((t) -> mRightMaster.setSmartCurrentLimit(CalConstants.kDriveRightClimbCurrentLim));
-		mRightSlaveA.addConfigStatement((t) -> mRightSlaveA.setSmartCurrentLimit(CalConstants.kDriveRightClimbCurrentLim));
-		mRightSlaveB.addConfigStatement((t) -> mRightSlaveB.setSmartCurrentLimit(CalConstants.kDriveRightClimbCurrentLim));
+		setConfiguredCurrentLimit(mRightMaster, CalConstants.kDriveRightClimbCurrentLim);
+		setConfiguredCurrentLimit(mRightSlaveA, CalConstants.kDriveRightClimbCurrentLim);
+		setConfiguredCurrentLimit(mRightSlaveB, CalConstants.kDriveRightClimbCurrentLim);
 	}
 
 	public void configureRetractCurrentLimit() {
-		mLeftMaster.addConfigStatement((t) -> mLeftMaster.setSmartCurrentLimit(CalConstants.kDriveLeftRetractCurrentLim));
-		mLeftSlaveA.addConfigStatement((t) -> mLeftSlaveA.setSmartCurrentLimit(CalConstants.kDriveLeftRetractCurrentLim));
-		mLeftSlaveB.addConfigStatement((t) -> mLeftSlaveB.setSmartCurrentLimit(CalConstants.kDriveLeftRetractCurrentLim));
+		setConfiguredCurrentLimit(mLeftMaster, CalConstants.kDriveLeftRetractCurrentLim);
+		setConfiguredCurrentLimit(mLeftSlaveA, CalConstants.kDriveLeftRetractCurrentLim);
+		setConfiguredCurrentLimit(mLeftSlaveB, CalConstants.kDriveLeftRetractCurrentLim);
+	}
+
+	/**
+	 * On a Spark MAX the limit is added to the config statements so it is re-applied if the controller resets.
+	 */
+	private static void setConfiguredCurrentLimit(TuneableMotorController motor, int currentLimit) {
+		if (motor instanceof CKSparkMax) {
+			CKSparkMax sparkMax = (CKSparkMax) motor;
+			sparkMax.addConfigStatement((t) -> sparkMax.setSmartCurrentLimit(currentLimit));
+		}
+		else
+			motor.setCurrentLimit(currentLimit);
+	}
+
+	public static synchronized Drive getInstance() {
+		if (mInstance == null)
+			mInstance = new Drive(createRobotHardware());
+		return mInstance;
 	}
 
-	public static Drive getInstance() {
+	/**
+	 * Create the drive on other hardware, e.g. simulated devices. Must be called before the first getInstance().
+	 */
+	public static synchronized Drive createInstance(Hardware hardware) {
+		if (mInstance != null)
+			throw new IllegalStateException("Drive has already been created");
+		mInstance = new Drive(hardware);
 		return mInstance;
 	}
 
@@ -277,6 +326,10 @@ public class Drive extends Subsystem {
 	}
 
 	public synchronized void setVelocity(DriveSignal signal, DriveSignal feedforward) {
+		setVelocity(signal.getLeft(), signal.getRight(), feedforward.getLeft(), feedforward.getRight());
+	}
+
+	public synchronized void setVelocity(double left, double right, double leftFeedforward, double rightFeedforward) {
 		if (mDriveControlState != DriveControlState.PATH_FOLLOWING) {
 			setBrakeMode(true);
 			mLeftMaster.setPIDGainSlot(kLowGearVelocityControlSlot);
@@ -284,10 +337,10 @@ public class Drive extends Subsystem {
 
 			setDriveControlState(DriveControlState.PATH_FOLLOWING);
 		}
-		mPeriodicIO.left_demand = signal.getLeft();
-		mPeriodicIO.right_demand = signal.getRight();
-		mPeriodicIO.left_feedforward = feedforward.getLeft();
-		mPeriodicIO.right_feedforward = feedforward.getRight();
+		mPeriodicIO.left_demand = left;
+		mPeriodicIO.right_demand = right;
+		mPeriodicIO.left_feedforward = leftFeedforward;
+		mPeriodicIO.right_feedforward = rightFeedforward;
 	}
 
 	public synchronized void setTrajectory(TrajectoryIterator<TimedState<Pose2dWithCurvature>> trajectory) {
@@ -306,6 +359,13 @@ public class Drive extends Subsystem {
 		return mMotionPlanner.isDone() || mOverrideTrajectory;
 	}
 
+	/**
+	 * @return The path setpoint from the last path follower update
+	 */
+	public synchronized Pose2d getPathSetpoint() {
+		return mPeriodicIO.path_setpoint.toPose();
+	}
+
 	public boolean isHighGear() {
 		return false;
 	}
@@ -356,6 +416,24 @@ public class Drive extends Subsystem {
 		setOpenLoop(DriveSignal.NEUTRAL);
 	}
 
+	public synchronized void startLogging() {
+		if (mCSVWriter == null) {
+			mCSVWriter = new AsyncReflectingCSVWriter<>("/home/lvuser/DRIVE-LOGS.csv", PeriodicIO.class);
+		}
+	}
+
+	public void stopLogging() {
+		// Closing waits for the file to be written out, so do it without holding up the loop on the Drive lock.
+		final AsyncReflectingCSVWriter<PeriodicIO> csvWriter;
+		synchronized (this) {
+			csvWriter = mCSVWriter;
+			mCSVWriter = null;
+		}
+		if (csvWriter != null) {
+			csvWriter.close();
+		}
+	}
+
 	public synchronized void resetEncoders() {
         mLeftMaster.setEncoderPosition(0);
         mRightMaster.setEncoderPosition(0);
@@ -417,19 +495,21 @@ public class Drive extends Subsystem {
 		return mPeriodicIO.right_velocity_RPM;
 	}
 
-	private void updatePathFollower() {
+	// Package-private so that tests can measure the path follower on its own.
+	void updatePathFollower() {
 		if (mDriveControlState == DriveControlState.PATH_FOLLOWING) {
-			final double now = Timer.getFPGATimestamp();
+			final double now = TimeSource.getTimestamp();
 
-			DriveMotionPlanner.Output output = mMotionPlanner.update(now, RobotState.getInstance().getFieldToVehicle(now));
+			DriveMotionPlanner.Output output = mMotionPlanner.update(now,
+					RobotState.getInstance().getFieldToVehicle(now, mFieldToVehicle));
 
-			mPeriodicIO.error = mMotionPlanner.error();
-			mPeriodicIO.path_setpoint = mMotionPlanner.setpoint();
+			mMotionPlanner.error(mPeriodicIO.error);
+			mMotionPlanner.setpoint(mPeriodicIO.path_setpoint);
 
 			if (!mOverrideTrajectory) {
-				setVelocity(new DriveSignal(radiansPerSecondToRPM(output.left_velocity) * CalConstants.kDriveGearRatioMotorConversionFactor,
-										   radiansPerSecondToRPM(output.right_velocity) * CalConstants.kDriveGearRatioMotorConversionFactor),
-						new DriveSignal(output.left_feedforward_voltage / 12.0, output.right_feedforward_voltage / 12.0));
+				setVelocity(radiansPerSecondToRPM(output.left_velocity) * CalConstants.kDriveGearRatioMotorConversionFactor,
+						radiansPerSecondToRPM(output.right_velocity) * CalConstants.kDriveGearRatioMotorConversionFactor,
+						output.left_feedforward_voltage / 12.0, output.right_feedforward_voltage / 12.0);
 
 				mPeriodicIO.left_accel = radiansPerSecondToRPM(output.left_accel) / 1000.0;
 				mPeriodicIO.right_accel = radiansPerSecondToRPM(output.right_accel) / 1000.0;
@@ -494,6 +574,13 @@ public class Drive extends Subsystem {
 			mPeriodicIO.right_distance += deltaRightRotations * CalConstants.kDriveWheelDiameterInches;
 		}
 
+		final double now = TimeSource.getTimestamp();
+		CrashTracker.recordContext(mLeftVelocityContext, now, mPeriodicIO.left_velocity_RPM);
+		CrashTracker.recordContext(mRightVelocityContext, now, mPeriodicIO.right_velocity_RPM);
+		CrashTracker.recordContext(mLeftDemandContext, now, mPeriodicIO.left_demand);
+		CrashTracker.recordContext(mRightDemandContext, now, mPeriodicIO.right_demand);
+		CrashTracker.recordContext(mHeadingContext, now, mPeriodicIO.gyro_heading.getDegrees());
+
 		if (mCSVWriter != null) {
 			mCSVWriter.add(mPeriodicIO);
 		}
@@ -506,6 +593,8 @@ public class Drive extends Subsystem {
 				|| mDriveControlState == DriveControlState.OPEN_LOOP_AUTOMATED) {
 			mLeftMaster.set(MCControlMode.PercentOut, mPeriodicIO.left_demand, 0, 0.0);
 			mRightMaster.set(MCControlMode.PercentOut, mPeriodicIO.right_demand, 0, 0.0);
+			if (mDriveControlState == DriveControlState.OPEN_LOOP)
+				DashJoyLatencyTracker.getInstance().onOutputIssued(TimeSource.getTimestampMicros());
 		} else if (mDriveControlState == DriveControlState.PATH_FOLLOWING) {
 			mLeftMaster.set(MCControlMode.Velocity, mPeriodicIO.left_demand, 0,
 					mPeriodicIO.left_feedforward + CalConstants.kDriveLowGearVelocityKd * mPeriodicIO.left_accel / mLeftMaster.getNativeUnitsOutputRange());
@@ -548,12 +637,10 @@ public class Drive extends Subsystem {
 			mRightDiagArr.add(new MotorDiagnostics("Drive Right Slave 1", mRightSlaveA, mRightMaster));
 			mRightDiagArr.add(new MotorDiagnostics("Drive Right Slave 2", mRightSlaveB, mRightMaster));
 
-			mLeftSlaveA.follow(CANSparkMax.ExternalFollower.kFollowerDisabled, 0);
-			mLeftSlaveB.follow(CANSparkMax.ExternalFollower.kFollowerDisabled, 0);
-			mRightSlaveA.follow(CANSparkMax.ExternalFollower.kFollowerDisabled, 0);
-			mRightSlaveA.setInverted(true);
-			mRightSlaveB.follow(CANSparkMax.ExternalFollower.kFollowerDisabled, 0);
-			mRightSlaveB.setInverted(true);
+			stopFollowing(mLeftSlaveA, false);
+			stopFollowing(mLeftSlaveB, false);
+			stopFollowing(mRightSlaveA, true);
+			stopFollowing(mRightSlaveB, true);
 
 			mAllMotorsDiagArr.addAll(mLeftDiagArr);
 			mAllMotorsDiagArr.addAll(mRightDiagArr);
@@ -618,6 +705,15 @@ public class Drive extends Subsystem {
 			return true;
 	}
 
+	private static void stopFollowing(TuneableMotorController slave, boolean inverted) {
+		if (slave instanceof CKSparkMax) {
+			CKSparkMax sparkMax = (CKSparkMax) slave;
+			sparkMax.follow(CANSparkMax.ExternalFollower.kFollowerDisabled, 0);
+			if (inverted)
+				sparkMax.setInverted(true);
+		}
+	}
+
 	public void forceBrakeModeUpdate() {
 		mForceBrakeUpdate.set(true);
 	}
@@ -659,6 +755,28 @@ public class Drive extends Subsystem {
 		AUTO_SHIFT
 	}
 
+	/**
+	 * Devices the drive runs on. Drive encoders are read through the Elevator, not from here.
+	 */
+	public static class Hardware {
+		public final TuneableMotorController leftMaster, leftSlaveA, leftSlaveB, rightMaster, rightSlaveA, rightSlaveB;
+		public final SolenoidOutput ptoShifter;
+		public final CKIMU gyro;
+
+		public Hardware(TuneableMotorController leftMaster, TuneableMotorController leftSlaveA, TuneableMotorController leftSlaveB,
+		                TuneableMotorController rightMaster, TuneableMotorController rightSlaveA, TuneableMotorController rightSlaveB,
+		                SolenoidOutput ptoShifter, CKIMU gyro) {
+			this.leftMaster = leftMaster;
+			this.leftSlaveA = leftSlaveA;
+			this.leftSlaveB = leftSlaveB;
+			this.rightMaster = rightMaster;
+			this.rightSlaveA = rightSlaveA;
+			this.rightSlaveB = rightSlaveB;
+			this.ptoShifter = ptoShifter;
+			this.gyro = gyro;
+		}
+	}
+
 	@SuppressWarnings("WeakerAccess")
 	public static class PeriodicIO {
 		//Making members public here will automatically add them to logs
@@ -673,7 +791,7 @@ public class Drive extends Subsystem {
 		double gyro_raw_yaw;
 		double gyro_pitch;
 		public double gyro_roll;
-		public Pose2d error = Pose2d.identity();
+		public MutablePose2d error = new MutablePose2d();
 
 		public double left_spark_position;
 		public double left_spark_velocity;
@@ -692,7 +810,7 @@ public class Drive extends Subsystem {
 		public double right_accel;
 		public double left_feedforward;
 		public double right_feedforward;
-		TimedState<Pose2dWithCurvature> path_setpoint = new TimedState<>(Pose2dWithCurvature.identity());
+		PackedTimedTrajectory.Sample path_setpoint = new PackedTimedTrajectory.Sample();
 	}
 }
 
@@ -17,7 +17,10 @@ import com.team195.frc2019.subsystems.positions.ElevatorPositions;
 import com.team195.lib.drivers.motorcontrol.CKTalonSRX;
 import com.team195.lib.drivers.motorcontrol.MCControlMode;
 import com.team195.lib.drivers.motorcontrol.PDPBreaker;
+import com.team195.lib.drivers.motorcontrol.TuneableMotorController;
+import com.team195.lib.util.BooleanSignal;
 import com.team195.lib.util.CachedValue;
+import com.team195.lib.util.DoubleSignal;
 import com.team195.lib.util.InterferenceSystem;
 import com.team195.lib.util.MotionInterferenceChecker;
 import com.team195.lib.util.MotorDiagnostics;
@@ -29,15 +32,18 @@ import java.util.stream.Collectors;
 
 public class Elevator extends Subsystem implements InterferenceSystem {
 
-	private static Elevator mInstance = new Elevator();
+	private static Elevator mInstance = null;
 
 	private PeriodicIO mPeriodicIO;
 	private ReflectingLogDataGenerator<PeriodicIO> mLogDataGenerator = new ReflectingLogDataGenerator<>(PeriodicIO.class);
 
-	private final CKTalonSRX mElevatorMaster;
-	private final CKTalonSRX mElevatorSlaveA;
-	private final CKTalonSRX mElevatorSlaveB;
-	private final CKTalonSRX mElevatorSlaveC;
+	private final DoubleSignal mPositionSignal = new DoubleSignal(0);
+	private final BooleanSignal mLowerLimitSignal = new BooleanSignal(false);
+
+	private final TuneableMotorController mElevatorMaster;
+	private final TuneableMotorController mElevatorSlaveA;
+	private final TuneableMotorController mElevatorSlaveB;
+	private final TuneableMotorController mElevatorSlaveC;
 
 //	private final MotionInterferenceChecker elevatorAnyPositionCheck;
 	private final MotionInterferenceChecker requestMoveElevatorUpCheck;
@@ -48,21 +54,13 @@ public class Elevator extends Subsystem implements InterferenceSystem {
 	private final CachedValue<Boolean> mElevatorEncoderPresent;
 	private final CachedValue<Boolean> mElevatorMasterHasReset;
 
-	private Elevator() {
+	private Elevator(Hardware hardware) {
 		mPeriodicIO = new PeriodicIO();
 
-		mElevatorMaster = new CKTalonSRX(DeviceIDConstants.kElevatorMasterLeftId, false, PDPBreaker.B40A);
-		mElevatorMaster.setSensorPhase(true);
-		mElevatorMaster.setInverted(false);
+		mElevatorMaster = hardware.elevatorMaster;
 		mElevatorMaster.setPIDF(CalConstants.kElevatorPositionKp, CalConstants.kElevatorPositionKi, CalConstants.kElevatorPositionKd, CalConstants.kElevatorPositionKf);
-		mElevatorMaster.setMotionParameters(CalConstants.kElevatorPositionCruiseVel, CalConstants.kElevatorPositionMMAccel, CalConstants.kElevatorPositionSCurveStrength);
 		zeroSensors();
 		mElevatorMaster.setControlMode(MCControlMode.Disabled);
-		mElevatorMaster.configForwardSoftLimitThreshold(CalConstants.kElevatorPositionForwardSoftLimit);
-		mElevatorMaster.configForwardSoftLimitEnable(true);
-		mElevatorMaster.configReverseSoftLimitThreshold(CalConstants.kElevatorPositionReverseSoftLimit);
-		mElevatorMaster.configReverseSoftLimitEnable(true);
-		mElevatorMaster.configCurrentLimit(CalConstants.kElevatorContinuousCurrentLimit, CalConstants.kElevatorPeakCurrentThreshold, CalConstants.kElevatorPeakCurrentThresholdExceedDuration);
 
 //		TuneablePIDOSC x;
 //		try {
@@ -71,22 +69,9 @@ public class Elevator extends Subsystem implements InterferenceSystem {
 //
 //		}
 
-		mElevatorSlaveA = new CKTalonSRX(DeviceIDConstants.kElevatorSlaveALeftId, mElevatorMaster, PDPBreaker.B40A, false);
-		mElevatorSlaveA.configCurrentLimit(CalConstants.kElevatorContinuousCurrentLimit, CalConstants.kElevatorPeakCurrentThreshold, CalConstants.kElevatorPeakCurrentThresholdExceedDuration);
-		mElevatorSlaveA.setSensorPhase(true);
-
-		mElevatorSlaveB = new CKTalonSRX(DeviceIDConstants.kElevatorSlaveBRightId, mElevatorMaster, PDPBreaker.B40A, true);
-		mElevatorSlaveB.configCurrentLimit(CalConstants.kElevatorContinuousCurrentLimit, CalConstants.kElevatorPeakCurrentThreshold, CalConstants.kElevatorPeakCurrentThresholdExceedDuration);
-		mElevatorSlaveB.setSensorPhase(true);
-
-		mElevatorSlaveC = new CKTalonSRX(DeviceIDConstants.kElevatorSlaveCRightId, mElevatorMaster, PDPBreaker.B40A, true);
-		mElevatorSlaveC.configCurrentLimit(CalConstants.kElevatorContinuousCurrentLimit, CalConstants.kElevatorPeakCurrentThreshold, CalConstants.kElevatorPeakCurrentThresholdExceedDuration);
-
-
-		//Limit Switch Homing for Elevator
-		mElevatorSlaveC.configReverseLimitSwitchSource(LimitSwitchSource.FeedbackConnector, LimitSwitchNormal.Disabled);
-		mElevatorMaster.configReverseLimitSwitchSource(RemoteLimitSwitchSource.RemoteTalonSRX, LimitSwitchNormal.NormallyOpen, DeviceIDConstants.kElevatorSlaveCRightId);
-//		mElevatorMaster.configZeroOnLimit();
+		mElevatorSlaveA = hardware.elevatorSlaveA;
+		mElevatorSlaveB = hardware.elevatorSlaveB;
+		mElevatorSlaveC = hardware.elevatorSlaveC;
 
 		requestMoveElevatorUpCheck = new MotionInterferenceChecker(MotionInterferenceChecker.LogicOperation.OR, true
 
@@ -107,7 +92,50 @@ public class Elevator extends Subsystem implements InterferenceSystem {
 
 	}
 
-	public static Elevator getInstance() {
+	private static Hardware createRobotHardware() {
+		CKTalonSRX elevatorMaster = new CKTalonSRX(DeviceIDConstants.kElevatorMasterLeftId, false, PDPBreaker.B40A);
+		elevatorMaster.setSensorPhase(true);
+		elevatorMaster.setInverted(false);
+		elevatorMaster.setMotionParameters(CalConstants.kElevatorPositionCruiseVel, CalConstants.kElevatorPositionMMAccel, CalConstants.kElevatorPositionSCurveStrength);
+		elevatorMaster.configForwardSoftLimitThreshold(CalConstants.kElevatorPositionForwardSoftLimit);
+		elevatorMaster.configForwardSoftLimitEnable(true);
+		elevatorMaster.configReverseSoftLimitThreshold(CalConstants.kElevatorPositionReverseSoftLimit);
+		elevatorMaster.configReverseSoftLimitEnable(true);
+		elevatorMaster.configCurrentLimit(CalConstants.kElevatorContinuousCurrentLimit, CalConstants.kElevatorPeakCurrentThreshold, CalConstants.kElevatorPeakCurrentThresholdExceedDuration);
+
+		CKTalonSRX elevatorSlaveA = new CKTalonSRX(DeviceIDConstants.kElevatorSlaveALeftId, elevatorMaster, PDPBreaker.B40A, false);
+		elevatorSlaveA.configCurrentLimit(CalConstants.kElevatorContinuousCurrentLimit, CalConstants.kElevatorPeakCurrentThreshold, CalConstants.kElevatorPeakCurrentThresholdExceedDuration);
+		elevatorSlaveA.setSensorPhase(true);
+
+		CKTalonSRX elevatorSlaveB = new CKTalonSRX(DeviceIDConstants.kElevatorSlaveBRightId, elevatorMaster, PDPBreaker.B40A, true);
+		elevatorSlaveB.configCurrentLimit(CalConstants.kElevatorContinuousCurrentLimit, CalConstants.kElevatorPeakCurrentThreshold, CalConstants.kElevatorPeakCurrentThresholdExceedDuration);
+		elevatorSlaveB.setSensorPhase(true);
+
+		CKTalonSRX elevatorSlaveC = new CKTalonSRX(DeviceIDConstants.kElevatorSlaveCRightId, elevatorMaster, PDPBreaker.B40A, true);
+		elevatorSlaveC.configCurrentLimit(CalConstants.kElevatorContinuousCurrentLimit, CalConstants.kElevatorPeakCurrentThreshold, CalConstants.kElevatorPeakCurrentThresholdExceedDuration);
+
+
+		//Limit Switch Homing for Elevator
+		elevatorSlaveC.configReverseLimitSwitchSource(LimitSwitchSource.FeedbackConnector, LimitSwitchNormal.Disabled);
+		elevatorMaster.configReverseLimitSwitchSource(RemoteLimitSwitchSource.RemoteTalonSRX, LimitSwitchNormal.NormallyOpen, DeviceIDConstants.kElevatorSlaveCRightId);
+//		elevatorMaster.configZeroOnLimit();
+
+		return new Hardware(elevatorMaster, elevatorSlaveA, elevatorSlaveB, elevatorSlaveC);
+	}
+
+	public static synchronized Elevator getInstance() {
+		if (mInstance == null)
+			mInstance = new Elevator(createRobotHardware());
+		return mInstance;
+	}
+
+	/**
+	 * Create the elevator on other hardware, e.g. simulated devices. Must be called before the first getInstance().
+	 */
+	public static synchronized Elevator createInstance(Hardware hardware) {
+		if (mInstance != null)
+			throw new IllegalStateException("Elevator has already been created");
+		mInstance = new Elevator(hardware);
 		return mInstance;
 	}
 
@@ -314,6 +342,14 @@ public class Elevator extends Subsystem implements InterferenceSystem {
 		return mPeriodicIO.elevator_position;
 	}
 
+	public DoubleSignal getPositionSignal() {
+		return mPositionSignal;
+	}
+
+	public BooleanSignal getLowerLimitSignal() {
+		return mLowerLimitSignal;
+	}
+
 	@Override
 	public double getSetpoint() {
 		return mPeriodicIO.elevator_setpoint;
@@ -343,6 +379,9 @@ public class Elevator extends Subsystem implements InterferenceSystem {
 		mPeriodicIO.elevator_at_lower_limit = mElevatorSlaveC.getReverseLimitValue();
 		mPeriodicIO.elevator_master_reset = mElevatorMasterHasReset.getValue();
 		mPeriodicIO.elevator_encoder_present = mElevatorEncoderPresent.getValue();
+
+		mPositionSignal.publish(mPeriodicIO.elevator_position);
+		mLowerLimitSignal.publish(mPeriodicIO.elevator_at_lower_limit);
 	}
 
 	@Override
@@ -350,6 +389,21 @@ public class Elevator extends Subsystem implements InterferenceSystem {
 
 	}
 
+	/**
+	 * Devices the elevator runs on. Slaves A and B also carry the drive encoders, and slave C the lower limit switch.
+	 */
+	public static class Hardware {
+		public final TuneableMotorController elevatorMaster, elevatorSlaveA, elevatorSlaveB, elevatorSlaveC;
+
+		public Hardware(TuneableMotorController elevatorMaster, TuneableMotorController elevatorSlaveA,
+		                TuneableMotorController elevatorSlaveB, TuneableMotorController elevatorSlaveC) {
+			this.elevatorMaster = elevatorMaster;
+			this.elevatorSlaveA = elevatorSlaveA;
+			this.elevatorSlaveB = elevatorSlaveB;
+			this.elevatorSlaveC = elevatorSlaveC;
+		}
+	}
+
 	@SuppressWarnings("WeakerAccess")
 	public static class PeriodicIO {
 		//Making members public here will automatically add them to logs
@@ -4,9 +4,11 @@ import com.team195.frc2019.loops.ILooper;
 import com.team195.frc2019.loops.Loop;
 import com.team195.frc2019.Kinematics;
 import com.team195.frc2019.RobotState;
+import com.team195.lib.util.DoubleSignal;
+import com.team254.lib.geometry.MutablePose2d;
+import com.team254.lib.geometry.MutableTwist2d;
 import com.team254.lib.geometry.Pose2d;
 import com.team254.lib.geometry.Rotation2d;
-import com.team254.lib.geometry.Twist2d;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -18,6 +20,10 @@ public class RobotStateEstimator extends Subsystem {
     private double left_encoder_prev_distance_ = 0.0;
     private double right_encoder_prev_distance_ = 0.0;
     private double back_encoder_prev_distance_ = 0.0;
+    private final MutableTwist2d odometry_velocity_ = new MutableTwist2d();
+    private final MutableTwist2d predicted_velocity_ = new MutableTwist2d();
+    private final MutablePose2d field_to_vehicle_ = new MutablePose2d();
+    private final DoubleSignal field_x_signal_ = new DoubleSignal(0);
 
     private final List<Object> mObjList = new ArrayList<>(4);
 
@@ -29,6 +35,13 @@ public class RobotStateEstimator extends Subsystem {
         return instance_;
     }
 
+    /**
+     * Field x of the robot, published each time odometry is integrated.
+     */
+    public DoubleSignal getFieldXSignal() {
+        return field_x_signal_;
+    }
+
     @Override
     public void stop() {
         // No-op
@@ -90,12 +103,12 @@ public class RobotStateEstimator extends Subsystem {
             final double delta_left = left_distance - left_encoder_prev_distance_;
             final double delta_right = right_distance - right_encoder_prev_distance_;
             final Rotation2d gyro_angle = drive_.getHeading();
-            final Twist2d odometry_velocity = robot_state_.generateOdometryFromSensors(
-                    delta_left, delta_right, gyro_angle);
-            final Twist2d predicted_velocity = Kinematics.forwardKinematics(drive_.getLeftLinearVelocity(),
-                    drive_.getRightLinearVelocity());
-            robot_state_.addObservations(timestamp, odometry_velocity,
-                    predicted_velocity);
+            robot_state_.generateOdometryFromSensors(delta_left, delta_right, gyro_angle, odometry_velocity_);
+            Kinematics.forwardKinematics(drive_.getLeftLinearVelocity(), drive_.getRightLinearVelocity(),
+                    predicted_velocity_);
+            robot_state_.addObservations(timestamp, odometry_velocity_, predicted_velocity_);
+            robot_state_.getFieldToVehicle(timestamp, field_to_vehicle_);
+            field_x_signal_.publish(field_to_vehicle_.getTranslation().x());
             left_encoder_prev_distance_ = left_distance;
             right_encoder_prev_distance_ = right_distance;
         }
@@ -16,6 +16,24 @@ import com.team195.lib.util.Reportable;
  * instantializing all member components at the start of the match.
  */
 public abstract class Subsystem implements Reportable, CriticalSystemStatus, DiagnosableSubsystem {
+    private static int mNextRequirementBit = 0;
+
+    private final long mRequirementMask = allocateRequirementMask();
+
+    private static synchronized long allocateRequirementMask() {
+        if (mNextRequirementBit >= Long.SIZE)
+            throw new IllegalStateException("Only " + Long.SIZE + " subsystems can be tracked as action requirements");
+
+        return 1L << mNextRequirementBit++;
+    }
+
+    /**
+     * A bit unique to this subsystem, so the subsystems an action requires can be kept and compared as one long.
+     */
+    public long getRequirementMask() {
+        return mRequirementMask;
+    }
+
     // Optional design pattern for caching periodic reads to avoid hammering the HAL/CAN.
     public void readPeriodicInputs() {
     }
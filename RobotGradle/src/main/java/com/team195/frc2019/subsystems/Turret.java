@@ -16,10 +16,14 @@ import com.team195.frc2019.subsystems.positions.BallIntakeArmPositions;
 import com.team195.frc2019.subsystems.positions.ElevatorPositions;
 import com.team195.frc2019.subsystems.positions.TurretPositions;
 import com.team195.lib.drivers.CKSolenoid;
+import com.team195.lib.drivers.SolenoidOutput;
 import com.team195.lib.drivers.motorcontrol.CKTalonSRX;
 import com.team195.lib.drivers.motorcontrol.MCControlMode;
 import com.team195.lib.drivers.motorcontrol.PDPBreaker;
+import com.team195.lib.drivers.motorcontrol.TuneableMotorController;
+import com.team195.lib.util.BooleanSignal;
 import com.team195.lib.util.CachedValue;
+import com.team195.lib.util.DoubleSignal;
 import com.team195.lib.util.InterferenceSystem;
 import com.team195.lib.util.MotionInterferenceChecker;
 import com.team254.lib.geometry.Pose2d;
@@ -30,16 +34,14 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 public class Turret extends Subsystem implements InterferenceSystem {
 
-	private static Turret mInstance = new Turret();
+	private static Turret mInstance = null;
 
-	private final VisionTracker mVisionTracker = VisionTracker.getInstance();
-
-	private final CKTalonSRX mTurretRotationMotor;
-	private final CKTalonSRX mBallShooterRollerMotor;
-	private final CKSolenoid mHatchBeakSolenoid;
-	private final CKSolenoid mHatchBeakFeedSolenoid;
-	private final CKSolenoid mHatchPushSolenoid;
-	private final CKSolenoid mBallPushSolenoid;
+	private final TuneableMotorController mTurretRotationMotor;
+	private final TuneableMotorController mBallShooterRollerMotor;
+	private final SolenoidOutput mHatchBeakSolenoid;
+	private final SolenoidOutput mHatchBeakFeedSolenoid;
+	private final SolenoidOutput mHatchPushSolenoid;
+	private final SolenoidOutput mBallPushSolenoid;
 
 	private TurretControlMode mTurretControlMode = TurretControlMode.POSITION;
 	private BallShooterControlMode mBallShooterControlMode = BallShooterControlMode.OPEN_LOOP;
@@ -51,26 +53,21 @@ public class Turret extends Subsystem implements InterferenceSystem {
 	private PeriodicIO mPeriodicIO;
 	private ReflectingLogDataGenerator<PeriodicIO> mLogDataGenerator = new ReflectingLogDataGenerator<>(PeriodicIO.class);
 
+	private final DoubleSignal mPositionSignal = new DoubleSignal(0);
+	private final BooleanSignal mHatchLimitSwitchSignal = new BooleanSignal(true);
+
 
 	private final CachedValue<Boolean> mTurretEncoderPresent;
 	private final CachedValue<Boolean> mTurretMasterHasReset;
 
-	private Turret() {
+	private Turret(Hardware hardware) {
 		mPeriodicIO = new PeriodicIO();
 
 		//Encoder on 50:1
 		//Turret gear is another 36:252
-		mTurretRotationMotor = new CKTalonSRX(DeviceIDConstants.kTurretMotorId, false, PDPBreaker.B30A);
-		mTurretRotationMotor.setInverted(true);
-		mTurretRotationMotor.setSensorPhase(true);
+		mTurretRotationMotor = hardware.turretRotationMotor;
 		mTurretRotationMotor.setPIDF(CalConstants.kTurretPositionKp, CalConstants.kTurretPositionKi, CalConstants.kTurretPositionKd, CalConstants.kTurretPositionKf);
-		mTurretRotationMotor.setMotionParameters(CalConstants.kTurretPositionCruiseVel, CalConstants.kTurretPositionMMAccel, CalConstants.kTurretPositionSCurveStrength);
 		zeroSensors();
-		mTurretRotationMotor.configForwardSoftLimitThreshold(CalConstants.kTurretForwardSoftLimit);
-		mTurretRotationMotor.configForwardSoftLimitEnable(true);
-		mTurretRotationMotor.configReverseSoftLimitThreshold(CalConstants.kTurretReverseSoftLimit);
-		mTurretRotationMotor.configReverseSoftLimitEnable(true);
-		mTurretRotationMotor.configCurrentLimit(CalConstants.kTurretContinuousCurrentLimit, CalConstants.kTurretPeakCurrentThreshold, CalConstants.kTurretPeakCurrentThresholdExceedDuration);
 		mTurretRotationMotor.setControlMode(MCControlMode.MotionMagic);
 
 //		TuneablePIDOSC x;
@@ -80,22 +77,19 @@ public class Turret extends Subsystem implements InterferenceSystem {
 //
 //		}
 
-		mBallShooterRollerMotor = new CKTalonSRX(DeviceIDConstants.kBallShooterMotorId, false, PDPBreaker.B30A);
-		mBallShooterRollerMotor.configForwardLimitSwitchSource(LimitSwitchSource.FeedbackConnector, LimitSwitchNormal.NormallyOpen);
+		mBallShooterRollerMotor = hardware.ballShooterRollerMotor;
 		mBallShooterRollerMotor.setMCOpenLoopRampRate(CalConstants.kTurretBallShooterOpenLoopRamp);
-		mBallShooterRollerMotor.configCurrentLimit(CalConstants.kTurretBallShooterContinuousCurrentLimit, CalConstants.kTurretBallShooterPeakCurrentThreshold, CalConstants.kTurretBallShooterPeakCurrentThresholdExceedDuration);
 
-		mHatchBeakSolenoid = new CKSolenoid(DeviceIDConstants.kHatchBeakSolenoidId);
+		mHatchBeakSolenoid = hardware.hatchBeakSolenoid;
 		mHatchBeakSolenoid.set(false);
 
-		mHatchBeakFeedSolenoid = new CKSolenoid(DeviceIDConstants.kHatchBeakFeedSolenoidId);
+		mHatchBeakFeedSolenoid = hardware.hatchBeakFeedSolenoid;
 		mHatchBeakFeedSolenoid.set(false);
 
-		mHatchPushSolenoid = new CKSolenoid(DeviceIDConstants.kHatchPushSolenoidId);
+		mHatchPushSolenoid = hardware.hatchPushSolenoid;
 		mHatchPushSolenoid.set(false);
 
-		mBallPushSolenoid = new CKSolenoid(DeviceIDConstants.kBallPushSolenoidId);
-		mBallPushSolenoid.setInverted(false);
+		mBallPushSolenoid = hardware.ballPushSolenoid;
 		mBallPushSolenoid.set(false);
 
 		turretAnyPositionCheck = new MotionInterferenceChecker(MotionInterferenceChecker.LogicOperation.AND, true,
@@ -109,7 +103,44 @@ public class Turret extends Subsystem implements InterferenceSystem {
 		mTurretMasterHasReset = new CachedValue<>(200, (t) -> mTurretRotationMotor.hasMotorControllerReset() != DiagnosticMessage.NO_MSG);
 	}
 
-	public static Turret getInstance() {
+	private static Hardware createRobotHardware() {
+		CKTalonSRX turretRotationMotor = new CKTalonSRX(DeviceIDConstants.kTurretMotorId, false, PDPBreaker.B30A);
+		turretRotationMotor.setInverted(true);
+		turretRotationMotor.setSensorPhase(true);
+		turretRotationMotor.setMotionParameters(CalConstants.kTurretPositionCruiseVel, CalConstants.kTurretPositionMMAccel, CalConstants.kTurretPositionSCurveStrength);
+		turretRotationMotor.configForwardSoftLimitThreshold(CalConstants.kTurretForwardSoftLimit);
+		turretRotationMotor.configForwardSoftLimitEnable(true);
+		turretRotationMotor.configReverseSoftLimitThreshold(CalConstants.kTurretReverseSoftLimit);
+		turretRotationMotor.configReverseSoftLimitEnable(true);
+		turretRotationMotor.configCurrentLimit(CalConstants.kTurretContinuousCurrentLimit, CalConstants.kTurretPeakCurrentThreshold, CalConstants.kTurretPeakCurrentThresholdExceedDuration);
+
+		CKTalonSRX ballShooterRollerMotor = new CKTalonSRX(DeviceIDConstants.kBallShooterMotorId, false, PDPBreaker.B30A);
+		ballShooterRollerMotor.configForwardLimitSwitchSource(LimitSwitchSource.FeedbackConnector, LimitSwitchNormal.NormallyOpen);
+		ballShooterRollerMotor.configCurrentLimit(CalConstants.kTurretBallShooterContinuousCurrentLimit, CalConstants.kTurretBallShooterPeakCurrentThreshold, CalConstants.kTurretBallShooterPeakCurrentThresholdExceedDuration);
+
+		CKSolenoid ballPushSolenoid = new CKSolenoid(DeviceIDConstants.kBallPushSolenoidId);
+		ballPushSolenoid.setInverted(false);
+
+		return new Hardware(turretRotationMotor, ballShooterRollerMotor,
+				new CKSolenoid(DeviceIDConstants.kHatchBeakSolenoidId),
+				new CKSolenoid(DeviceIDConstants.kHatchBeakFeedSolenoidId),
+				new CKSolenoid(DeviceIDConstants.kHatchPushSolenoidId),
+				ballPushSolenoid);
+	}
+
+	public static synchronized Turret getInstance() {
+		if (mInstance == null)
+			mInstance = new Turret(createRobotHardware());
+		return mInstance;
+	}
+
+	/**
+	 * Create the turret on other hardware, e.g. simulated devices. Must be called before the first getInstance().
+	 */
+	public static synchronized Turret createInstance(Hardware hardware) {
+		if (mInstance != null)
+			throw new IllegalStateException("Turret has already been created");
+		mInstance = new Turret(hardware);
 		return mInstance;
 	}
 
@@ -197,8 +228,8 @@ public class Turret extends Subsystem implements InterferenceSystem {
 						//Fall through on purpose to set position -> no break;
 					case VISION_TRACK:
 						//Preempts Auto Track
-						if (mVisionTracker.isTargetFound())
-							mPeriodicIO.turret_setpoint = convertTurretDegreesToRotations(mVisionTracker.getTargetHorizAngleDev());
+						if (VisionTracker.getInstance().isTrackValid())
+							mPeriodicIO.turret_setpoint = convertTurretDegreesToRotations(VisionTracker.getInstance().getTargetHorizAngleDev());
 						//Fall through on purpose to set position -> no break;
 					case POSITION:
 						if (turretAnyPositionCheck.hasPassedConditions() || Elevator.getInstance().getPosition() > ElevatorPositions.CargoBall
@@ -249,6 +280,10 @@ public class Turret extends Subsystem implements InterferenceSystem {
 
 	public synchronized boolean getLimitSwitchFallingEdge() { return mBallShooterRollerMotor.getReverseLimitFallingEdge(); }
 
+	public BooleanSignal getHatchLimitSwitchSignal() {
+		return mHatchLimitSwitchSignal;
+	}
+
 	public boolean isBeakListenerEnabled() { return beakListenerEnabled.get(); }
 
 	public void setBeakListened(boolean enabled) {
@@ -317,6 +352,10 @@ public class Turret extends Subsystem implements InterferenceSystem {
 		return mPeriodicIO.turret_position;
 	}
 
+	public DoubleSignal getPositionSignal() {
+		return mPositionSignal;
+	}
+
 	@Override
 	public double getSetpoint() {
 		return mPeriodicIO.turret_setpoint;
@@ -342,6 +381,9 @@ public class Turret extends Subsystem implements InterferenceSystem {
 		mPeriodicIO.turret_encoder_present = mTurretEncoderPresent.getValue();
 		mPeriodicIO.turret_reset = mTurretMasterHasReset.getValue();
 		mPeriodicIO.hatch_limit_switch = mBallShooterRollerMotor.getReverseLimitValue();
+
+		mPositionSignal.publish(mPeriodicIO.turret_position);
+		mHatchLimitSwitchSignal.publish(mPeriodicIO.hatch_limit_switch);
 	}
 
 	@Override
@@ -349,6 +391,25 @@ public class Turret extends Subsystem implements InterferenceSystem {
 
 	}
 
+	/**
+	 * Devices the turret runs on. The hatch limit switch is wired to the ball shooter roller's reverse limit input.
+	 */
+	public static class Hardware {
+		public final TuneableMotorController turretRotationMotor, ballShooterRollerMotor;
+		public final SolenoidOutput hatchBeakSolenoid, hatchBeakFeedSolenoid, hatchPushSolenoid, ballPushSolenoid;
+
+		public Hardware(TuneableMotorController turretRotationMotor, TuneableMotorController ballShooterRollerMotor,
+		                SolenoidOutput hatchBeakSolenoid, SolenoidOutput hatchBeakFeedSolenoid,
+		                SolenoidOutput hatchPushSolenoid, SolenoidOutput ballPushSolenoid) {
+			this.turretRotationMotor = turretRotationMotor;
+			this.ballShooterRollerMotor = ballShooterRollerMotor;
+			this.hatchBeakSolenoid = hatchBeakSolenoid;
+			this.hatchBeakFeedSolenoid = hatchBeakFeedSolenoid;
+			this.hatchPushSolenoid = hatchPushSolenoid;
+			this.ballPushSolenoid = ballPushSolenoid;
+		}
+	}
+
 	@SuppressWarnings("WeakerAccess")
 	public static class PeriodicIO {
 		//Making members public here will automatically add them to logs
@@ -5,14 +5,13 @@ import com.team195.frc2019.loops.ILooper;
 import com.team195.frc2019.loops.Loop;
 import com.team195.frc2019.reporters.ConsoleReporter;
 import com.team195.frc2019.reporters.ReflectingLogDataGenerator;
-import com.team195.lib.util.CachedValue;
-import com.team195.lib.util.ElapsedTimer;
-import com.team254.lib.geometry.Translation2d;
-import com.team254.lib.util.MovingAverage;
-import edu.wpi.first.networktables.NetworkTable;
+import com.team195.lib.drivers.LimelightCornerProcessor;
+import com.team195.lib.drivers.LimelightFrame;
+import com.team195.lib.drivers.LimelightReader;
+import com.team195.lib.drivers.LimelightTargetTrack;
+import com.team195.lib.util.TimeSource;
 import edu.wpi.first.networktables.NetworkTableInstance;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class VisionTracker extends Subsystem {
@@ -23,9 +22,16 @@ public class VisionTracker extends Subsystem {
 	private TargetMode mTargetMode = TargetMode.HATCH;
 	private boolean mVisionEnabled = false;
 
-	private NetworkTable mCurrentTargetingLimelightNT;
-	private CachedValue<NetworkTable> limelightFrontNT = new CachedValue<>(100, (t) -> NetworkTableInstance.getDefault().getTable("limelight-turret"));
-	private CachedValue<NetworkTable> limelightBackNT = new CachedValue<>(100, (t) -> NetworkTableInstance.getDefault().getTable("limelight-back"));
+	private final LimelightReader mLimelightFront = new LimelightReader(NetworkTableInstance.getDefault().getTable("limelight-turret"));
+	private final LimelightReader mLimelightBack = new LimelightReader(NetworkTableInstance.getDefault().getTable("limelight-back"));
+	private LimelightReader mCurrentTargetingLimelight = mLimelightBack;
+	// Both cameras are tracked all the time, so switching target mode does not have to wait for a filter to settle.
+	private final LimelightFrame mFrontFrame = new LimelightFrame();
+	private final LimelightFrame mBackFrame = new LimelightFrame();
+	private final LimelightTargetTrack mFrontTrack = new LimelightTargetTrack();
+	private final LimelightTargetTrack mBackTrack = new LimelightTargetTrack();
+	private final LimelightCornerProcessor mFrontCorners = LimelightCornerProcessor.createHatchTargetProcessor();
+	private final LimelightCornerProcessor mBackCorners = LimelightCornerProcessor.createHatchTargetProcessor();
 
 	public static VisionTracker getInstance() {
 		return mInstance;
@@ -55,14 +61,14 @@ public class VisionTracker extends Subsystem {
 				switch (mTargetMode) {
 					case ROCKET_BALL:
 						mPeriodicIO.pipelineFront = mVisionEnabled ? 1 : 0;
-						mCurrentTargetingLimelightNT = limelightFrontNT.getValue();
+						mCurrentTargetingLimelight = mLimelightFront;
 						break;
 					case HATCH:
 					case HATCH_AUTOSKEW:
 					case CARGO_BALL:
 					default:
 						mPeriodicIO.pipelineBack = mVisionEnabled ? 1 : 0;
-						mCurrentTargetingLimelightNT = limelightBackNT.getValue();
+						mCurrentTargetingLimelight = mLimelightBack;
 						break;
 				}
 			}
@@ -103,26 +109,37 @@ public class VisionTracker extends Subsystem {
 		return mVisionEnabled;
 	}
 
+	/**
+	 * @return Whether the latest frame from the targeting Limelight saw a target
+	 */
 	public boolean isTargetFound() {
 		return mVisionEnabled && mPeriodicIO.targetValid > 0;
 	}
 
-	public boolean isTargetAreaReached() { return mPeriodicIO.targetArea >= TargetingConstants.kVisionOffThreshold; }
+	/**
+	 * @return Whether the filtered target values are usable, which they stay for kTrackLostTimeout after the target was
+	 * last seen
+	 */
+	public boolean isTrackValid() {
+		return mVisionEnabled && mPeriodicIO.targetTracked;
+	}
+
+	public boolean isTargetAreaReached() { return mPeriodicIO.filteredArea >= TargetingConstants.kVisionOffThreshold; }
 
 	public double getTargetDistance() {
 		return mVisionEnabled ? mPeriodicIO.targetDistance : 0;
 	}
 
 	public double getTargetHorizAngleDev() {
-		return mVisionEnabled ? mPeriodicIO.targetHorizontalDeviation : 0;
+		return mVisionEnabled ? mPeriodicIO.filteredHorizontalDeviation : 0;
 	}
 
 	public double getTargetVertAngleDev() {
-		return mVisionEnabled ? mPeriodicIO.targetVerticalDeviation : 0;
+		return mVisionEnabled ? mPeriodicIO.filteredVerticalDeviation : 0;
 	}
 
 	public synchronized double getSkewFactor() {
-		return mPeriodicIO.calculatedSkewFactor.getAverage();
+		return mPeriodicIO.calculatedSkewFactor;
 	}
 
 	public synchronized void setVisionEnabled(boolean enabled) {
@@ -134,7 +151,14 @@ public class VisionTracker extends Subsystem {
 	}
 
 	public double getTargetSkew() {
-		return mPeriodicIO.targetSkew;
+		return mPeriodicIO.filteredSkew;
+	}
+
+	/**
+	 * @return When the image the current target values came from was captured (s)
+	 */
+	public synchronized double getTargetCaptureTimestamp() {
+		return mPeriodicIO.targetCaptureTimestamp;
 	}
 
 	@Override
@@ -146,43 +170,35 @@ public class VisionTracker extends Subsystem {
 	public synchronized void readPeriodicInputs() {
 		try {
 			if (mVisionEnabled) {
-				mPeriodicIO.targetValid = mCurrentTargetingLimelightNT.getEntry("tv").getDouble(0);
-				mPeriodicIO.targetHorizontalDeviation = mCurrentTargetingLimelightNT.getEntry("tx").getDouble(0);
-				mPeriodicIO.targetVerticalDeviation = mCurrentTargetingLimelightNT.getEntry("ty").getDouble(0);
-				mPeriodicIO.targetArea = mCurrentTargetingLimelightNT.getEntry("ta").getDouble(0);
-				mPeriodicIO.targetSkew = mCurrentTargetingLimelightNT.getEntry("ts").getDouble(0);
-				mPeriodicIO.targetLatency = mCurrentTargetingLimelightNT.getEntry("tl").getDouble(0);
-				mPeriodicIO.targetShortSide = mCurrentTargetingLimelightNT.getEntry("tshort").getDouble(0);
-				mPeriodicIO.targetLongSide = mCurrentTargetingLimelightNT.getEntry("tlong").getDouble(0);
-				mPeriodicIO.targetHorizontalSide = mCurrentTargetingLimelightNT.getEntry("thor").getDouble(0);
-				mPeriodicIO.targetVerticalSide = mCurrentTargetingLimelightNT.getEntry("tvert").getDouble(0);
-				mPeriodicIO.getPipelineValue = mCurrentTargetingLimelightNT.getEntry("getpipe").getDouble(0);
-				mPeriodicIO.cameraTranslationRotation = mCurrentTargetingLimelightNT.getEntry("camtran").getDouble(0);
-
-				try {
-					double xArr[] = mCurrentTargetingLimelightNT.getEntry("tcornx").getDoubleArray(new double[]{0});
-					double yArr[] = mCurrentTargetingLimelightNT.getEntry("tcorny").getDoubleArray(new double[]{0});
-
-					if (xArr.length == yArr.length && xArr.length > 4) {
-						mPeriodicIO.pointArray.clear();
-						for (int i = 0; i < xArr.length; i++) {
-							mPeriodicIO.pointArray.add(new Translation2d(xArr[i], yArr[i]));
-						}
-
-						Translation2d upperLeftPoint = mPeriodicIO.pointArray.get(0);
-						Translation2d lowerLeftPoint = mPeriodicIO.pointArray.get(1);
-						Translation2d lowerRightPoint = mPeriodicIO.pointArray.get(yArr.length - 2);
-						Translation2d upperRightPoint = mPeriodicIO.pointArray.get(yArr.length - 1);
-
-						double upperLineSlope = Math.abs((upperRightPoint.y() - upperLeftPoint.y()) / (upperRightPoint.x() - upperLeftPoint.x()));
-						double lowerLineSlope = (lowerRightPoint.y() - lowerLeftPoint.y()) / (lowerRightPoint.x() - lowerLeftPoint.x());
-						mPeriodicIO.calculatedSkewFactor.addNumber(Math.toDegrees(Math.atan((upperLineSlope + Math.abs(lowerLineSlope)) / 2.0)) * Math.signum(lowerLineSlope));
-					} else {
-						mPeriodicIO.calculatedSkewFactor.clear();
-					}
-				} catch (Exception ex) {
-					ConsoleReporter.report(ex);
-				}
+				ingest(mLimelightFront, mFrontFrame, mFrontCorners, mFrontTrack);
+				ingest(mLimelightBack, mBackFrame, mBackCorners, mBackTrack);
+
+				final boolean front = mCurrentTargetingLimelight == mLimelightFront;
+				final LimelightFrame frame = front ? mFrontFrame : mBackFrame;
+				final LimelightCornerProcessor corners = front ? mFrontCorners : mBackCorners;
+				final LimelightTargetTrack track = front ? mFrontTrack : mBackTrack;
+				mPeriodicIO.targetValid = frame.targetValid;
+				mPeriodicIO.targetHorizontalDeviation = frame.targetHorizontalDeviation;
+				mPeriodicIO.targetVerticalDeviation = frame.targetVerticalDeviation;
+				mPeriodicIO.targetArea = frame.targetArea;
+				mPeriodicIO.targetSkew = frame.targetSkew;
+				mPeriodicIO.targetLatency = frame.latency;
+				mPeriodicIO.targetCaptureTimestamp = frame.getCaptureTimestamp();
+				mPeriodicIO.targetShortSide = frame.targetShortSide;
+				mPeriodicIO.targetLongSide = frame.targetLongSide;
+				mPeriodicIO.targetHorizontalSide = frame.targetHorizontalSide;
+				mPeriodicIO.targetVerticalSide = frame.targetVerticalSide;
+				mPeriodicIO.getPipelineValue = frame.pipeline;
+				mPeriodicIO.cameraTranslationRotation = frame.cameraTranslationRotation;
+
+				final double now = TimeSource.getTimestamp();
+				mPeriodicIO.targetTracked = track.isTracking(now);
+				mPeriodicIO.filteredHorizontalDeviation = track.getHorizontalDeviation(now);
+				mPeriodicIO.filteredVerticalDeviation = track.getVerticalDeviation(now);
+				mPeriodicIO.filteredArea = track.getArea(now);
+				mPeriodicIO.filteredSkew = track.getSkew(now);
+				mPeriodicIO.calculatedSkewFactor = track.getCornerSkew(now);
+				mPeriodicIO.targetDistance = corners.getDistance();
 
 //				mPeriodicIO.targetDistance = mTargetMode == TargetMode.ROCKET_BALL ?
 //						(TargetingConstants.kRocketBallTargetHeight - TargetingConstants.kLimelightFrontMountedHeightToFloor) /
@@ -197,6 +213,7 @@ public class VisionTracker extends Subsystem {
 				mPeriodicIO.targetArea = 0;
 				mPeriodicIO.targetSkew = 0;
 				mPeriodicIO.targetLatency = 0;
+				mPeriodicIO.targetCaptureTimestamp = 0;
 				mPeriodicIO.targetShortSide = 0;
 				mPeriodicIO.targetLongSide = 0;
 				mPeriodicIO.targetHorizontalSide = 0;
@@ -204,7 +221,14 @@ public class VisionTracker extends Subsystem {
 				mPeriodicIO.getPipelineValue = 0;
 				mPeriodicIO.cameraTranslationRotation = 0;
 				mPeriodicIO.targetDistance = 0;
-				mPeriodicIO.calculatedSkewFactor.clear();
+				mPeriodicIO.targetTracked = false;
+				mPeriodicIO.filteredHorizontalDeviation = 0;
+				mPeriodicIO.filteredVerticalDeviation = 0;
+				mPeriodicIO.filteredArea = 0;
+				mPeriodicIO.filteredSkew = 0;
+				mPeriodicIO.calculatedSkewFactor = 0;
+				mFrontTrack.clear();
+				mBackTrack.clear();
 			}
 		}
 		catch (Exception ex) {
@@ -212,11 +236,19 @@ public class VisionTracker extends Subsystem {
 		}
 	}
 
+	private static void ingest(LimelightReader reader, LimelightFrame frame, LimelightCornerProcessor corners,
+	                           LimelightTargetTrack track) {
+		if (reader.getFrameIfNewer(frame.sequence, frame)) {
+			corners.process(frame.cornerX, frame.cornerY, frame.hasMatchingCorners() ? frame.cornerXCount : 0);
+			track.update(frame, corners.getSkew());
+		}
+	}
+
 	@Override
 	public synchronized void writePeriodicOutputs() {
 		try {
-			limelightFrontNT.getValue().getEntry("pipeline").setNumber(mPeriodicIO.pipelineFront);
-			limelightBackNT.getValue().getEntry("pipeline").setNumber(mPeriodicIO.pipelineBack);
+			mLimelightFront.setPipeline(mPeriodicIO.pipelineFront);
+			mLimelightBack.setPipeline(mPeriodicIO.pipelineBack);
 		}
 		catch (Exception ex) {
 			ConsoleReporter.report(ex);
@@ -242,6 +274,7 @@ public class VisionTracker extends Subsystem {
 		public double targetArea;
 		double targetSkew;
 		double targetLatency;
+		double targetCaptureTimestamp;
 		double targetShortSide;
 		double targetLongSide;
 		double targetHorizontalSide;
@@ -249,9 +282,12 @@ public class VisionTracker extends Subsystem {
 		double targetDistance;
 		double getPipelineValue;
 		double cameraTranslationRotation;
-		public MovingAverage calculatedSkewFactor = new MovingAverage(10);
-
-		ArrayList<Translation2d> pointArray = new ArrayList<>();
+		public boolean targetTracked;
+		public double filteredHorizontalDeviation;
+		double filteredVerticalDeviation;
+		public double filteredArea;
+		double filteredSkew;
+		public double calculatedSkewFactor;
 
 		//Written values
 		int pipelineFront;
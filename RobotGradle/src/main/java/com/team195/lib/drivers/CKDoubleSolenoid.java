@@ -2,7 +2,7 @@ package com.team195.lib.drivers;
 
 import edu.wpi.first.wpilibj.DoubleSolenoid;
 
-public class CKDoubleSolenoid extends DoubleSolenoid {
+public class CKDoubleSolenoid extends DoubleSolenoid implements SolenoidOutput {
 
 	private boolean mReversed = false;
 
@@ -14,6 +14,7 @@ public class CKDoubleSolenoid extends DoubleSolenoid {
 		mReversed = reversed;
 	}
 
+	@Override
 	public void set(boolean on) {
 		Value setVal;
 
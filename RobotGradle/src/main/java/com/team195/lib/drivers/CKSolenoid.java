@@ -2,7 +2,7 @@ package com.team195.lib.drivers;
 
 import edu.wpi.first.wpilibj.Solenoid;
 
-public class CKSolenoid extends Solenoid {
+public class CKSolenoid extends Solenoid implements SolenoidOutput {
 	private boolean mInverted = false;
 
 	public CKSolenoid(int solenoidChannel) {
@@ -0,0 +1,239 @@
+package com.team195.lib.drivers;
+
+import com.team195.frc2019.constants.TargetingConstants;
+import com.team254.lib.geometry.MutablePose2d;
+import com.team254.lib.util.FastTrig;
+
+/**
+ * Estimates a target's skew, distance and pose relative to the camera from the corners the Limelight reports in
+ * tcornx/tcorny, working on the primitive arrays so that nothing is allocated.
+ * <p>
+ * The outer quadrilateral is found from the extreme corners, so the order the corners arrive in does not matter. The
+ * top and bottom edges are then least-squares fit through every corner lying near them, which averages out the pixel
+ * noise of any one corner. Skew keeps its existing definition: the mean of the edges' absolute slopes as an angle,
+ * signed by the bottom edge. Distance comes from the outline's apparent height, and yaw from how much narrower it looks
+ * than it is; both use a pinhole model of the camera and ignore its pitch, which is small on this robot. The yaw and the
+ * pose are only worked out when asked for.
+ */
+public class LimelightCornerProcessor {
+	private final double mFocalLengthX;
+	private final double mFocalLengthY;
+	private final double mCenterX;
+	private final double mTargetWidth;
+	private final double mTargetHeight;
+	private final double mInlierThreshold;
+
+	private boolean mValid = false;
+	private double mSkew;
+
+	// Outline measurements from the last frame. The target's bearing and yaw are only worked out from them when asked
+	// for, since only the skew and distance are needed every frame.
+	private double mLeftHeight;
+	private double mRightHeight;
+	private double mWidth;
+	private double mOutlineCenterX;
+	private double mDistance;
+	private boolean mPoseCalculated = false;
+	private double mYaw;
+	private double mBearing;
+
+	public static LimelightCornerProcessor createHatchTargetProcessor() {
+		return new LimelightCornerProcessor(TargetingConstants.kLimelightImageWidth,
+				TargetingConstants.kLimelightImageHeight,
+				TargetingConstants.kLimelightHorizontalFov,
+				TargetingConstants.kLimelightVerticalFov,
+				TargetingConstants.kHatchTargetOutlineWidth,
+				TargetingConstants.kHatchTargetOutlineHeight,
+				TargetingConstants.kTargetCornerInlierThreshold);
+	}
+
+	/**
+	 * @param imageWidth      Image width (px)
+	 * @param imageHeight     Image height (px)
+	 * @param horizontalFov   Horizontal field of view (deg)
+	 * @param verticalFov     Vertical field of view (deg)
+	 * @param targetWidth     Width of the target's outline
+	 * @param targetHeight    Height of the target's outline, in the same units as the width
+	 * @param inlierThreshold Corners within this distance of an edge are used to fit it (px)
+	 */
+	public LimelightCornerProcessor(int imageWidth, int imageHeight, double horizontalFov, double verticalFov,
+	                                double targetWidth, double targetHeight, double inlierThreshold) {
+		mFocalLengthX = imageWidth / 2.0 / Math.tan(Math.toRadians(horizontalFov) / 2.0);
+		mFocalLengthY = imageHeight / 2.0 / Math.tan(Math.toRadians(verticalFov) / 2.0);
+		mCenterX = imageWidth / 2.0;
+		mTargetWidth = targetWidth;
+		mTargetHeight = targetHeight;
+		mInlierThreshold = inlierThreshold;
+	}
+
+	/**
+	 * Process the corners of one frame. Image coordinates have y pointing down, as the Limelight reports them.
+	 *
+	 * @return Whether there were enough distinct corners to describe the target. As before, more than four are needed,
+	 * since four corners are only one of the target's two strips.
+	 */
+	public boolean process(double[] x, double[] y, int count) {
+		mValid = false;
+		mPoseCalculated = false;
+		if (count <= 4) {
+			return false;
+		}
+
+		int upperLeft = 0, upperRight = 0, lowerLeft = 0, lowerRight = 0;
+		double minSum = x[0] + y[0];
+		double maxSum = minSum;
+		double minDifference = x[0] - y[0];
+		double maxDifference = minDifference;
+		for (int i = 1; i < count; ++i) {
+			final double sum = x[i] + y[i];
+			final double difference = x[i] - y[i];
+			if (sum < minSum) {
+				minSum = sum;
+				upperLeft = i;
+			} else if (sum > maxSum) {
+				maxSum = sum;
+				lowerRight = i;
+			}
+			if (difference > maxDifference) {
+				maxDifference = difference;
+				upperRight = i;
+			} else if (difference < minDifference) {
+				minDifference = difference;
+				lowerLeft = i;
+			}
+		}
+		if (upperLeft == upperRight || lowerLeft == lowerRight || upperLeft == lowerLeft
+				|| upperRight == lowerRight) {
+			return false;
+		}
+
+		// Fit both edges in one pass over the corners. Each corner can only be near the edge on its side of the
+		// outline's middle, so it is only tested against that one. Its distance from the edge times the edge's length is
+		// compared squared, to save a square root per edge and a division per corner.
+		final double upperX = x[upperLeft], upperY = y[upperLeft];
+		final double upperDx = x[upperRight] - upperX, upperDy = y[upperRight] - upperY;
+		final double lowerX = x[lowerLeft], lowerY = y[lowerLeft];
+		final double lowerDx = x[lowerRight] - lowerX, lowerDy = y[lowerRight] - lowerY;
+		final double middleY = (upperY + y[upperRight] + lowerY + y[lowerRight]) / 4.0;
+		final double thresholdSquared = mInlierThreshold * mInlierThreshold;
+		final double upperThreshold = thresholdSquared * (upperDx * upperDx + upperDy * upperDy);
+		final double lowerThreshold = thresholdSquared * (lowerDx * lowerDx + lowerDy * lowerDy);
+		int upperN = 0, lowerN = 0;
+		double upperSumX = 0, upperSumY = 0, upperSumXX = 0, upperSumXY = 0;
+		double lowerSumX = 0, lowerSumY = 0, lowerSumXX = 0, lowerSumXY = 0;
+		for (int i = 0; i < count; ++i) {
+			final double xi = x[i];
+			final double yi = y[i];
+			if (yi < middleY) {
+				final double cross = (xi - upperX) * upperDy - (yi - upperY) * upperDx;
+				if (cross * cross <= upperThreshold) {
+					++upperN;
+					upperSumX += xi;
+					upperSumY += yi;
+					upperSumXX += xi * xi;
+					upperSumXY += xi * yi;
+				}
+			} else {
+				final double cross = (xi - lowerX) * lowerDy - (yi - lowerY) * lowerDx;
+				if (cross * cross <= lowerThreshold) {
+					++lowerN;
+					lowerSumX += xi;
+					lowerSumY += yi;
+					lowerSumXX += xi * xi;
+					lowerSumXY += xi * yi;
+				}
+			}
+		}
+		final double upperSlope = fitSlope(upperN, upperSumX, upperSumY, upperSumXX, upperSumXY, upperDx, upperDy);
+		final double lowerSlope = fitSlope(lowerN, lowerSumX, lowerSumY, lowerSumXX, lowerSumXY, lowerDx, lowerDy);
+		if (Double.isNaN(upperSlope) || Double.isNaN(lowerSlope)) {
+			return false;
+		}
+
+		mLeftHeight = y[lowerLeft] - upperY;
+		mRightHeight = y[lowerRight] - y[upperRight];
+		mWidth = (upperDx + lowerDx) / 2.0;
+		if (mLeftHeight + mRightHeight <= 0 || mWidth <= 0) {
+			return false;
+		}
+		mOutlineCenterX = (upperX + x[upperRight] + lowerX + x[lowerRight]) / 4.0;
+		mDistance = mFocalLengthY * mTargetHeight / ((mLeftHeight + mRightHeight) / 2.0);
+
+		mSkew = Math.toDegrees(FastTrig.atan2((Math.abs(upperSlope) + Math.abs(lowerSlope)) / 2.0, 1.0))
+				* Math.signum(lowerSlope);
+		mValid = true;
+		return true;
+	}
+
+	/**
+	 * Least-squares slope (dy/dx) from the sums of the corners near an edge, or the edge's own slope if they do not
+	 * determine one.
+	 */
+	private static double fitSlope(int n, double sumX, double sumY, double sumXX, double sumXY, double dx,
+	                               double dy) {
+		final double denominator = n * sumXX - sumX * sumX;
+		if (n < 2 || denominator == 0) {
+			return dy / dx;
+		}
+		return (n * sumXY - sumX * sumY) / denominator;
+	}
+
+	private void calculatePose() {
+		if (mPoseCalculated) {
+			return;
+		}
+		final double height = (mLeftHeight + mRightHeight) / 2.0;
+		mBearing = FastTrig.atan2(mOutlineCenterX - mCenterX, mFocalLengthX);
+		// The outline's width in the image shrinks with the cosine of its yaw relative to the line of sight, while its
+		// height does not change: width / height = (targetWidth / targetHeight) * cos(yaw - lineOfSight) / cos(lineOfSight)
+		final double lineOfSight = -mBearing;
+		final double cosRelativeYaw = Math.min(1.0, (mWidth / mFocalLengthX) / (height / mFocalLengthY)
+				* mTargetHeight / mTargetWidth * FastTrig.cos(lineOfSight));
+		// The nearer side looks taller.
+		final double relativeYaw = FastTrig.atan2(Math.sqrt(1.0 - cosRelativeYaw * cosRelativeYaw), cosRelativeYaw);
+		mYaw = lineOfSight + relativeYaw * Math.signum(mLeftHeight - mRightHeight);
+		mPoseCalculated = true;
+	}
+
+	public boolean isValid() {
+		return mValid;
+	}
+
+	/**
+	 * @return Skew from the top and bottom edges (deg), or NaN if the last frame could not be processed
+	 */
+	public double getSkew() {
+		return mValid ? mSkew : Double.NaN;
+	}
+
+	/**
+	 * @return Distance from the camera to the target along the camera's axis, in the units of the target's size
+	 */
+	public double getDistance() {
+		return mValid ? mDistance : 0;
+	}
+
+	/**
+	 * @return Rotation of the target about the vertical (rad), positive when its left side is nearer
+	 */
+	public double getYaw() {
+		if (!mValid) {
+			return 0;
+		}
+		calculatePose();
+		return mYaw;
+	}
+
+	/**
+	 * Write the target's pose in the camera's frame (x forward, y left) to out.
+	 *
+	 * @return out
+	 */
+	public MutablePose2d getCameraToTarget(MutablePose2d out) {
+		if (!mValid) {
+			return out.setIdentity();
+		}
+		calculatePose();
+		return out.set(mDistance, -mDistance * Math.tan(mBearing), Math.cos(mYaw), Math.sin(mYaw));
+	}
+}
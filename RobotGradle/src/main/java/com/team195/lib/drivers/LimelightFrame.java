@@ -0,0 +1,79 @@
+package com.team195.lib.drivers;
+
+/**
+ * One frame of Limelight targeting data, stored in primitives so that it can be copied between threads without
+ * allocating.
+ */
+public class LimelightFrame {
+	public static final int kMaxCorners = 64;
+
+	/**
+	 * Increases by one each time a new frame is published. -1 until the first frame arrives.
+	 */
+	public long sequence = -1;
+
+	/**
+	 * When the frame was published, i.e. when its tl arrived (s)
+	 */
+	public double timestamp;
+
+	/**
+	 * Pipeline latency plus image capture latency (ms)
+	 */
+	public double latency;
+
+	public double targetValid;
+	public double targetHorizontalDeviation;
+	public double targetVerticalDeviation;
+	public double targetArea;
+	public double targetSkew;
+	public double targetShortSide;
+	public double targetLongSide;
+	public double targetHorizontalSide;
+	public double targetVerticalSide;
+	public double pipeline;
+	public double cameraTranslationRotation;
+
+	public final double[] cornerX = new double[kMaxCorners];
+	public final double[] cornerY = new double[kMaxCorners];
+	public int cornerXCount;
+	public int cornerYCount;
+
+	/**
+	 * @return When the image was captured (s)
+	 */
+	public double getCaptureTimestamp() {
+		return timestamp - latency / 1000.0;
+	}
+
+	/**
+	 * Both corner arrays are published together with the rest of the frame, but the Limelight can still send arrays of
+	 * different lengths, e.g. while a contour is being lost.
+	 *
+	 * @return Whether both corner arrays hold the same number of points, so they describe one contour
+	 */
+	public boolean hasMatchingCorners() {
+		return cornerXCount == cornerYCount;
+	}
+
+	public void copyFrom(LimelightFrame other) {
+		sequence = other.sequence;
+		timestamp = other.timestamp;
+		latency = other.latency;
+		targetValid = other.targetValid;
+		targetHorizontalDeviation = other.targetHorizontalDeviation;
+		targetVerticalDeviation = other.targetVerticalDeviation;
+		targetArea = other.targetArea;
+		targetSkew = other.targetSkew;
+		targetShortSide = other.targetShortSide;
+		targetLongSide = other.targetLongSide;
+		targetHorizontalSide = other.targetHorizontalSide;
+		targetVerticalSide = other.targetVerticalSide;
+		pipeline = other.pipeline;
+		cameraTranslationRotation = other.cameraTranslationRotation;
+		System.arraycopy(other.cornerX, 0, cornerX, 0, other.cornerXCount);
+		System.arraycopy(other.cornerY, 0, cornerY, 0, other.cornerYCount);
+		cornerXCount = other.cornerXCount;
+		cornerYCount = other.cornerYCount;
+	}
+}
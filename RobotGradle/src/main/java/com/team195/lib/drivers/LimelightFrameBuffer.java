@@ -0,0 +1,146 @@
+package com.team195.lib.drivers;
+
+/**
+ * Collects Limelight values as they arrive on the NetworkTables listener thread and hands out copies of the latest
+ * frame to the control loop. The listener writes into a pending frame and readers copy the published one into their
+ * own, both under a short lock, so neither side ever sees a half-written frame and nothing is allocated.
+ * <p>
+ * The Limelight updates its entries one at a time, and NetworkTables only notifies entries whose value changed, so an
+ * image may update any subset of the fields, tl included. Updates are coalesced by the time they arrive: the results of
+ * one image arrive within a few milliseconds of each other, well inside the frame period, so updates closer together
+ * than kCoalesceWindow are one frame. A frame is published when tl arrives, when an update arrives after the window
+ * (the next image), or when a reader asks after the window has passed.
+ */
+public class LimelightFrameBuffer {
+	public static final int kTargetValid = 0;
+	public static final int kTargetHorizontalDeviation = 1;
+	public static final int kTargetVerticalDeviation = 2;
+	public static final int kTargetArea = 3;
+	public static final int kTargetSkew = 4;
+	public static final int kLatency = 5;
+	public static final int kTargetShortSide = 6;
+	public static final int kTargetLongSide = 7;
+	public static final int kTargetHorizontalSide = 8;
+	public static final int kTargetVerticalSide = 9;
+	public static final int kPipeline = 10;
+	public static final int kCameraTranslationRotation = 11;
+	public static final int kNumFields = 12;
+
+	/**
+	 * Time from exposure to the start of processing that the Limelight does not include in tl
+	 */
+	public static final double kImageCaptureLatencyMs = 11.0;
+
+	/**
+	 * Updates that arrive within this time (s) of the first unpublished one belong to the same image. The Limelight
+	 * processes at most 90 images per second.
+	 */
+	public static final double kCoalesceWindow = 0.005;
+
+	private final LimelightFrame mPendingFrame = new LimelightFrame();
+	private final LimelightFrame mFrame = new LimelightFrame();
+	private boolean mPending = false;
+	private double mPendingStartTimestamp = 0;
+
+	public synchronized void setValue(int field, double value, double timestamp) {
+		beginUpdate(timestamp);
+		switch (field) {
+			case kTargetValid:
+				mPendingFrame.targetValid = value;
+				break;
+			case kTargetHorizontalDeviation:
+				mPendingFrame.targetHorizontalDeviation = value;
+				break;
+			case kTargetVerticalDeviation:
+				mPendingFrame.targetVerticalDeviation = value;
+				break;
+			case kTargetArea:
+				mPendingFrame.targetArea = value;
+				break;
+			case kTargetSkew:
+				mPendingFrame.targetSkew = value;
+				break;
+			case kLatency:
+				mPendingFrame.latency = value + kImageCaptureLatencyMs;
+				// Normally the last value the Limelight writes for an image.
+				publish();
+				break;
+			case kTargetShortSide:
+				mPendingFrame.targetShortSide = value;
+				break;
+			case kTargetLongSide:
+				mPendingFrame.targetLongSide = value;
+				break;
+			case kTargetHorizontalSide:
+				mPendingFrame.targetHorizontalSide = value;
+				break;
+			case kTargetVerticalSide:
+				mPendingFrame.targetVerticalSide = value;
+				break;
+			case kPipeline:
+				mPendingFrame.pipeline = value;
+				break;
+			case kCameraTranslationRotation:
+				mPendingFrame.cameraTranslationRotation = value;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown Limelight field " + field);
+		}
+	}
+
+	/**
+	 * Store the x (tcornx) or y (tcorny) coordinates of the target's corners. Extra corners past
+	 * LimelightFrame.kMaxCorners are ignored.
+	 */
+	public synchronized void setCorners(boolean x, double[] values, double timestamp) {
+		beginUpdate(timestamp);
+		final int count = Math.min(values.length, LimelightFrame.kMaxCorners);
+		if (x) {
+			System.arraycopy(values, 0, mPendingFrame.cornerX, 0, count);
+			mPendingFrame.cornerXCount = count;
+		} else {
+			System.arraycopy(values, 0, mPendingFrame.cornerY, 0, count);
+			mPendingFrame.cornerYCount = count;
+		}
+	}
+
+	private void beginUpdate(double timestamp) {
+		if (mPending && timestamp - mPendingStartTimestamp >= kCoalesceWindow) {
+			publish();
+		}
+		if (!mPending) {
+			mPending = true;
+			mPendingStartTimestamp = timestamp;
+		}
+		mPendingFrame.timestamp = timestamp;
+	}
+
+	private void publish() {
+		++mPendingFrame.sequence;
+		mFrame.copyFrom(mPendingFrame);
+		mPending = false;
+	}
+
+	/**
+	 * Copy the latest frame into out if one has been published since the given sequence number. Updates that have not
+	 * been published yet are published first if they are older than kCoalesceWindow.
+	 *
+	 * @param sequence  The sequence of the last frame read, or -1 to always copy once data has arrived
+	 * @param timestamp The current time (s), on the clock the updates were stamped with
+	 * @return Whether out was updated
+	 */
+	public synchronized boolean getFrameIfNewer(long sequence, LimelightFrame out, double timestamp) {
+		if (mPending && timestamp - mPendingStartTimestamp >= kCoalesceWindow) {
+			publish();
+		}
+		if (mFrame.sequence == sequence || mFrame.sequence < 0) {
+			return false;
+		}
+		out.copyFrom(mFrame);
+		return true;
+	}
+
+	public synchronized long getSequence() {
+		return mFrame.sequence;
+	}
+}
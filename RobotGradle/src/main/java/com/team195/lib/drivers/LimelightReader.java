@@ -0,0 +1,80 @@
+package com.team195.lib.drivers;
+
+import com.team195.lib.util.TimeSource;
+import edu.wpi.first.networktables.EntryListenerFlags;
+import edu.wpi.first.networktables.EntryNotification;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableValue;
+
+/**
+ * Reads a Limelight's NetworkTable through entry listeners instead of polling it. The entries are looked up once, and
+ * each update is copied into a {@link LimelightFrameBuffer} on the NetworkTables listener thread, so the control loop
+ * only has to copy a frame when the camera has actually sent a new one.
+ */
+public class LimelightReader {
+	// Indexed by the LimelightFrameBuffer field constants.
+	private static final String[] kValueKeys = {"tv", "tx", "ty", "ta", "ts", "tl", "tshort", "tlong", "thor",
+			"tvert", "getpipe", "camtran"};
+
+	private static final int kListenerFlags = EntryListenerFlags.kNew | EntryListenerFlags.kUpdate
+			| EntryListenerFlags.kImmediate;
+
+	private final LimelightFrameBuffer mFrameBuffer = new LimelightFrameBuffer();
+	private final NetworkTableEntry[] mEntries;
+	private final int[] mListenerHandles;
+	private final NetworkTableEntry mPipelineEntry;
+	private int mLastPipeline = Integer.MIN_VALUE;
+
+	public LimelightReader(NetworkTable table) {
+		mEntries = new NetworkTableEntry[LimelightFrameBuffer.kNumFields + 2];
+		mListenerHandles = new int[mEntries.length];
+		for (int i = 0; i < LimelightFrameBuffer.kNumFields; ++i) {
+			final int field = i;
+			mEntries[i] = table.getEntry(kValueKeys[i]);
+			mListenerHandles[i] = mEntries[i].addListener((n) -> onValue(field, n.value), kListenerFlags);
+		}
+		final int cornerX = LimelightFrameBuffer.kNumFields;
+		final int cornerY = cornerX + 1;
+		mEntries[cornerX] = table.getEntry("tcornx");
+		mListenerHandles[cornerX] = mEntries[cornerX].addListener((n) -> onCorners(true, n), kListenerFlags);
+		mEntries[cornerY] = table.getEntry("tcorny");
+		mListenerHandles[cornerY] = mEntries[cornerY].addListener((n) -> onCorners(false, n), kListenerFlags);
+		mPipelineEntry = table.getEntry("pipeline");
+	}
+
+	private void onValue(int field, NetworkTableValue value) {
+		if (value.isDouble()) {
+			mFrameBuffer.setValue(field, value.getDouble(), TimeSource.getTimestamp());
+		}
+	}
+
+	private void onCorners(boolean x, EntryNotification notification) {
+		if (notification.value.isDoubleArray()) {
+			mFrameBuffer.setCorners(x, notification.value.getDoubleArray(), TimeSource.getTimestamp());
+		}
+	}
+
+	/**
+	 * @see LimelightFrameBuffer#getFrameIfNewer(long, LimelightFrame, double)
+	 */
+	public boolean getFrameIfNewer(long sequence, LimelightFrame out) {
+		return mFrameBuffer.getFrameIfNewer(sequence, out, TimeSource.getTimestamp());
+	}
+
+	/**
+	 * Request a pipeline. Only sent when it changes.
+	 */
+	public synchronized void setPipeline(int pipeline) {
+		if (pipeline != mLastPipeline) {
+			mPipelineEntry.setNumber(pipeline);
+			mLastPipeline = pipeline;
+		}
+	}
+
+	public void close() {
+		for (int i = 0; i < mEntries.length; ++i) {
+			mEntries[i].removeListener(mListenerHandles[i]);
+		}
+	}
+}
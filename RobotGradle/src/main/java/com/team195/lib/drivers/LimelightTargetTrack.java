@@ -0,0 +1,159 @@
+package com.team195.lib.drivers;
+
+import com.team195.frc2019.constants.TargetingConstants;
+import com.team195.lib.util.ConstantVelocityKalmanFilter;
+
+/**
+ * Follows the target seen by one Limelight from frame to frame. Each measurement is smoothed by a constant velocity
+ * Kalman filter, and values are extrapolated to the time they are asked for, which hides most of the camera's latency.
+ * <p>
+ * A detection is associated with the current target when its tx and ty are consistent with the prediction. Otherwise
+ * it is treated as an outlier, unless several arrive in a row, in which case the camera has moved to a different
+ * target and the track starts over from it.
+ */
+public class LimelightTargetTrack {
+	private final ConstantVelocityKalmanFilter mHorizontalDeviation = angleFilter();
+	private final ConstantVelocityKalmanFilter mVerticalDeviation = angleFilter();
+	private final ConstantVelocityKalmanFilter mArea = new ConstantVelocityKalmanFilter(
+			TargetingConstants.kTrackAreaProcessNoise,
+			square(TargetingConstants.kTrackAreaStdDev),
+			square(TargetingConstants.kTrackAreaInitialRateStdDev),
+			TargetingConstants.kTrackGateSigma);
+	private final ConstantVelocityKalmanFilter mSkew = skewFilter();
+	private final ConstantVelocityKalmanFilter mCornerSkew = skewFilter();
+
+	private boolean mHasTarget = false;
+	private double mLastUpdateTimestamp = 0;
+	private int mConsecutiveOutliers = 0;
+	private long mOutlierCount = 0;
+
+	private static ConstantVelocityKalmanFilter angleFilter() {
+		return new ConstantVelocityKalmanFilter(TargetingConstants.kTrackAngleProcessNoise,
+				square(TargetingConstants.kTrackAngleStdDev),
+				square(TargetingConstants.kTrackAngleInitialRateStdDev),
+				TargetingConstants.kTrackGateSigma);
+	}
+
+	private static ConstantVelocityKalmanFilter skewFilter() {
+		return new ConstantVelocityKalmanFilter(TargetingConstants.kTrackSkewProcessNoise,
+				square(TargetingConstants.kTrackSkewStdDev),
+				square(TargetingConstants.kTrackSkewInitialRateStdDev),
+				TargetingConstants.kTrackGateSigma);
+	}
+
+	private static double square(double x) {
+		return x * x;
+	}
+
+	/**
+	 * Add a frame. Frames without a target are ignored, so the track is lost once none has been seen for
+	 * kTrackLostTimeout.
+	 *
+	 * @param cornerSkew The skew calculated from the target's corners, or NaN if there were none
+	 * @return Whether the frame's target was used
+	 */
+	public boolean update(LimelightFrame frame, double cornerSkew) {
+		if (frame.targetValid <= 0) {
+			return false;
+		}
+		final double timestamp = frame.getCaptureTimestamp();
+		if (!isTracking(timestamp)) {
+			reset(frame, cornerSkew, timestamp);
+			return true;
+		}
+
+		if (!mHorizontalDeviation.isConsistent(frame.targetHorizontalDeviation, timestamp)
+				|| !mVerticalDeviation.isConsistent(frame.targetVerticalDeviation, timestamp)) {
+			++mOutlierCount;
+			if (++mConsecutiveOutliers >= TargetingConstants.kTrackMaxConsecutiveOutliers) {
+				reset(frame, cornerSkew, timestamp);
+				return true;
+			}
+			return false;
+		}
+
+		mConsecutiveOutliers = 0;
+		mLastUpdateTimestamp = Math.max(mLastUpdateTimestamp, timestamp);
+		mHorizontalDeviation.update(frame.targetHorizontalDeviation, timestamp);
+		mVerticalDeviation.update(frame.targetVerticalDeviation, timestamp);
+		mArea.update(frame.targetArea, timestamp);
+		mSkew.update(frame.targetSkew, timestamp);
+		if (Double.isNaN(cornerSkew)) {
+			mCornerSkew.clear();
+		} else {
+			mCornerSkew.update(cornerSkew, timestamp);
+		}
+		return true;
+	}
+
+	private void reset(LimelightFrame frame, double cornerSkew, double timestamp) {
+		mHasTarget = true;
+		mLastUpdateTimestamp = timestamp;
+		mConsecutiveOutliers = 0;
+		mHorizontalDeviation.reset(frame.targetHorizontalDeviation, timestamp);
+		mVerticalDeviation.reset(frame.targetVerticalDeviation, timestamp);
+		mArea.reset(frame.targetArea, timestamp);
+		mSkew.reset(frame.targetSkew, timestamp);
+		if (Double.isNaN(cornerSkew)) {
+			mCornerSkew.clear();
+		} else {
+			mCornerSkew.reset(cornerSkew, timestamp);
+		}
+	}
+
+	public void clear() {
+		mHasTarget = false;
+		mConsecutiveOutliers = 0;
+		mHorizontalDeviation.clear();
+		mVerticalDeviation.clear();
+		mArea.clear();
+		mSkew.clear();
+		mCornerSkew.clear();
+	}
+
+	/**
+	 * @return Whether a target has been seen within kTrackLostTimeout of timestamp
+	 */
+	public boolean isTracking(double timestamp) {
+		return mHasTarget && timestamp - mLastUpdateTimestamp <= TargetingConstants.kTrackLostTimeout;
+	}
+
+	// Extrapolating far past the last measurement would only amplify the rate's error.
+	private double predictionTime(double timestamp) {
+		return Math.min(timestamp, mLastUpdateTimestamp + TargetingConstants.kTrackMaxPredictionTime);
+	}
+
+	private double get(ConstantVelocityKalmanFilter filter, double timestamp) {
+		return filter.isInitialized() ? filter.getValue(predictionTime(timestamp)) : 0;
+	}
+
+	public double getHorizontalDeviation(double timestamp) {
+		return get(mHorizontalDeviation, timestamp);
+	}
+
+	public double getVerticalDeviation(double timestamp) {
+		return get(mVerticalDeviation, timestamp);
+	}
+
+	public double getArea(double timestamp) {
+		return get(mArea, timestamp);
+	}
+
+	public double getSkew(double timestamp) {
+		return get(mSkew, timestamp);
+	}
+
+	/**
+	 * @return The skew from the target's corners, or 0 if the latest frame had none
+	 */
+	public double getCornerSkew(double timestamp) {
+		return get(mCornerSkew, timestamp);
+	}
+
+	/**
+	 * @return Detections rejected as outliers since construction
+	 */
+	public long getOutlierCount() {
+		return mOutlierCount;
+	}
+}
@@ -0,0 +1,60 @@
+package com.team195.lib.drivers;
+
+/**
+ * Simulated IMU for running robot code off the robot. Headings follow the same convention as NavX (degrees,
+ * counter-clockwise positive) and are set by the simulation, e.g. DriveSimulator.
+ */
+public class SimIMU implements CKIMU {
+	private double mYawDegrees = 0;
+	private double mYawOffsetDegrees = 0;
+	private double mPitch = 0;
+	private double mRoll = 0;
+	private boolean mPresent = true;
+
+	@Override
+	public synchronized double getFusedHeading() {
+		return mYawDegrees - mYawOffsetDegrees;
+	}
+
+	@Override
+	public synchronized double getRawYawDegrees() {
+		return mYawDegrees - mYawOffsetDegrees;
+	}
+
+	@Override
+	public synchronized double getPitch() {
+		return mPitch;
+	}
+
+	@Override
+	public synchronized double getRoll() {
+		return mRoll;
+	}
+
+	@Override
+	public synchronized boolean isPresent() {
+		return mPresent;
+	}
+
+	@Override
+	public synchronized boolean reset() {
+		mYawOffsetDegrees = mYawDegrees;
+		return true;
+	}
+
+	/**
+	 * Set the true heading of the robot. Headings read back are relative to the last reset().
+	 */
+	public synchronized void setSimulatedYaw(double yawDegrees) {
+		mYawDegrees = yawDegrees;
+	}
+
+	public synchronized void setSimulatedPitchRoll(double pitch, double roll) {
+		mPitch = pitch;
+		mRoll = roll;
+	}
+
+	public synchronized void setSimulatedPresent(boolean present) {
+		mPresent = present;
+	}
+}
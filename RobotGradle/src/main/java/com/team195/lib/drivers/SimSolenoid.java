@@ -0,0 +1,17 @@
+package com.team195.lib.drivers;
+
+/**
+ * Simulated solenoid for running robot code off the robot. Holds the last commanded state.
+ */
+public class SimSolenoid implements SolenoidOutput {
+	private boolean mOn = false;
+
+	@Override
+	public synchronized void set(boolean on) {
+		mOn = on;
+	}
+
+	public synchronized boolean get() {
+		return mOn;
+	}
+}
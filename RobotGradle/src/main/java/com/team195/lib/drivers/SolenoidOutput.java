@@ -0,0 +1,6 @@
+package com.team195.lib.drivers;
+
+public interface SolenoidOutput {
+
+	void set(boolean on);
+}
@@ -2,6 +2,7 @@ package com.team195.lib.drivers.dashjoy;
 
 import com.team195.frc2019.constants.Constants;
 import edu.wpi.first.hal.HALUtil;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.GenericHID;
 import edu.wpi.first.wpilibj.Joystick;
 
@@ -58,9 +59,36 @@ public class CKDashJoystick {
 	}
 
 	public double getSmoothedAxis(int axis, double deadband, double power) {
-		double x = getRawAxis(axis);
-		double sign = Math.signum(x);
-		return sign * Math.min(Math.pow(Math.abs(normalizeJoystickWithDeadband(x, deadband)), power), 1);
+		return smoothJoystickWithDeadband(getRawAxis(axis), deadband, power);
+	}
+
+	public static double getNormalizedAxis(DashJoyState state, int axis, double deadband) {
+		return normalizeJoystickWithDeadband(state.getAxis(axis), deadband);
+	}
+
+	public static double getSmoothedAxis(DashJoyState state, int axis, double deadband, double power) {
+		return smoothJoystickWithDeadband(state.getAxis(axis), deadband, power);
+	}
+
+	/**
+	 * Copy the joystick's axes, buttons and POV into out, all from the same DashJoy packet, along with the time that
+	 * packet was received. If the backup joystick is in use its current values are copied and the timestamp is -1.
+	 *
+	 * @return out
+	 */
+	public DashJoyState getState(DashJoyState out) {
+		if (isTimestampValid())
+			return dashJoyController.getState(mPort, out);
+
+		int axisCount = backupJoystick.getAxisCount();
+		for (int i = 0; i < out.axes.length; i++)
+			out.axes[i] = i < axisCount ? backupJoystick.getRawAxis(i) : 0;
+		out.buttons = DriverStation.getInstance().getStickButtons(mPort) & 0xFFFFFFFFL;
+		out.pov = backupJoystick.getPOV();
+		out.timestamp = -1;
+		out.sequence = -1;
+		out.sendTimestamp = -1;
+		return out;
 	}
 
 	public boolean getRawButton(int button) {
@@ -70,6 +98,16 @@ public class CKDashJoystick {
 			return backupJoystick.getRawButton(button);
 	}
 
+	/**
+	 * @return All buttons, with bit (button - 1) set if that button is pressed
+	 */
+	public long getButtonMask() {
+		if (isTimestampValid())
+			return dashJoyController.getButtons(mPort);
+		else
+			return DriverStation.getInstance().getStickButtons(mPort) & 0xFFFFFFFFL;
+	}
+
 	public boolean getRisingEdgeButton(int button) {
 		try {
 			boolean currentButton = getRawButton(button);
@@ -108,7 +146,12 @@ public class CKDashJoystick {
 		return (HALUtil.getFPGATime() - dashJoyController.getLastUpdateTimestamp()) < EXPIRATION_TIME;
 	}
 
-	private double normalizeJoystickWithDeadband(double val, double deadband) {
+	private static double smoothJoystickWithDeadband(double x, double deadband, double power) {
+		double sign = Math.signum(x);
+		return sign * Math.min(Math.pow(Math.abs(normalizeJoystickWithDeadband(x, deadband)), power), 1);
+	}
+
+	private static double normalizeJoystickWithDeadband(double val, double deadband) {
 		val = (Math.abs(val) > Math.abs(deadband)) ? val : 0.0;
 
 		if (val != 0)
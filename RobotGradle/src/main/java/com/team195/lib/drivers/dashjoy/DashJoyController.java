@@ -1,19 +1,20 @@
 package com.team195.lib.drivers.dashjoy;
 
-import edu.wpi.first.hal.HALUtil;
-
-import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
 
 public class DashJoyController {
-	private ArrayList<DashJoyData> joystickDataArrayList = new ArrayList<>();
+	private final DashJoyData[] joystickData;
 
 	private static DashJoyController instance = null;
-	private static final int MAX_NUM_JOYSTICKS = 6;
+	public static final int MAX_NUM_JOYSTICKS = 6;
 	public static final int MAX_AXES = 6;
 	public static final int BUTTON_ARR_SIZE = 64;
-	private long lastUpdateTimestamp = 0;
+	private volatile long lastUpdateTimestamp = 0;
+
+	private final Object updateMonitor = new Object();
+	private volatile long updateCount = 0;
 
-	public static DashJoyController getInstance() {
+	public static synchronized DashJoyController getInstance() {
 		if (instance == null)
 			instance = new DashJoyController();
 
@@ -21,52 +22,105 @@ public class DashJoyController {
 	}
 
 	private DashJoyController() {
+		joystickData = new DashJoyData[MAX_NUM_JOYSTICKS];
 		for (int i = 0; i < MAX_NUM_JOYSTICKS; i++) {
-			joystickDataArrayList.add(new DashJoyData());
+			joystickData[i] = new DashJoyData();
 		}
 	}
 
-	public void setRawAxis(int channel, int axis, double val) {
-		if (channel < MAX_NUM_JOYSTICKS && channel >= 0)
-			joystickDataArrayList.get(channel).setAxisValue(axis, val);
+	/**
+	 * Replace a joystick's state with a whole packet, and mark DashJoy as updated at the packet's timestamp.
+	 */
+	public void publish(int channel, DashJoyState state) {
+		if (channel < MAX_NUM_JOYSTICKS && channel >= 0) {
+			joystickData[channel].publish(state);
+			lastUpdateTimestamp = state.timestamp;
+
+			synchronized (updateMonitor) {
+				updateCount++;
+				updateMonitor.notifyAll();
+			}
+		}
 	}
 
-	public void setRawButton(int channel, int button, boolean val) {
-		if (channel < MAX_NUM_JOYSTICKS && channel >= 0)
-			joystickDataArrayList.get(channel).setButtonValue(button, val);
+	/**
+	 * @return Number of packets published so far, to pass to {@link #waitForUpdate(long, long)}
+	 */
+	public long getUpdateCount() {
+		return updateCount;
 	}
 
-	public void setPOV(int channel, int val) {
+	/**
+	 * Block until a packet is published after the given update count, or the timeout passes.
+	 *
+	 * @return The latest update count, which is still lastUpdateCount if the wait timed out
+	 */
+	public long waitForUpdate(long lastUpdateCount, long timeoutMs) throws InterruptedException {
+		final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+		synchronized (updateMonitor) {
+			long remaining = deadline - System.nanoTime();
+			while (updateCount == lastUpdateCount && remaining > 0) {
+				updateMonitor.wait(TimeUnit.NANOSECONDS.toMillis(remaining), (int) (remaining % 1000000));
+				remaining = deadline - System.nanoTime();
+			}
+			return updateCount;
+		}
+	}
+
+	/**
+	 * Copy a joystick's latest state, all from the same packet, into out.
+	 *
+	 * @return out
+	 */
+	public DashJoyState getState(int channel, DashJoyState out) {
 		if (channel < MAX_NUM_JOYSTICKS && channel >= 0)
-			joystickDataArrayList.get(channel).setPOVValue(val);
+			return joystickData[channel].read(out);
+
+		return out;
 	}
 
 	public double getRawAxis(int channel, int axis) {
 		if (channel < MAX_NUM_JOYSTICKS && channel >= 0)
-			return joystickDataArrayList.get(channel).getAxisValue(axis);
+			return joystickData[channel].getAxisValue(axis);
 
 		return 0;
 	}
 
 	public boolean getRawButton(int channel, int button) {
 		if (channel < MAX_NUM_JOYSTICKS && channel >= 0)
-			return joystickDataArrayList.get(channel).getButtonValue(button);
+			return joystickData[channel].getButtonValue(button);
 
 		return false;
 	}
 
+	/**
+	 * @return All of a joystick's buttons, with bit i set if button i (counting from 0) is pressed
+	 */
+	public long getButtons(int channel) {
+		if (channel < MAX_NUM_JOYSTICKS && channel >= 0)
+			return joystickData[channel].getButtonsValue();
+
+		return 0;
+	}
+
 	public int getPOV(int channel) {
 		if (channel < MAX_NUM_JOYSTICKS && channel >= 0)
-			return joystickDataArrayList.get(channel).getPOVValue();
+			return joystickData[channel].getPOVValue();
 
 		return 0;
 	}
 
-	public long getLastUpdateTimestamp() {
-		return lastUpdateTimestamp;
+	/**
+	 * @return FPGA time the joystick's latest packet was received (us), or 0 if none has been
+	 */
+	public long getPacketTimestamp(int channel) {
+		if (channel < MAX_NUM_JOYSTICKS && channel >= 0)
+			return joystickData[channel].getTimestampValue();
+
+		return 0;
 	}
 
-	public synchronized void refreshLastUpdateTimestamp() {
-		lastUpdateTimestamp = HALUtil.getFPGATime();
+	public long getLastUpdateTimestamp() {
+		return lastUpdateTimestamp;
 	}
 }
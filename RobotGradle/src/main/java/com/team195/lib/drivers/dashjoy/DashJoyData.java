@@ -1,39 +1,92 @@
 package com.team195.lib.drivers.dashjoy;
 
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * The latest state of one DashJoy joystick. Whole packets are published at once under a StampedLock, which works as a
+ * seqlock: readers copy optimistically and only retry, or fall back to a read lock, if a packet arrived mid-copy. So a
+ * reader never sees the axes of one packet with the buttons of another, and never blocks the receiver.
+ */
 public class DashJoyData {
-	double[] axisVal = new double[DashJoyController.MAX_AXES];
-	boolean[] buttonVal = new boolean[DashJoyController.BUTTON_ARR_SIZE];
-	int pov = -1;
+	private final StampedLock mLock = new StampedLock();
+	private final DashJoyState mState = new DashJoyState();
 
-	public synchronized void setAxisValue(int axis, double val) {
-		if (axis < axisVal.length && axis >= 0)
-			this.axisVal[axis] = val;
+	public void publish(DashJoyState state) {
+		long stamp = mLock.writeLock();
+		try {
+			mState.copyFrom(state);
+		} finally {
+			mLock.unlockWrite(stamp);
+		}
 	}
 
-	public synchronized void setButtonValue(int button, boolean val) {
-		if (button < buttonVal.length && button >= 0)
-			this.buttonVal[button] = val;
+	/**
+	 * Copy the latest state into out.
+	 *
+	 * @return out
+	 */
+	public DashJoyState read(DashJoyState out) {
+		long stamp = mLock.tryOptimisticRead();
+		out.copyFrom(mState);
+		if (!mLock.validate(stamp)) {
+			stamp = mLock.readLock();
+			try {
+				out.copyFrom(mState);
+			} finally {
+				mLock.unlockRead(stamp);
+			}
+		}
+		return out;
 	}
 
-	public synchronized void setPOVValue(int val) {
-		this.pov = val;
-	}
+	public double getAxisValue(int axis) {
+		if (axis >= DashJoyController.MAX_AXES || axis < 0)
+			return 0;
 
-	public synchronized double getAxisValue(int axis) {
-		if (axis < axisVal.length && axis >= 0)
-			return this.axisVal[axis];
+		long stamp = mLock.tryOptimisticRead();
+		double val = mState.axes[axis];
+		if (!mLock.validate(stamp)) {
+			stamp = mLock.readLock();
+			val = mState.axes[axis];
+			mLock.unlockRead(stamp);
+		}
+		return val;
+	}
 
-		return 0;
+	public boolean getButtonValue(int button) {
+		return button < DashJoyController.BUTTON_ARR_SIZE && button >= 0 && ((getButtonsValue() >>> button) & 1L) != 0;
 	}
 
-	public synchronized boolean getButtonValue(int button) {
-		if (button < buttonVal.length && button >= 0)
-			return this.buttonVal[button];
+	public long getButtonsValue() {
+		long stamp = mLock.tryOptimisticRead();
+		long buttons = mState.buttons;
+		if (!mLock.validate(stamp)) {
+			stamp = mLock.readLock();
+			buttons = mState.buttons;
+			mLock.unlockRead(stamp);
+		}
+		return buttons;
+	}
 
-		return false;
+	public long getTimestampValue() {
+		long stamp = mLock.tryOptimisticRead();
+		long timestamp = mState.timestamp;
+		if (!mLock.validate(stamp)) {
+			stamp = mLock.readLock();
+			timestamp = mState.timestamp;
+			mLock.unlockRead(stamp);
+		}
+		return timestamp;
 	}
 
-	public synchronized int getPOVValue() {
+	public int getPOVValue() {
+		long stamp = mLock.tryOptimisticRead();
+		int pov = mState.pov;
+		if (!mLock.validate(stamp)) {
+			stamp = mLock.readLock();
+			pov = mState.pov;
+			mLock.unlockRead(stamp);
+		}
 		return pov;
 	}
 }
@@ -0,0 +1,148 @@
+package com.team195.lib.drivers.dashjoy;
+
+import com.team195.lib.util.FastDoubleToString;
+import com.team195.lib.util.LatencyHistogram;
+import com.team195.lib.util.Reportable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Follows driver input from the dashboard to the drive motors. Each stage is stamped with the FPGA time the DashJoy
+ * packet it acted on was received, so three latencies are measured:
+ * <ul>
+ * <li>Network: dashboard send to robot receive. The dashboard stamps packets with its own wall clock, so this includes
+ * any offset between its clock and the roboRIO's, and only its spread is meaningful unless the clocks are synced.</li>
+ * <li>Consume: robot receive to the HIDController reading the packet.</li>
+ * <li>Actuate: robot receive to the drive motor command built from the packet being issued.</li>
+ * </ul>
+ * Each latency is counted once per packet, so a packet that is read by several HIDController cycles is not counted
+ * several times.
+ */
+public class DashJoyLatencyTracker implements Reportable {
+	private static final long kBinWidthUs = 500;
+	private static final int kNumBins = 400;
+
+	private static DashJoyLatencyTracker mInstance = null;
+
+	public static synchronized DashJoyLatencyTracker getInstance() {
+		if (mInstance == null)
+			mInstance = new DashJoyLatencyTracker();
+
+		return mInstance;
+	}
+
+	private final LatencyHistogram mNetworkLatency = new LatencyHistogram(kBinWidthUs, kNumBins);
+	private final LatencyHistogram mConsumeLatency = new LatencyHistogram(kBinWidthUs, kNumBins);
+	private final LatencyHistogram mActuateLatency = new LatencyHistogram(kBinWidthUs, kNumBins);
+
+	private final int[] mLastSequence = new int[DashJoyController.MAX_NUM_JOYSTICKS];
+	private long mPacketCount = 0;
+	private long mDroppedPacketCount = 0;
+
+	//Only touched by the HIDController thread
+	private long mLastConsumedTimestamp = -1;
+
+	//Written by the HIDController thread, read by the looper thread
+	private volatile long mDemandTimestamp = -1;
+
+	//Only touched by the looper thread
+	private long mLastActuatedTimestamp = -1;
+
+	private final List<Object> mReport = new ArrayList<>();
+
+	DashJoyLatencyTracker() {
+		Arrays.fill(mLastSequence, -1);
+	}
+
+	/**
+	 * Called by the receiver for every decoded packet.
+	 *
+	 * @param receiveWallClockMs Robot wall clock time the packet was received (ms), to compare with its send time
+	 */
+	public synchronized void onPacketReceived(int channel, DashJoyState state, long receiveWallClockMs) {
+		mPacketCount++;
+
+		if (state.sendTimestamp >= 0)
+			mNetworkLatency.record((receiveWallClockMs - state.sendTimestamp) * 1000);
+
+		if (state.sequence >= 0 && channel < mLastSequence.length && channel >= 0) {
+			int lastSequence = mLastSequence[channel];
+			//A sequence number that goes backwards is a restarted dashboard, not a loss
+			if (lastSequence >= 0 && state.sequence > (long) lastSequence + 1)
+				mDroppedPacketCount += state.sequence - lastSequence - 1;
+			mLastSequence[channel] = state.sequence;
+		}
+	}
+
+	/**
+	 * Called by the HIDController each cycle with the receive time of the drive packet it is reading.
+	 *
+	 * @param packetTimestampUs Receive time from {@link CKDashJoystick#getState(DashJoyState)}, or -1 for none
+	 */
+	public void onInputConsumed(long packetTimestampUs, long nowUs) {
+		if (packetTimestampUs > 0 && packetTimestampUs != mLastConsumedTimestamp) {
+			mConsumeLatency.record(nowUs - packetTimestampUs);
+			mLastConsumedTimestamp = packetTimestampUs;
+		}
+	}
+
+	/**
+	 * Called by the HIDController once it has handed the drive a demand computed from the given packet.
+	 */
+	public void onDemandSet(long packetTimestampUs) {
+		mDemandTimestamp = packetTimestampUs;
+	}
+
+	/**
+	 * Called by the drive right after it issues motor commands for driver demands.
+	 */
+	public void onOutputIssued(long nowUs) {
+		long demandTimestamp = mDemandTimestamp;
+		if (demandTimestamp > 0 && demandTimestamp != mLastActuatedTimestamp) {
+			mActuateLatency.record(nowUs - demandTimestamp);
+			mLastActuatedTimestamp = demandTimestamp;
+		}
+	}
+
+	public synchronized long getDroppedPacketCount() {
+		return mDroppedPacketCount;
+	}
+
+	public synchronized void reset() {
+		mNetworkLatency.reset();
+		mConsumeLatency.reset();
+		mActuateLatency.reset();
+		Arrays.fill(mLastSequence, -1);
+		mPacketCount = 0;
+		mDroppedPacketCount = 0;
+	}
+
+	@Override
+	public synchronized List<Object> generateReport() {
+		mReport.clear();
+
+		mReport.add("DashJoy_Packets");
+		mReport.add(Long.toString(mPacketCount));
+		mReport.add("DashJoy_DroppedPackets");
+		mReport.add(Long.toString(mDroppedPacketCount));
+
+		addLatencyReport("DashJoy_Network", mNetworkLatency);
+		addLatencyReport("DashJoy_Consume", mConsumeLatency);
+		addLatencyReport("DashJoy_Actuate", mActuateLatency);
+
+		return mReport;
+	}
+
+	private void addLatencyReport(String name, LatencyHistogram histogram) {
+		mReport.add(name + "_p50");
+		mReport.add(FastDoubleToString.format(histogram.getPercentileMs(50)));
+		mReport.add(name + "_p95");
+		mReport.add(FastDoubleToString.format(histogram.getPercentileMs(95)));
+		mReport.add(name + "_p99");
+		mReport.add(FastDoubleToString.format(histogram.getPercentileMs(99)));
+		mReport.add(name + "_Max");
+		mReport.add(FastDoubleToString.format(histogram.getMaxMs()));
+	}
+}
@@ -0,0 +1,74 @@
+package com.team195.lib.drivers.dashjoy;
+
+import java.util.List;
+
+/**
+ * Decodes DashJoy OSC packets without allocating.
+ * <p>
+ * Joystick Packing iiiiiihi[hi]
+ * Axes 1-6 as int
+ * Buttons as 64bit long
+ * POV as int
+ * Optionally, send time as 64bit long (ms) and sequence number as int, for latency tracking
+ */
+public class DashJoyPacketDecoder {
+	private static final String kAddressPrefix = "/Joysticks/";
+	private static final double kAxisScale = 32767.0;
+
+	private DashJoyPacketDecoder() {
+	}
+
+	/**
+	 * @param address OSC address, e.g. /Joysticks/2
+	 * @return The joystick number, or -1 if the address does not name one
+	 */
+	public static int parseJoystickNumber(String address) {
+		if (address == null || !address.startsWith(kAddressPrefix))
+			return -1;
+
+		int joystickNum = 0;
+		int i = kAddressPrefix.length();
+		for (; i < address.length() && address.charAt(i) != '/'; i++) {
+			char c = address.charAt(i);
+			if (c < '0' || c > '9' || joystickNum > (Integer.MAX_VALUE - 9) / 10)
+				return -1;
+			joystickNum = joystickNum * 10 + (c - '0');
+		}
+		return i == kAddressPrefix.length() ? -1 : joystickNum;
+	}
+
+	/**
+	 * Decode a packet's arguments into out. The timestamp is left to the caller.
+	 *
+	 * @return false if the arguments are not a joystick packet, in which case out may be partly written
+	 */
+	public static boolean decode(List<Object> args, DashJoyState out) {
+		if (args.size() < DashJoyController.MAX_AXES + 2)
+			return false;
+
+		for (int i = 0; i < DashJoyController.MAX_AXES; i++) {
+			Object val = args.get(i);
+			if (!(val instanceof Integer))
+				return false;
+			double axisVal = ((Integer) val) / kAxisScale;
+			axisVal = axisVal > 1 ? 1 : axisVal;
+			axisVal = axisVal < -1 ? -1 : axisVal;
+			out.axes[i] = axisVal;
+		}
+
+		Object buttons = args.get(DashJoyController.MAX_AXES);
+		Object pov = args.get(DashJoyController.MAX_AXES + 1);
+		if (!(buttons instanceof Long) || !(pov instanceof Integer))
+			return false;
+		out.buttons = (Long) buttons;
+
+		int povVal = (Integer) pov;
+		out.pov = povVal == -1 ? -1 : povVal / 100;
+
+		Object sendTimestamp = args.size() > DashJoyController.MAX_AXES + 2 ? args.get(DashJoyController.MAX_AXES + 2) : null;
+		Object sequence = args.size() > DashJoyController.MAX_AXES + 3 ? args.get(DashJoyController.MAX_AXES + 3) : null;
+		out.sendTimestamp = sendTimestamp instanceof Long ? (Long) sendTimestamp : -1;
+		out.sequence = sequence instanceof Integer ? Math.max((Integer) sequence, -1) : -1;
+		return true;
+	}
+}
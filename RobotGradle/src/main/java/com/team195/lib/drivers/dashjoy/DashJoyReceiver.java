@@ -4,15 +4,12 @@ import com.illposed.osc.OSCListener;
 import com.illposed.osc.OSCMessage;
 import com.illposed.osc.OSCPortIn;
 import com.team195.frc2019.constants.Constants;
-import com.team254.lib.util.MovingAverage;
-
-import java.util.List;
+import edu.wpi.first.hal.HALUtil;
 
 public class DashJoyReceiver {
 	private static final int RECEIVE_PORT = Constants.DASHJOY_RECEIVER_PORT;
 
 	private OSCPortIn oscPortIn;
-	public MovingAverage movingAverage = new MovingAverage(50);
 
 	private static DashJoyReceiver instance = null;
 
@@ -28,45 +25,20 @@ public class DashJoyReceiver {
 			oscPortIn = new OSCPortIn(RECEIVE_PORT);
 
 			OSCListener joystickListener = new OSCListener() {
-				// Joystick Packing iiiiiihi
-				// Axes 1-6 as int
-				// Buttons as 64bit long
-				// POV as int
+				// Only the OSC listener thread decodes, so one scratch state is enough. The controller copies it.
+				private final DashJoyState mState = new DashJoyState();
+
 				public void acceptMessage(java.util.Date time, OSCMessage message) {
 					try {
-						int joystickNum;
-						try {
-							joystickNum = Integer.parseInt(message.getAddress().split("/")[2]);
-						}
-						catch (Exception ex) {
-							joystickNum = -1;
-						}
+						int joystickNum = DashJoyPacketDecoder.parseJoystickNumber(message.getAddress());
 						if (joystickNum == -1)
 							return;
-						DashJoyController dashJoyController = DashJoyController.getInstance();
-						List<Object> valArr = message.getArguments();
 
-						for (int i = 0; i < 6; i++) {
-							double axisVal = ((int)valArr.get(i))/32767.0;
-							axisVal = axisVal > 1 ? 1 : axisVal;
-							axisVal = axisVal < -1 ? -1 : axisVal;
-							dashJoyController.setRawAxis(joystickNum, i, axisVal);
+						if (DashJoyPacketDecoder.decode(message.getArguments(), mState)) {
+							mState.timestamp = HALUtil.getFPGATime();
+							DashJoyController.getInstance().publish(joystickNum, mState);
+							DashJoyLatencyTracker.getInstance().onPacketReceived(joystickNum, mState, System.currentTimeMillis());
 						}
-
-						boolean[] buttons = getButtonArrFromLong((long)valArr.get(6));
-						for (int i = 0; i < buttons.length; i++) {
-							dashJoyController.setRawButton(joystickNum, i, buttons[i]);
-						}
-
-						int pov = (int)valArr.get(7);
-						pov = pov == -1 ? -1 : pov / 100;
-						dashJoyController.setPOV(joystickNum, pov);
-
-						dashJoyController.refreshLastUpdateTimestamp();
-
-//						long remoteTimestamp = (long)valArr.get(8);
-//						long currentTimestamp = System.currentTimeMillis();
-//						movingAverage.addNumber(currentTimestamp-remoteTimestamp);
 					} catch (Exception ex) {
 						ex.printStackTrace();
 					}
@@ -81,14 +53,4 @@ public class DashJoyReceiver {
 
 		}
 	}
-
-	private boolean[] getButtonArrFromLong(long buttons) {
-		boolean[] arr = new boolean[64];
-		for (int i = 0; i < arr.length; i++) {
-			arr[i] = ((buttons >> i) & 0x01) == 1;
-		}
-		return arr;
-	}
-
-
 }
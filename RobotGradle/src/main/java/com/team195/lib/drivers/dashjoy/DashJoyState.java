@@ -0,0 +1,54 @@
+package com.team195.lib.drivers.dashjoy;
+
+/**
+ * Everything one DashJoy packet says about a joystick, in primitives so that it can be decoded into and copied
+ * without allocating.
+ */
+public class DashJoyState {
+	public final double[] axes = new double[DashJoyController.MAX_AXES];
+
+	/**
+	 * Bit i is button i, counting from 0
+	 */
+	public long buttons;
+
+	public int pov = -1;
+
+	/**
+	 * FPGA time the packet was received (us)
+	 */
+	public long timestamp;
+
+	/**
+	 * Dashboard's sequence number for this joystick's packets, or -1 if it did not send one
+	 */
+	public int sequence = -1;
+
+	/**
+	 * Dashboard wall clock time the packet was sent (ms), or -1 if it did not send one
+	 */
+	public long sendTimestamp = -1;
+
+	public double getAxis(int axis) {
+		if (axis < axes.length && axis >= 0)
+			return axes[axis];
+
+		return 0;
+	}
+
+	public boolean getButton(int button) {
+		if (button < DashJoyController.BUTTON_ARR_SIZE && button >= 0)
+			return ((buttons >>> button) & 1L) != 0;
+
+		return false;
+	}
+
+	public void copyFrom(DashJoyState other) {
+		System.arraycopy(other.axes, 0, axes, 0, axes.length);
+		buttons = other.buttons;
+		pov = other.pov;
+		timestamp = other.timestamp;
+		sequence = other.sequence;
+		sendTimestamp = other.sendTimestamp;
+	}
+}
@@ -0,0 +1,132 @@
+package com.team195.lib.drivers.dashjoy;
+
+import java.util.function.IntToDoubleFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Table of actions bound to one joystick's buttons and axes. Each update reads all the buttons at once as a bitmask,
+ * XORs it with the previous one and only dispatches the bindings of buttons that changed, so a tick with no input costs
+ * the same no matter how many bindings there are.
+ * <p>
+ * Buttons are numbered from 1 like {@link CKDashJoystick#getRawButton(int)}. Unlike a chain of
+ * {@link CKDashJoystick#getRisingEdgeButton(int)} checks, every button that changes in the same tick is dispatched:
+ * presses, then releases, then held buttons, each in order of button number.
+ */
+public class JoystickBindings {
+	private static final int kMaxButtons = DashJoyController.BUTTON_ARR_SIZE;
+	private static final int kMaxAxes = DashJoyController.MAX_AXES;
+
+	private final LongSupplier mButtonSource;
+	private final IntToDoubleFunction mAxisSource;
+
+	private final Runnable[] mRisingEdgeBindings = new Runnable[kMaxButtons];
+	private final Runnable[] mFallingEdgeBindings = new Runnable[kMaxButtons];
+	private final Runnable[] mHeldBindings = new Runnable[kMaxButtons];
+	private long mRisingEdgeMask = 0;
+	private long mFallingEdgeMask = 0;
+	private long mHeldMask = 0;
+	private long mPrevButtons = 0;
+
+	private final Runnable[] mAxisBindings = new Runnable[kMaxAxes];
+	private final double[] mAxisThresholds = new double[kMaxAxes];
+	private int mAxisMask = 0;
+	private int mPrevAxesOverThreshold = 0;
+
+	public JoystickBindings(CKDashJoystick joystick) {
+		this(joystick::getButtonMask, joystick::getRawAxis);
+	}
+
+	/**
+	 * @param buttonSource Supplies all buttons, with bit (button - 1) set if that button is pressed
+	 * @param axisSource Supplies the value of an axis
+	 */
+	public JoystickBindings(LongSupplier buttonSource, IntToDoubleFunction axisSource) {
+		mButtonSource = buttonSource;
+		mAxisSource = axisSource;
+	}
+
+	/**
+	 * Run action once when the button is pressed.
+	 */
+	public JoystickBindings onRisingEdge(int button, Runnable action) {
+		int bit = checkButton(button, mRisingEdgeBindings);
+		mRisingEdgeBindings[bit] = action;
+		mRisingEdgeMask |= 1L << bit;
+		return this;
+	}
+
+	/**
+	 * Run action once when the button is released.
+	 */
+	public JoystickBindings onFallingEdge(int button, Runnable action) {
+		int bit = checkButton(button, mFallingEdgeBindings);
+		mFallingEdgeBindings[bit] = action;
+		mFallingEdgeMask |= 1L << bit;
+		return this;
+	}
+
+	/**
+	 * Run action on every update while the button is pressed.
+	 */
+	public JoystickBindings whileHeld(int button, Runnable action) {
+		int bit = checkButton(button, mHeldBindings);
+		mHeldBindings[bit] = action;
+		mHeldMask |= 1L << bit;
+		return this;
+	}
+
+	/**
+	 * Run action once when the magnitude of the axis goes over the threshold, like
+	 * {@link CKDashJoystick#getRisingEdgeTrigger(int, double)}.
+	 */
+	public JoystickBindings onAxisThreshold(int axis, double threshold, Runnable action) {
+		if (axis < 0 || axis >= kMaxAxes)
+			throw new IllegalArgumentException("Axis " + axis + " is out of range");
+		if (mAxisBindings[axis] != null)
+			throw new IllegalArgumentException("Axis " + axis + " is already bound");
+
+		mAxisBindings[axis] = action;
+		mAxisThresholds[axis] = threshold;
+		mAxisMask |= 1 << axis;
+		return this;
+	}
+
+	/**
+	 * Read the joystick and dispatch the bindings of everything that changed since the last update.
+	 */
+	public void update() {
+		long buttons = mButtonSource.getAsLong();
+		long changed = buttons ^ mPrevButtons;
+		mPrevButtons = buttons;
+
+		dispatch(changed & buttons & mRisingEdgeMask, mRisingEdgeBindings);
+		dispatch(changed & ~buttons & mFallingEdgeMask, mFallingEdgeBindings);
+		dispatch(buttons & mHeldMask, mHeldBindings);
+
+		if (mAxisMask != 0) {
+			int axesOverThreshold = 0;
+			for (int axis = 0; axis < kMaxAxes; axis++) {
+				if ((mAxisMask & (1 << axis)) != 0 && Math.abs(mAxisSource.applyAsDouble(axis)) > mAxisThresholds[axis])
+					axesOverThreshold |= 1 << axis;
+			}
+			dispatch(axesOverThreshold & ~mPrevAxesOverThreshold, mAxisBindings);
+			mPrevAxesOverThreshold = axesOverThreshold;
+		}
+	}
+
+	private static void dispatch(long bits, Runnable[] bindings) {
+		while (bits != 0) {
+			bindings[Long.numberOfTrailingZeros(bits)].run();
+			bits &= bits - 1;
+		}
+	}
+
+	private static int checkButton(int button, Runnable[] bindings) {
+		if (button < 1 || button > kMaxButtons)
+			throw new IllegalArgumentException("Button " + button + " is out of range");
+		if (bindings[button - 1] != null)
+			throw new IllegalArgumentException("Button " + button + " is already bound");
+
+		return button - 1;
+	}
+}
@@ -0,0 +1,419 @@
+package com.team195.lib.drivers.motorcontrol;
+
+import com.team195.frc2019.reporters.DiagnosticMessage;
+import com.team254.lib.physics.DCMotorTransmission;
+
+/**
+ * Simulated motor controller for running robot code off the robot. Runs the same closed loop modes as the real
+ * controllers (PIDF with arbitrary feed forward, ramp rates and current limits) against a DC motor model, so code
+ * written against TuneableMotorController can be exercised headless.
+ * <p>
+ * Units match CKSparkMax: positions in rotations and velocities in RPM of the motor shaft, and closed loop gains in
+ * output fraction per unit of error. The controller either drives its own single inertia plant through update(), or an
+ * external plant (e.g. DriveSimulator) reads getMCOutputVoltage() and feeds back the resulting sensor state through
+ * setSimulatedState(). MotionMagic is run as a plain position loop, and Current mode is not modelled (zero output).
+ */
+public class SimMotorController implements TuneableMotorController {
+	public static final double kNominalVoltage = 12.0;
+
+	private static final int kNumSlots = 4;
+
+	private final int mID;
+	private final DCMotorTransmission mTransmission;
+	private final double mResistance;
+	private final double mInertia;
+
+	private final double[] mKp = new double[kNumSlots];
+	private final double[] mKi = new double[kNumSlots];
+	private final double[] mKd = new double[kNumSlots];
+	private final double[] mKf = new double[kNumSlots];
+	private final double[] mIZone = new double[kNumSlots];
+	private final double[] mMaxIAccum = new double[kNumSlots];
+	private int mSlot = 0;
+
+	private MCControlMode mControlMode = MCControlMode.PercentOut;
+	private MCNeutralMode mNeutralMode = MCNeutralMode.Coast;
+	private double mSetpoint = 0;
+	private double mArbitraryFeedForward = 0;
+	private double mIAccum = 0;
+	private double mPrevError = Double.NaN;
+	private double mOpenLoopRampRate = 0;
+	private double mClosedLoopRampRate = 0;
+	private int mCurrentLimit = 0;
+
+	private double mBusVoltage = kNominalVoltage;
+	private double mOutputPercent = 0;
+	private double mOutputCurrent = 0;
+	private double mPositionRotations = 0;
+	private double mVelocityRPM = 0;
+
+	private boolean mForwardLimit = false;
+	private boolean mReverseLimit = false;
+	private boolean mForwardLimitRisingEdge = false;
+	private boolean mReverseLimitRisingEdge = false;
+	private boolean mForwardLimitFallingEdge = false;
+	private boolean mReverseLimitFallingEdge = false;
+
+	/**
+	 * @param id           CAN ID to report
+	 * @param freeSpeedRPM Free speed of the motor at kNominalVoltage
+	 * @param stallTorque  Stall torque at kNominalVoltage (N m)
+	 * @param stallCurrent Stall current at kNominalVoltage (A)
+	 * @param freeCurrent  Free current at kNominalVoltage (A)
+	 * @param inertia      Load inertia seen by the motor shaft (kg m^2), only used by update()
+	 */
+	public SimMotorController(int id, double freeSpeedRPM, double stallTorque, double stallCurrent, double freeCurrent,
+	                          double inertia) {
+		mID = id;
+		mResistance = kNominalVoltage / stallCurrent;
+		double frictionVoltage = freeCurrent * mResistance;
+		mTransmission = new DCMotorTransmission(rpmToRadiansPerSecond(freeSpeedRPM) / (kNominalVoltage - frictionVoltage),
+				stallTorque / kNominalVoltage, frictionVoltage);
+		mInertia = inertia;
+		for (int i = 0; i < kNumSlots; i++) {
+			mMaxIAccum[i] = Double.POSITIVE_INFINITY;
+		}
+	}
+
+	public static SimMotorController createNEO(int id, double inertia) {
+		return new SimMotorController(id, 5676, 2.6, 105, 1.8, inertia);
+	}
+
+	public static SimMotorController create775Pro(int id, double inertia) {
+		return new SimMotorController(id, 18730, 0.71, 134, 0.7, inertia);
+	}
+
+	private static double rpmToRadiansPerSecond(double rpm) {
+		return rpm * 2.0 * Math.PI / 60.0;
+	}
+
+	/**
+	 * Run the controller for dt seconds and integrate the single inertia plant.
+	 */
+	public synchronized void update(double dt) {
+		double voltage = calculateOutputVoltage(dt);
+		double speed = rpmToRadiansPerSecond(mVelocityRPM);
+		double torque;
+		if (voltage == 0 && mNeutralMode == MCNeutralMode.Coast) {
+			torque = 0;
+		} else {
+			torque = mTransmission.getTorqueForVoltage(speed, voltage);
+		}
+		speed += torque / mInertia * dt;
+		mPositionRotations += speed * dt / (2.0 * Math.PI);
+		mVelocityRPM = speed * 60.0 / (2.0 * Math.PI);
+	}
+
+	/**
+	 * Run the controller for dt seconds without a plant, for use with setSimulatedState().
+	 *
+	 * @return The voltage applied to the motor
+	 */
+	public synchronized double calculateOutputVoltage(double dt) {
+		double output;
+		double rampRate = mOpenLoopRampRate;
+		switch (mControlMode) {
+			case PercentOut:
+				output = mSetpoint;
+				break;
+			case Voltage:
+				output = mSetpoint / mBusVoltage;
+				break;
+			case Position:
+			case MotionMagic:
+				output = calculatePIDF(mSetpoint, mPositionRotations, dt);
+				rampRate = mClosedLoopRampRate;
+				break;
+			case Velocity:
+			case SmartVelocity:
+			case MotionVoodooArbFF:
+				output = calculatePIDF(mSetpoint, mVelocityRPM, dt);
+				rampRate = mClosedLoopRampRate;
+				break;
+			default:
+				output = 0;
+				break;
+		}
+		if (mControlMode != MCControlMode.Disabled && mControlMode != MCControlMode.Current) {
+			output += mArbitraryFeedForward;
+		}
+		output = Math.max(-1.0, Math.min(1.0, output));
+
+		if ((output > 0 && mForwardLimit) || (output < 0 && mReverseLimit)) {
+			output = 0;
+		}
+
+		if (rampRate > 0) {
+			double maxChange = dt / rampRate;
+			output = Math.max(mOutputPercent - maxChange, Math.min(mOutputPercent + maxChange, output));
+		}
+
+		double voltage = output * mBusVoltage;
+		double backEmfVoltage = rpmToRadiansPerSecond(mVelocityRPM) / mTransmission.speed_per_volt();
+		if (mCurrentLimit > 0) {
+			double maxVoltageDelta = mCurrentLimit * mResistance;
+			voltage = Math.max(backEmfVoltage - maxVoltageDelta, Math.min(backEmfVoltage + maxVoltageDelta, voltage));
+		}
+
+		mOutputPercent = voltage / mBusVoltage;
+		mOutputCurrent = voltage == 0 && mNeutralMode == MCNeutralMode.Coast ? 0 : Math.abs(voltage - backEmfVoltage) / mResistance;
+		return voltage;
+	}
+
+	private double calculatePIDF(double setpoint, double actual, double dt) {
+		double error = setpoint - actual;
+		if (mIZone[mSlot] == 0 || Math.abs(error) < mIZone[mSlot]) {
+			mIAccum += error * dt;
+			mIAccum = Math.max(-mMaxIAccum[mSlot], Math.min(mMaxIAccum[mSlot], mIAccum));
+		} else {
+			mIAccum = 0;
+		}
+		double derivative = Double.isNaN(mPrevError) || dt <= 0 ? 0 : (error - mPrevError) / dt;
+		mPrevError = error;
+		return mKf[mSlot] * setpoint + mKp[mSlot] * error + mKi[mSlot] * mIAccum + mKd[mSlot] * derivative;
+	}
+
+	/**
+	 * Set the sensor state from an external plant.
+	 */
+	public synchronized void setSimulatedState(double positionRotations, double velocityRPM) {
+		mPositionRotations = positionRotations;
+		mVelocityRPM = velocityRPM;
+	}
+
+	public synchronized void setSimulatedBusVoltage(double busVoltage) {
+		mBusVoltage = busVoltage;
+	}
+
+	public synchronized void setSimulatedLimits(boolean forwardLimit, boolean reverseLimit) {
+		mForwardLimitRisingEdge = forwardLimit && !mForwardLimit;
+		mForwardLimitFallingEdge = !forwardLimit && mForwardLimit;
+		mReverseLimitRisingEdge = reverseLimit && !mReverseLimit;
+		mReverseLimitFallingEdge = !reverseLimit && mReverseLimit;
+		mForwardLimit = forwardLimit;
+		mReverseLimit = reverseLimit;
+	}
+
+	public DCMotorTransmission getTransmission() {
+		return mTransmission;
+	}
+
+	public synchronized MCNeutralMode getBrakeCoastMode() {
+		return mNeutralMode;
+	}
+
+	@Override
+	public synchronized void set(MCControlMode controlMode, double demand, int slotIdx, double arbitraryFeedForward) {
+		setPIDGainSlot(slotIdx);
+		setControlMode(controlMode);
+		mSetpoint = demand;
+		mArbitraryFeedForward = arbitraryFeedForward;
+	}
+
+	@Override
+	public synchronized void setPIDF(double kP, double kI, double kD, double kF) {
+		mKp[mSlot] = kP;
+		mKi[mSlot] = kI;
+		mKd[mSlot] = kD;
+		mKf[mSlot] = kF;
+	}
+
+	@Override
+	public void setDFilter(double dFilter) {
+	}
+
+	@Override
+	public synchronized void setIZone(double iZone) {
+		mIZone[mSlot] = iZone;
+	}
+
+	@Override
+	public synchronized void setMCIAccum(double iAccum) {
+		mIAccum = iAccum;
+	}
+
+	@Override
+	public synchronized void setMaxIAccum(double maxIAccum) {
+		mMaxIAccum[mSlot] = maxIAccum;
+	}
+
+	@Override
+	public synchronized void setMCOpenLoopRampRate(double rampRate) {
+		mOpenLoopRampRate = rampRate;
+	}
+
+	@Override
+	public synchronized void setMCClosedLoopRampRate(double rampRate) {
+		mClosedLoopRampRate = rampRate;
+	}
+
+	@Override
+	public void setMotionParameters(double cruiseVel, double cruiseAccel) {
+	}
+
+	@Override
+	public synchronized void setPIDGainSlot(int slotIdx) {
+		if (slotIdx != mSlot) {
+			mSlot = slotIdx;
+			mIAccum = 0;
+			mPrevError = Double.NaN;
+		}
+	}
+
+	@Override
+	public synchronized void setBrakeCoastMode(MCNeutralMode neutralMode) {
+		mNeutralMode = neutralMode;
+	}
+
+	@Override
+	public synchronized void setEncoderPosition(double position) {
+		mPositionRotations = position;
+	}
+
+	@Override
+	public synchronized void setCurrentLimit(int currentLimit) {
+		mCurrentLimit = currentLimit;
+	}
+
+	@Override
+	public void writeToFlash() {
+	}
+
+	@Override
+	public void disableSoftLimits() {
+	}
+
+	@Override
+	public synchronized boolean getForwardLimitValue() {
+		return mForwardLimit;
+	}
+
+	@Override
+	public synchronized boolean getReverseLimitValue() {
+		return mReverseLimit;
+	}
+
+	@Override
+	public synchronized boolean getForwardLimitRisingEdge() {
+		return mForwardLimitRisingEdge;
+	}
+
+	@Override
+	public synchronized boolean getReverseLimitRisingEdge() {
+		return mReverseLimitRisingEdge;
+	}
+
+	@Override
+	public synchronized boolean getForwardLimitFallingEdge() {
+		return mForwardLimitFallingEdge;
+	}
+
+	@Override
+	public synchronized boolean getReverseLimitFallingEdge() {
+		return mReverseLimitFallingEdge;
+	}
+
+	@Override
+	public synchronized void setControlMode(MCControlMode controlMode) {
+		if (controlMode != mControlMode) {
+			mControlMode = controlMode;
+			mIAccum = 0;
+			mPrevError = Double.NaN;
+		}
+	}
+
+	@Override
+	public synchronized void setSetpoint(double setpoint) {
+		mSetpoint = setpoint;
+	}
+
+	@Override
+	public synchronized double getActual() {
+		switch (mControlMode) {
+			case Position:
+			case MotionMagic:
+				return mPositionRotations;
+			case Velocity:
+			case SmartVelocity:
+			case MotionVoodooArbFF:
+				return mVelocityRPM;
+			default:
+				return mOutputPercent;
+		}
+	}
+
+	@Override
+	public synchronized double getSetpoint() {
+		return mSetpoint;
+	}
+
+	@Override
+	public synchronized double getPosition() {
+		return mPositionRotations;
+	}
+
+	@Override
+	public synchronized double getVelocity() {
+		return mVelocityRPM;
+	}
+
+	@Override
+	public double getSensorUnitsPerRotation() {
+		return 1;
+	}
+
+	@Override
+	public double getVelocityRPMTimeConversionFactor() {
+		return 1;
+	}
+
+	@Override
+	public double getNativeUnitsOutputRange() {
+		return 1.0;
+	}
+
+	@Override
+	public synchronized double getMCIAccum() {
+		return mIAccum;
+	}
+
+	@Override
+	public synchronized double getMCOutputCurrent() {
+		return mOutputCurrent;
+	}
+
+	@Override
+	public synchronized double getMCInputVoltage() {
+		return mBusVoltage;
+	}
+
+	@Override
+	public synchronized double getMCOutputVoltage() {
+		return mOutputPercent * mBusVoltage;
+	}
+
+	@Override
+	public synchronized double getMCOutputPercent() {
+		return mOutputPercent;
+	}
+
+	@Override
+	public int getMCID() {
+		return mID;
+	}
+
+	@Override
+	public boolean isEncoderPresent() {
+		return true;
+	}
+
+	@Override
+	public DiagnosticMessage hasMotorControllerReset() {
+		return DiagnosticMessage.NO_MSG;
+	}
+
+	@Override
+	public synchronized MCControlMode getMotionControlMode() {
+		return mControlMode;
+	}
+}
@@ -0,0 +1,73 @@
+package com.team195.lib.util;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Latest value of a switch, published by the subsystem that reads it once per loop and read from any thread. Edges are
+ * counted as they are published, so a wait for an edge sees it even if the switch has changed back by the time the
+ * wait is checked.
+ */
+public class BooleanSignal {
+	private volatile boolean mValue;
+	//Only written by the publishing thread
+	private volatile long mRisingEdgeCount = 0;
+	private volatile long mFallingEdgeCount = 0;
+
+	public BooleanSignal(boolean initialValue) {
+		mValue = initialValue;
+	}
+
+	public void publish(boolean value) {
+		if (value != mValue) {
+			if (value)
+				mRisingEdgeCount++;
+			else
+				mFallingEdgeCount++;
+			mValue = value;
+		}
+	}
+
+	public boolean get() {
+		return mValue;
+	}
+
+	public long getRisingEdgeCount() {
+		return mRisingEdgeCount;
+	}
+
+	public long getFallingEdgeCount() {
+		return mFallingEdgeCount;
+	}
+
+	public BooleanSupplier isTrue() {
+		return () -> mValue;
+	}
+
+	public BooleanSupplier isFalse() {
+		return () -> !mValue;
+	}
+
+	/**
+	 * @return Condition that is met once the signal has gone from false to true after this call
+	 */
+	public BooleanSupplier risingEdge() {
+		final long startCount = mRisingEdgeCount;
+		return () -> mRisingEdgeCount != startCount;
+	}
+
+	/**
+	 * @return Condition that is met once the signal has gone from true to false after this call
+	 */
+	public BooleanSupplier fallingEdge() {
+		final long startCount = mFallingEdgeCount;
+		return () -> mFallingEdgeCount != startCount;
+	}
+
+	/**
+	 * @return Condition that is met while the signal is false, or once it has gone from true to false after this call
+	 */
+	public BooleanSupplier isFalseOrFallingEdge() {
+		final long startCount = mFallingEdgeCount;
+		return () -> !mValue || mFallingEdgeCount != startCount;
+	}
+}
@@ -0,0 +1,141 @@
+package com.team195.lib.util;
+
+/**
+ * A Kalman filter for one value that is assumed to move at a roughly constant rate, e.g. a vision target's angle.
+ * The state is the value and its rate; unmodeled changes in the rate are treated as white noise of the given spectral
+ * density. The covariance is kept in primitives so that updates do not allocate.
+ * <p>
+ * Measurements further than the gate (in standard deviations of the predicted measurement) from the prediction are
+ * rejected as outliers.
+ */
+public class ConstantVelocityKalmanFilter {
+	private final double mProcessNoise;
+	private final double mMeasurementVariance;
+	private final double mInitialRateVariance;
+	private final double mGateSigma;
+
+	private boolean mInitialized = false;
+	private double mTimestamp;
+	private double mValue;
+	private double mRate;
+	// Covariance [[mP00, mP01], [mP01, mP11]]
+	private double mP00;
+	private double mP01;
+	private double mP11;
+
+	/**
+	 * @param processNoise        Spectral density of the rate's random changes (units^2 / s^3)
+	 * @param measurementVariance Variance of a single measurement (units^2)
+	 * @param initialRateVariance Variance of the rate when the filter is reset (units^2 / s^2)
+	 * @param gateSigma           Measurements further than this many standard deviations away are rejected
+	 */
+	public ConstantVelocityKalmanFilter(double processNoise, double measurementVariance, double initialRateVariance,
+	                                    double gateSigma) {
+		mProcessNoise = processNoise;
+		mMeasurementVariance = measurementVariance;
+		mInitialRateVariance = initialRateVariance;
+		mGateSigma = gateSigma;
+	}
+
+	/**
+	 * Start over from a measurement, with no knowledge of the rate.
+	 */
+	public void reset(double measurement, double timestamp) {
+		mInitialized = true;
+		mTimestamp = timestamp;
+		mValue = measurement;
+		mRate = 0;
+		mP00 = mMeasurementVariance;
+		mP01 = 0;
+		mP11 = mInitialRateVariance;
+	}
+
+	public void clear() {
+		mInitialized = false;
+	}
+
+	public boolean isInitialized() {
+		return mInitialized;
+	}
+
+	/**
+	 * Advance the state to timestamp. Earlier timestamps are ignored, as measurements can arrive out of order.
+	 */
+	public void predict(double timestamp) {
+		final double dt = timestamp - mTimestamp;
+		if (!mInitialized || dt <= 0) {
+			return;
+		}
+		final double q = mProcessNoise;
+		mValue += mRate * dt;
+		mP00 += dt * (2.0 * mP01 + dt * mP11) + q * dt * dt * dt / 3.0;
+		mP01 += dt * mP11 + q * dt * dt / 2.0;
+		mP11 += q * dt;
+		mTimestamp = timestamp;
+	}
+
+	/**
+	 * @return Whether a measurement taken at timestamp would pass the gate, without changing the filter
+	 */
+	public boolean isConsistent(double measurement, double timestamp) {
+		if (!mInitialized) {
+			return true;
+		}
+		final double dt = Math.max(0, timestamp - mTimestamp);
+		final double q = mProcessNoise;
+		final double predicted = mValue + mRate * dt;
+		final double variance = mP00 + dt * (2.0 * mP01 + dt * mP11) + q * dt * dt * dt / 3.0 + mMeasurementVariance;
+		final double innovation = measurement - predicted;
+		return innovation * innovation <= mGateSigma * mGateSigma * variance;
+	}
+
+	/**
+	 * Predict to timestamp and correct with the measurement. The first measurement resets the filter.
+	 *
+	 * @return false if the measurement was rejected as an outlier, in which case only the prediction is applied
+	 */
+	public boolean update(double measurement, double timestamp) {
+		if (!mInitialized) {
+			reset(measurement, timestamp);
+			return true;
+		}
+		if (!isConsistent(measurement, timestamp)) {
+			predict(timestamp);
+			return false;
+		}
+		predict(timestamp);
+		final double innovation = measurement - mValue;
+		final double s = mP00 + mMeasurementVariance;
+		final double k0 = mP00 / s;
+		final double k1 = mP01 / s;
+		mValue += k0 * innovation;
+		mRate += k1 * innovation;
+		mP11 -= k1 * mP01;
+		mP01 *= 1.0 - k0;
+		mP00 *= 1.0 - k0;
+		return true;
+	}
+
+	public double getValue() {
+		return mValue;
+	}
+
+	/**
+	 * @return The value extrapolated to timestamp, without changing the filter
+	 */
+	public double getValue(double timestamp) {
+		return mValue + mRate * Math.max(0, timestamp - mTimestamp);
+	}
+
+	public double getRate() {
+		return mRate;
+	}
+
+	public double getVariance() {
+		return mP00;
+	}
+
+	public double getTimestamp() {
+		return mTimestamp;
+	}
+}
@@ -0,0 +1,36 @@
+package com.team195.lib.util;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Latest value of a sensor, published by the subsystem that reads it once per loop and read from any thread. The
+ * predicates are meant to be registered as wait conditions, and only read the published value, so checking them never
+ * touches hardware.
+ */
+public class DoubleSignal {
+	private volatile double mValue;
+
+	public DoubleSignal(double initialValue) {
+		mValue = initialValue;
+	}
+
+	public void publish(double value) {
+		mValue = value;
+	}
+
+	public double get() {
+		return mValue;
+	}
+
+	public BooleanSupplier greaterThan(double threshold) {
+		return () -> mValue > threshold;
+	}
+
+	public BooleanSupplier lessThan(double threshold) {
+		return () -> mValue < threshold;
+	}
+
+	public BooleanSupplier absLessThan(double threshold) {
+		return () -> Math.abs(mValue) < threshold;
+	}
+}
@@ -1,7 +1,5 @@
 package com.team195.lib.util;
 
-import edu.wpi.first.wpilibj.Timer;
-
 public class ElapsedTimer {
 	private double startTime = 0;
 	
@@ -10,10 +8,10 @@ public class ElapsedTimer {
 	}
 	
 	public synchronized void start() {
-		startTime = Timer.getFPGATimestamp();
+		startTime = TimeSource.getTimestamp();
 	}
 	
 	public double hasElapsed() {
-		return Timer.getFPGATimestamp() - startTime;
+		return TimeSource.getTimestamp() - startTime;
 	}
 }
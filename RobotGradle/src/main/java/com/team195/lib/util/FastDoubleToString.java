@@ -1,31 +1,156 @@
 package com.team195.lib.util;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formats doubles with a fixed number of decimal places, without locks. The value is rounded half up from its exact
+ * binary value, so the output matches new BigDecimal(val).setScale(precision, RoundingMode.HALF_UP). NaN and infinite
+ * values are written as "0".
+ *
+ * The byte[], ByteBuffer and StringBuilder variants write ASCII straight into the caller's buffer and do not allocate,
+ * so CSV and telemetry writers on different threads can format numbers without contending or creating garbage. The
+ * exception is magnitudes of 2^52 / 10^precision and above, which are rare enough to go through BigDecimal.
+ */
 public class FastDoubleToString {
-	private static final StringBuilder sb = new StringBuilder();
+	public static final int kMaxPrecision = 15;
+
+	/**
+	 * Bytes always enough for one formatted value.
+	 */
+	public static final int kMaxLength = 1 + 309 + 1 + kMaxPrecision;
+
+	private static final long[] POW10 = new long[19];
+
+	static {
+		POW10[0] = 1L;
+		for (int i = 1; i < POW10.length; ++i) {
+			POW10[i] = POW10[i - 1] * 10L;
+		}
+	}
 
-	private static final long[] POW10 = {1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000};
+	// Scaled values below this are integers or halves exactly, so the fast path can round them exactly.
+	private static final double kMaxExactScaled = 4503599627370496.0; // 2^52
+
+	private static final ThreadLocal<byte[]> kScratch = ThreadLocal.withInitial(() -> new byte[kMaxLength]);
 
 	public static String format(double val) {
 		return format(val, 2);
 	}
 
-	public static synchronized String format(double val, int precision) {
-		if (Double.isNaN(val) || Double.isInfinite(val))
-			return "0";
-		sb.setLength(0);
+	public static String format(double val, int precision) {
+		final byte[] scratch = kScratch.get();
+		final int length = format(val, precision, scratch, 0);
+		return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Write val to dst, starting at offset.
+	 *
+	 * @return The offset after the last byte written
+	 */
+	public static int format(double val, int precision, byte[] dst, int offset) {
+		if (precision < 0 || precision > kMaxPrecision) {
+			throw new IllegalArgumentException("Precision must be between 0 and " + kMaxPrecision);
+		}
+		if (Double.isNaN(val) || Double.isInfinite(val)) {
+			dst[offset++] = '0';
+			return offset;
+		}
+
+		final boolean negative = val < 0;
+		final double magnitude = Math.abs(val);
+		final long scale = POW10[precision];
+		final double scaled = magnitude * scale;
+		if (!(scaled < kMaxExactScaled)) {
+			return formatLarge(val, precision, dst, offset);
+		}
+
+		long rounded = (long) scaled;
+		final double fraction = scaled - rounded;
+		// The product may have rounded onto or away from a half. Its exact error decides ties.
+		if (fraction > 0.5 || (fraction == 0.5 && productError(magnitude, scale, scaled) >= 0)) {
+			++rounded;
+		}
 
-		if (val < 0) {
-			sb.append('-');
-			val = -val;
+		if (negative && rounded != 0) {
+			dst[offset++] = '-';
 		}
+		offset = writeLong(rounded / scale, dst, offset);
+		if (precision > 0) {
+			dst[offset++] = '.';
+			long fractionDigits = rounded % scale;
+			for (int i = offset + precision - 1; i >= offset; --i) {
+				dst[i] = (byte) ('0' + fractionDigits % 10);
+				fractionDigits /= 10;
+			}
+			offset += precision;
+		}
+		return offset;
+	}
+
+	/**
+	 * Write val at dst's position, advancing it.
+	 */
+	public static void format(double val, int precision, ByteBuffer dst) {
+		if (dst.hasArray()) {
+			final int start = dst.arrayOffset() + dst.position();
+			if (dst.remaining() >= kMaxLength) {
+				dst.position(format(val, precision, dst.array(), start) - dst.arrayOffset());
+				return;
+			}
+		}
+		final byte[] scratch = kScratch.get();
+		dst.put(scratch, 0, format(val, precision, scratch, 0));
+	}
+
+	/**
+	 * Append val to dst.
+	 *
+	 * @return dst
+	 */
+	public static StringBuilder format(double val, int precision, StringBuilder dst) {
+		final byte[] scratch = kScratch.get();
+		final int length = format(val, precision, scratch, 0);
+		for (int i = 0; i < length; ++i) {
+			dst.append((char) scratch[i]);
+		}
+		return dst;
+	}
+
+	private static int writeLong(long val, byte[] dst, int offset) {
+		int digits = 1;
+		while (digits < 19 && val >= POW10[digits]) {
+			++digits;
+		}
+		for (int i = offset + digits - 1; i >= offset; --i) {
+			dst[i] = (byte) ('0' + val % 10);
+			val /= 10;
+		}
+		return offset + digits;
+	}
+
+	/**
+	 * Exact a * b - product, for product = a * b rounded (Dekker's two-product). Math.fma would do, but the roboRIO's
+	 * FPU has no fused multiply-add and the software fallback allocates.
+	 */
+	private static double productError(double a, double b, double product) {
+		final double a_split = 134217729.0 * a;
+		final double a_hi = a_split - (a_split - a);
+		final double a_lo = a - a_hi;
+		final double b_split = 134217729.0 * b;
+		final double b_hi = b_split - (b_split - b);
+		final double b_lo = b - b_hi;
+		return ((a_hi * b_hi - product) + a_hi * b_lo + a_lo * b_hi) + a_lo * b_lo;
+	}
 
-		long lval = (long)(val * POW10[precision] + 0.5);
-		sb.append(lval / POW10[precision]).append('.');
-		long fval = lval % POW10[precision];
-		for (int p = precision - 1; p > 0 && fval < POW10[p]; p--) {
-			sb.append('0');
+	private static int formatLarge(double val, int precision, byte[] dst, int offset) {
+		final String s = new BigDecimal(val).setScale(precision, RoundingMode.HALF_UP).toPlainString();
+		for (int i = 0; i < s.length(); ++i) {
+			dst[offset++] = (byte) s.charAt(i);
 		}
-		sb.append(fval);
-		return sb.toString();
+		return offset;
 	}
 }
@@ -0,0 +1,160 @@
+package com.team195.lib.util;
+
+import com.team254.lib.geometry.MutablePose2d;
+import com.team254.lib.geometry.Pose2d;
+
+/**
+ * A fixed size history of timestamped poses that can be queried at any time, like an
+ * InterpolatingTreeMap&lt;InterpolatingDouble, Pose2d&gt;, but backed by a ring buffer of preallocated MutablePose2d so
+ * that adding and reading poses does not allocate. Lookups give the same results as InterpolatingTreeMap: an exact
+ * timestamp returns its pose, a time before the first or after the last entry returns the nearest pose, and anything
+ * in between is twist interpolated.
+ *
+ * Not thread safe.
+ */
+public class InterpolatingPoseBuffer {
+	private final double[] mTimestamps;
+	private final MutablePose2d[] mPoses;
+	private int mHead = 0;
+	private int mSize = 0;
+
+	public InterpolatingPoseBuffer(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive");
+		}
+		mTimestamps = new double[capacity];
+		mPoses = new MutablePose2d[capacity];
+		for (int i = 0; i < capacity; ++i) {
+			mPoses[i] = new MutablePose2d();
+		}
+	}
+
+	public int capacity() {
+		return mPoses.length;
+	}
+
+	public int size() {
+		return mSize;
+	}
+
+	public boolean isEmpty() {
+		return mSize == 0;
+	}
+
+	public void clear() {
+		mHead = 0;
+		mSize = 0;
+	}
+
+	public void put(double timestamp, Pose2d pose) {
+		insert(timestamp).set(pose);
+	}
+
+	public void put(double timestamp, MutablePose2d pose) {
+		insert(timestamp).set(pose);
+	}
+
+	/**
+	 * Write the pose at timestamp to out.
+	 *
+	 * @return false, leaving out unchanged, if the buffer is empty
+	 */
+	public boolean getInterpolated(double timestamp, MutablePose2d out) {
+		if (mSize == 0) {
+			return false;
+		}
+		final int top = lowerBound(timestamp);
+		if (top == mSize) {
+			out.set(pose(mSize - 1));
+		} else if (timestamp(top) == timestamp || top == 0) {
+			out.set(pose(top));
+		} else {
+			final double bottomTime = timestamp(top - 1);
+			final double upperToLower = timestamp(top) - bottomTime;
+			final double queryToLower = timestamp - bottomTime;
+			final double x = (upperToLower <= 0 || queryToLower <= 0) ? 0 : queryToLower / upperToLower;
+			out.set(pose(top - 1)).interpolateInPlace(pose(top), x);
+		}
+		return true;
+	}
+
+	/**
+	 * Write the most recent pose to out.
+	 *
+	 * @return false, leaving out unchanged, if the buffer is empty
+	 */
+	public boolean getLatest(MutablePose2d out) {
+		if (mSize == 0) {
+			return false;
+		}
+		out.set(pose(mSize - 1));
+		return true;
+	}
+
+	/**
+	 * Timestamp of the most recent pose, or NaN if the buffer is empty.
+	 */
+	public double getLatestTimestamp() {
+		return mSize == 0 ? Double.NaN : timestamp(mSize - 1);
+	}
+
+	/**
+	 * Make room for timestamp, keeping the entries sorted, and return the pose to fill in. As with
+	 * InterpolatingTreeMap, a full buffer drops its oldest entry first, and an existing timestamp is overwritten.
+	 */
+	private MutablePose2d insert(double timestamp) {
+		if (mSize == mPoses.length) {
+			mHead = physical(1);
+			--mSize;
+		}
+		// Odometry arrives in time order, so the new entry almost always goes at the end.
+		int index = (mSize == 0 || timestamp > timestamp(mSize - 1)) ? mSize : lowerBound(timestamp);
+		if (index < mSize && timestamp(index) == timestamp) {
+			return pose(index);
+		}
+		// Shift the newer entries up one slot, moving the free pose object down to index.
+		final int free = physical(mSize);
+		final MutablePose2d freePose = mPoses[free];
+		for (int i = mSize; i > index; --i) {
+			final int to = physical(i);
+			final int from = physical(i - 1);
+			mTimestamps[to] = mTimestamps[from];
+			mPoses[to] = mPoses[from];
+		}
+		final int slot = physical(index);
+		mTimestamps[slot] = timestamp;
+		mPoses[slot] = freePose;
+		++mSize;
+		return freePose;
+	}
+
+	/**
+	 * Index of the first entry with a timestamp not less than timestamp, or size() if there is none.
+	 */
+	private int lowerBound(double timestamp) {
+		int lo = 0;
+		int hi = mSize;
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			if (timestamp(mid) < timestamp) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	private int physical(int index) {
+		final int i = mHead + index;
+		return i >= mPoses.length ? i - mPoses.length : i;
+	}
+
+	private double timestamp(int index) {
+		return mTimestamps[physical(index)];
+	}
+
+	private MutablePose2d pose(int index) {
+		return mPoses[physical(index)];
+	}
+}
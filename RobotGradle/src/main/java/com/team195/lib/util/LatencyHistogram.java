@@ -0,0 +1,79 @@
+package com.team195.lib.util;
+
+/**
+ * Fixed-bin histogram of latencies in microseconds. Recording is O(1) and does not allocate, so it can be called from
+ * control loops. Percentiles are reported as the upper edge of the bin they fall in, so they are accurate to one bin
+ * width; anything past the last bin is only counted, and reported as the maximum seen.
+ */
+public class LatencyHistogram {
+	private final long mBinWidthUs;
+	private final long[] mBins;
+	private long mCount;
+	private long mSumUs;
+	private long mMaxUs;
+
+	/**
+	 * @param binWidthUs Resolution of the histogram (us)
+	 * @param numBins Number of bins, so latencies up to binWidthUs * numBins are binned
+	 */
+	public LatencyHistogram(long binWidthUs, int numBins) {
+		if (binWidthUs <= 0 || numBins <= 0)
+			throw new IllegalArgumentException("Histogram needs a positive bin width and bin count");
+
+		mBinWidthUs = binWidthUs;
+		mBins = new long[numBins];
+	}
+
+	/**
+	 * Record one latency. Negative latencies, which only come from clocks stepping, are counted as 0.
+	 */
+	public synchronized void record(long latencyUs) {
+		latencyUs = Math.max(latencyUs, 0);
+		long bin = latencyUs / mBinWidthUs;
+		if (bin < mBins.length)
+			mBins[(int) bin]++;
+
+		mCount++;
+		mSumUs += latencyUs;
+		mMaxUs = Math.max(mMaxUs, latencyUs);
+	}
+
+	/**
+	 * @param percentile Between 0 and 100
+	 * @return Latency at or below which the given percentage of samples fall (ms), or 0 if nothing was recorded
+	 */
+	public synchronized double getPercentileMs(double percentile) {
+		if (mCount == 0)
+			return 0;
+
+		long rank = Math.max((long) Math.ceil(mCount * percentile / 100.0), 1);
+		long seen = 0;
+		for (int i = 0; i < mBins.length; i++) {
+			seen += mBins[i];
+			if (seen >= rank)
+				return Math.min((i + 1) * mBinWidthUs, mMaxUs) / 1000.0;
+		}
+		return mMaxUs / 1000.0;
+	}
+
+	public synchronized double getMeanMs() {
+		return mCount == 0 ? 0 : mSumUs / (double) mCount / 1000.0;
+	}
+
+	public synchronized double getMaxMs() {
+		return mMaxUs / 1000.0;
+	}
+
+	public synchronized long getCount() {
+		return mCount;
+	}
+
+	public synchronized void reset() {
+		for (int i = 0; i < mBins.length; i++) {
+			mBins[i] = 0;
+		}
+		mCount = 0;
+		mSumUs = 0;
+		mMaxUs = 0;
+	}
+}
@@ -58,11 +58,11 @@ public class ThreadRateControl {
 		eTimer.start();
 	}
 
-	public double getLoopTime() {
+	public synchronized double getLoopTime() {
 		return mAverageLoopTime.getLastSample();
 	}
 
-	public double getAverageLoopTime() {
+	public synchronized double getAverageLoopTime() {
 		return mAverageLoopTime.getAverage();
 	}
 
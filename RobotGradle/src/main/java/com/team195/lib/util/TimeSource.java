@@ -0,0 +1,45 @@
+package com.team195.lib.util;
+
+import edu.wpi.first.hal.HALUtil;
+import edu.wpi.first.wpilibj.Timer;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Source of timestamps for code that may also run in simulation. Reads the FPGA timer unless a simulated clock, e.g.
+ * SimulatedLooper::getTimestamp, has been installed.
+ */
+public class TimeSource {
+	private static volatile DoubleSupplier mSimulatedClock = null;
+
+	private TimeSource() {
+	}
+
+	/**
+	 * @return The current time (s)
+	 */
+	public static double getTimestamp() {
+		DoubleSupplier simulatedClock = mSimulatedClock;
+		return simulatedClock != null ? simulatedClock.getAsDouble() : Timer.getFPGATimestamp();
+	}
+
+	/**
+	 * @return The current time (us), the same clock as getTimestamp()
+	 */
+	public static long getTimestampMicros() {
+		DoubleSupplier simulatedClock = mSimulatedClock;
+		return simulatedClock != null ? (long) (simulatedClock.getAsDouble() * 1e6) : HALUtil.getFPGATime();
+	}
+
+	public static void setSimulatedClock(DoubleSupplier simulatedClock) {
+		mSimulatedClock = simulatedClock;
+	}
+
+	public static void clearSimulatedClock() {
+		mSimulatedClock = null;
+	}
+
+	public static boolean isSimulated() {
+		return mSimulatedClock != null;
+	}
+}
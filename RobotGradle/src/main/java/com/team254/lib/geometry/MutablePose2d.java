@@ -0,0 +1,150 @@
+package com.team254.lib.geometry;
+
+/**
+ * A Pose2d that is updated in place, for hot loops that should not allocate. Operations give the same results as their
+ * Pose2d counterparts, so a loop can switch between the two without changing its output.
+ */
+public class MutablePose2d {
+    protected final MutableTranslation2d translation_;
+    protected final MutableRotation2d rotation_;
+
+    // Scratch space for interpolateInPlace(), created on first use.
+    private MutablePose2d interpolate_scratch_;
+    private MutableTwist2d interpolate_twist_;
+
+    public MutablePose2d() {
+        translation_ = new MutableTranslation2d();
+        rotation_ = new MutableRotation2d();
+    }
+
+    public MutablePose2d(final Pose2d other) {
+        this();
+        set(other);
+    }
+
+    public MutablePose2d set(double x, double y, double cos, double sin) {
+        translation_.set(x, y);
+        rotation_.set(cos, sin, false);
+        return this;
+    }
+
+    public MutablePose2d set(final Pose2d other) {
+        return set(other.translation_.x_, other.translation_.y_, other.rotation_.cos_angle_,
+                other.rotation_.sin_angle_);
+    }
+
+    public MutablePose2d set(final MutablePose2d other) {
+        return set(other.translation_.x_, other.translation_.y_, other.rotation_.cos_angle_,
+                other.rotation_.sin_angle_);
+    }
+
+    public MutablePose2d setIdentity() {
+        return set(0, 0, 1, 0);
+    }
+
+    /**
+     * In place equivalent of Pose2d.exp().
+     */
+    public MutablePose2d setFromExp(double dx, double dy, double dtheta) {
+        double sin_theta = Math.sin(dtheta);
+        double cos_theta = Math.cos(dtheta);
+        double s = Pose2d.expS(dtheta, sin_theta);
+        double c = Pose2d.expC(dtheta, cos_theta);
+        return set(dx * s - dy * c, dx * c + dy * s, cos_theta, sin_theta);
+    }
+
+    public MutablePose2d setFromExp(final Twist2d delta) {
+        return setFromExp(delta.dx, delta.dy, delta.dtheta);
+    }
+
+    public MutablePose2d setFromExp(final MutableTwist2d delta) {
+        return setFromExp(delta.dx, delta.dy, delta.dtheta);
+    }
+
+    /**
+     * In place equivalent of Pose2d.log(this).
+     *
+     * @param out Twist to write the result to.
+     * @return out
+     */
+    public MutableTwist2d log(final MutableTwist2d out) {
+        final double dtheta = rotation_.getRadians();
+        final double half_dtheta = 0.5 * dtheta;
+        final double halftheta_by_tan_of_halfdtheta = Pose2d.logHalfThetaByTanOfHalfDTheta(dtheta,
+                rotation_.cos_angle_, rotation_.sin_angle_);
+        final double x = translation_.x_;
+        final double y = translation_.y_;
+        return out.set(x * halftheta_by_tan_of_halfdtheta - y * -half_dtheta,
+                x * -half_dtheta + y * halftheta_by_tan_of_halfdtheta, dtheta);
+    }
+
+    public MutableTranslation2d getTranslation() {
+        return translation_;
+    }
+
+    public MutableRotation2d getRotation() {
+        return rotation_;
+    }
+
+    /**
+     * Transform this pose by the pose with the given translation and rotation. See Pose2d.transformBy().
+     */
+    public MutablePose2d transformByInPlace(double x, double y, double cos, double sin) {
+        final double cos_angle = rotation_.cos_angle_;
+        final double sin_angle = rotation_.sin_angle_;
+        translation_.translateByInPlace(x * cos_angle - y * sin_angle, x * sin_angle + y * cos_angle);
+        rotation_.rotateByInPlace(cos, sin);
+        return this;
+    }
+
+    public MutablePose2d transformByInPlace(final Pose2d other) {
+        return transformByInPlace(other.translation_.x_, other.translation_.y_, other.rotation_.cos_angle_,
+                other.rotation_.sin_angle_);
+    }
+
+    public MutablePose2d transformByInPlace(final MutablePose2d other) {
+        return transformByInPlace(other.translation_.x_, other.translation_.y_, other.rotation_.cos_angle_,
+                other.rotation_.sin_angle_);
+    }
+
+    /**
+     * Invert this pose. See Pose2d.inverse().
+     */
+    public MutablePose2d inverseInPlace() {
+        rotation_.inverseInPlace();
+        translation_.inverseInPlace().rotateByInPlace(rotation_);
+        return this;
+    }
+
+    /**
+     * Do twist interpolation of this pose towards other assuming constant curvature. See Pose2d.interpolate().
+     */
+    public MutablePose2d interpolateInPlace(final MutablePose2d other, double x) {
+        if (x <= 0) {
+            return this;
+        } else if (x >= 1) {
+            return set(other);
+        }
+        if (interpolate_scratch_ == null) {
+            interpolate_scratch_ = new MutablePose2d();
+            interpolate_twist_ = new MutableTwist2d();
+        }
+        interpolate_scratch_.set(this).inverseInPlace().transformByInPlace(other).log(interpolate_twist_);
+        interpolate_scratch_.setFromExp(interpolate_twist_.scaleInPlace(x));
+        return transformByInPlace(interpolate_scratch_);
+    }
+
+    public boolean epsilonEquals(final Pose2d other, double epsilon) {
+        return translation_.epsilonEquals(other.getTranslation(), epsilon)
+                && rotation_.toRotation2d().isParallel(other.getRotation());
+    }
+
+    public Pose2d toPose2d() {
+        return new Pose2d(translation_.toTranslation2d(), rotation_.toRotation2d());
+    }
+
+    @Override
+    public String toString() {
+        return "T:" + translation_.toString() + ", R:" + rotation_.toString();
+    }
+}
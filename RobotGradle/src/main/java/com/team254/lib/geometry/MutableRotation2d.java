@@ -0,0 +1,117 @@
+package com.team254.lib.geometry;
+
+import com.team195.lib.util.FastDoubleToString;
+import com.team254.lib.util.FastTrig;
+
+import static com.team254.lib.util.Util.kEpsilon;
+
+/**
+ * A Rotation2d that is updated in place, for hot loops that should not allocate. Operations give the same results as
+ * their Rotation2d counterparts.
+ */
+public class MutableRotation2d {
+    protected double cos_angle_;
+    protected double sin_angle_;
+
+    public MutableRotation2d() {
+        cos_angle_ = 1;
+        sin_angle_ = 0;
+    }
+
+    public MutableRotation2d(final Rotation2d other) {
+        cos_angle_ = other.cos_angle_;
+        sin_angle_ = other.sin_angle_;
+    }
+
+    public MutableRotation2d set(double x, double y, boolean normalize) {
+        if (normalize) {
+            double magnitude = Math.hypot(x, y);
+            if (magnitude > kEpsilon) {
+                sin_angle_ = y / magnitude;
+                cos_angle_ = x / magnitude;
+            } else {
+                sin_angle_ = 0;
+                cos_angle_ = 1;
+            }
+        } else {
+            cos_angle_ = x;
+            sin_angle_ = y;
+        }
+        return this;
+    }
+
+    public MutableRotation2d set(final Rotation2d other) {
+        return set(other.cos_angle_, other.sin_angle_, false);
+    }
+
+    public MutableRotation2d set(final MutableRotation2d other) {
+        return set(other.cos_angle_, other.sin_angle_, false);
+    }
+
+    public MutableRotation2d setIdentity() {
+        return set(1, 0, false);
+    }
+
+    public MutableRotation2d setFromRadians(double angle_radians) {
+        return set(Math.cos(angle_radians), Math.sin(angle_radians), false);
+    }
+
+    public MutableRotation2d setFromDegrees(double angle_degrees) {
+        return setFromRadians(Math.toRadians(angle_degrees));
+    }
+
+    /**
+     * Same as setFromRadians(), using FastTrig. See Rotation2d.fromRadiansFast().
+     */
+    public MutableRotation2d setFromRadiansFast(double angle_radians) {
+        return set(FastTrig.cos(angle_radians), FastTrig.sin(angle_radians), false);
+    }
+
+    public MutableRotation2d setFromDegreesFast(double angle_degrees) {
+        return setFromRadiansFast(Math.toRadians(angle_degrees));
+    }
+
+    public double cos() {
+        return cos_angle_;
+    }
+
+    public double sin() {
+        return sin_angle_;
+    }
+
+    public double getRadians() {
+        return Math.atan2(sin_angle_, cos_angle_);
+    }
+
+    public double getDegrees() {
+        return Math.toDegrees(getRadians());
+    }
+
+    /**
+     * Rotate by the rotation with the given cosine and sine.
+     */
+    public MutableRotation2d rotateByInPlace(double cos, double sin) {
+        return set(cos_angle_ * cos - sin_angle_ * sin, cos_angle_ * sin + sin_angle_ * cos, true);
+    }
+
+    public MutableRotation2d rotateByInPlace(final Rotation2d other) {
+        return rotateByInPlace(other.cos_angle_, other.sin_angle_);
+    }
+
+    public MutableRotation2d rotateByInPlace(final MutableRotation2d other) {
+        return rotateByInPlace(other.cos_angle_, other.sin_angle_);
+    }
+
+    public MutableRotation2d inverseInPlace() {
+        return set(cos_angle_, -sin_angle_, false);
+    }
+
+    public Rotation2d toRotation2d() {
+        return new Rotation2d(cos_angle_, sin_angle_, false);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + FastDoubleToString.format(getDegrees()) + " deg)";
+    }
+}
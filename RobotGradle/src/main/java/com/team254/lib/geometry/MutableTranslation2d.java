@@ -0,0 +1,110 @@
+package com.team254.lib.geometry;
+
+import com.team195.lib.util.FastDoubleToString;
+import com.team254.lib.util.Util;
+
+/**
+ * A Translation2d that is updated in place, for hot loops that should not allocate. Operations give the same results
+ * as their Translation2d counterparts.
+ */
+public class MutableTranslation2d {
+    protected double x_;
+    protected double y_;
+
+    public MutableTranslation2d() {
+        x_ = 0;
+        y_ = 0;
+    }
+
+    public MutableTranslation2d(double x, double y) {
+        x_ = x;
+        y_ = y;
+    }
+
+    public MutableTranslation2d(final Translation2d other) {
+        x_ = other.x_;
+        y_ = other.y_;
+    }
+
+    public MutableTranslation2d set(double x, double y) {
+        x_ = x;
+        y_ = y;
+        return this;
+    }
+
+    public MutableTranslation2d set(final Translation2d other) {
+        return set(other.x_, other.y_);
+    }
+
+    public MutableTranslation2d set(final MutableTranslation2d other) {
+        return set(other.x_, other.y_);
+    }
+
+    public MutableTranslation2d setIdentity() {
+        return set(0, 0);
+    }
+
+    public double x() {
+        return x_;
+    }
+
+    public double y() {
+        return y_;
+    }
+
+    public double norm() {
+        return Math.hypot(x_, y_);
+    }
+
+    public double norm2() {
+        return x_ * x_ + y_ * y_;
+    }
+
+    public MutableTranslation2d translateByInPlace(double x, double y) {
+        return set(x_ + x, y_ + y);
+    }
+
+    public MutableTranslation2d translateByInPlace(final Translation2d other) {
+        return translateByInPlace(other.x_, other.y_);
+    }
+
+    public MutableTranslation2d translateByInPlace(final MutableTranslation2d other) {
+        return translateByInPlace(other.x_, other.y_);
+    }
+
+    /**
+     * Rotate by the rotation with the given cosine and sine.
+     */
+    public MutableTranslation2d rotateByInPlace(double cos, double sin) {
+        return set(x_ * cos - y_ * sin, x_ * sin + y_ * cos);
+    }
+
+    public MutableTranslation2d rotateByInPlace(final Rotation2d rotation) {
+        return rotateByInPlace(rotation.cos(), rotation.sin());
+    }
+
+    public MutableTranslation2d rotateByInPlace(final MutableRotation2d rotation) {
+        return rotateByInPlace(rotation.cos(), rotation.sin());
+    }
+
+    public MutableTranslation2d inverseInPlace() {
+        return set(-x_, -y_);
+    }
+
+    public MutableTranslation2d scaleInPlace(double s) {
+        return set(x_ * s, y_ * s);
+    }
+
+    public boolean epsilonEquals(final Translation2d other, double epsilon) {
+        return Util.epsilonEquals(x_, other.x(), epsilon) && Util.epsilonEquals(y_, other.y(), epsilon);
+    }
+
+    public Translation2d toTranslation2d() {
+        return new Translation2d(x_, y_);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + FastDoubleToString.format(x_) + "," + FastDoubleToString.format(y_) + ")";
+    }
+}
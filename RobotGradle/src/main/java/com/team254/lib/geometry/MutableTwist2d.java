@@ -0,0 +1,65 @@
+package com.team254.lib.geometry;
+
+import com.team195.lib.util.FastDoubleToString;
+import com.team254.lib.util.Util;
+
+/**
+ * A Twist2d that is updated in place, for hot loops that should not allocate.
+ */
+public class MutableTwist2d {
+    public double dx;
+    public double dy;
+    public double dtheta; // Radians!
+
+    public MutableTwist2d() {
+    }
+
+    public MutableTwist2d(double dx, double dy, double dtheta) {
+        set(dx, dy, dtheta);
+    }
+
+    public MutableTwist2d set(double dx, double dy, double dtheta) {
+        this.dx = dx;
+        this.dy = dy;
+        this.dtheta = dtheta;
+        return this;
+    }
+
+    public MutableTwist2d set(final Twist2d other) {
+        return set(other.dx, other.dy, other.dtheta);
+    }
+
+    public MutableTwist2d set(final MutableTwist2d other) {
+        return set(other.dx, other.dy, other.dtheta);
+    }
+
+    public MutableTwist2d setIdentity() {
+        return set(0.0, 0.0, 0.0);
+    }
+
+    public MutableTwist2d scaleInPlace(double scale) {
+        return set(dx * scale, dy * scale, dtheta * scale);
+    }
+
+    public double norm() {
+        // Common case of dy == 0
+        if (dy == 0.0)
+            return Math.abs(dx);
+        return Math.hypot(dx, dy);
+    }
+
+    public double curvature() {
+        if (Math.abs(dtheta) < Util.kEpsilon && norm() < Util.kEpsilon)
+            return 0.0;
+        return dtheta / norm();
+    }
+
+    public Twist2d toTwist2d() {
+        return new Twist2d(dx, dy, dtheta);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + FastDoubleToString.format(dx) + "," + FastDoubleToString.format(dy) + "," + FastDoubleToString.format(Math.toDegrees(dtheta)) + " deg)";
+    }
+}
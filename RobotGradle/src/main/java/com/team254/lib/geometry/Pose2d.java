@@ -54,31 +54,45 @@ public class Pose2d implements IPose2d<Pose2d> {
     public static Pose2d exp(final Twist2d delta) {
         double sin_theta = Math.sin(delta.dtheta);
         double cos_theta = Math.cos(delta.dtheta);
-        double s, c;
-        if (Math.abs(delta.dtheta) < kEps) {
-            s = 1.0 - 1.0 / 6.0 * delta.dtheta * delta.dtheta;
-            c = .5 * delta.dtheta;
-        } else {
-            s = sin_theta / delta.dtheta;
-            c = (1.0 - cos_theta) / delta.dtheta;
-        }
+        double s = expS(delta.dtheta, sin_theta);
+        double c = expC(delta.dtheta, cos_theta);
         return new Pose2d(new Translation2d(delta.dx * s - delta.dy * c, delta.dx * c + delta.dy * s),
                 new Rotation2d(cos_theta, sin_theta, false));
     }
 
+    // The coefficients of exp() and log(), shared with MutablePose2d so that both give identical results.
+
+    static double expS(double dtheta, double sin_theta) {
+        if (Math.abs(dtheta) < kEps) {
+            return 1.0 - 1.0 / 6.0 * dtheta * dtheta;
+        }
+        return sin_theta / dtheta;
+    }
+
+    static double expC(double dtheta, double cos_theta) {
+        if (Math.abs(dtheta) < kEps) {
+            return .5 * dtheta;
+        }
+        return (1.0 - cos_theta) / dtheta;
+    }
+
+    static double logHalfThetaByTanOfHalfDTheta(double dtheta, double cos_theta, double sin_theta) {
+        final double half_dtheta = 0.5 * dtheta;
+        final double cos_minus_one = cos_theta - 1.0;
+        if (Math.abs(cos_minus_one) < kEps) {
+            return 1.0 - 1.0 / 12.0 * dtheta * dtheta;
+        }
+        return -(half_dtheta * sin_theta) / cos_minus_one;
+    }
+
     /**
      * Logical inverse of the above.
      */
     public static Twist2d log(final Pose2d transform) {
         final double dtheta = transform.getRotation().getRadians();
         final double half_dtheta = 0.5 * dtheta;
-        final double cos_minus_one = transform.getRotation().cos() - 1.0;
-        double halftheta_by_tan_of_halfdtheta;
-        if (Math.abs(cos_minus_one) < kEps) {
-            halftheta_by_tan_of_halfdtheta = 1.0 - 1.0 / 12.0 * dtheta * dtheta;
-        } else {
-            halftheta_by_tan_of_halfdtheta = -(half_dtheta * transform.getRotation().sin()) / cos_minus_one;
-        }
+        final double halftheta_by_tan_of_halfdtheta = logHalfThetaByTanOfHalfDTheta(dtheta,
+                transform.getRotation().cos(), transform.getRotation().sin());
         final Translation2d translation_part = transform.getTranslation()
                 .rotateBy(new Rotation2d(halftheta_by_tan_of_halfdtheta, -half_dtheta, false));
         return new Twist2d(translation_part.x(), translation_part.y(), dtheta);
@@ -1,6 +1,7 @@
 package com.team254.lib.geometry;
 
 import com.team195.lib.util.FastDoubleToString;
+import com.team254.lib.util.FastTrig;
 import com.team254.lib.util.Util;
 
 import static com.team254.lib.util.Util.kEpsilon;
@@ -59,6 +60,18 @@ public class Rotation2d implements IRotation2d<Rotation2d> {
         return fromRadians(Math.toRadians(angle_degrees));
     }
 
+    /**
+     * Same as fromRadians(), using FastTrig. Opt in where the angle comes from a sensor or other source that is far
+     * noisier than FastTrig's error bound.
+     */
+    public static Rotation2d fromRadiansFast(double angle_radians) {
+        return new Rotation2d(FastTrig.cos(angle_radians), FastTrig.sin(angle_radians), false);
+    }
+
+    public static Rotation2d fromDegreesFast(double angle_degrees) {
+        return fromRadiansFast(Math.toRadians(angle_degrees));
+    }
+
     public double cos() {
         return cos_angle_;
     }
@@ -1,4 +1,4 @@
-package com.team254.util.test;
+package com.team254.lib.physics;
 
 public class ControlledActuatorLinearSim {
     double mMinPosition, mMaxPosition, mVelocity;
@@ -92,7 +92,11 @@ public class DifferentialDrive {
 
     // Input/output could be either velocity or acceleration...the math is the same.
     public WheelState solveInverseKinematics(final ChassisState chassis_motion) {
-        WheelState wheel_motion = new WheelState();
+        return solveInverseKinematics(chassis_motion, new WheelState());
+    }
+
+    // As above, but writes into wheel_motion instead of allocating.
+    public WheelState solveInverseKinematics(final ChassisState chassis_motion, final WheelState wheel_motion) {
         wheel_motion.left = (chassis_motion.linear - effective_wheelbase_radius_ * chassis_motion.angular) /
                 wheel_radius_;
         wheel_motion.right = (chassis_motion.linear + effective_wheelbase_radius_ * chassis_motion.angular) /
@@ -157,11 +161,8 @@ public class DifferentialDrive {
                 (dynamics.chassis_velocity.linear * dynamics.chassis_velocity.linear);
         if (Double.isNaN(dynamics.dcurvature)) dynamics.dcurvature = 0.0;
 
-        // Resolve chassis accelerations to each wheel.
-        dynamics.wheel_acceleration.left = dynamics.chassis_acceleration.linear - dynamics.chassis_acceleration
-                .angular * effective_wheelbase_radius_;
-        dynamics.wheel_acceleration.right = dynamics.chassis_acceleration.linear + dynamics.chassis_acceleration
-                .angular * effective_wheelbase_radius_;
+        // Resolve chassis accelerations to each wheel (rad/s^2, as solveInverseKinematics does).
+        solveInverseKinematics(dynamics.chassis_acceleration, dynamics.wheel_acceleration);
     }
 
     // Solve for torques and voltages.
@@ -181,6 +182,25 @@ public class DifferentialDrive {
         return dynamics;
     }
 
+    // As above, but copies the inputs into the preallocated members of dynamics instead of allocating.  The result is
+    // numerically identical to solveInverseDynamics(chassis_velocity, chassis_acceleration).
+    public DriveDynamics solveInverseDynamics(final ChassisState chassis_velocity, final ChassisState
+            chassis_acceleration, final DriveDynamics dynamics) {
+        dynamics.chassis_velocity.linear = chassis_velocity.linear;
+        dynamics.chassis_velocity.angular = chassis_velocity.angular;
+        dynamics.curvature = dynamics.chassis_velocity.angular / dynamics.chassis_velocity.linear;
+        if (Double.isNaN(dynamics.curvature)) dynamics.curvature = 0.0;
+        dynamics.chassis_acceleration.linear = chassis_acceleration.linear;
+        dynamics.chassis_acceleration.angular = chassis_acceleration.angular;
+        dynamics.dcurvature = (dynamics.chassis_acceleration.angular - dynamics.chassis_acceleration.linear * dynamics.curvature) /
+                (dynamics.chassis_velocity.linear * dynamics.chassis_velocity.linear);
+        if (Double.isNaN(dynamics.dcurvature)) dynamics.dcurvature = 0.0;
+        solveInverseKinematics(dynamics.chassis_velocity, dynamics.wheel_velocity);
+        solveInverseKinematics(dynamics.chassis_acceleration, dynamics.wheel_acceleration);
+        solveInverseDynamics(dynamics);
+        return dynamics;
+    }
+
     public DriveDynamics solveInverseDynamics(final WheelState wheel_velocity, final WheelState wheel_acceleration) {
         DriveDynamics dynamics = new DriveDynamics();
         dynamics.chassis_velocity = solveForwardKinematics(wheel_velocity);
@@ -18,23 +18,24 @@ public class DistanceView<S extends State<S>> implements TrajectoryView<S> {
 
     @Override
     public TrajectorySamplePoint<S> sample(double distance) {
+        return sample(distance, 0);
+    }
+
+    @Override
+    public TrajectorySamplePoint<S> sample(double distance, int index_hint) {
         if (distance >= last_interpolant())
             return new TrajectorySamplePoint<S>(trajectory_.getPoint(trajectory_.length() - 1));
         if (distance <= 0.0)
             return new TrajectorySamplePoint<S>(trajectory_.getPoint(0));
-        for (int i = 1; i < distances_.length; ++i) {
-            final TrajectoryPoint<S> s = trajectory_.getPoint(i);
-            if (distances_[i] >= distance) {
-                final TrajectoryPoint<S> prev_s = trajectory_.getPoint(i - 1);
-                if (Util.epsilonEquals(distances_[i], distances_[i - 1])) {
-                    return new TrajectorySamplePoint<S>(s);
-                } else {
-                    return new TrajectorySamplePoint<S>(prev_s.state().interpolate(s.state(),
-                            (distance - distances_[i - 1]) / (distances_[i] - distances_[i - 1])), i - 1, i);
-                }
-            }
+        final int i = TrajectoryUtil.ceilingIndex(distances_, distances_.length, distance, index_hint);
+        final TrajectoryPoint<S> s = trajectory_.getPoint(i);
+        if (Util.epsilonEquals(distances_[i], distances_[i - 1])) {
+            return new TrajectorySamplePoint<S>(s);
+        } else {
+            final TrajectoryPoint<S> prev_s = trajectory_.getPoint(i - 1);
+            return new TrajectorySamplePoint<S>(prev_s.state().interpolate(s.state(),
+                    (distance - distances_[i - 1]) / (distances_[i] - distances_[i - 1])), i - 1, i);
         }
-        throw new RuntimeException();
     }
 
     @Override
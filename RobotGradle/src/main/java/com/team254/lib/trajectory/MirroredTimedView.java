@@ -0,0 +1,53 @@
+package com.team254.lib.trajectory;
+
+import com.team254.lib.geometry.IPose2d;
+import com.team254.lib.trajectory.timing.TimedState;
+
+/**
+ * A TimedView of the mirror image (about the x axis) of a trajectory, without copying it.  Samples the source
+ * trajectory and mirrors only the sampled state (negating y, heading sine and curvature), so no mirrored copy of the
+ * trajectory is ever stored.
+ */
+public class MirroredTimedView<S extends IPose2d<S>> implements TrajectoryView<TimedState<S>> {
+    protected final TimedView<S> source_;
+    protected final Trajectory<TimedState<S>> trajectory_;
+
+    public MirroredTimedView(final Trajectory<TimedState<S>> source) {
+        source_ = new TimedView<>(source);
+        trajectory_ = TrajectoryUtil.mirrorTimedView(source);
+    }
+
+    @Override
+    public TrajectorySamplePoint<TimedState<S>> sample(double t) {
+        return mirror(source_.sample(t));
+    }
+
+    @Override
+    public TrajectorySamplePoint<TimedState<S>> sample(double t, int index_hint) {
+        return mirror(source_.sample(t, index_hint));
+    }
+
+    @Override
+    public double first_interpolant() {
+        return source_.first_interpolant();
+    }
+
+    @Override
+    public double last_interpolant() {
+        return source_.last_interpolant();
+    }
+
+    /**
+     * The mirrored trajectory.  States are mirrored on access, see TrajectoryUtil.mirrorTimedView.
+     */
+    @Override
+    public Trajectory<TimedState<S>> trajectory() {
+        return trajectory_;
+    }
+
+    protected TrajectorySamplePoint<TimedState<S>> mirror(final TrajectorySamplePoint<TimedState<S>> sample) {
+        final TimedState<S> state = sample.state();
+        return new TrajectorySamplePoint<>(new TimedState<>(state.state().mirror(), state.t(), state.velocity(),
+                state.acceleration()), sample.index_floor(), sample.index_ceil());
+    }
+}
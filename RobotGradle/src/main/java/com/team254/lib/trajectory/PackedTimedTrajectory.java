@@ -0,0 +1,322 @@
+package com.team254.lib.trajectory;
+
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Pose2dWithCurvature;
+import com.team254.lib.geometry.Rotation2d;
+import com.team254.lib.geometry.Translation2d;
+import com.team254.lib.trajectory.timing.TimedState;
+import com.team254.lib.util.Util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A timed trajectory stored as parallel primitive arrays (one array per field) instead of a list of
+ * TimedState<Pose2dWithCurvature> objects.  Each sample costs 9 doubles rather than five or more objects, and sampling
+ * writes into a caller-supplied Sample so the follower does not allocate.
+ * <p>
+ * Sampling matches TimedView + TimedState.interpolate (constant acceleration in time, constant curvature twist in
+ * space).
+ */
+public class PackedTimedTrajectory {
+    private static final double kEps = 1E-9;
+
+    protected final int length_;
+    protected final double[] t_;
+    protected final double[] x_;
+    protected final double[] y_;
+    protected final double[] cos_;
+    protected final double[] sin_;
+    protected final double[] curvature_;
+    protected final double[] dcurvature_ds_;
+    protected final double[] velocity_;
+    protected final double[] acceleration_;
+
+    protected PackedTimedTrajectory(int length) {
+        length_ = length;
+        t_ = new double[length];
+        x_ = new double[length];
+        y_ = new double[length];
+        cos_ = new double[length];
+        sin_ = new double[length];
+        curvature_ = new double[length];
+        dcurvature_ds_ = new double[length];
+        velocity_ = new double[length];
+        acceleration_ = new double[length];
+    }
+
+    public static PackedTimedTrajectory fromTrajectory(final Trajectory<TimedState<Pose2dWithCurvature>> trajectory) {
+        final PackedTimedTrajectory packed = new PackedTimedTrajectory(trajectory.length());
+        for (int i = 0; i < trajectory.length(); ++i) {
+            final TimedState<Pose2dWithCurvature> timed_state = trajectory.getState(i);
+            final Pose2dWithCurvature state = timed_state.state();
+            packed.t_[i] = timed_state.t();
+            packed.x_[i] = state.getTranslation().x();
+            packed.y_[i] = state.getTranslation().y();
+            packed.cos_[i] = state.getRotation().cos();
+            packed.sin_[i] = state.getRotation().sin();
+            packed.curvature_[i] = state.getCurvature();
+            packed.dcurvature_ds_[i] = state.getDCurvatureDs();
+            packed.velocity_[i] = timed_state.velocity();
+            packed.acceleration_[i] = timed_state.acceleration();
+        }
+        return packed;
+    }
+
+    public Trajectory<TimedState<Pose2dWithCurvature>> toTrajectory() {
+        List<TimedState<Pose2dWithCurvature>> states = new ArrayList<>(length_);
+        for (int i = 0; i < length_; ++i) {
+            states.add(getState(i));
+        }
+        return new Trajectory<>(states);
+    }
+
+    public TimedState<Pose2dWithCurvature> getState(int index) {
+        return new TimedState<>(new Pose2dWithCurvature(new Translation2d(x_[index], y_[index]),
+                new Rotation2d(cos_[index], sin_[index], false), curvature_[index], dcurvature_ds_[index]),
+                t_[index], velocity_[index], acceleration_[index]);
+    }
+
+    public boolean isEmpty() {
+        return length_ == 0;
+    }
+
+    public int length() {
+        return length_;
+    }
+
+    public double t(int index) {
+        return t_[index];
+    }
+
+    public double x(int index) {
+        return x_[index];
+    }
+
+    public double y(int index) {
+        return y_[index];
+    }
+
+    public double cos(int index) {
+        return cos_[index];
+    }
+
+    public double sin(int index) {
+        return sin_[index];
+    }
+
+    public double curvature(int index) {
+        return curvature_[index];
+    }
+
+    public double dcurvature_ds(int index) {
+        return dcurvature_ds_[index];
+    }
+
+    public double velocity(int index) {
+        return velocity_[index];
+    }
+
+    public double acceleration(int index) {
+        return acceleration_[index];
+    }
+
+    public double first_t() {
+        return t_[0];
+    }
+
+    public double last_t() {
+        return t_[length_ - 1];
+    }
+
+    /**
+     * Sample the trajectory at time t, writing the result into out.
+     *
+     * @return out, for chaining.
+     */
+    public Sample sample(double t, final Sample out) {
+        return sample(t, 0, out);
+    }
+
+    /**
+     * Sample the trajectory at time t, starting the search from index_hint (e.g. the index_floor of the previous
+     * sample), writing the result into out.
+     *
+     * @return out, for chaining.
+     */
+    public Sample sample(double t, int index_hint, final Sample out) {
+        if (t >= last_t()) {
+            return out.setFromIndex(this, length_ - 1);
+        }
+        if (t <= first_t()) {
+            return out.setFromIndex(this, 0);
+        }
+        final int i = TrajectoryUtil.ceilingIndex(t_, length_, t, index_hint);
+        if (Util.epsilonEquals(t_[i], t_[i - 1])) {
+            return out.setFromIndex(this, i);
+        }
+        return interpolate(i - 1, i, (t - t_[i - 1]) / (t_[i] - t_[i - 1]), out);
+    }
+
+    /**
+     * Equivalent to getState(a).interpolate(getState(b), frac), without allocating.
+     */
+    protected Sample interpolate(int a, int b, double frac, final Sample out) {
+        final double new_t = Util.interpolate(t_[a], t_[b], frac);
+        final double delta_t = new_t - t_[a];
+        if (delta_t < 0.0) {
+            return interpolate(b, a, 1.0 - frac, out);
+        }
+        final boolean reversing = velocity_[a] < 0.0 || (Util.epsilonEquals(velocity_[a], 0.0) && acceleration_[a] < 0.0);
+        final double new_v = velocity_[a] + acceleration_[a] * delta_t;
+        final double new_s = (reversing ? -1.0 : 1.0) * (velocity_[a] * delta_t + .5 * acceleration_[a] * delta_t * delta_t);
+
+        // Twist from a to b: log(pose_a.inverse().transformBy(pose_b)).
+        final double ca = cos_[a];
+        final double sa = sin_[a];
+        final double inv_x = -x_[a] * ca - (-y_[a]) * (-sa);
+        final double inv_y = -x_[a] * (-sa) + (-y_[a]) * ca;
+        final double rel_x = inv_x + (x_[b] * ca - y_[b] * (-sa));
+        final double rel_y = inv_y + (x_[b] * (-sa) + y_[b] * ca);
+        double rel_cos = ca * cos_[b] - (-sa) * sin_[b];
+        double rel_sin = ca * sin_[b] + (-sa) * cos_[b];
+        final double rel_mag = Math.hypot(rel_cos, rel_sin);
+        if (rel_mag > Util.kEpsilon) {
+            rel_sin = rel_sin / rel_mag;
+            rel_cos = rel_cos / rel_mag;
+        } else {
+            rel_sin = 0;
+            rel_cos = 1;
+        }
+        final double dtheta = Math.atan2(rel_sin, rel_cos);
+        final double half_dtheta = 0.5 * dtheta;
+        final double cos_minus_one = rel_cos - 1.0;
+        final double halftheta_by_tan_of_halfdtheta = Math.abs(cos_minus_one) < kEps ?
+                1.0 - 1.0 / 12.0 * dtheta * dtheta : -(half_dtheta * rel_sin) / cos_minus_one;
+        final double twist_dx = rel_x * halftheta_by_tan_of_halfdtheta - rel_y * (-half_dtheta);
+        final double twist_dy = rel_x * (-half_dtheta) + rel_y * halftheta_by_tan_of_halfdtheta;
+        final double distance = twist_dy == 0.0 ? Math.abs(twist_dx) : Math.hypot(twist_dx, twist_dy);
+
+        final double x = new_s / distance;
+        out.t = new_t;
+        out.velocity = new_v;
+        out.acceleration = acceleration_[a];
+        out.curvature = Util.interpolate(curvature_[a], curvature_[b], x);
+        out.dcurvature_ds = Util.interpolate(dcurvature_ds_[a], dcurvature_ds_[b], x);
+        out.index_floor = a;
+        out.index_ceil = b;
+        if (x <= 0) {
+            out.x = x_[a];
+            out.y = y_[a];
+            out.cos = cos_[a];
+            out.sin = sin_[a];
+            return out;
+        } else if (x >= 1) {
+            out.x = x_[b];
+            out.y = y_[b];
+            out.cos = cos_[b];
+            out.sin = sin_[b];
+            return out;
+        }
+
+        // pose_a.transformBy(Pose2d.exp(twist.scaled(x))).
+        final double dx = twist_dx * x;
+        final double dy = twist_dy * x;
+        final double dth = dtheta * x;
+        final double sin_theta = Math.sin(dth);
+        final double cos_theta = Math.cos(dth);
+        double s, c;
+        if (Math.abs(dth) < kEps) {
+            s = 1.0 - 1.0 / 6.0 * dth * dth;
+            c = .5 * dth;
+        } else {
+            s = sin_theta / dth;
+            c = (1.0 - cos_theta) / dth;
+        }
+        final double exp_x = dx * s - dy * c;
+        final double exp_y = dx * c + dy * s;
+        out.x = x_[a] + (exp_x * ca - exp_y * sa);
+        out.y = y_[a] + (exp_x * sa + exp_y * ca);
+        double out_cos = ca * cos_theta - sa * sin_theta;
+        double out_sin = ca * sin_theta + sa * cos_theta;
+        final double out_mag = Math.hypot(out_cos, out_sin);
+        if (out_mag > Util.kEpsilon) {
+            out.sin = out_sin / out_mag;
+            out.cos = out_cos / out_mag;
+        } else {
+            out.sin = 0;
+            out.cos = 1;
+        }
+        return out;
+    }
+
+    /**
+     * Mutable sample of a PackedTimedTrajectory.  Units match TimedState<Pose2dWithCurvature> (inches, seconds).
+     */
+    public static class Sample {
+        public double t;
+        public double x;
+        public double y;
+        public double cos = 1.0;
+        public double sin;
+        public double curvature;
+        public double dcurvature_ds;
+        public double velocity;
+        public double acceleration;
+        public int index_floor;
+        public int index_ceil;
+
+        public Sample setFromIndex(final PackedTimedTrajectory trajectory, int index) {
+            t = trajectory.t_[index];
+            x = trajectory.x_[index];
+            y = trajectory.y_[index];
+            cos = trajectory.cos_[index];
+            sin = trajectory.sin_[index];
+            curvature = trajectory.curvature_[index];
+            dcurvature_ds = trajectory.dcurvature_ds_[index];
+            velocity = trajectory.velocity_[index];
+            acceleration = trajectory.acceleration_[index];
+            index_floor = index_ceil = index;
+            return this;
+        }
+
+        public Sample set(final Sample other) {
+            t = other.t;
+            x = other.x;
+            y = other.y;
+            cos = other.cos;
+            sin = other.sin;
+            curvature = other.curvature;
+            dcurvature_ds = other.dcurvature_ds;
+            velocity = other.velocity;
+            acceleration = other.acceleration;
+            index_floor = other.index_floor;
+            index_ceil = other.index_ceil;
+            return this;
+        }
+
+        // Copies a state of a generic trajectory.  It has no index into a packed trajectory, so both indices are -1.
+        public Sample set(final TimedState<Pose2dWithCurvature> state) {
+            t = state.t();
+            x = state.state().getTranslation().x();
+            y = state.state().getTranslation().y();
+            cos = state.state().getRotation().cos();
+            sin = state.state().getRotation().sin();
+            curvature = state.state().getCurvature();
+            dcurvature_ds = state.state().getDCurvatureDs();
+            velocity = state.velocity();
+            acceleration = state.acceleration();
+            index_floor = index_ceil = -1;
+            return this;
+        }
+
+        public Pose2d toPose() {
+            return new Pose2d(new Translation2d(x, y), new Rotation2d(cos, sin, false));
+        }
+
+        public TimedState<Pose2dWithCurvature> toTimedState() {
+            return new TimedState<>(new Pose2dWithCurvature(toPose(), curvature, dcurvature_ds), t, velocity,
+                    acceleration);
+        }
+    }
+}
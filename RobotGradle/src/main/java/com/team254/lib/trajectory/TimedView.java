@@ -6,13 +6,18 @@ import com.team254.lib.util.Util;
 
 public class TimedView<S extends State<S>> implements TrajectoryView<TimedState<S>> {
     protected final Trajectory<TimedState<S>> trajectory_;
+    protected final double[] times_;
     protected final double start_t_;
     protected final double end_t_;
 
     public TimedView(Trajectory<TimedState<S>> trajectory) {
         trajectory_ = trajectory;
-        start_t_ = trajectory_.getState(0).t();
-        end_t_ = trajectory_.getState(trajectory_.length() - 1).t();
+        times_ = new double[trajectory_.length()];
+        for (int i = 0; i < trajectory_.length(); ++i) {
+            times_[i] = trajectory_.getState(i).t();
+        }
+        start_t_ = times_[0];
+        end_t_ = times_[times_.length - 1];
     }
 
     @Override
@@ -27,24 +32,25 @@ public class TimedView<S extends State<S>> implements TrajectoryView<TimedState<
 
     @Override
     public TrajectorySamplePoint<TimedState<S>> sample(double t) {
+        return sample(t, 0);
+    }
+
+    @Override
+    public TrajectorySamplePoint<TimedState<S>> sample(double t, int index_hint) {
         if (t >= end_t_) {
             return new TrajectorySamplePoint<>(trajectory_.getPoint(trajectory_.length() - 1));
         }
         if (t <= start_t_) {
             return new TrajectorySamplePoint<>(trajectory_.getPoint(0));
         }
-        for (int i = 1; i < trajectory_.length(); ++i) {
-            final TrajectoryPoint<TimedState<S>> s = trajectory_.getPoint(i);
-            if (s.state().t() >= t) {
-                final TrajectoryPoint<TimedState<S>> prev_s = trajectory_.getPoint(i - 1);
-                if (Util.epsilonEquals(s.state().t(), prev_s.state().t())) {
-                    return new TrajectorySamplePoint<>(s);
-                }
-                return new TrajectorySamplePoint<>(prev_s.state().interpolate(s.state(),
-                        (t - prev_s.state().t()) / (s.state().t() - prev_s.state().t())), i - 1, i);
-            }
+        final int i = TrajectoryUtil.ceilingIndex(times_, times_.length, t, index_hint);
+        final TrajectoryPoint<TimedState<S>> s = trajectory_.getPoint(i);
+        if (Util.epsilonEquals(times_[i], times_[i - 1])) {
+            return new TrajectorySamplePoint<>(s);
         }
-        throw new RuntimeException();
+        final TrajectoryPoint<TimedState<S>> prev_s = trajectory_.getPoint(i - 1);
+        return new TrajectorySamplePoint<>(prev_s.state().interpolate(s.state(),
+                (t - times_[i - 1]) / (times_[i] - times_[i - 1])), i - 1, i);
     }
 
     @Override
@@ -3,8 +3,10 @@ package com.team254.lib.trajectory;
 import com.team254.lib.geometry.State;
 import com.team254.lib.util.CSVWritable;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntFunction;
 
 public class Trajectory<S extends State<S>> implements CSVWritable {
     protected final List<TrajectoryPoint<S>> points_;
@@ -29,6 +31,30 @@ public class Trajectory<S extends State<S>> implements CSVWritable {
         }
     }
 
+    /**
+     * Create a trajectory whose points are computed on access rather than stored, e.g. a transformed view of another
+     * trajectory.
+     *
+     * @param length The number of points.
+     * @param points Computes the point at an index.
+     */
+    protected Trajectory(final int length, final IntFunction<TrajectoryPoint<S>> points) {
+        points_ = new AbstractList<TrajectoryPoint<S>>() {
+            @Override
+            public TrajectoryPoint<S> get(int index) {
+                if (index < 0 || index >= length) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + length);
+                }
+                return points.apply(index);
+            }
+
+            @Override
+            public int size() {
+                return length;
+            }
+        };
+    }
+
     public boolean isEmpty() {
         return points_.isEmpty();
     }
@@ -0,0 +1,109 @@
+package com.team254.lib.trajectory;
+
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Pose2dWithCurvature;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches the (untimed) spline geometry produced by TrajectoryUtil.trajectoryFromSplineWaypoints, keyed by the exact
+ * waypoints and sampling tolerances.  Geometry does not depend on any timing constraint, so changing velocity,
+ * acceleration or voltage limits only needs TimingUtil to run again.
+ * <p>
+ * Keys compare raw doubles rather than using Pose2d.equals (which is epsilon-based and has no hashCode), so a hit
+ * always returns exactly the trajectory the spline generator would have produced.  Least recently used entries are
+ * evicted beyond max_entries.
+ */
+public class TrajectoryGeometryCache {
+    public static final int kDefaultMaxEntries = 128;
+
+    protected final Map<Key, Trajectory<Pose2dWithCurvature>> cache_;
+    protected int hits_ = 0;
+    protected int misses_ = 0;
+
+    public TrajectoryGeometryCache() {
+        this(kDefaultMaxEntries);
+    }
+
+    public TrajectoryGeometryCache(final int max_entries) {
+        cache_ = new LinkedHashMap<Key, Trajectory<Pose2dWithCurvature>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Trajectory<Pose2dWithCurvature>> eldest) {
+                return size() > max_entries;
+            }
+        };
+    }
+
+    /**
+     * Equivalent to TrajectoryUtil.trajectoryFromSplineWaypoints(waypoints, max_dx, max_dy, max_dtheta), but returns
+     * the previously generated trajectory if one exists.  The returned trajectory is shared, so do not modify it.
+     */
+    public Trajectory<Pose2dWithCurvature> get(final List<Pose2d> waypoints, double max_dx, double max_dy, double
+            max_dtheta) {
+        final Key key = new Key(waypoints, max_dx, max_dy, max_dtheta);
+        synchronized (this) {
+            final Trajectory<Pose2dWithCurvature> cached = cache_.get(key);
+            if (cached != null) {
+                ++hits_;
+                return cached;
+            }
+            ++misses_;
+        }
+        // Generate outside the lock so that other callers are not blocked by a slow spline fit.
+        final Trajectory<Pose2dWithCurvature> trajectory = TrajectoryUtil.trajectoryFromSplineWaypoints(waypoints,
+                max_dx, max_dy, max_dtheta);
+        synchronized (this) {
+            final Trajectory<Pose2dWithCurvature> existing = cache_.putIfAbsent(key, trajectory);
+            return existing != null ? existing : trajectory;
+        }
+    }
+
+    public synchronized void clear() {
+        cache_.clear();
+    }
+
+    public synchronized int size() {
+        return cache_.size();
+    }
+
+    public synchronized int hits() {
+        return hits_;
+    }
+
+    public synchronized int misses() {
+        return misses_;
+    }
+
+    protected static class Key {
+        protected final double[] values_;
+        protected final int hash_;
+
+        public Key(final List<Pose2d> waypoints, double max_dx, double max_dy, double max_dtheta) {
+            values_ = new double[4 * waypoints.size() + 3];
+            int i = 0;
+            for (Pose2d waypoint : waypoints) {
+                values_[i++] = waypoint.getTranslation().x();
+                values_[i++] = waypoint.getTranslation().y();
+                values_[i++] = waypoint.getRotation().cos();
+                values_[i++] = waypoint.getRotation().sin();
+            }
+            values_[i++] = max_dx;
+            values_[i++] = max_dy;
+            values_[i] = max_dtheta;
+            hash_ = Arrays.hashCode(values_);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof Key && Arrays.equals(values_, ((Key) other).values_);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash_;
+        }
+    }
+}
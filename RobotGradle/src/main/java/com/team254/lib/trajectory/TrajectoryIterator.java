@@ -6,6 +6,8 @@ public class TrajectoryIterator<S extends State<S>> {
     protected final TrajectoryView<S> view_;
     protected double progress_ = 0.0;
     protected TrajectorySamplePoint<S> current_sample_;
+    // Index of the last sample, used as the starting point for the next search so forward progress is O(1).
+    protected int cursor_ = 0;
 
     public TrajectoryIterator(final TrajectoryView<S> view) {
         view_ = view;
@@ -38,14 +40,15 @@ public class TrajectoryIterator<S extends State<S>> {
     public TrajectorySamplePoint<S> advance(double additional_progress) {
         progress_ = Math.max(view_.first_interpolant(),
                 Math.min(view_.last_interpolant(), progress_ + additional_progress));
-        current_sample_ = view_.sample(progress_);
+        current_sample_ = view_.sample(progress_, cursor_);
+        cursor_ = current_sample_.index_floor();
         return current_sample_;
     }
 
     public TrajectorySamplePoint<S> preview(double additional_progress) {
         final double progress = Math.max(view_.first_interpolant(),
                 Math.min(view_.last_interpolant(), progress_ + additional_progress));
-        return view_.sample(progress);
+        return view_.sample(progress, cursor_);
     }
 
     public Trajectory<S> trajectory() {
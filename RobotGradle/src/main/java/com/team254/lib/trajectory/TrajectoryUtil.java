@@ -28,6 +28,20 @@ public class TrajectoryUtil {
         return new Trajectory<>(waypoints);
     }
 
+    /**
+     * Like mirrorTimed, but without copying: each state is mirrored when it is accessed.  Costs no memory beyond the
+     * source trajectory, but allocates on every access.
+     */
+    public static <S extends IPose2d<S>> Trajectory<TimedState<S>> mirrorTimedView(final Trajectory<TimedState<S>>
+                                                                                          trajectory) {
+        return new Trajectory<TimedState<S>>(trajectory.length(), (i) -> {
+            TimedState<S> timed_state = trajectory.getState(i);
+            return new TrajectoryPoint<>(new TimedState<S>(timed_state.state().mirror(), timed_state.t(),
+                    timed_state.velocity(), timed_state.acceleration()), i);
+        }) {
+        };
+    }
+
     public static <S extends IPose2d<S>> Trajectory<S> transform(final Trajectory<S> trajectory, Pose2d transform) {
         List<S> waypoints = new ArrayList<>(trajectory.length());
         for (int i = 0; i < trajectory.length(); ++i) {
@@ -58,6 +72,50 @@ public class TrajectoryUtil {
         return new Trajectory<S>(states);
     }
 
+    /**
+     * Finds the first index i in [1, length - 1] such that keys[i] >= value, searching outward from index_hint.
+     * Gallops away from the hint and then binary searches, so a hint next to the answer costs O(1) and a bad hint costs
+     * O(log n).
+     *
+     * @param keys       Non-decreasing keys (e.g. timestamps or distances).
+     * @param length     Number of valid keys.
+     * @param value      Value to search for; must satisfy keys[0] < value <= keys[length - 1].
+     * @param index_hint Starting index for the search.
+     * @return The ceiling index of value.
+     */
+    public static int ceilingIndex(final double[] keys, int length, double value, int index_hint) {
+        // Invariant: keys[lo] < value <= keys[hi].
+        int lo, hi;
+        int step = 1;
+        final int hint = Math.max(1, Math.min(length - 1, index_hint));
+        if (keys[hint] >= value) {
+            hi = hint;
+            lo = hint - 1;
+            while (lo > 0 && keys[lo] >= value) {
+                hi = lo;
+                lo = Math.max(0, lo - step);
+                step <<= 1;
+            }
+        } else {
+            lo = hint;
+            hi = hint + 1;
+            while (keys[hi] < value) {
+                lo = hi;
+                hi = Math.min(length - 1, hi + step);
+                step <<= 1;
+            }
+        }
+        while (hi - lo > 1) {
+            final int mid = (lo + hi) >>> 1;
+            if (keys[mid] >= value) {
+                hi = mid;
+            } else {
+                lo = mid;
+            }
+        }
+        return hi;
+    }
+
     public static Trajectory<Pose2dWithCurvature> trajectoryFromPathFollower(IPathFollower path_follower,
                                                                              Pose2dWithCurvature start_state, double
                                                                                      step_size, double
@@ -5,6 +5,15 @@ import com.team254.lib.geometry.State;
 public interface TrajectoryView<S extends State<S>> {
     public TrajectorySamplePoint<S> sample(final double interpolant);
 
+    /**
+     * Sample using index_hint (usually the index_floor of a nearby previous sample) as the starting point of the
+     * search.  Views that can search from a hint should override this; the result must be identical to
+     * sample(interpolant).
+     */
+    public default TrajectorySamplePoint<S> sample(final double interpolant, final int index_hint) {
+        return sample(interpolant);
+    }
+
     public double first_interpolant();
 
     public double last_interpolant();
@@ -0,0 +1,349 @@
+package com.team254.lib.util;
+
+import com.team195.lib.util.FastDoubleToString;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes data to a CSV file, like ReflectingCSVWriter, without slowing down the thread that adds rows.
+ * <p>
+ * add() encodes the public fields of a row straight into a preallocated byte ring on the calling thread. Primitive
+ * fields are formatted without allocating. A background thread drains the ring to disk through a FileChannel in
+ * large writes. If the disk falls behind and the ring fills up, rows are dropped and counted rather than blocking the
+ * caller, so this is safe to call from control loops at full rate.
+ */
+public class AsyncReflectingCSVWriter<T> implements AutoCloseable {
+    public static final int kDefaultBufferSize = 1 << 20;
+    public static final int kDefaultPrecision = 6;
+
+    private static final long kDrainPeriodNanos = 50_000_000L;
+    private static final byte[] kSeparator = {',', ' '};
+
+    private static final int kDouble = 0;
+    private static final int kFloat = 1;
+    private static final int kInt = 2;
+    private static final int kLong = 3;
+    private static final int kBoolean = 4;
+    private static final int kCSVWritable = 5;
+    private static final int kObject = 6;
+
+    private final Field[] mFields;
+    private final int[] mFieldTypes;
+    private final int mPrecision;
+    private FileChannel mChannel = null;
+
+    // Ring of encoded rows. Only add() writes mWriteIndex and only the drain thread writes mReadIndex; both only grow.
+    private final byte[] mRing;
+    private final ByteBuffer mRingBuffer;
+    private volatile long mWriteIndex = 0;
+    private volatile long mReadIndex = 0;
+    private byte[] mRow;
+
+    private volatile long mRowsWritten = 0;
+    private volatile long mRowsDropped = 0;
+    private volatile long mPeakBufferUsage = 0;
+    private volatile long mWriteErrors = 0;
+
+    private final Thread mDrainThread;
+    private volatile boolean mRunning = true;
+
+    public AsyncReflectingCSVWriter(String fileName, Class<T> typeClass) {
+        this(fileName, typeClass, kDefaultBufferSize, kDefaultPrecision);
+    }
+
+    /**
+     * @param bufferSize Bytes of encoded rows that can wait for the disk before rows are dropped
+     * @param precision  Decimal places written for floating point fields
+     */
+    public AsyncReflectingCSVWriter(String fileName, Class<T> typeClass, int bufferSize, int precision) {
+        mFields = typeClass.getFields();
+        mFieldTypes = new int[mFields.length];
+        for (int i = 0; i < mFields.length; ++i) {
+            mFieldTypes[i] = typeOf(mFields[i].getType());
+        }
+        mPrecision = precision;
+        mRing = new byte[bufferSize];
+        mRingBuffer = ByteBuffer.wrap(mRing);
+        mRow = new byte[Math.max(256, mFields.length * (FastDoubleToString.kMaxLength + kSeparator.length))];
+        try {
+            mChannel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        // Write field names.
+        int length = 0;
+        for (Field field : mFields) {
+            if (length != 0) {
+                length = append(kSeparator, length);
+            }
+            length = append(field.getName(), length);
+        }
+        mRow[length++] = '\n';
+        enqueue(length);
+
+        mDrainThread = new Thread(this::drainLoop, "CSVWriter-" + Paths.get(fileName).getFileName());
+        mDrainThread.setDaemon(true);
+        mDrainThread.setPriority(Thread.MIN_PRIORITY);
+        mDrainThread.start();
+    }
+
+    private static int typeOf(Class<?> type) {
+        if (type == double.class) {
+            return kDouble;
+        } else if (type == float.class) {
+            return kFloat;
+        } else if (type == int.class || type == short.class || type == byte.class) {
+            return kInt;
+        } else if (type == long.class) {
+            return kLong;
+        } else if (type == boolean.class) {
+            return kBoolean;
+        } else if (CSVWritable.class.isAssignableFrom(type)) {
+            return kCSVWritable;
+        }
+        return kObject;
+    }
+
+    /**
+     * Queue a row to be written. Never blocks on the disk.
+     *
+     * @return false if the row was dropped because the buffer is full or the file could not be opened
+     */
+    public synchronized boolean add(T value) {
+        if (mChannel == null || !mRunning) {
+            ++mRowsDropped;
+            return false;
+        }
+        int length = 0;
+        for (int i = 0; i < mFields.length; ++i) {
+            if (i != 0) {
+                length = append(kSeparator, length);
+            }
+            try {
+                length = encodeField(i, value, length);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                e.printStackTrace();
+            }
+        }
+        mRow[length++] = '\n';
+        if (!enqueue(length)) {
+            ++mRowsDropped;
+            return false;
+        }
+        return true;
+    }
+
+    private int encodeField(int i, T value, int offset) throws IllegalAccessException {
+        final Field field = mFields[i];
+        switch (mFieldTypes[i]) {
+            case kDouble:
+                return FastDoubleToString.format(field.getDouble(value), mPrecision, mRow, offset);
+            case kFloat:
+                return FastDoubleToString.format(field.getFloat(value), mPrecision, mRow, offset);
+            case kInt:
+                return append(field.getInt(value), offset);
+            case kLong:
+                return append(field.getLong(value), offset);
+            case kBoolean:
+                return append(field.getBoolean(value) ? "true" : "false", offset);
+            case kCSVWritable: {
+                final Object o = field.get(value);
+                return append(o == null ? "null" : ((CSVWritable) o).toCSV(), offset);
+            }
+            default: {
+                final Object o = field.get(value);
+                return append(o == null ? "null" : o.toString(), offset);
+            }
+        }
+    }
+
+    private int append(byte[] bytes, int offset) {
+        ensureRowCapacity(offset + bytes.length + 1);
+        System.arraycopy(bytes, 0, mRow, offset, bytes.length);
+        return offset + bytes.length;
+    }
+
+    private int append(String s, int offset) {
+        ensureRowCapacity(offset + s.length() + 1);
+        for (int i = 0; i < s.length(); ++i) {
+            final char c = s.charAt(i);
+            mRow[offset++] = (byte) (c < 0x80 ? c : '?');
+        }
+        return offset;
+    }
+
+    private int append(long val, int offset) {
+        ensureRowCapacity(offset + 21);
+        if (val < 0) {
+            if (val == Long.MIN_VALUE) {
+                return append(Long.toString(val), offset);
+            }
+            mRow[offset++] = '-';
+            val = -val;
+        }
+        int digits = 1;
+        for (long v = val / 10; v != 0; v /= 10) {
+            ++digits;
+        }
+        for (int i = offset + digits - 1; i >= offset; --i) {
+            mRow[i] = (byte) ('0' + val % 10);
+            val /= 10;
+        }
+        return offset + digits;
+    }
+
+    private void ensureRowCapacity(int capacity) {
+        if (capacity + FastDoubleToString.kMaxLength > mRow.length) {
+            final byte[] row = new byte[Math.max(mRow.length * 2, capacity + FastDoubleToString.kMaxLength)];
+            System.arraycopy(mRow, 0, row, 0, mRow.length);
+            mRow = row;
+        }
+    }
+
+    // Copy the encoded row into the ring, if it fits.
+    private boolean enqueue(int length) {
+        final long write = mWriteIndex;
+        final long used = write - mReadIndex;
+        if (used + length > mRing.length) {
+            return false;
+        }
+        final int start = (int) (write % mRing.length);
+        final int first = Math.min(length, mRing.length - start);
+        System.arraycopy(mRow, 0, mRing, start, first);
+        System.arraycopy(mRow, first, mRing, 0, length - first);
+        mWriteIndex = write + length;
+        ++mRowsWritten;
+        if (used + length > mPeakBufferUsage) {
+            mPeakBufferUsage = used + length;
+        }
+        // Wake the drain thread early rather than letting the ring fill up.
+        if (used < mRing.length / 2 && used + length >= mRing.length / 2) {
+            LockSupport.unpark(mDrainThread);
+        }
+        return true;
+    }
+
+    private void drainLoop() {
+        while (mRunning) {
+            drain();
+            LockSupport.parkNanos(this, kDrainPeriodNanos);
+        }
+        drain();
+        if (mChannel != null) {
+            try {
+                mChannel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void drain() {
+        final long write = mWriteIndex;
+        long read = mReadIndex;
+        if (mChannel == null || write == read) {
+            return;
+        }
+        try {
+            while (read < write) {
+                final int start = (int) (read % mRing.length);
+                final int length = (int) Math.min(write - read, mRing.length - start);
+                mRingBuffer.limit(start + length).position(start);
+                while (mRingBuffer.hasRemaining()) {
+                    mChannel.write(mRingBuffer);
+                }
+                read += length;
+                mReadIndex = read;
+            }
+        } catch (IOException e) {
+            // Skip what could not be written so that the ring does not stay full.
+            ++mWriteErrors;
+            mReadIndex = write;
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Block until every row added so far has been handed to the operating system.
+     */
+    public void flush() {
+        final long target = mWriteIndex;
+        while (mReadIndex < target && mDrainThread.isAlive()) {
+            LockSupport.unpark(mDrainThread);
+            LockSupport.parkNanos(1_000_000L);
+        }
+    }
+
+    /**
+     * Stop accepting rows and return right away. The drain thread writes out the remaining rows and closes the file, so
+     * this is safe to call from a control loop. Rows added afterwards are dropped.
+     */
+    public void closeAsync() {
+        synchronized (this) {
+            mRunning = false;
+        }
+        LockSupport.unpark(mDrainThread);
+    }
+
+    /**
+     * Like closeAsync(), but waits until the remaining rows are written and the file is closed.
+     */
+    @Override
+    public void close() {
+        closeAsync();
+        try {
+            mDrainThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return True once the file has been closed, after close() or closeAsync()
+     */
+    public boolean isClosed() {
+        return !mDrainThread.isAlive();
+    }
+
+    /**
+     * Rows queued for writing, including the header.
+     */
+    public long getRowsWritten() {
+        return mRowsWritten;
+    }
+
+    /**
+     * Rows dropped because the buffer was full.
+     */
+    public long getRowsDropped() {
+        return mRowsDropped;
+    }
+
+    /**
+     * Most bytes that have been waiting for the disk at once. Close to the buffer size means rows are about to be
+     * dropped.
+     */
+    public long getPeakBufferUsage() {
+        return mPeakBufferUsage;
+    }
+
+    public long getBufferUsage() {
+        return mWriteIndex - mReadIndex;
+    }
+
+    public int getBufferSize() {
+        return mRing.length;
+    }
+
+    public long getWriteErrors() {
+        return mWriteErrors;
+    }
+}
@@ -1,56 +1,156 @@
 package com.team254.lib.util;
 
-import java.util.LinkedList;
+import java.util.NoSuchElementException;
 
 /**
- * Implements a simple circular buffer.
+ * Implements a simple circular buffer of doubles, with a running average.
+ * <p>
+ * Samples are kept in a preallocated array, so adding one is O(1) and does not allocate. The running sum is
+ * recomputed with compensated (Kahan) summation every window's worth of samples, which keeps accumulated rounding from
+ * drifting the average. Min, max and variance are computed over the window on request.
  */
 public class CircularBuffer {
-    int mWindowSize;
-    LinkedList<Double> mSamples;
+    final int mWindowSize;
+    final double[] mSamples;
+    int mHead; // Index of the oldest sample.
+    int mNumValues;
     double mSum;
+    int mAddsSinceResum;
 
     public CircularBuffer(int window_size) {
+        if (window_size <= 0) {
+            throw new IllegalArgumentException("Window size must be positive");
+        }
         mWindowSize = window_size;
-        mSamples = new LinkedList<Double>();
-        mSum = 0.0;
+        mSamples = new double[window_size];
+        clear();
     }
 
     public void clear() {
-        mSamples.clear();
+        mHead = 0;
+        mNumValues = 0;
         mSum = 0.0;
+        mAddsSinceResum = 0;
     }
 
     public double getAverage() {
-        if (mSamples.isEmpty())
+        if (mNumValues == 0)
             return 0.0;
-        return mSum / mSamples.size();
+        return mSum / mNumValues;
+    }
+
+    public double getSum() {
+        return mSum;
     }
 
     public void recomputeAverage() {
         // Reset any accumulation drift.
-        mSum = 0.0;
-        if (mSamples.isEmpty())
-            return;
-        for (Double val : mSamples) {
-            mSum += val;
+        double sum = 0.0;
+        double compensation = 0.0;
+        for (int i = 0; i < mNumValues; ++i) {
+            final double y = mSamples[index(i)] - compensation;
+            final double t = sum + y;
+            compensation = (t - sum) - y;
+            sum = t;
         }
-        mSum /= mWindowSize;
+        mSum = sum;
+        mAddsSinceResum = 0;
     }
 
     public void addValue(double val) {
-        mSamples.addLast(val);
+        if (mNumValues == mWindowSize) {
+            mSum -= mSamples[mHead];
+            mSamples[mHead] = val;
+            mHead = index(1);
+        } else {
+            mSamples[index(mNumValues)] = val;
+            ++mNumValues;
+        }
         mSum += val;
-        if (mSamples.size() > mWindowSize) {
-            mSum -= mSamples.removeFirst();
+        if (++mAddsSinceResum >= mWindowSize) {
+            recomputeAverage();
+        }
+    }
+
+    /**
+     * @param i 0 for the oldest sample, getNumValues() - 1 for the newest
+     */
+    public double getValue(int i) {
+        if (i < 0 || i >= mNumValues) {
+            throw new IndexOutOfBoundsException("Index " + i + ", size " + mNumValues);
+        }
+        return mSamples[index(i)];
+    }
+
+    /**
+     * The most recently added sample.
+     */
+    public double getLast() {
+        if (mNumValues == 0) {
+            throw new NoSuchElementException("Buffer is empty");
+        }
+        return mSamples[index(mNumValues - 1)];
+    }
+
+    /**
+     * Smallest sample in the window, or 0 if empty.
+     */
+    public double getMin() {
+        if (mNumValues == 0)
+            return 0.0;
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < mNumValues; ++i) {
+            min = Math.min(min, mSamples[index(i)]);
+        }
+        return min;
+    }
+
+    /**
+     * Largest sample in the window, or 0 if empty.
+     */
+    public double getMax() {
+        if (mNumValues == 0)
+            return 0.0;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < mNumValues; ++i) {
+            max = Math.max(max, mSamples[index(i)]);
         }
+        return max;
+    }
+
+    /**
+     * Population variance of the samples in the window, or 0 if empty.
+     */
+    public double getVariance() {
+        if (mNumValues == 0)
+            return 0.0;
+        final double mean = getAverage();
+        double sum_squares = 0.0;
+        for (int i = 0; i < mNumValues; ++i) {
+            final double d = mSamples[index(i)] - mean;
+            sum_squares += d * d;
+        }
+        return sum_squares / mNumValues;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
     }
 
     public int getNumValues() {
-        return mSamples.size();
+        return mNumValues;
+    }
+
+    public int getWindowSize() {
+        return mWindowSize;
     }
 
     public boolean isFull() {
-        return mWindowSize == mSamples.size();
+        return mWindowSize == mNumValues;
+    }
+
+    private int index(int i) {
+        final int index = mHead + i;
+        return index >= mWindowSize ? index - mWindowSize : index;
     }
 }
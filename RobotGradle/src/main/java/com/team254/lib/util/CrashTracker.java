@@ -3,20 +3,68 @@ package com.team254.lib.util;
 import com.team195.frc2019.reporters.ConsoleReporter;
 import com.team195.frc2019.reporters.MessageLevel;
 
-import java.io.Console;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Tracks start-up and caught crash events, logging them to a file which dosn't roll over
+ * <p>
+ * The file is opened once for appending and written by a background thread, so a crash loop in a control thread only
+ * pays for queueing a message. Code can also record timestamped samples of telemetry and loop timing into a ring buffer
+ * with recordContext(); each crash writes the last kContextWindowSeconds of them after its stack trace.
  */
 public class CrashTracker {
 
     private static final UUID RUN_INSTANCE_UUID = UUID.randomUUID();
 
+    private static final Path kDefaultPath = Paths.get("/home/lvuser/crash_tracking.txt");
+    private static final int kQueueCapacity = 256;
+    private static final int kContextCapacity = 8192;
+    public static final double kContextWindowSeconds = 5.0;
+    // An exception storm would otherwise write the same context over and over.
+    private static final long kMinContextDumpIntervalNanos = 1_000_000_000L;
+
+    private static final ArrayBlockingQueue<String> queue_ = new ArrayBlockingQueue<>(kQueueCapacity);
+    private static final Object writeLock_ = new Object();
+    private static FileChannel channel_ = null;
+    private static volatile long enqueued_ = 0;
+    private static volatile long written_ = 0;
+    private static volatile long dropped_ = 0;
+    private static long lastContextDumpNanos_ = 0;
+    private static boolean hasDumpedContext_ = false;
+
+    // Context ring. Samples are stored as parallel primitive arrays so that recording does not allocate.
+    private static final Object contextLock_ = new Object();
+    private static final List<String> contextChannels_ = new ArrayList<>();
+    private static final double[] contextTimestamps_ = new double[kContextCapacity];
+    private static final double[] contextValues_ = new double[kContextCapacity];
+    private static final int[] contextChannelIds_ = new int[kContextCapacity];
+    private static long contextCount_ = 0;
+
+    static {
+        setOutputPath(kDefaultPath);
+
+        final Thread writer = new Thread(CrashTracker::writeLoop, "CrashTracker");
+        writer.setDaemon(true);
+        writer.setPriority(Thread.MIN_PRIORITY);
+        writer.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(CrashTracker::drainQueue, "CrashTrackerShutdown"));
+    }
+
     public static void logRobotStartup() {
         logMarker("robot startup");
     }
@@ -45,6 +93,60 @@ public class CrashTracker {
         logMarker("Exception", throwable);
     }
 
+    /**
+     * Add a named series to the crash context.
+     *
+     * @return The id to pass to recordContext
+     */
+    public static int registerContextChannel(String name) {
+        synchronized (contextLock_) {
+            contextChannels_.add(name);
+            return contextChannels_.size() - 1;
+        }
+    }
+
+    /**
+     * Record one sample of a context series. Cheap enough to call every loop.
+     */
+    public static void recordContext(int channel, double timestamp, double value) {
+        synchronized (contextLock_) {
+            final int i = (int) (contextCount_ % kContextCapacity);
+            contextChannelIds_[i] = channel;
+            contextTimestamps_[i] = timestamp;
+            contextValues_[i] = value;
+            ++contextCount_;
+        }
+    }
+
+    /**
+     * Block until every queued message has been written, or the timeout passes.
+     *
+     * @return Whether everything was written
+     */
+    public static boolean flush(long timeoutMs) {
+        final long target = enqueued_;
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (written_ < target) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Messages dropped because the writer thread fell behind.
+     */
+    public static long getDroppedCount() {
+        return dropped_;
+    }
+
     private static void logMarker(String mark) {
         logMarker(mark, null);
     }
@@ -60,21 +162,141 @@ public class CrashTracker {
             ConsoleReporter.report(ex);
         }
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter("/home/lvuser/crash_tracking.txt", true))) {
-            writer.print(RUN_INSTANCE_UUID.toString());
-            writer.print(", ");
-            writer.print(mark);
+        final StringWriter s = new StringWriter();
+        final PrintWriter writer = new PrintWriter(s);
+        writer.print(RUN_INSTANCE_UUID.toString());
+        writer.print(", ");
+        writer.print(mark);
+        writer.print(", ");
+        writer.print(new Date().toString());
+
+        if (nullableException != null) {
             writer.print(", ");
-            writer.print(new Date().toString());
+            nullableException.printStackTrace(writer);
+            if (shouldDumpContext()) {
+                printContext(writer);
+            }
+        }
 
-            if (nullableException != null) {
+        writer.println();
+        writer.flush();
+        enqueue(s.toString());
+    }
+
+    private static synchronized boolean shouldDumpContext() {
+        final long now = System.nanoTime();
+        if (hasDumpedContext_ && now - lastContextDumpNanos_ < kMinContextDumpIntervalNanos) {
+            return false;
+        }
+        hasDumpedContext_ = true;
+        lastContextDumpNanos_ = now;
+        return true;
+    }
+
+    /**
+     * Write the context samples from the last kContextWindowSeconds before the newest one, oldest first.
+     */
+    static void printContext(PrintWriter writer) {
+        synchronized (contextLock_) {
+            if (contextCount_ == 0) {
+                return;
+            }
+            final long oldest = Math.max(0, contextCount_ - kContextCapacity);
+            final double newestTimestamp = contextTimestamps_[(int) ((contextCount_ - 1) % kContextCapacity)];
+            long first = contextCount_;
+            while (first > oldest && contextTimestamps_[(int) ((first - 1) % kContextCapacity)]
+                    >= newestTimestamp - kContextWindowSeconds) {
+                --first;
+            }
+            writer.println("Context (" + (contextCount_ - first) + " samples)");
+            writer.println("timestamp, channel, value");
+            for (long n = first; n < contextCount_; ++n) {
+                final int i = (int) (n % kContextCapacity);
+                final int id = contextChannelIds_[i];
+                writer.print(contextTimestamps_[i]);
                 writer.print(", ");
-                nullableException.printStackTrace(writer);
+                writer.print(id >= 0 && id < contextChannels_.size() ? contextChannels_.get(id) : "?");
+                writer.print(", ");
+                writer.println(contextValues_[i]);
+            }
+        }
+    }
+
+    private static void enqueue(String message) {
+        synchronized (queue_) {
+            if (queue_.offer(message)) {
+                ++enqueued_;
+            } else {
+                ++dropped_;
+            }
+        }
+    }
+
+    private static void writeLoop() {
+        while (true) {
+            try {
+                final String message = queue_.take();
+                synchronized (writeLock_) {
+                    write(message);
+                }
+            } catch (InterruptedException e) {
+                return;
             }
+        }
+    }
+
+    private static void drainQueue() {
+        synchronized (writeLock_) {
+            String message;
+            while ((message = queue_.poll()) != null) {
+                write(message);
+            }
+            if (channel_ != null) {
+                try {
+                    channel_.force(false);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
 
-            writer.println();
-        } catch (IOException e) {
-            e.printStackTrace();
+    // Callers hold writeLock_.
+    private static void write(String message) {
+        if (channel_ != null) {
+            try {
+                final ByteBuffer buffer = ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel_.write(buffer);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        ++written_;
+    }
+
+    /**
+     * Redirect the log, e.g. for tests or when running off the robot. Messages already queued go to the new file.
+     */
+    static void setOutputPath(Path path) {
+        synchronized (writeLock_) {
+            if (channel_ != null) {
+                try {
+                    channel_.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            channel_ = null;
+            try {
+                if (path.getParent() == null || path.getParent().toFile().isDirectory()) {
+                    channel_ = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                            StandardOpenOption.APPEND);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }
     }
 }
@@ -0,0 +1,111 @@
+package com.team254.lib.util;
+
+/**
+ * Table plus polynomial sin, cos and atan2. Math.sin/cos/atan2 are intrinsics on x86 desktop JVMs, where these are no
+ * faster, but on the roboRIO's ARM JVM they are calls into fdlibm, which makes them the most expensive part of most
+ * heading math. Compare with GeometryBenchmark on the target before switching a loop over.
+ * <p>
+ * Accuracy, against Math:
+ * <ul>
+ * <li>sin, cos: absolute error below 5E-16 for |x| &lt;= 1E6. Larger or non-finite arguments fall back to Math.</li>
+ * <li>atan2: absolute error below 1E-15. Zero and non-finite arguments fall back to Math, so the signed zero and
+ * infinity cases are exact.</li>
+ * </ul>
+ */
+public class FastTrig {
+    // sin() tabulated at kTableSize points per revolution. A sample x is split into the nearest table angle a and a
+    // remainder r, |r| <= pi / kTableSize, and sin(x) = sin(a) cos(r) + cos(a) sin(r) with short Taylor series for r.
+    private static final int kTableBits = 10;
+    private static final int kTableSize = 1 << kTableBits;
+    private static final int kTableMask = kTableSize - 1;
+    private static final int kQuarterTable = kTableSize / 4;
+    private static final double[] kSinTable = new double[kTableSize];
+
+    private static final double kStep = 2.0 * Math.PI / kTableSize;
+    private static final double kInverseStep = kTableSize / (2.0 * Math.PI);
+    // kStep split so that k * kStepHi is exact for |k| < 2^29, plus the part of 2 pi that Math.PI rounds off.
+    private static final double kStepHi = (float) kStep;
+    private static final double kStepLo = (kStep - kStepHi) + 2.4492935982947064E-16 / kTableSize;
+    private static final double kMaxFastArgument = 1E6;
+
+    // atan() tabulated on [0, 1]. With t_k the nearest table point, atan(t) = atan(t_k) + atan(d) with
+    // d = (t - t_k) / (1 + t t_k), |d| <= 1 / (2 kAtanTableSize).
+    private static final int kAtanTableSize = 512;
+    private static final double[] kAtanTable = new double[kAtanTableSize + 1];
+
+    private static final double kHalfPi = Math.PI / 2.0;
+
+    static {
+        // Fill one quadrant directly and the rest by symmetry, so every entry is as accurate as Math.sin allows.
+        for (int i = 0; i <= kQuarterTable; ++i) {
+            final double s = Math.sin(i * kStep);
+            kSinTable[i] = s;
+            kSinTable[(2 * kQuarterTable - i) & kTableMask] = s;
+            kSinTable[(2 * kQuarterTable + i) & kTableMask] = -s;
+            kSinTable[(4 * kQuarterTable - i) & kTableMask] = -s;
+        }
+        kSinTable[0] = 0.0;
+        kSinTable[2 * kQuarterTable] = 0.0;
+        for (int i = 0; i <= kAtanTableSize; ++i) {
+            kAtanTable[i] = Math.atan((double) i / kAtanTableSize);
+        }
+    }
+
+    /**
+     * Prevent this class from being instantiated.
+     */
+    private FastTrig() {
+    }
+
+    public static double sin(double x) {
+        if (!(Math.abs(x) <= kMaxFastArgument)) {
+            return Math.sin(x);
+        }
+        final long k = Math.round(x * kInverseStep);
+        final double r = (x - k * kStepHi) - k * kStepLo;
+        final int i = (int) k & kTableMask;
+        final double sin_a = kSinTable[i];
+        final double cos_a = kSinTable[(i + kQuarterTable) & kTableMask];
+        final double r2 = r * r;
+        final double sin_r = r - r * r2 * (1.0 / 6.0 - r2 * (1.0 / 120.0));
+        final double cos_r_minus_one = -r2 * (0.5 - r2 * (1.0 / 24.0));
+        return sin_a + (cos_a * sin_r + sin_a * cos_r_minus_one);
+    }
+
+    public static double cos(double x) {
+        if (!(Math.abs(x) <= kMaxFastArgument)) {
+            return Math.cos(x);
+        }
+        final long k = Math.round(x * kInverseStep);
+        final double r = (x - k * kStepHi) - k * kStepLo;
+        final int i = (int) k & kTableMask;
+        final double sin_a = kSinTable[i];
+        final double cos_a = kSinTable[(i + kQuarterTable) & kTableMask];
+        final double r2 = r * r;
+        final double sin_r = r - r * r2 * (1.0 / 6.0 - r2 * (1.0 / 120.0));
+        final double cos_r_minus_one = -r2 * (0.5 - r2 * (1.0 / 24.0));
+        return cos_a + (cos_a * cos_r_minus_one - sin_a * sin_r);
+    }
+
+    public static double atan2(double y, double x) {
+        final double ax = Math.abs(x);
+        final double ay = Math.abs(y);
+        if (!(ax < Double.POSITIVE_INFINITY && ay < Double.POSITIVE_INFINITY) || (ax == 0.0 && ay == 0.0)) {
+            return Math.atan2(y, x);
+        }
+        final boolean swap = ay > ax;
+        final double t = swap ? ax / ay : ay / ax;
+        final int k = (int) (t * kAtanTableSize + 0.5);
+        final double t_k = (double) k / kAtanTableSize;
+        final double d = (t - t_k) / (1.0 + t * t_k);
+        final double d2 = d * d;
+        double angle = kAtanTable[k] + (d - d * d2 * (1.0 / 3.0 - d2 * (1.0 / 5.0)));
+        if (swap) {
+            angle = kHalfPi - angle;
+        }
+        if (x < 0.0) {
+            angle = Math.PI - angle;
+        }
+        return Math.copySign(angle, y);
+    }
+}
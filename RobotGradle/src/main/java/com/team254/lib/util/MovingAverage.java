@@ -1,56 +1,30 @@
 package com.team254.lib.util;
 
-import java.util.ArrayList;
-
 /**
  * Helper class for storing and calculating a moving average
+ * <p>
+ * A CircularBuffer under the names the robot code has always used, so adding a number is O(1) and does not box.
  */
-public class MovingAverage {
-
-    private final ArrayList<Double> numbers;
-    private final int maxSize;
+public class MovingAverage extends CircularBuffer {
 
     public MovingAverage(int maxSize) {
-        this.maxSize = maxSize;
-        numbers = new ArrayList<>(maxSize);
+        super(maxSize);
     }
 
     public void addNumber(double newNumber) {
-        numbers.add(newNumber);
-        if (numbers.size() > maxSize) {
-            numbers.remove(0);
-        }
-    }
-
-    public double getAverage() {
-        double total = 0;
-
-        if (numbers.size() > 0) {
-            for (double number : numbers) {
-                total += number;
-            }
-
-            return total / numbers.size();
-        }
-        else {
-            return 0;
-        }
+        addValue(newNumber);
     }
 
     public double getLastSample() {
-        return numbers.get(numbers.size() - 1);
+        return getLast();
     }
 
     public int getSize() {
-        return numbers.size();
+        return getNumValues();
     }
 
     public boolean isUnderMaxSize() {
-        return getSize() < maxSize;
-    }
-
-    public void clear() {
-        numbers.clear();
+        return !isFull();
     }
 
     @Override
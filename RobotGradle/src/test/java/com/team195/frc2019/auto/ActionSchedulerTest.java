@@ -0,0 +1,407 @@
+package com.team195.frc2019.auto;
+
+import com.team195.frc2019.auto.actions.Action;
+import com.team195.frc2019.auto.actions.WaitAction;
+import com.team195.frc2019.auto.actions.WaitForConditionAction;
+import com.team195.frc2019.auto.autonomy.AutomatedAction;
+import com.team195.frc2019.loops.SimulatedLooper;
+import com.team195.frc2019.simulation.AutoModeReplay;
+import com.team195.frc2019.subsystems.Subsystem;
+import com.team195.lib.util.BooleanSignal;
+import com.team195.lib.util.DoubleSignal;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ActionSchedulerTest {
+	private static class TestSubsystem extends Subsystem {
+		@Override
+		public void stop() {
+		}
+
+		@Override
+		public List<Object> generateReport() {
+			return new ArrayList<>();
+		}
+
+		@Override
+		public boolean isSystemFaulted() {
+			return false;
+		}
+
+		@Override
+		public boolean runDiagnostics() {
+			return true;
+		}
+	}
+
+	private static final TestSubsystem kSubsystemA = new TestSubsystem();
+	private static final TestSubsystem kSubsystemB = new TestSubsystem();
+
+	/**
+	 * Finishes after a number of updates, and records which thread calls it.
+	 */
+	private static class CountingAction implements Action {
+		private final int mNumUpdates;
+		int mStarts = 0;
+		int mUpdates = 0;
+		int mDones = 0;
+		final List<Thread> mCallers = new ArrayList<>();
+
+		CountingAction(int numUpdates) {
+			mNumUpdates = numUpdates;
+		}
+
+		@Override
+		public boolean isFinished() {
+			mCallers.add(Thread.currentThread());
+			return mUpdates >= mNumUpdates;
+		}
+
+		@Override
+		public void update() {
+			mCallers.add(Thread.currentThread());
+			mUpdates++;
+		}
+
+		@Override
+		public void done() {
+			mCallers.add(Thread.currentThread());
+			mDones++;
+		}
+
+		@Override
+		public void start() {
+			mCallers.add(Thread.currentThread());
+			mStarts++;
+		}
+	}
+
+	@Test
+	public void testSubsystemRequirementMasks() {
+		assertEquals(1, Long.bitCount(kSubsystemA.getRequirementMask()));
+		assertEquals(1, Long.bitCount(kSubsystemB.getRequirementMask()));
+		assertEquals(0, kSubsystemA.getRequirementMask() & kSubsystemB.getRequirementMask());
+
+		AutomatedAction action = AutomatedAction.fromAction(new CountingAction(1), 0, kSubsystemA, kSubsystemB);
+		assertEquals(kSubsystemA.getRequirementMask() | kSubsystemB.getRequirementMask(), action.getRequirementMask());
+	}
+
+	@Test
+	public void testActionLifecycle() {
+		ActionScheduler scheduler = new ActionScheduler();
+		CountingAction action = new CountingAction(3);
+		ActionScheduler.ScheduledAction scheduledAction = scheduler.schedule(action);
+		assertEquals(0, action.mStarts);
+
+		scheduler.onLoop(0);
+		assertEquals(1, action.mStarts);
+		assertEquals(1, action.mUpdates);
+		assertEquals(1, scheduler.getNumRunningActions());
+
+		scheduler.onLoop(0.01);
+		scheduler.onLoop(0.02);
+		assertFalse(scheduledAction.isDone());
+		scheduler.onLoop(0.03);
+		assertEquals(1, action.mStarts);
+		assertEquals(3, action.mUpdates);
+		assertEquals(1, action.mDones);
+		assertTrue(scheduledAction.isDone());
+		assertTrue(scheduledAction.isCompleted());
+		assertEquals(0, scheduler.getNumRunningActions());
+
+		scheduler.onLoop(0.04);
+		assertEquals(3, action.mUpdates);
+		assertEquals(1, action.mDones);
+	}
+
+	@Test
+	public void testRequirementConflicts() {
+		ActionScheduler scheduler = new ActionScheduler();
+		CountingAction first = new CountingAction(100);
+		CountingAction other = new CountingAction(100);
+		ActionScheduler.ScheduledAction scheduledFirst = scheduler.schedule(AutomatedAction.fromAction(first, 0, kSubsystemA));
+		ActionScheduler.ScheduledAction scheduledOther = scheduler.schedule(AutomatedAction.fromAction(other, 0, kSubsystemB));
+		ActionScheduler.ScheduledAction scheduledFree = scheduler.schedule(new CountingAction(100));
+		scheduler.onLoop(0);
+		scheduler.onLoop(0.01);
+		assertEquals(3, scheduler.getNumRunningActions());
+
+		// Taking over subsystem A purges the first action, which runs its children through to done()
+		CountingAction second = new CountingAction(100);
+		ActionScheduler.ScheduledAction scheduledSecond = scheduler.schedule(AutomatedAction.fromAction(second, 0, kSubsystemA));
+		scheduler.onLoop(0.02);
+		assertTrue(scheduledFirst.isDone());
+		assertFalse(scheduledFirst.isCompleted());
+		assertTrue(first.mDones > 0);
+		assertFalse(scheduledOther.isDone());
+		assertFalse(scheduledFree.isDone());
+		assertEquals(1, second.mUpdates);
+		assertEquals(3, scheduler.getNumRunningActions());
+
+		// Requiring both subsystems takes over everything that requires either
+		ActionScheduler.ScheduledAction scheduledBoth = scheduler.schedule(AutomatedAction.fromAction(new CountingAction(100), 0, kSubsystemA, kSubsystemB));
+		scheduler.onLoop(0.03);
+		assertTrue(scheduledSecond.isDone());
+		assertTrue(scheduledOther.isDone());
+		assertFalse(scheduledFree.isDone());
+		assertFalse(scheduledBoth.isDone());
+		assertEquals(2, scheduler.getNumRunningActions());
+	}
+
+	@Test
+	public void testCancelAndStop() {
+		ActionScheduler scheduler = new ActionScheduler();
+		CountingAction cancelled = new CountingAction(100);
+		ActionScheduler.ScheduledAction scheduledCancelled = scheduler.schedule(cancelled);
+		ActionScheduler.ScheduledAction scheduledRunning = scheduler.schedule(new CountingAction(100));
+		scheduler.onLoop(0);
+
+		scheduledCancelled.cancel();
+		scheduler.onLoop(0.01);
+		assertTrue(scheduledCancelled.isDone());
+		assertFalse(scheduledCancelled.isCompleted());
+		assertEquals(1, cancelled.mUpdates);
+		assertEquals(0, cancelled.mDones);
+
+		// Disabling drops running and pending actions
+		ActionScheduler.ScheduledAction scheduledPending = scheduler.schedule(new CountingAction(100));
+		scheduler.onStop(0.02);
+		assertTrue(scheduledRunning.isDone());
+		assertTrue(scheduledPending.isDone());
+		assertFalse(scheduledPending.isCompleted());
+		assertEquals(0, scheduler.getNumRunningActions());
+	}
+
+	@Test
+	public void testThrowingActionIsRemoved() {
+		ActionScheduler scheduler = new ActionScheduler();
+		ActionScheduler.ScheduledAction scheduledAction = scheduler.schedule(new CountingAction(100) {
+			@Override
+			public void update() {
+				throw new IllegalStateException("Broken action");
+			}
+		});
+		scheduler.onLoop(0);
+		assertTrue(scheduledAction.isDone());
+		assertFalse(scheduledAction.isCompleted());
+		assertEquals(0, scheduler.getNumRunningActions());
+	}
+
+	@Test
+	public void testAutoModeActionsRunOnLoopThread() throws InterruptedException {
+		final ActionScheduler scheduler = new ActionScheduler();
+		final CountingAction first = new CountingAction(5);
+		final CountingAction second = new CountingAction(2);
+		AutoModeBase mode = new AutoModeBase() {
+			@Override
+			protected void routine() throws AutoModeEndedException {
+				runAction(first);
+				runAction(second);
+			}
+		};
+		mode.setActionScheduler(scheduler);
+
+		Thread modeThread = new Thread(mode::run);
+		modeThread.start();
+		int ticks = 0;
+		while (modeThread.isAlive() && ticks < 100000) {
+			scheduler.onLoop(ticks * 0.01);
+			ticks++;
+			Thread.sleep(0, 100000);
+		}
+		modeThread.join(1000);
+
+		assertFalse(modeThread.isAlive());
+		assertEquals(1, first.mDones);
+		assertEquals(1, second.mDones);
+		assertEquals(5, first.mUpdates);
+		for (Thread caller : first.mCallers) {
+			assertSame(Thread.currentThread(), caller);
+		}
+		for (Thread caller : second.mCallers) {
+			assertSame(Thread.currentThread(), caller);
+		}
+	}
+
+	@Test
+	public void testStoppedAutoModeCancelsAction() throws InterruptedException {
+		final ActionScheduler scheduler = new ActionScheduler();
+		final CountingAction endless = new CountingAction(Integer.MAX_VALUE);
+		final AtomicReference<Boolean> reachedEnd = new AtomicReference<>(false);
+		AutoModeBase mode = new AutoModeBase() {
+			@Override
+			protected void routine() throws AutoModeEndedException {
+				runAction(endless);
+				reachedEnd.set(true);
+			}
+		};
+		mode.setActionScheduler(scheduler);
+
+		Thread modeThread = new Thread(mode::run);
+		modeThread.start();
+		while (endless.mUpdates < 3) {
+			scheduler.onLoop(0);
+			Thread.sleep(1);
+		}
+		mode.stop();
+		modeThread.join(1000);
+		scheduler.onLoop(0);
+
+		assertFalse(modeThread.isAlive());
+		assertFalse(reachedEnd.get());
+		assertEquals(0, endless.mDones);
+		assertEquals(0, scheduler.getNumRunningActions());
+	}
+
+	@Test
+	public void testReplayOnSimulatedLoop() {
+		// The scheduler ticks as a loop of the simulated looper, which the replay steps between checks
+		final ActionScheduler scheduler = new ActionScheduler();
+		final SimulatedLooper looper = new SimulatedLooper("Simulation", 0.01);
+		looper.register(scheduler);
+		AutoModeBase mode = new AutoModeBase() {
+			@Override
+			protected void routine() throws AutoModeEndedException {
+				runAction(new WaitAction(0.5));
+				runAction(new WaitAction(0.25));
+			}
+		};
+		mode.setActionScheduler(scheduler);
+
+		AutoModeReplay.Result result = new AutoModeReplay(looper).run(mode, 5.0);
+		assertTrue(result.isCompleted());
+		assertEquals(0.75, result.getTotalTime(), 0.05);
+		assertEquals(2, result.getActionTimings().size());
+	}
+
+	@Test
+	public void testWaitConditionsCheckedOncePerTick() {
+		ActionScheduler scheduler = new ActionScheduler();
+		scheduler.onStart(0);
+		final int[] checks = {0};
+		DoubleSignal position = new DoubleSignal(0);
+		ActionScheduler.WaitCondition condition = scheduler.waitFor(() -> {
+			checks[0]++;
+			return position.get() > 10;
+		});
+		// Checked once when registered, then only by the loop
+		assertEquals(1, checks[0]);
+		assertFalse(condition.isMet());
+		assertFalse(condition.isMet());
+		assertEquals(1, checks[0]);
+
+		scheduler.onLoop(0);
+		assertEquals(2, checks[0]);
+		assertEquals(1, scheduler.getNumWaitConditions());
+		position.publish(11);
+		assertFalse(condition.isMet());
+		scheduler.onLoop(0.01);
+		assertTrue(condition.isMet());
+		assertEquals(0, scheduler.getNumWaitConditions());
+		scheduler.onLoop(0.02);
+		assertEquals(3, checks[0]);
+
+		// Met conditions are not registered at all, and cancelled ones are dropped
+		assertTrue(scheduler.waitFor(position.greaterThan(5)).isMet());
+		scheduler.waitFor(position.lessThan(5)).cancel();
+		scheduler.onLoop(0.03);
+		assertEquals(0, scheduler.getNumWaitConditions());
+
+		ActionScheduler.WaitCondition stopped = scheduler.waitFor(position.lessThan(5));
+		scheduler.onLoop(0.04);
+		scheduler.onStop(0.05);
+		assertEquals(0, scheduler.getNumWaitConditions());
+		position.publish(0);
+		assertFalse(stopped.isMet());
+	}
+
+	@Test
+	public void testWaitActionFinishesOnTickConditionIsMet() {
+		ActionScheduler scheduler = new ActionScheduler();
+		scheduler.onStart(0);
+		try {
+			BooleanSignal limitSwitch = new BooleanSignal(true);
+			ActionScheduler.ScheduledAction scheduledAction = scheduler.schedule(new WaitForConditionAction(limitSwitch.isFalse(), 10));
+			scheduler.onLoop(0);
+			scheduler.onLoop(0.01);
+			assertFalse(scheduledAction.isDone());
+			// Registered with the scheduler running the action, not the global one
+			assertEquals(1, scheduler.getNumWaitConditions());
+			assertEquals(0, ActionScheduler.getInstance().getNumWaitConditions());
+
+			// Published by a subsystem in readPeriodicInputs, just before the scheduler's tick
+			limitSwitch.publish(false);
+			scheduler.onLoop(0.02);
+			assertTrue(scheduledAction.isDone());
+			assertTrue(scheduledAction.isCompleted());
+			assertEquals(0, scheduler.getNumWaitConditions());
+		} finally {
+			scheduler.onStop(0.03);
+		}
+	}
+
+	@Test
+	public void testEdgeWaitActionIgnoresStateBeforeStart() {
+		BooleanSignal limitSwitch = new BooleanSignal(true);
+		ActionScheduler scheduler = new ActionScheduler();
+		scheduler.onStart(0);
+		try {
+			// Already open, then pulsed closed and open again within one loop before the tick checks it
+			limitSwitch.publish(false);
+			ActionScheduler.ScheduledAction scheduledAction = scheduler.schedule(new WaitForConditionAction(10) {
+				@Override
+				protected BooleanSupplier createCondition() {
+					return limitSwitch.fallingEdge();
+				}
+			});
+			scheduler.onLoop(0);
+			scheduler.onLoop(0.01);
+			assertFalse(scheduledAction.isDone());
+
+			limitSwitch.publish(true);
+			limitSwitch.publish(false);
+			limitSwitch.publish(true);
+			scheduler.onLoop(0.02);
+			assertTrue(scheduledAction.isDone());
+			assertTrue(scheduledAction.isCompleted());
+		} finally {
+			scheduler.onStop(0.03);
+		}
+	}
+
+	@Test
+	public void testWaitActionPolledWithoutScheduler() {
+		// An action run directly, e.g. by a simulation, checks its own condition while the scheduler is not looping
+		DoubleSignal position = new DoubleSignal(0);
+		WaitForConditionAction action = new WaitForConditionAction(position.greaterThan(1), 10);
+		action.start();
+		assertFalse(action.isFinished());
+		position.publish(2);
+		assertTrue(action.isFinished());
+		action.done();
+		assertEquals(0, ActionScheduler.getInstance().getNumWaitConditions());
+	}
+
+	@Test
+	public void testThrowingConditionIsRemoved() {
+		ActionScheduler scheduler = new ActionScheduler();
+		scheduler.onStart(0);
+		final boolean[] broken = {false};
+		ActionScheduler.WaitCondition condition = scheduler.waitFor(() -> {
+			if (broken[0]) {
+				throw new IllegalStateException("Broken condition");
+			}
+			return false;
+		});
+		broken[0] = true;
+		scheduler.onLoop(0);
+		assertFalse(condition.isMet());
+		assertEquals(0, scheduler.getNumWaitConditions());
+	}
+}
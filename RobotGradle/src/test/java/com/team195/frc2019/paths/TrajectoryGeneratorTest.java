@@ -14,6 +14,7 @@ import java.util.Arrays;
 import java.util.Comparator;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TrajectoryGeneratorTest {
@@ -191,4 +192,32 @@ public class TrajectoryGeneratorTest {
 
 
     }
+
+    @Test
+    public void testTimingParametersChangeTrajectories() {
+        final TrajectoryGenerator generator = TrajectoryGenerator.getInstance();
+        final TrajectoryGenerator.TimingParameters defaults = TrajectoryGenerator.kDefaultTimingParameters;
+        try {
+            generator.regenerateTrajectories(defaults);
+            final double default_first_time = generator.getTrajectorySet().lowStartToCloseRocketFarHatch.left
+                    .getLastState().t();
+            final double default_test_time = generator.getTrajectorySet().testPath.left.getLastState().t();
+
+            final TrajectoryGenerator.TimingParameters slower = new TrajectoryGenerator.TimingParameters(
+                    defaults.max_vel / 2.0, defaults.max_accel / 2.0, defaults.max_voltage,
+                    defaults.first_path_max_vel / 2.0, defaults.first_path_max_accel / 2.0,
+                    defaults.first_path_max_voltage, defaults.max_centripetal_accel / 2.0);
+            generator.regenerateTrajectories(slower);
+            assertSame(slower, generator.getTimingParameters());
+
+            final TrajectoryGenerator.TrajectorySet slow_set = generator.getTrajectorySet();
+            assertTrue(slow_set.lowStartToCloseRocketFarHatch.left.getLastState().t() > default_first_time + 1.0);
+            assertTrue(slow_set.testPath.left.getLastState().t() > default_test_time + 1.0);
+            for (int i = 0; i < slow_set.testPath.left.length(); ++i) {
+                assertTrue(Math.abs(slow_set.testPath.left.getState(i).velocity()) <= slower.max_vel + kTestEpsilon);
+            }
+        } finally {
+            generator.regenerateTrajectories(defaults);
+        }
+    }
 }
@@ -2,16 +2,27 @@ package com.team195.frc2019.planners;
 
 import com.team195.frc2019.constants.CalConstants;
 import com.team195.frc2019.Kinematics;
+import com.team254.lib.geometry.MutablePose2d;
 import com.team254.lib.geometry.Pose2d;
 import com.team254.lib.geometry.Rotation2d;
 import com.team254.lib.geometry.Translation2d;
 import com.team254.lib.geometry.Twist2d;
+import com.team254.lib.geometry.Pose2dWithCurvature;
+import com.team254.lib.trajectory.PackedTimedTrajectory;
 import com.team254.lib.trajectory.TimedView;
+import com.team254.lib.trajectory.Trajectory;
 import com.team254.lib.trajectory.TrajectoryIterator;
 import com.team254.lib.trajectory.timing.CentripetalAccelerationConstraint;
+import com.team254.lib.trajectory.timing.TimedState;
+import com.team254.lib.util.Util;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 public class DriveMotionPlannerTest {
 
@@ -167,4 +178,215 @@ public class DriveMotionPlannerTest {
             t += 0.01;
         }
     }
+
+    private static void assertBitsEqual(double expected, double actual) {
+        assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(actual));
+    }
+
+    private static Trajectory<TimedState<Pose2dWithCurvature>> generateSwerve(DriveMotionPlanner motion_planner,
+                                                                               boolean reversed) {
+        List<Pose2d> waypoints = Arrays.asList(new Pose2d(new Translation2d(0.0, 0.0), Rotation2d.identity()),
+                new Pose2d(new Translation2d(120.0, -36.0), Rotation2d.fromDegrees(-20.0)),
+                new Pose2d(new Translation2d(240.0, -36.0), Rotation2d.identity()));
+        if (reversed) {
+            waypoints = new ArrayList<>(waypoints);
+            java.util.Collections.reverse(waypoints);
+        }
+        return motion_planner.generateTrajectory(reversed, waypoints,
+                Arrays.asList(new CentripetalAccelerationConstraint(120.0)), 120.0, 120.0, 10.0);
+    }
+
+    @Test
+    public void testAllocationFreeMatchesDefault() {
+        final double dt = 0.01;
+        for (DriveMotionPlanner.FollowerType type : Arrays.asList(DriveMotionPlanner.FollowerType.FEEDFORWARD_ONLY,
+                DriveMotionPlanner.FollowerType.PID, DriveMotionPlanner.FollowerType.NONLINEAR_FEEDBACK)) {
+            for (boolean reversed : Arrays.asList(false, true)) {
+                final DriveMotionPlanner reference = new DriveMotionPlanner();
+                final DriveMotionPlanner allocation_free = new DriveMotionPlanner();
+                final Trajectory<TimedState<Pose2dWithCurvature>> trajectory = generateSwerve(reference, reversed);
+                reference.setFollowerType(type);
+                allocation_free.setFollowerType(type);
+                allocation_free.setAllocationFree(true);
+                reference.setTrajectory(new TrajectoryIterator<>(new TimedView<>(trajectory)));
+                allocation_free.setTrajectory(new TrajectoryIterator<>(new TimedView<>(trajectory)));
+
+                final MutablePose2d error_out = new MutablePose2d();
+                final PackedTimedTrajectory.Sample setpoint_out = new PackedTimedTrajectory.Sample();
+                double t = 0.0;
+                Pose2d pose = reference.setpoint().state().getPose().transformBy(new Pose2d(2.0, 3.0,
+                        Rotation2d.fromDegrees(3.5)));
+                while (!reference.isDone()) {
+                    final DriveMotionPlanner.Output expected = reference.update(t, pose);
+                    final DriveMotionPlanner.Output actual = allocation_free.update(t, pose);
+                    assertBitsEqual(expected.left_velocity, actual.left_velocity);
+                    assertBitsEqual(expected.right_velocity, actual.right_velocity);
+                    assertBitsEqual(expected.left_accel, actual.left_accel);
+                    assertBitsEqual(expected.right_accel, actual.right_accel);
+                    assertBitsEqual(expected.left_feedforward_voltage, actual.left_feedforward_voltage);
+                    assertBitsEqual(expected.right_feedforward_voltage, actual.right_feedforward_voltage);
+                    assertEquals(reference.isDone(), allocation_free.isDone());
+
+                    final Pose2d expected_error = reference.error();
+                    final Pose2d actual_error = allocation_free.error();
+                    assertBitsEqual(expected_error.getTranslation().x(), actual_error.getTranslation().x());
+                    assertBitsEqual(expected_error.getTranslation().y(), actual_error.getTranslation().y());
+                    assertBitsEqual(expected_error.getRotation().cos(), actual_error.getRotation().cos());
+                    assertBitsEqual(expected_error.getRotation().sin(), actual_error.getRotation().sin());
+
+                    final TimedState<Pose2dWithCurvature> expected_setpoint = reference.setpoint();
+                    final TimedState<Pose2dWithCurvature> actual_setpoint = allocation_free.setpoint();
+                    assertBitsEqual(expected_setpoint.t(), actual_setpoint.t());
+                    assertBitsEqual(expected_setpoint.velocity(), actual_setpoint.velocity());
+                    assertBitsEqual(expected_setpoint.state().getTranslation().x(),
+                            actual_setpoint.state().getTranslation().x());
+                    assertBitsEqual(expected_setpoint.state().getTranslation().y(),
+                            actual_setpoint.state().getTranslation().y());
+                    assertBitsEqual(expected_setpoint.state().getCurvature(), actual_setpoint.state().getCurvature());
+
+                    // The fill-in accessors copy the same values, from either follower.
+                    for (DriveMotionPlanner planner : Arrays.asList(reference, allocation_free)) {
+                        planner.error(error_out);
+                        assertBitsEqual(expected_error.getTranslation().x(), error_out.getTranslation().x());
+                        assertBitsEqual(expected_error.getTranslation().y(), error_out.getTranslation().y());
+                        assertBitsEqual(expected_error.getRotation().cos(), error_out.getRotation().cos());
+                        assertBitsEqual(expected_error.getRotation().sin(), error_out.getRotation().sin());
+
+                        planner.setpoint(setpoint_out);
+                        assertBitsEqual(expected_setpoint.t(), setpoint_out.t);
+                        assertBitsEqual(expected_setpoint.velocity(), setpoint_out.velocity);
+                        assertBitsEqual(expected_setpoint.state().getTranslation().x(), setpoint_out.x);
+                        assertBitsEqual(expected_setpoint.state().getTranslation().y(), setpoint_out.y);
+                        assertBitsEqual(expected_setpoint.state().getCurvature(), setpoint_out.curvature);
+                    }
+
+                    Twist2d delta = Kinematics.forwardKinematics(expected.left_velocity * dt * CalConstants
+                            .kDriveWheelDiameterInches / 2.0, expected.right_velocity * dt * CalConstants
+                            .kDriveWheelDiameterInches / 2.0);
+                    delta = new Twist2d(delta.dx, delta.dy, delta.dtheta * 1.05);
+                    pose = pose.transformBy(Pose2d.exp(delta));
+                    t += dt;
+                }
+                assertTrue(allocation_free.isDone());
+            }
+        }
+    }
+
+    @Test
+    public void testPurePursuitLeavesAllocationFreeFollower() {
+        final double dt = 0.01;
+        final DriveMotionPlanner motion_planner = new DriveMotionPlanner();
+        motion_planner.setAllocationFree(true);
+        final Trajectory<TimedState<Pose2dWithCurvature>> trajectory = generateSwerve(motion_planner, false);
+        motion_planner.setTrajectory(new TrajectoryIterator<>(new TimedView<>(trajectory)));
+
+        double t = 0.0;
+        for (; t < 1.0; t += dt) {
+            motion_planner.update(t, motion_planner.setpoint().state().getPose());
+        }
+        final TimedState<Pose2dWithCurvature> packed_setpoint = motion_planner.setpoint();
+
+        // Switching mid-trajectory picks up where the packed follower left off.
+        motion_planner.setFollowerType(DriveMotionPlanner.FollowerType.PURE_PURSUIT);
+        assertBitsEqual(packed_setpoint.t(), motion_planner.setpoint().t());
+        assertBitsEqual(packed_setpoint.state().getTranslation().x(),
+                motion_planner.setpoint().state().getTranslation().x());
+
+        DriveMotionPlanner.Output previous = null;
+        while (!motion_planner.isDone()) {
+            final DriveMotionPlanner.Output output = motion_planner.update(t, motion_planner.setpoint().state()
+                    .getPose());
+            assertNotSame(previous, output);
+            previous = output;
+            t += dt;
+        }
+        assertEquals(trajectory.getLastState().t(), motion_planner.setpoint().t(), Util.kEpsilon);
+    }
+
+    @Test
+    public void testAllocationFreeUpdateDoesNotAllocate() {
+        final com.sun.management.ThreadMXBean thread_bean = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        final long thread_id = Thread.currentThread().getId();
+        final double dt = 0.01;
+
+        final DriveMotionPlanner motion_planner = new DriveMotionPlanner();
+        motion_planner.setAllocationFree(true);
+        final Trajectory<TimedState<Pose2dWithCurvature>> trajectory = generateSwerve(motion_planner, false);
+
+        // Precompute the measured poses so the loop under test only calls update().
+        final int num_ticks = (int) (trajectory.getLastState().t() / dt);
+        final Pose2d[] poses = new Pose2d[num_ticks];
+        final double[] timestamps = new double[num_ticks];
+        for (int i = 0; i < num_ticks; ++i) {
+            timestamps[i] = i * dt;
+            poses[i] = new TimedView<>(trajectory).sample(timestamps[i]).state().state().getPose().transformBy(
+                    new Pose2d(1.0, -2.0, Rotation2d.fromDegrees(2.0)));
+        }
+
+        for (DriveMotionPlanner.FollowerType type : Arrays.asList(DriveMotionPlanner.FollowerType.FEEDFORWARD_ONLY,
+                DriveMotionPlanner.FollowerType.PID, DriveMotionPlanner.FollowerType.NONLINEAR_FEEDBACK)) {
+            motion_planner.setFollowerType(type);
+
+            // Calibrate out whatever the measurement itself costs.
+            long start = thread_bean.getThreadAllocatedBytes(thread_id);
+            final long overhead = thread_bean.getThreadAllocatedBytes(thread_id) - start;
+
+            // The first run pays for class initialization (e.g. enum switch tables), and the JVM occasionally charges a
+            // few bytes of its own to this thread, so take the best of a few runs; a real allocation in update() would
+            // show up in every run.
+            long allocated = Long.MAX_VALUE;
+            for (int run = 0; run < 3 && allocated != 0; ++run) {
+                motion_planner.reset();
+                motion_planner.setTrajectory(new TrajectoryIterator<>(new TimedView<>(trajectory)));
+                start = thread_bean.getThreadAllocatedBytes(thread_id);
+                for (int i = 0; i < num_ticks; ++i) {
+                    motion_planner.update(timestamps[i], poses[i]);
+                }
+                allocated = Math.min(allocated, thread_bean.getThreadAllocatedBytes(thread_id) - start - overhead);
+            }
+            assertEquals(0L, allocated, "Bytes allocated by " + num_ticks + " " + type + " updates");
+        }
+    }
+
+    private static void assertTrajectoriesIdentical(Trajectory<TimedState<Pose2dWithCurvature>> expected,
+                                                    Trajectory<TimedState<Pose2dWithCurvature>> actual) {
+        assertEquals(expected.length(), actual.length());
+        for (int i = 0; i < expected.length(); ++i) {
+            assertBitsEqual(expected.getState(i).t(), actual.getState(i).t());
+            assertBitsEqual(expected.getState(i).velocity(), actual.getState(i).velocity());
+            assertBitsEqual(expected.getState(i).acceleration(), actual.getState(i).acceleration());
+            assertBitsEqual(expected.getState(i).state().getTranslation().x(),
+                    actual.getState(i).state().getTranslation().x());
+            assertBitsEqual(expected.getState(i).state().getTranslation().y(),
+                    actual.getState(i).state().getTranslation().y());
+            assertBitsEqual(expected.getState(i).state().getCurvature(), actual.getState(i).state().getCurvature());
+        }
+    }
+
+    @Test
+    public void testRetimingReusesGeometry() {
+        final List<Pose2d> waypoints = Arrays.asList(new Pose2d(new Translation2d(0.0, 0.0), Rotation2d.identity()),
+                new Pose2d(new Translation2d(120.0, -36.0), Rotation2d.fromDegrees(-20.0)),
+                new Pose2d(new Translation2d(240.0, -36.0), Rotation2d.identity()));
+        for (boolean reversed : Arrays.asList(false, true)) {
+            final DriveMotionPlanner motion_planner = new DriveMotionPlanner();
+            final Trajectory<TimedState<Pose2dWithCurvature>> slow = motion_planner.generateTrajectory(reversed,
+                    waypoints, Arrays.asList(new CentripetalAccelerationConstraint(120.0)), 60.0, 40.0, 9.0);
+            final Trajectory<TimedState<Pose2dWithCurvature>> fast = motion_planner.generateTrajectory(reversed,
+                    waypoints, Arrays.asList(new CentripetalAccelerationConstraint(120.0)), 100.0, 80.0, 10.0);
+            assertEquals(1, motion_planner.getGeometryCache().misses());
+            assertEquals(1, motion_planner.getGeometryCache().hits());
+            assertTrue(fast.getLastState().t() < slow.getLastState().t());
+
+            // Cached geometry must time exactly like a fresh spline fit.
+            assertTrajectoriesIdentical(new DriveMotionPlanner().generateTrajectory(reversed, waypoints,
+                    Arrays.asList(new CentripetalAccelerationConstraint(120.0)), 100.0, 80.0, 10.0), fast);
+
+            // Re-timing an already timed trajectory matches generating it with the new parameters.
+            assertTrajectoriesIdentical(fast, motion_planner.retimeTrajectory(slow,
+                    Arrays.asList(new CentripetalAccelerationConstraint(120.0)), 0.0, 0.0, 100.0, 80.0, 10.0));
+            assertEquals(1, motion_planner.getGeometryCache().misses());
+        }
+    }
 }
@@ -0,0 +1,154 @@
+package com.team195.frc2019.planners;
+
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Pose2dWithCurvature;
+import com.team254.lib.geometry.Rotation2d;
+import com.team254.lib.geometry.Translation2d;
+import com.team254.lib.trajectory.Trajectory;
+import com.team254.lib.trajectory.timing.CentripetalAccelerationConstraint;
+import com.team254.lib.trajectory.timing.TimedState;
+import com.team254.lib.trajectory.timing.TimingConstraint;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrajectoryReplannerTest {
+    public static final double kTestEpsilon = 1e-6;
+
+    private static final List<TimingConstraint<Pose2dWithCurvature>> kConstraints =
+            Collections.singletonList(new CentripetalAccelerationConstraint(100.0));
+
+    private static Trajectory<TimedState<Pose2dWithCurvature>> generate(boolean reversed) {
+        return new DriveMotionPlanner().generateTrajectory(reversed, Arrays.asList(
+                new Pose2d(new Translation2d(0.0, 0.0), Rotation2d.identity()),
+                new Pose2d(new Translation2d(120.0, -36.0), Rotation2d.fromDegrees(-30.0)),
+                new Pose2d(new Translation2d(240.0, -36.0), Rotation2d.identity())),
+                kConstraints, 60.0, 40.0, 9.0);
+    }
+
+    @Test
+    public void testReplanFromCurrentPose() {
+        for (boolean reversed : Arrays.asList(false, true)) {
+            Trajectory<TimedState<Pose2dWithCurvature>> fallback = generate(reversed);
+            assertEquals(reversed, TrajectoryReplanner.isReversed(fallback));
+
+            // Pushed 10 inches off the stored path, moving at 30 inches/s.
+            Pose2d current = fallback.getState(fallback.length() / 3).state().getPose()
+                    .transformBy(Pose2d.fromTranslation(new Translation2d(0.0, 10.0)));
+            TrajectoryReplanner.Plan plan = new TrajectoryReplanner().replan(current, 30.0, fallback, kConstraints,
+                    60.0, 40.0, 9.0, 10.0);
+            Trajectory<TimedState<Pose2dWithCurvature>> replanned = plan.get();
+
+            assertTrue(plan.isResolved());
+            assertFalse(plan.usedFallback());
+            assertNotSame(fallback, replanned);
+            assertSame(replanned, plan.poll());
+            assertEquals(reversed, TrajectoryReplanner.isReversed(replanned));
+            assertEquals(current, replanned.getFirstState().state().getPose());
+            assertEquals(fallback.getLastState().state().getPose(), replanned.getLastState().state().getPose());
+            assertEquals(reversed ? -30.0 : 30.0, replanned.getFirstState().velocity(), kTestEpsilon);
+            assertEquals(0.0, replanned.getLastState().velocity(), kTestEpsilon);
+        }
+    }
+
+    /**
+     * Blocks generation until released or interrupted, and counts the states it was asked about.
+     */
+    private static class BlockingConstraint implements TimingConstraint<Pose2dWithCurvature> {
+        final CountDownLatch mRelease = new CountDownLatch(1);
+        final CountDownLatch mBlocked = new CountDownLatch(1);
+        final AtomicInteger mCalls = new AtomicInteger();
+
+        @Override
+        public double getMaxVelocity(Pose2dWithCurvature state) {
+            mCalls.incrementAndGet();
+            mBlocked.countDown();
+            try {
+                mRelease.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public MinMaxAcceleration getMinMaxAcceleration(Pose2dWithCurvature state, double velocity) {
+            return MinMaxAcceleration.kNoLimits;
+        }
+    }
+
+    @Test
+    public void testFallbackOnMissedDeadline() {
+        final AtomicLong clock = new AtomicLong();
+        final BlockingConstraint blocking = new BlockingConstraint();
+        Trajectory<TimedState<Pose2dWithCurvature>> fallback = generate(false);
+        TrajectoryReplanner.Plan plan = new TrajectoryReplanner(clock::get).replan(Pose2d.identity(), 0.0, fallback,
+                Collections.singletonList(blocking), 60.0, 40.0, 9.0, 0.02);
+
+        assertNull(plan.poll());
+        clock.addAndGet(19000000L);
+        assertNull(plan.poll());
+        clock.addAndGet(1000000L);
+        assertSame(fallback, plan.poll());
+        assertTrue(plan.usedFallback());
+
+        blocking.mRelease.countDown();
+        assertSame(fallback, plan.get());
+    }
+
+    @Test
+    public void testMissedDeadlineDoesNotHoldUpNextReplan() throws InterruptedException {
+        final AtomicLong clock = new AtomicLong();
+        final BlockingConstraint blocking = new BlockingConstraint();
+        final TrajectoryReplanner replanner = new TrajectoryReplanner(clock::get);
+        Trajectory<TimedState<Pose2dWithCurvature>> fallback = generate(false);
+        TrajectoryReplanner.Plan first = replanner.replan(Pose2d.identity(), 0.0, fallback,
+                Collections.singletonList(blocking), 60.0, 40.0, 9.0, 0.02);
+        TrajectoryReplanner.Plan second = replanner.replan(Pose2d.identity(), 0.0, fallback, kConstraints,
+                60.0, 40.0, 9.0, 10.0);
+
+        // Give up on the first request while it is generating, not while it is still queued.
+        assertTrue(blocking.mBlocked.await(10, TimeUnit.SECONDS));
+        clock.addAndGet(20000000L);
+        assertSame(fallback, first.poll());
+        assertTrue(first.usedFallback());
+
+        // The first request stops at the state it was blocked on, and the second is generated without it ever being
+        // released.
+        Trajectory<TimedState<Pose2dWithCurvature>> replanned = second.get();
+        assertFalse(second.usedFallback());
+        assertNotSame(fallback, replanned);
+        assertEquals(fallback.getLastState().state().getPose(), replanned.getLastState().state().getPose());
+        assertEquals(1, blocking.mCalls.get());
+    }
+
+    @Test
+    public void testFallbackOnFailure() {
+        final List<TimingConstraint<Pose2dWithCurvature>> failing = Collections.singletonList(
+                new TimingConstraint<Pose2dWithCurvature>() {
+                    @Override
+                    public double getMaxVelocity(Pose2dWithCurvature state) {
+                        throw new IllegalStateException("test");
+                    }
+
+                    @Override
+                    public MinMaxAcceleration getMinMaxAcceleration(Pose2dWithCurvature state, double velocity) {
+                        return MinMaxAcceleration.kNoLimits;
+                    }
+                });
+        Trajectory<TimedState<Pose2dWithCurvature>> fallback = generate(false);
+        TrajectoryReplanner.Plan plan = new TrajectoryReplanner().replan(Pose2d.identity(), 0.0, fallback, failing,
+                60.0, 40.0, 9.0, 10.0);
+
+        assertSame(fallback, plan.get());
+        assertTrue(plan.usedFallback());
+    }
+}
@@ -0,0 +1,151 @@
+package com.team195.frc2019.simulation;
+
+import com.team195.frc2019.auto.AutoModeBase;
+import com.team195.frc2019.auto.AutoModeEndedException;
+import com.team195.frc2019.auto.actions.DriveTrajectory;
+import com.team195.frc2019.auto.actions.ParallelAction;
+import com.team195.frc2019.auto.actions.SeriesAction;
+import com.team195.frc2019.auto.actions.WaitAction;
+import com.team195.frc2019.auto.modes.Low.LowTwoHatchRocketMode;
+import com.team195.frc2019.loops.SimulatedLooper;
+import com.team195.frc2019.paths.TrajectoryGenerator;
+import com.team195.frc2019.planners.DriveMotionPlanner;
+import com.team195.lib.util.TimeSource;
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Pose2dWithCurvature;
+import com.team254.lib.geometry.Rotation2d;
+import com.team254.lib.trajectory.Trajectory;
+import com.team254.lib.trajectory.timing.TimedState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AutoModeReplayTest {
+	private static final double kDt = 0.01;
+	private static final double kEpsilon = 0.05;
+
+	@Test
+	public void testReplayMode() {
+		final Pose2d start = new Pose2d(0.0, 0.0, Rotation2d.identity());
+		final Trajectory<TimedState<Pose2dWithCurvature>> trajectory = new DriveMotionPlanner().generateTrajectory(false,
+				Arrays.asList(start, new Pose2d(100.0, 0.0, Rotation2d.identity())), Collections.emptyList(), 60.0,
+				40.0, 9.0);
+		final double trajectoryTime = trajectory.getLastState().t();
+
+		final SimulatedRobot robot = SimulatedRobot.getInstance();
+		robot.start();
+		final AutoModeReplay.Result result;
+		final AutoModeBase mode;
+		try {
+			robot.reset(start);
+			mode = new AutoModeBase() {
+				@Override
+				protected void routine() throws AutoModeEndedException {
+					runAction(new DriveTrajectory(trajectory, true));
+					runAction(new WaitAction(0.5));
+					runAction(new ParallelAction(new WaitAction(0.25), new SeriesAction(new WaitAction(0.1),
+							new WaitAction(0.2))));
+				}
+			};
+
+			result = new AutoModeReplay(robot).run(mode, 15.0);
+		} finally {
+			robot.stop();
+		}
+
+		assertTrue(result.isCompleted());
+		assertTrue(result.getTotalTime() >= trajectoryTime + 0.5 + 0.3);
+		assertTrue(result.getWallTime() < result.getTotalTime());
+
+		List<AutoModeReplay.ActionTiming> timings = result.getActionTimings();
+		assertEquals(3, timings.size());
+		assertEquals("DriveTrajectory", timings.get(0).getName());
+		assertEquals(0.0, timings.get(0).getStartTime(), 1e-9);
+		// Drive picks up the trajectory on its next loop.
+		assertEquals(trajectoryTime, timings.get(0).getDuration(), kEpsilon + mode.getUpdateRate());
+		assertEquals("WaitAction", timings.get(1).getName());
+		assertEquals(timings.get(0).getEndTime(), timings.get(1).getStartTime(), 1e-9);
+		assertEquals(0.5, timings.get(1).getDuration(), kEpsilon);
+		assertEquals("ParallelAction", timings.get(2).getName());
+		// SeriesAction starts each action on the update after the previous one finishes, and each wait can end an update
+		// late due to rounding of the clock.
+		assertTrue(timings.get(2).getDuration() >= 0.3);
+		assertTrue(timings.get(2).getDuration() <= 0.3 + 5 * mode.getUpdateRate());
+		assertEquals(result.getTotalTime(), timings.get(2).getEndTime(), 1e-9);
+		for (AutoModeReplay.ActionTiming timing : timings) {
+			assertTrue(timing.isFinished());
+		}
+
+		assertTrue(result.getMaxTrackingError() > 0.0);
+		assertTrue(result.getMaxTrackingError() < 3.0);
+		assertTrue(result.getMeanTrackingError() <= result.getMaxTrackingError());
+		// Only the steps spent following the trajectory are sampled, not the waits after it.
+		assertEquals(trajectoryTime, result.getNumTrackingSamples() * robot.getLooper().kPeriod, kEpsilon + mode.getUpdateRate());
+		assertFalse(TimeSource.isSimulated());
+	}
+
+	@Test
+	public void testReplayLowTwoHatchRocketMode() {
+		TrajectoryGenerator.getInstance().generateTrajectories();
+		final Pose2d start = TrajectoryGenerator.getInstance().getTrajectorySet().lowStartToCloseRocketFarHatch.get(true)
+				.getFirstState().state().getPose();
+
+		final SimulatedRobot robot = SimulatedRobot.getInstance();
+		robot.start();
+		final AutoModeReplay.Result result;
+		try {
+			robot.reset(start);
+			result = new AutoModeReplay(robot).run(new LowTwoHatchRocketMode(true), 60.0);
+		} finally {
+			robot.stop();
+		}
+
+		assertTrue(result.isCompleted());
+		assertTrue(result.getWallTime() < result.getTotalTime());
+
+		// Both hatches placed, the trip to the feeder station and the ball intake on the way out.
+		List<AutoModeReplay.ActionTiming> timings = result.getActionTimings();
+		assertEquals(8, timings.size());
+		assertEquals("DriveTrajectory", timings.get(0).getName());
+		assertEquals("AutomatedAction", timings.get(1).getName());
+		assertEquals("ParallelAction", timings.get(7).getName());
+		for (AutoModeReplay.ActionTiming timing : timings) {
+			assertTrue(timing.isFinished());
+		}
+		assertEquals(result.getTotalTime(), timings.get(7).getEndTime(), 1e-9);
+
+		assertTrue(result.getMaxTrackingError() > 0.0);
+		assertTrue(result.getMaxTrackingError() < 12.0);
+		assertFalse(TimeSource.isSimulated());
+	}
+
+	@Test
+	public void testTimeout() {
+		final SimulatedLooper looper = new SimulatedLooper("Simulation", kDt);
+
+		AutoModeBase mode = new AutoModeBase() {
+			@Override
+			protected void routine() throws AutoModeEndedException {
+				runAction(new WaitAction(0.2));
+				runAction(new WaitAction(10.0));
+				runAction(new WaitAction(0.2));
+			}
+		};
+
+		AutoModeReplay.Result result = new AutoModeReplay(looper).run(mode, 1.0);
+
+		assertFalse(result.isCompleted());
+		assertFalse(mode.isActive());
+		assertEquals(1.0, result.getTotalTime(), kEpsilon);
+		assertEquals(2, result.getActionTimings().size());
+		assertTrue(result.getActionTimings().get(0).isFinished());
+		assertFalse(result.getActionTimings().get(1).isFinished());
+		assertEquals(result.getTotalTime(), result.getActionTimings().get(1).getEndTime(), 1e-9);
+		assertEquals(0.0, result.getMaxTrackingError(), 0.0);
+		assertFalse(TimeSource.isSimulated());
+	}
+}
@@ -0,0 +1,118 @@
+package com.team195.frc2019.simulation;
+
+import com.team195.frc2019.RobotState;
+import com.team195.frc2019.constants.CalConstants;
+import com.team195.frc2019.loops.SimulatedLooper;
+import com.team195.frc2019.planners.DriveMotionPlanner;
+import com.team195.frc2019.subsystems.Drive;
+import com.team195.lib.drivers.SimIMU;
+import com.team195.lib.drivers.motorcontrol.MCControlMode;
+import com.team195.lib.drivers.motorcontrol.SimMotorController;
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Pose2dWithCurvature;
+import com.team254.lib.geometry.Rotation2d;
+import com.team254.lib.trajectory.TimedView;
+import com.team254.lib.trajectory.Trajectory;
+import com.team254.lib.trajectory.TrajectoryIterator;
+import com.team254.lib.trajectory.timing.TimedState;
+import com.team254.lib.util.Units;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DriveSimulatorTest {
+	private static final double kDt = 0.01;
+
+	static DriveSimulator createSimulator() {
+		SimMotorController left = SimMotorController.createNEO(1, 0.0);
+		SimMotorController right = SimMotorController.createNEO(2, 0.0);
+		for (SimMotorController master : new SimMotorController[]{left, right}) {
+			master.setPIDF(CalConstants.kDriveLowGearVelocityKp, CalConstants.kDriveLowGearVelocityKi,
+					CalConstants.kDriveLowGearVelocityKd, CalConstants.kDriveLowGearVelocityKf);
+		}
+		return new DriveSimulator(left, right, new SimIMU());
+	}
+
+	@Test
+	public void testOpenLoop() {
+		DriveSimulator sim = createSimulator();
+
+		// Straight.
+		sim.getLeftMaster().set(MCControlMode.PercentOut, 0.5, 0, 0);
+		sim.getRightMaster().set(MCControlMode.PercentOut, 0.5, 0, 0);
+		for (int i = 0; i < 300; ++i) {
+			sim.update(kDt);
+		}
+		assertTrue(sim.getPose().getTranslation().x() > 12.0);
+		assertEquals(0.0, sim.getPose().getTranslation().y(), 1e-6);
+		assertEquals(0.0, sim.getIMU().getFusedHeading(), 1e-6);
+		assertEquals(sim.getLeftMaster().getVelocity(), sim.getRightMaster().getVelocity(), 1e-6);
+		assertTrue(sim.getLeftMaster().getVelocity() > 0.0);
+		assertEquals(sim.getLeftMaster().getVelocity(), Units.rads_per_sec_to_rpm(sim.getWheelVelocity().left) *
+				CalConstants.kDriveGearRatioMotorConversionFactor, 1e-6);
+
+		// Friction stops the robot without reversing it.
+		sim.getLeftMaster().set(MCControlMode.PercentOut, 0.0, 0, 0);
+		sim.getRightMaster().set(MCControlMode.PercentOut, 0.0, 0, 0);
+		for (int i = 0; i < 500; ++i) {
+			sim.update(kDt);
+		}
+		assertEquals(0.0, sim.getWheelVelocity().left, 1e-9);
+		assertEquals(0.0, sim.getWheelVelocity().right, 1e-9);
+
+		// Turn in place to the left.
+		sim.reset(Pose2d.identity());
+		sim.getLeftMaster().set(MCControlMode.PercentOut, -0.5, 0, 0);
+		sim.getRightMaster().set(MCControlMode.PercentOut, 0.5, 0, 0);
+		for (int i = 0; i < 50; ++i) {
+			sim.update(kDt);
+		}
+		assertTrue(sim.getIMU().getFusedHeading() > 1.0);
+		assertEquals(0.0, sim.getPose().getTranslation().norm(), 1e-6);
+	}
+
+	@Test
+	public void testFollowTrajectoryWithDrive() {
+		// Straight, because the untuned kRobotAngularInertia in CalConstants turns the simulated robot too sluggishly to
+		// hold a curved path tightly.
+		final Pose2d start = new Pose2d(0.0, 0.0, Rotation2d.identity());
+		final Pose2d end = new Pose2d(120.0, 0.0, Rotation2d.identity());
+		final Trajectory<TimedState<Pose2dWithCurvature>> trajectory = new DriveMotionPlanner().generateTrajectory(false,
+				Arrays.asList(start, end), Collections.emptyList(), 60.0, 40.0, 9.0);
+
+		final SimulatedRobot robot = SimulatedRobot.getInstance();
+		final SimulatedLooper looper = robot.getLooper();
+		final DriveSimulator sim = robot.getDriveSimulator();
+		final Drive drive = Drive.getInstance();
+
+		robot.start();
+		try {
+			robot.reset(start);
+			drive.setTrajectory(new TrajectoryIterator<>(new TimedView<>(trajectory)));
+
+			final double startTime = looper.getTimestamp();
+			final int startLoops = looper.getNumLoops();
+			final long wallStart = System.nanoTime();
+			while (!drive.isDoneWithTrajectory() && looper.getTimestamp() - startTime < 30.0) {
+				looper.step();
+			}
+			looper.run(0.5);
+			final double wallTime = (System.nanoTime() - wallStart) / 1e9;
+			final double simTime = looper.getTimestamp() - startTime;
+
+			assertTrue(drive.isDoneWithTrajectory());
+			assertEquals(0.0, RobotState.getInstance().getLatestFieldToVehicle().getValue().getTranslation()
+					.distance(sim.getPose().getTranslation()), 0.5);
+			assertEquals(0.0, sim.getPose().getTranslation().distance(end.getTranslation()), 3.0);
+			assertEquals(0.0, sim.getPose().getRotation().inverse().rotateBy(end.getRotation()).getDegrees(), 5.0);
+			assertTrue(wallTime < simTime);
+			assertTrue(looper.getMaxLoopTime() > 0.0);
+			assertEquals((looper.getNumLoops() - startLoops) * kDt, simTime, 1e-6);
+		} finally {
+			robot.stop();
+		}
+	}
+}
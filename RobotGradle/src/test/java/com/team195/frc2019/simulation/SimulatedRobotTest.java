@@ -0,0 +1,74 @@
+package com.team195.frc2019.simulation;
+
+import com.team195.frc2019.loops.SimulatedLooper;
+import com.team195.frc2019.subsystems.BallIntakeArm;
+import com.team195.frc2019.subsystems.Elevator;
+import com.team195.frc2019.subsystems.Turret;
+import com.team195.frc2019.subsystems.positions.BallIntakeArmPositions;
+import com.team195.frc2019.subsystems.positions.ElevatorPositions;
+import com.team195.frc2019.subsystems.positions.TurretPositions;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulatedRobotTest {
+
+	@Test
+	public void testMechanismsFollowSubsystems() {
+		final SimulatedRobot robot = SimulatedRobot.getInstance();
+		final SimulatedLooper looper = robot.getLooper();
+		final Elevator elevator = Elevator.getInstance();
+		final Turret turret = Turret.getInstance();
+		final BallIntakeArm ballArm = BallIntakeArm.getInstance();
+
+		robot.start();
+		try {
+			// The robot is shared with the other simulation tests, so home it first: elevator down and turret home, which
+			// lets the arm up onto its limit switch.
+			elevator.setElevatorControlMode(Elevator.ElevatorControlMode.POSITION);
+			elevator.setElevatorPosition(ElevatorPositions.Down);
+			turret.setTurretControlMode(Turret.TurretControlMode.POSITION);
+			turret.setTurretPosition(TurretPositions.Home);
+			looper.run(4.0);
+			ballArm.setBallIntakeArmPosition(BallIntakeArmPositions.Up);
+			ballArm.setBallIntakeArmControlMode(BallIntakeArm.BallIntakeArmControlMode.OPEN_LOOP);
+			looper.run(2.0);
+			assertTrue(ballArm.isArmUp());
+
+			// Zeroing the encoder on the limit switch and driving down moves the arm, not the encoder origin.
+			ballArm.zeroSensors();
+			ballArm.setBallIntakeArmPosition(BallIntakeArmPositions.Down);
+			ballArm.setBallIntakeArmControlMode(BallIntakeArm.BallIntakeArmControlMode.POSITION);
+			looper.run(2.0);
+			assertFalse(ballArm.isArmUp());
+			assertTrue(ballArm.isArmAtSetpoint(0.01));
+
+			// With the arm out of the way the elevator's collision checks let it up.
+			elevator.setElevatorPosition(ElevatorPositions.CargoBall);
+			looper.run(2.0);
+			assertTrue(elevator.isElevatorAtSetpoint(0.01));
+			assertFalse(elevator.isAtLowerLimit());
+			assertEquals(ElevatorPositions.CargoBall, robot.getElevatorMechanism().getPosition(), 1e-6);
+
+			turret.setTurretPosition(TurretPositions.Back180);
+			looper.run(4.0);
+			assertTrue(turret.isTurretAtSetpoint(TurretPositions.PositionDelta));
+
+			turret.setTurretPosition(TurretPositions.Home);
+			looper.run(4.0);
+			assertTrue(turret.isTurretAtSetpoint(TurretPositions.PositionDelta));
+
+			elevator.setElevatorPosition(ElevatorPositions.Down);
+			looper.run(2.0);
+			assertTrue(elevator.isAtLowerLimit());
+
+			ballArm.setBallIntakeArmPosition(BallIntakeArmPositions.Up);
+			ballArm.setBallIntakeArmControlMode(BallIntakeArm.BallIntakeArmControlMode.OPEN_LOOP);
+			looper.run(2.0);
+			assertTrue(ballArm.isArmUp());
+			assertEquals(0.0, ballArm.getPosition(), 1e-6);
+		} finally {
+			robot.stop();
+		}
+	}
+}
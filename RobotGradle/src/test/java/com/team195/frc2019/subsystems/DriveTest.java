@@ -0,0 +1,64 @@
+package com.team195.frc2019.subsystems;
+
+import com.team195.frc2019.loops.SimulatedLooper;
+import com.team195.frc2019.planners.DriveMotionPlanner;
+import com.team195.frc2019.simulation.SimulatedRobot;
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Pose2dWithCurvature;
+import com.team254.lib.geometry.Rotation2d;
+import com.team254.lib.trajectory.TimedView;
+import com.team254.lib.trajectory.Trajectory;
+import com.team254.lib.trajectory.TrajectoryIterator;
+import com.team254.lib.trajectory.timing.TimedState;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DriveTest {
+	@Test
+	public void testUpdatePathFollowerDoesNotAllocate() {
+		final com.sun.management.ThreadMXBean thread_bean = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		final long thread_id = Thread.currentThread().getId();
+
+		final Pose2d start = new Pose2d(0.0, 0.0, Rotation2d.identity());
+		final Trajectory<TimedState<Pose2dWithCurvature>> trajectory = new DriveMotionPlanner().generateTrajectory(false,
+				Arrays.asList(start, new Pose2d(150.0, 50.0, Rotation2d.fromDegrees(30.0))), Collections.emptyList(),
+				60.0, 40.0, 9.0);
+		final int num_ticks = 100;
+
+		final SimulatedRobot robot = SimulatedRobot.getInstance();
+		final SimulatedLooper looper = robot.getLooper();
+		final Drive drive = Drive.getInstance();
+		robot.start();
+		try {
+			// Calibrate out whatever the measurement itself costs.
+			long start_bytes = thread_bean.getThreadAllocatedBytes(thread_id);
+			final long overhead = thread_bean.getThreadAllocatedBytes(thread_id) - start_bytes;
+
+			// Best of a few runs, as the first pays for class initialization.  Only the path follower is measured; the
+			// looper runs the rest of the robot between calls.
+			long allocated = Long.MAX_VALUE;
+			for (int run = 0; run < 3 && allocated != 0; ++run) {
+				robot.reset(start);
+				drive.setTrajectory(new TrajectoryIterator<>(new TimedView<>(trajectory)));
+				allocated = 0;
+				for (int i = 0; i < num_ticks; ++i) {
+					looper.step();
+					start_bytes = thread_bean.getThreadAllocatedBytes(thread_id);
+					drive.updatePathFollower();
+					allocated += thread_bean.getThreadAllocatedBytes(thread_id) - start_bytes - overhead;
+				}
+				assertEquals(Drive.DriveControlState.PATH_FOLLOWING, drive.getDriveControlState());
+				assertFalse(drive.isDoneWithTrajectory());
+			}
+			assertEquals(0L, allocated, "Bytes allocated by " + num_ticks + " path follower updates");
+		} finally {
+			robot.stop();
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package com.team195.lib.drivers;
+
+import com.team195.frc2019.constants.TargetingConstants;
+import com.team254.lib.geometry.MutablePose2d;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LimelightCornerProcessorTest {
+	private static final double kFocalLengthX = TargetingConstants.kLimelightImageWidth / 2.0
+			/ Math.tan(Math.toRadians(TargetingConstants.kLimelightHorizontalFov) / 2.0);
+	private static final double kFocalLengthY = TargetingConstants.kLimelightImageHeight / 2.0
+			/ Math.tan(Math.toRadians(TargetingConstants.kLimelightVerticalFov) / 2.0);
+	private static final int kPointsPerEdge = 4;
+	private static final int kNumCorners = 4 + 2 * kPointsPerEdge;
+
+	/**
+	 * Project the target's outline, centered at (x, y) in the camera frame and rotated by yaw, into Limelight corners
+	 * in the order the old skew calculation expects: upper left, lower left, points along the bottom and top edges,
+	 * lower right, upper right.
+	 */
+	private static void project(double x, double y, double yaw, double noise, Random random, double[] u, double[] v) {
+		final double halfWidth = TargetingConstants.kHatchTargetOutlineWidth / 2.0;
+		final double halfHeight = TargetingConstants.kHatchTargetOutlineHeight / 2.0;
+		int n = 0;
+		n = point(x, y, yaw, halfWidth, halfHeight, noise, random, u, v, n);
+		n = point(x, y, yaw, halfWidth, -halfHeight, noise, random, u, v, n);
+		for (int i = 1; i <= kPointsPerEdge; ++i) {
+			double s = halfWidth - 2.0 * halfWidth * i / (kPointsPerEdge + 1);
+			n = point(x, y, yaw, s, -halfHeight, noise, random, u, v, n);
+		}
+		for (int i = 1; i <= kPointsPerEdge; ++i) {
+			double s = halfWidth - 2.0 * halfWidth * i / (kPointsPerEdge + 1);
+			n = point(x, y, yaw, s, halfHeight, noise, random, u, v, n);
+		}
+		n = point(x, y, yaw, -halfWidth, -halfHeight, noise, random, u, v, n);
+		point(x, y, yaw, -halfWidth, halfHeight, noise, random, u, v, n);
+	}
+
+	// Along is measured along the target's face towards its left side, up is height above its center.
+	private static int point(double x, double y, double yaw, double along, double up, double noise, Random random,
+	                         double[] u, double[] v, int n) {
+		double px = x - along * Math.sin(yaw);
+		double py = y + along * Math.cos(yaw);
+		u[n] = TargetingConstants.kLimelightImageWidth / 2.0 - kFocalLengthX * py / px + random.nextGaussian() * noise;
+		v[n] = TargetingConstants.kLimelightImageHeight / 2.0 - kFocalLengthY * up / px + random.nextGaussian() * noise;
+		return n + 1;
+	}
+
+	/**
+	 * The skew calculation VisionTracker used before, which assumes the corner order.
+	 */
+	private static double legacySkew(double[] x, double[] y, int count) {
+		double upperLineSlope = Math.abs((y[count - 1] - y[0]) / (x[count - 1] - x[0]));
+		double lowerLineSlope = (y[count - 2] - y[1]) / (x[count - 2] - x[1]);
+		return Math.toDegrees(Math.atan((upperLineSlope + Math.abs(lowerLineSlope)) / 2.0)) * Math.signum(lowerLineSlope);
+	}
+
+	@Test
+	public void testRecoversPose() {
+		LimelightCornerProcessor processor = LimelightCornerProcessor.createHatchTargetProcessor();
+		Random random = new Random(195);
+		double[] u = new double[kNumCorners];
+		double[] v = new double[kNumCorners];
+		MutablePose2d pose = new MutablePose2d();
+		for (double yaw : new double[]{-40, -25, 25, 40}) {
+			for (double x : new double[]{30, 60, 120}) {
+				double y = x * 0.15;
+				project(x, y, Math.toRadians(yaw), 0, random, u, v);
+				assertTrue(processor.process(u, v, kNumCorners));
+				assertEquals(x, processor.getDistance(), x * 0.03);
+				assertEquals(yaw, Math.toDegrees(processor.getYaw()), 5.0);
+				processor.getCameraToTarget(pose);
+				assertEquals(x, pose.getTranslation().x(), x * 0.03);
+				assertEquals(y, pose.getTranslation().y(), x * 0.03);
+				assertEquals(yaw, pose.getRotation().getDegrees(), 5.0);
+				// Without noise the fit agrees with the old calculation.
+				assertEquals(legacySkew(u, v, kNumCorners), processor.getSkew(), 1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void testIgnoresCornerOrder() {
+		LimelightCornerProcessor processor = LimelightCornerProcessor.createHatchTargetProcessor();
+		Random random = new Random(254);
+		double[] u = new double[kNumCorners];
+		double[] v = new double[kNumCorners];
+		project(50, -5, Math.toRadians(30), 0.3, random, u, v);
+		assertTrue(processor.process(u, v, kNumCorners));
+		double skew = processor.getSkew();
+		double distance = processor.getDistance();
+
+		for (int i = kNumCorners - 1; i > 0; --i) {
+			int j = random.nextInt(i + 1);
+			double t = u[i];
+			u[i] = u[j];
+			u[j] = t;
+			t = v[i];
+			v[i] = v[j];
+			v[j] = t;
+		}
+		assertTrue(processor.process(u, v, kNumCorners));
+		assertEquals(skew, processor.getSkew(), 1e-9);
+		assertEquals(distance, processor.getDistance(), 1e-9);
+	}
+
+	@Test
+	public void testLessNoisyThanLegacy() {
+		LimelightCornerProcessor processor = LimelightCornerProcessor.createHatchTargetProcessor();
+		Random random = new Random(1);
+		double[] u = new double[kNumCorners];
+		double[] v = new double[kNumCorners];
+		project(60, 0, Math.toRadians(30), 0, random, u, v);
+		double truth = legacySkew(u, v, kNumCorners);
+
+		double legacyError = 0;
+		double fitError = 0;
+		for (int i = 0; i < 2000; ++i) {
+			project(60, 0, Math.toRadians(30), 0.5, random, u, v);
+			assertTrue(processor.process(u, v, kNumCorners));
+			legacyError += Math.pow(legacySkew(u, v, kNumCorners) - truth, 2);
+			fitError += Math.pow(processor.getSkew() - truth, 2);
+		}
+		assertTrue(fitError < 0.75 * legacyError, "fit " + fitError + " legacy " + legacyError);
+	}
+
+	@Test
+	public void testRejectsDegenerateCorners() {
+		LimelightCornerProcessor processor = LimelightCornerProcessor.createHatchTargetProcessor();
+		assertFalse(processor.process(new double[]{1, 2, 3}, new double[]{1, 2, 3}, 3));
+		assertFalse(processor.process(new double[]{5, 5, 5, 5, 5}, new double[]{5, 5, 5, 5, 5}, 5));
+		// Four corners are one strip, not the whole target
+		assertFalse(processor.process(new double[]{0, 0, 10, 10}, new double[]{0, 5, 5, 0}, 4));
+		assertFalse(processor.isValid());
+		assertTrue(Double.isNaN(processor.getSkew()));
+		assertEquals(0.0, processor.getDistance(), 0.0);
+	}
+
+	@Test
+	public void testDoesNotAllocate() {
+		LimelightCornerProcessor processor = LimelightCornerProcessor.createHatchTargetProcessor();
+		double[] u = new double[kNumCorners];
+		double[] v = new double[kNumCorners];
+		project(60, 5, Math.toRadians(20), 0.3, new Random(3), u, v);
+		MutablePose2d pose = new MutablePose2d();
+		final com.sun.management.ThreadMXBean thread_bean = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		final long thread_id = Thread.currentThread().getId();
+
+		// Calibrate out whatever the measurement itself costs.
+		long start = thread_bean.getThreadAllocatedBytes(thread_id);
+		final long overhead = thread_bean.getThreadAllocatedBytes(thread_id) - start;
+
+		// Best of a few runs, as the first pays for class initialization.
+		long allocated = Long.MAX_VALUE;
+		for (int run = 0; run < 3 && allocated != 0; ++run) {
+			start = thread_bean.getThreadAllocatedBytes(thread_id);
+			for (int i = 0; i < 10000; ++i) {
+				processor.process(u, v, kNumCorners);
+				processor.getCameraToTarget(pose);
+			}
+			allocated = Math.min(allocated, thread_bean.getThreadAllocatedBytes(thread_id) - start - overhead);
+		}
+		assertEquals(0L, allocated, "Bytes allocated processing corners");
+	}
+}
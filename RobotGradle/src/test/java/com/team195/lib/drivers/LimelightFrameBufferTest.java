@@ -0,0 +1,138 @@
+package com.team195.lib.drivers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LimelightFrameBufferTest {
+	@Test
+	public void testOnlyNewFramesAreCopied() {
+		LimelightFrameBuffer buffer = new LimelightFrameBuffer();
+		LimelightFrame frame = new LimelightFrame();
+		assertFalse(buffer.getFrameIfNewer(frame.sequence, frame, 0.0));
+
+		// Nothing is published until the frame's tl arrives
+		buffer.setValue(LimelightFrameBuffer.kTargetValid, 1.0, 10.099);
+		buffer.setValue(LimelightFrameBuffer.kTargetHorizontalDeviation, -3.5, 10.1);
+		assertFalse(buffer.getFrameIfNewer(frame.sequence, frame, 10.1));
+		buffer.setValue(LimelightFrameBuffer.kLatency, 24.0, 10.1);
+		assertTrue(buffer.getFrameIfNewer(frame.sequence, frame, 10.1));
+		assertEquals(0, frame.sequence);
+		assertEquals(1.0, frame.targetValid, 0.0);
+		assertEquals(-3.5, frame.targetHorizontalDeviation, 0.0);
+		assertEquals(24.0 + LimelightFrameBuffer.kImageCaptureLatencyMs, frame.latency, 1e-12);
+		assertEquals(10.1 - 0.035, frame.getCaptureTimestamp(), 1e-12);
+
+		// Nothing new, nothing copied.
+		frame.targetValid = 42.0;
+		assertFalse(buffer.getFrameIfNewer(frame.sequence, frame, 10.15));
+		assertEquals(42.0, frame.targetValid, 0.0);
+
+		// Values that did not change keep their last value in the next frame
+		buffer.setValue(LimelightFrameBuffer.kTargetArea, 2.0, 10.2);
+		assertFalse(buffer.getFrameIfNewer(frame.sequence, frame, 10.2));
+		buffer.setValue(LimelightFrameBuffer.kLatency, 25.0, 10.2);
+		assertTrue(buffer.getFrameIfNewer(frame.sequence, frame, 10.2));
+		assertEquals(1.0, frame.targetValid, 0.0);
+		assertEquals(2.0, frame.targetArea, 0.0);
+		assertEquals(1, frame.sequence);
+		assertEquals(buffer.getSequence(), frame.sequence);
+
+		assertThrows(IllegalArgumentException.class,
+				() -> buffer.setValue(LimelightFrameBuffer.kNumFields, 0.0, 0.0));
+	}
+
+	@Test
+	public void testFramesWithUnchangedLatency() {
+		LimelightFrameBuffer buffer = new LimelightFrameBuffer();
+		LimelightFrame frame = new LimelightFrame();
+
+		buffer.setValue(LimelightFrameBuffer.kTargetHorizontalDeviation, 1.0, 1.0);
+		buffer.setValue(LimelightFrameBuffer.kLatency, 24.0, 1.0);
+		assertTrue(buffer.getFrameIfNewer(frame.sequence, frame, 1.0));
+		assertEquals(1.0, frame.targetHorizontalDeviation, 0.0);
+
+		// The same tl again with a different tx is a new frame.
+		buffer.setValue(LimelightFrameBuffer.kTargetHorizontalDeviation, 2.0, 1.1);
+		buffer.setValue(LimelightFrameBuffer.kLatency, 24.0, 1.1);
+		assertTrue(buffer.getFrameIfNewer(frame.sequence, frame, 1.1));
+		assertEquals(2.0, frame.targetHorizontalDeviation, 0.0);
+		assertEquals(1, frame.sequence);
+
+		// NetworkTables does not notify a tl that did not change, so only tx arrives. It is published once the
+		// coalescing window has passed.
+		buffer.setValue(LimelightFrameBuffer.kTargetHorizontalDeviation, 3.0, 1.2);
+		assertFalse(buffer.getFrameIfNewer(frame.sequence, frame, 1.2 + LimelightFrameBuffer.kCoalesceWindow / 2));
+		assertTrue(buffer.getFrameIfNewer(frame.sequence, frame, 1.21));
+		assertEquals(3.0, frame.targetHorizontalDeviation, 0.0);
+		assertEquals(24.0 + LimelightFrameBuffer.kImageCaptureLatencyMs, frame.latency, 1e-12);
+		assertEquals(1.2, frame.timestamp, 0.0);
+		assertEquals(2, frame.sequence);
+
+		// Or as soon as the next image's first value arrives, which then starts a frame of its own.
+		buffer.setValue(LimelightFrameBuffer.kTargetHorizontalDeviation, 4.0, 1.3);
+		buffer.setValue(LimelightFrameBuffer.kTargetVerticalDeviation, 5.0, 1.4);
+		assertTrue(buffer.getFrameIfNewer(frame.sequence, frame, 1.4));
+		assertEquals(4.0, frame.targetHorizontalDeviation, 0.0);
+		assertEquals(0.0, frame.targetVerticalDeviation, 0.0);
+		assertEquals(3, frame.sequence);
+		buffer.setValue(LimelightFrameBuffer.kLatency, 30.0, 1.401);
+		assertTrue(buffer.getFrameIfNewer(frame.sequence, frame, 1.401));
+		assertEquals(5.0, frame.targetVerticalDeviation, 0.0);
+		assertEquals(4, frame.sequence);
+	}
+
+	@Test
+	public void testCorners() {
+		LimelightFrameBuffer buffer = new LimelightFrameBuffer();
+		LimelightFrame frame = new LimelightFrame();
+		buffer.setCorners(true, new double[]{1, 2, 3, 4, 5}, 1.0);
+		assertFalse(buffer.getFrameIfNewer(-1, frame, 1.0));
+
+		buffer.setCorners(false, new double[]{6, 7, 8, 9, 10}, 1.0);
+		buffer.setValue(LimelightFrameBuffer.kLatency, 20.0, 1.0);
+		assertTrue(buffer.getFrameIfNewer(frame.sequence, frame, 1.0));
+		assertTrue(frame.hasMatchingCorners());
+		assertEquals(5, frame.cornerXCount);
+		assertEquals(5.0, frame.cornerX[4], 0.0);
+		assertEquals(10.0, frame.cornerY[4], 0.0);
+
+		// Extra corners are dropped rather than overrunning the frame.
+		buffer.setCorners(true, new double[LimelightFrame.kMaxCorners + 10], 2.0);
+		buffer.setValue(LimelightFrameBuffer.kLatency, 20.0, 2.0);
+		assertTrue(buffer.getFrameIfNewer(frame.sequence, frame, 2.0));
+		assertEquals(LimelightFrame.kMaxCorners, frame.cornerXCount);
+	}
+
+	@Test
+	public void testConcurrentWriterNeverTearsFrames() throws InterruptedException {
+		// Each image's corners and values all match, so a reader must never see results from two images mixed.
+		LimelightFrameBuffer buffer = new LimelightFrameBuffer();
+		Thread writer = new Thread(() -> {
+			for (int i = 0; i < 100000; ++i) {
+				double[] corners = new double[i % 8 + 1];
+				buffer.setCorners(true, corners, i);
+				buffer.setValue(LimelightFrameBuffer.kTargetArea, i, i);
+				buffer.setCorners(false, corners, i);
+				buffer.setValue(LimelightFrameBuffer.kTargetSkew, i, i);
+				buffer.setValue(LimelightFrameBuffer.kLatency, i, i);
+			}
+		});
+		writer.start();
+		LimelightFrame frame = new LimelightFrame();
+		long lastSequence = -1;
+		while (writer.isAlive()) {
+			// Read at the time of the last frame read, so the reader never publishes part of an image itself.
+			if (buffer.getFrameIfNewer(frame.sequence, frame, frame.timestamp)) {
+				assertTrue(frame.sequence > lastSequence);
+				lastSequence = frame.sequence;
+				assertTrue(frame.hasMatchingCorners());
+				assertEquals(frame.targetArea, frame.targetSkew, 0.0);
+				assertEquals(frame.targetArea + LimelightFrameBuffer.kImageCaptureLatencyMs, frame.latency, 0.0);
+				assertEquals((int) frame.targetArea % 8 + 1, frame.cornerXCount);
+				assertEquals(frame.sequence, (long) frame.targetArea);
+			}
+		}
+		writer.join();
+	}
+}
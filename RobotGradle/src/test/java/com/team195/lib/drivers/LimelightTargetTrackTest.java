@@ -0,0 +1,104 @@
+package com.team195.lib.drivers;
+
+import com.team195.frc2019.constants.TargetingConstants;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LimelightTargetTrackTest {
+	private static final double kFramePeriod = 1.0 / 90.0;
+
+	private static LimelightFrame frame(double timestamp, double tx, double ty, double area) {
+		LimelightFrame frame = new LimelightFrame();
+		frame.timestamp = timestamp;
+		frame.latency = 0;
+		frame.targetValid = 1;
+		frame.targetHorizontalDeviation = tx;
+		frame.targetVerticalDeviation = ty;
+		frame.targetArea = area;
+		return frame;
+	}
+
+	@Test
+	public void testSmoothsNoisyTarget() {
+		Random random = new Random(195);
+		LimelightTargetTrack track = new LimelightTargetTrack();
+		assertFalse(track.isTracking(0));
+		assertEquals(0.0, track.getHorizontalDeviation(0), 0.0);
+
+		double rawError = 0;
+		double filteredError = 0;
+		for (int i = 0; i < 300; ++i) {
+			double t = i * kFramePeriod;
+			double tx = 5.0 + random.nextGaussian() * TargetingConstants.kTrackAngleStdDev;
+			assertTrue(track.update(frame(t, tx, -2.0, 10.0), 7.0));
+			if (i >= 50) {
+				rawError += (tx - 5.0) * (tx - 5.0);
+				filteredError += (track.getHorizontalDeviation(t) - 5.0) * (track.getHorizontalDeviation(t) - 5.0);
+			}
+		}
+		assertTrue(filteredError < 0.5 * rawError);
+		double t = 299 * kFramePeriod;
+		assertTrue(track.isTracking(t));
+		assertEquals(-2.0, track.getVerticalDeviation(t), 0.1);
+		assertEquals(10.0, track.getArea(t), 0.1);
+		assertEquals(7.0, track.getCornerSkew(t), 1e-6);
+	}
+
+	@Test
+	public void testOutliersAndNewTargets() {
+		LimelightTargetTrack track = new LimelightTargetTrack();
+		int i = 0;
+		for (; i < 100; ++i) {
+			track.update(frame(i * kFramePeriod, 5.0, 0.0, 10.0), Double.NaN);
+		}
+
+		// A single wild detection is rejected.
+		assertFalse(track.update(frame(i++ * kFramePeriod, -20.0, 0.0, 10.0), Double.NaN));
+		assertEquals(1, track.getOutlierCount());
+		assertEquals(5.0, track.getHorizontalDeviation(i * kFramePeriod), 1e-3);
+		assertTrue(track.update(frame(i++ * kFramePeriod, 5.0, 0.0, 10.0), Double.NaN));
+
+		// Several in a row mean the camera is looking at a different target.
+		for (int n = 1; n < TargetingConstants.kTrackMaxConsecutiveOutliers; ++n) {
+			assertFalse(track.update(frame(i++ * kFramePeriod, -20.0, 0.0, 10.0), Double.NaN));
+		}
+		assertTrue(track.update(frame(i * kFramePeriod, -20.0, 0.0, 10.0), Double.NaN));
+		assertEquals(-20.0, track.getHorizontalDeviation(i * kFramePeriod), 0.0);
+		assertEquals(0.0, track.getCornerSkew(i * kFramePeriod), 0.0);
+	}
+
+	@Test
+	public void testLosesTargetAndLimitsPrediction() {
+		LimelightTargetTrack track = new LimelightTargetTrack();
+		int i = 0;
+		for (; i < 200; ++i) {
+			// Moving at 9 degrees per second.
+			track.update(frame(i * kFramePeriod, i * kFramePeriod * 9.0, 0.0, 10.0), Double.NaN);
+		}
+		double last = (i - 1) * kFramePeriod;
+
+		// Frames without a target do not count as sightings.
+		LimelightFrame empty = frame(last + kFramePeriod, 0, 0, 0);
+		empty.targetValid = 0;
+		assertFalse(track.update(empty, Double.NaN));
+
+		// Values are extrapolated to the time asked for, but only so far.
+		double atLast = track.getHorizontalDeviation(last);
+		assertEquals(atLast + 0.05 * 9.0, track.getHorizontalDeviation(last + 0.05), 0.05);
+		assertEquals(track.getHorizontalDeviation(last + TargetingConstants.kTrackMaxPredictionTime),
+				track.getHorizontalDeviation(last + 1.0), 0.0);
+
+		assertTrue(track.isTracking(last + TargetingConstants.kTrackLostTimeout));
+		assertFalse(track.isTracking(last + TargetingConstants.kTrackLostTimeout + 0.01));
+
+		// Once lost, the next detection starts a new track however far away it is.
+		assertTrue(track.update(frame(last + 1.0, -30.0, 0.0, 10.0), Double.NaN));
+		assertEquals(-30.0, track.getHorizontalDeviation(last + 1.0), 0.0);
+
+		track.clear();
+		assertFalse(track.isTracking(last + 1.0));
+	}
+}
@@ -0,0 +1,50 @@
+package com.team195.lib.drivers.dashjoy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DashJoyControllerTest {
+	@Test
+	public void testWaitForUpdateTimesOut() throws InterruptedException {
+		DashJoyController controller = DashJoyController.getInstance();
+		long updateCount = controller.getUpdateCount();
+
+		long start = System.nanoTime();
+		assertEquals(updateCount, controller.waitForUpdate(updateCount, 30));
+		long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		assertTrue(waitedMs >= 29, "Returned early after " + waitedMs + " ms");
+
+		// An update that has already happened does not wait at all
+		assertEquals(updateCount, controller.waitForUpdate(updateCount - 1, 10000));
+	}
+
+	@Test
+	public void testWaitForUpdateWakesOnPublish() throws InterruptedException {
+		DashJoyController controller = DashJoyController.getInstance();
+		long updateCount = controller.getUpdateCount();
+
+		Thread publisher = new Thread(() -> {
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException ex) {
+				return;
+			}
+			controller.publish(2, new DashJoyState());
+		});
+		long start = System.nanoTime();
+		publisher.start();
+		long newUpdateCount = controller.waitForUpdate(updateCount, 5000);
+		long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		publisher.join();
+
+		assertEquals(updateCount + 1, newUpdateCount);
+		assertTrue(waitedMs < 1000, "Woke up late after " + waitedMs + " ms");
+
+		// Packets for channels that do not exist are not updates
+		controller.publish(-1, new DashJoyState());
+		assertEquals(newUpdateCount, controller.getUpdateCount());
+	}
+}
@@ -0,0 +1,95 @@
+package com.team195.lib.drivers.dashjoy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DashJoyLatencyTrackerTest {
+	private static final double kEpsilon = 1e-9;
+
+	private static Object getReportValue(List<Object> report, String name) {
+		for (int i = 0; i < report.size(); i += 2) {
+			if (report.get(i).equals(name))
+				return report.get(i + 1);
+		}
+		fail("Missing report value " + name);
+		return null;
+	}
+
+	@Test
+	public void testDroppedPackets() {
+		DashJoyLatencyTracker tracker = new DashJoyLatencyTracker();
+		DashJoyState state = new DashJoyState();
+
+		// Packets without sequence numbers are counted but never considered dropped
+		tracker.onPacketReceived(0, state, 0);
+		assertEquals(0, tracker.getDroppedPacketCount());
+
+		state.sequence = 10;
+		tracker.onPacketReceived(0, state, 0);
+		state.sequence = 11;
+		tracker.onPacketReceived(0, state, 0);
+		state.sequence = 15;
+		tracker.onPacketReceived(0, state, 0);
+		assertEquals(3, tracker.getDroppedPacketCount());
+
+		// Joysticks are sequenced independently
+		state.sequence = 100;
+		tracker.onPacketReceived(1, state, 0);
+		assertEquals(3, tracker.getDroppedPacketCount());
+
+		// A restarted dashboard starts over without counting a loss
+		state.sequence = 0;
+		tracker.onPacketReceived(0, state, 0);
+		state.sequence = 1;
+		tracker.onPacketReceived(0, state, 0);
+		assertEquals(3, tracker.getDroppedPacketCount());
+
+		List<Object> report = tracker.generateReport();
+		assertEquals("7", getReportValue(report, "DashJoy_Packets"));
+		assertEquals("3", getReportValue(report, "DashJoy_DroppedPackets"));
+
+		tracker.reset();
+		state.sequence = 5;
+		tracker.onPacketReceived(0, state, 0);
+		assertEquals(0, tracker.getDroppedPacketCount());
+	}
+
+	@Test
+	public void testStageLatencies() {
+		DashJoyLatencyTracker tracker = new DashJoyLatencyTracker();
+		DashJoyState state = new DashJoyState();
+		state.sendTimestamp = 1000;
+		tracker.onPacketReceived(0, state, 1004);
+
+		// Packet received at 1,000,000 us, read by two HID cycles, then actuated by three drive loops
+		tracker.onInputConsumed(1000000, 1003000);
+		tracker.onDemandSet(1000000);
+		tracker.onOutputIssued(1010000);
+		tracker.onInputConsumed(1000000, 1023000);
+		tracker.onDemandSet(1000000);
+		tracker.onOutputIssued(1020000);
+		tracker.onOutputIssued(1030000);
+
+		// Backup joystick in use, so nothing to attribute
+		tracker.onInputConsumed(-1, 1043000);
+		tracker.onDemandSet(-1);
+		tracker.onOutputIssued(1050000);
+
+		List<Object> report = tracker.generateReport();
+		assertEquals(4.0, Double.parseDouble((String) getReportValue(report, "DashJoy_Network_Max")), kEpsilon);
+		assertEquals(3.0, Double.parseDouble((String) getReportValue(report, "DashJoy_Consume_Max")), kEpsilon);
+		assertEquals(3.0, Double.parseDouble((String) getReportValue(report, "DashJoy_Consume_p50")), kEpsilon);
+		assertEquals(10.0, Double.parseDouble((String) getReportValue(report, "DashJoy_Actuate_Max")), kEpsilon);
+		assertEquals(10.0, Double.parseDouble((String) getReportValue(report, "DashJoy_Actuate_p99")), kEpsilon);
+
+		// The next packet is measured from its own receive time
+		tracker.onInputConsumed(1040000, 1043000);
+		tracker.onDemandSet(1040000);
+		tracker.onOutputIssued(1065000);
+		report = tracker.generateReport();
+		assertEquals(25.0, Double.parseDouble((String) getReportValue(report, "DashJoy_Actuate_Max")), kEpsilon);
+	}
+}
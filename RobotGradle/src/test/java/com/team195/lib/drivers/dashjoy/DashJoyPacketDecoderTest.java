@@ -0,0 +1,141 @@
+package com.team195.lib.drivers.dashjoy;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DashJoyPacketDecoderTest {
+	private static List<Object> packet(int axisVal, long buttons, int pov) {
+		List<Object> args = new ArrayList<>();
+		for (int i = 0; i < DashJoyController.MAX_AXES; i++) {
+			args.add(axisVal * (i % 2 == 0 ? 1 : -1));
+		}
+		args.add(buttons);
+		args.add(pov);
+		return args;
+	}
+
+	@Test
+	public void testParseJoystickNumber() {
+		assertEquals(0, DashJoyPacketDecoder.parseJoystickNumber("/Joysticks/0"));
+		assertEquals(3, DashJoyPacketDecoder.parseJoystickNumber("/Joysticks/3"));
+		assertEquals(12, DashJoyPacketDecoder.parseJoystickNumber("/Joysticks/12/extra"));
+		assertEquals(-1, DashJoyPacketDecoder.parseJoystickNumber("/Joysticks/"));
+		assertEquals(-1, DashJoyPacketDecoder.parseJoystickNumber("/Joysticks/x"));
+		assertEquals(-1, DashJoyPacketDecoder.parseJoystickNumber("/Buttons/1"));
+		assertEquals(-1, DashJoyPacketDecoder.parseJoystickNumber("/Joysticks/99999999999"));
+		assertEquals(-1, DashJoyPacketDecoder.parseJoystickNumber(null));
+	}
+
+	@Test
+	public void testDecode() {
+		DashJoyState state = new DashJoyState();
+		assertTrue(DashJoyPacketDecoder.decode(packet(16384, (1L << 63) | 0b101L, 9000), state));
+		assertEquals(16384 / 32767.0, state.getAxis(0), 1e-12);
+		assertEquals(-16384 / 32767.0, state.getAxis(1), 1e-12);
+		assertTrue(state.getButton(0));
+		assertFalse(state.getButton(1));
+		assertTrue(state.getButton(2));
+		assertTrue(state.getButton(63));
+		assertFalse(state.getButton(64));
+		assertEquals(90, state.pov);
+
+		// Axes are clamped, and a centered POV stays -1.
+		assertTrue(DashJoyPacketDecoder.decode(packet(-32768, 0, -1), state));
+		assertEquals(-1.0, state.getAxis(0), 0.0);
+		assertEquals(1.0, state.getAxis(1), 0.0);
+		assertEquals(-1, state.pov);
+
+		assertEquals(-1, state.sequence);
+		assertEquals(-1, state.sendTimestamp);
+
+		// Latency tracking fields are optional, and cleared when a later packet leaves them out
+		List<Object> timed = packet(0, 0, -1);
+		timed.add(1234567890123L);
+		timed.add(42);
+		assertTrue(DashJoyPacketDecoder.decode(timed, state));
+		assertEquals(1234567890123L, state.sendTimestamp);
+		assertEquals(42, state.sequence);
+		assertTrue(DashJoyPacketDecoder.decode(packet(0, 0, -1), state));
+		assertEquals(-1, state.sequence);
+		assertEquals(-1, state.sendTimestamp);
+
+		assertFalse(DashJoyPacketDecoder.decode(Arrays.asList(1, 2, 3), state));
+		List<Object> wrongType = packet(0, 0, 0);
+		wrongType.set(DashJoyController.MAX_AXES, 5);
+		assertFalse(DashJoyPacketDecoder.decode(wrongType, state));
+	}
+
+	@Test
+	public void testSnapshotsAreConsistent() throws InterruptedException {
+		// Every packet has all axes, buttons and POV derived from the same counter, so any mix shows up.
+		DashJoyController controller = DashJoyController.getInstance();
+		final int channel = 5;
+		DashJoyState initial = new DashJoyState();
+		initial.pov = 0;
+		controller.publish(channel, initial);
+		Thread writer = new Thread(() -> {
+			DashJoyState state = new DashJoyState();
+			for (int i = 0; i < 200000; i++) {
+				Arrays.fill(state.axes, i);
+				state.buttons = i;
+				state.pov = i;
+				state.timestamp = i;
+				controller.publish(channel, state);
+			}
+		});
+		writer.start();
+		DashJoyState read = new DashJoyState();
+		long last = -1;
+		while (writer.isAlive()) {
+			controller.getState(channel, read);
+			for (double axis : read.axes) {
+				assertEquals(read.buttons, (long) axis);
+			}
+			assertEquals(read.buttons, read.pov);
+			assertEquals(read.buttons, read.timestamp);
+			assertTrue(read.timestamp >= last);
+			last = read.timestamp;
+		}
+		writer.join();
+		assertEquals(199999, controller.getLastUpdateTimestamp());
+		assertEquals(199999.0, controller.getRawAxis(channel, 0), 0.0);
+	}
+
+	@Test
+	public void testReceivePathDoesNotAllocate() {
+		DashJoyController controller = DashJoyController.getInstance();
+		List<Object> args = packet(1000, 0xF0L, 18000);
+		DashJoyState decoded = new DashJoyState();
+		DashJoyState read = new DashJoyState();
+		final com.sun.management.ThreadMXBean thread_bean = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		final long thread_id = Thread.currentThread().getId();
+
+		// Calibrate out whatever the measurement itself costs.
+		long start = thread_bean.getThreadAllocatedBytes(thread_id);
+		final long overhead = thread_bean.getThreadAllocatedBytes(thread_id) - start;
+
+		// Best of a few runs, as the first pays for class initialization.
+		long allocated = Long.MAX_VALUE;
+		for (int run = 0; run < 3 && allocated != 0; ++run) {
+			start = thread_bean.getThreadAllocatedBytes(thread_id);
+			for (int i = 0; i < 10000; ++i) {
+				DashJoyPacketDecoder.parseJoystickNumber("/Joysticks/4");
+				DashJoyPacketDecoder.decode(args, decoded);
+				controller.publish(4, decoded);
+				controller.getState(4, read);
+				controller.getRawButton(4, 5);
+			}
+			allocated = Math.min(allocated, thread_bean.getThreadAllocatedBytes(thread_id) - start - overhead);
+		}
+		assertEquals(0L, allocated, "Bytes allocated receiving packets");
+		assertTrue(read.getButton(4));
+		assertEquals(180, read.pov);
+	}
+}
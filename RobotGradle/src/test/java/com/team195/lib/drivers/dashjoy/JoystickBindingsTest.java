@@ -0,0 +1,119 @@
+package com.team195.lib.drivers.dashjoy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JoystickBindingsTest {
+	private long mButtons = 0;
+	private final double[] mAxes = new double[DashJoyController.MAX_AXES];
+	private final List<String> mEvents = new ArrayList<>();
+
+	private JoystickBindings createBindings() {
+		return new JoystickBindings(() -> mButtons, (axis) -> mAxes[axis]);
+	}
+
+	private void press(int button) {
+		mButtons |= 1L << (button - 1);
+	}
+
+	private void release(int button) {
+		mButtons &= ~(1L << (button - 1));
+	}
+
+	@Test
+	public void testEdges() {
+		JoystickBindings bindings = createBindings()
+				.onRisingEdge(1, () -> mEvents.add("1 pressed"))
+				.onFallingEdge(1, () -> mEvents.add("1 released"))
+				.onRisingEdge(64, () -> mEvents.add("64 pressed"));
+
+		bindings.update();
+		assertTrue(mEvents.isEmpty());
+
+		press(1);
+		bindings.update();
+		bindings.update();
+		assertEquals(List.of("1 pressed"), mEvents);
+
+		release(1);
+		press(64);
+		bindings.update();
+		assertEquals(List.of("1 pressed", "64 pressed", "1 released"), mEvents);
+
+		// Unbound buttons are ignored
+		mEvents.clear();
+		press(5);
+		bindings.update();
+		assertTrue(mEvents.isEmpty());
+	}
+
+	@Test
+	public void testSimultaneousPressesAllDispatch() {
+		JoystickBindings bindings = createBindings();
+		for (int button = 1; button <= 16; button++) {
+			final int b = button;
+			bindings.onRisingEdge(button, () -> mEvents.add(Integer.toString(b)));
+		}
+
+		press(3);
+		press(16);
+		press(7);
+		bindings.update();
+		assertEquals(List.of("3", "7", "16"), mEvents);
+	}
+
+	@Test
+	public void testWhileHeld() {
+		int[] count = new int[1];
+		JoystickBindings bindings = createBindings().whileHeld(2, () -> count[0]++);
+
+		bindings.update();
+		press(2);
+		bindings.update();
+		bindings.update();
+		bindings.update();
+		release(2);
+		bindings.update();
+		assertEquals(3, count[0]);
+	}
+
+	@Test
+	public void testAxisThreshold() {
+		JoystickBindings bindings = createBindings()
+				.onAxisThreshold(3, 0.3, () -> mEvents.add("3"))
+				.onAxisThreshold(0, 0.5, () -> mEvents.add("0"));
+
+		mAxes[3] = 0.2;
+		bindings.update();
+		assertTrue(mEvents.isEmpty());
+
+		mAxes[3] = 0.6;
+		bindings.update();
+		mAxes[3] = 0.9;
+		bindings.update();
+		assertEquals(List.of("3"), mEvents);
+
+		// Negative deflection counts too, and the axis has to drop back under the threshold to fire again
+		mAxes[3] = 0;
+		mAxes[0] = -0.7;
+		bindings.update();
+		mAxes[3] = 0.4;
+		bindings.update();
+		assertEquals(List.of("3", "0", "3"), mEvents);
+	}
+
+	@Test
+	public void testInvalidBindings() {
+		JoystickBindings bindings = createBindings().onRisingEdge(1, () -> {});
+		assertThrows(IllegalArgumentException.class, () -> bindings.onRisingEdge(1, () -> {}));
+		assertThrows(IllegalArgumentException.class, () -> bindings.onRisingEdge(0, () -> {}));
+		assertThrows(IllegalArgumentException.class, () -> bindings.whileHeld(65, () -> {}));
+		assertThrows(IllegalArgumentException.class, () -> bindings.onAxisThreshold(DashJoyController.MAX_AXES, 0.5, () -> {}));
+		// Edges of the same button are bound separately
+		bindings.onFallingEdge(1, () -> {});
+	}
+}
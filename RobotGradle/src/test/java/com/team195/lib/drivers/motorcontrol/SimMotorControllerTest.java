@@ -0,0 +1,73 @@
+package com.team195.lib.drivers.motorcontrol;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimMotorControllerTest {
+	private static final double kDt = 0.001;
+
+	private static void run(SimMotorController motor, double seconds) {
+		for (int i = 0; i < (int) Math.round(seconds / kDt); ++i) {
+			motor.update(kDt);
+		}
+	}
+
+	@Test
+	public void testOpenLoopReachesFreeSpeed() {
+		SimMotorController motor = SimMotorController.createNEO(1, 1e-4);
+		motor.set(MCControlMode.PercentOut, 1.0, 0, 0);
+		run(motor, 2.0);
+		assertEquals(5676, motor.getVelocity(), 10.0);
+		assertEquals(1.0, motor.getMCOutputPercent(), 1e-9);
+		assertEquals(SimMotorController.kNominalVoltage, motor.getMCOutputVoltage(), 1e-9);
+		assertEquals(1.8, motor.getMCOutputCurrent(), 0.5);
+
+		motor.set(MCControlMode.PercentOut, -0.5, 0, 0);
+		run(motor, 2.0);
+		assertTrue(motor.getVelocity() < -2500);
+	}
+
+	@Test
+	public void testCurrentLimit() {
+		SimMotorController motor = SimMotorController.createNEO(1, 1e-3);
+		motor.setCurrentLimit(40);
+		motor.set(MCControlMode.PercentOut, 1.0, 0, 0);
+		motor.update(kDt);
+		assertEquals(40.0, motor.getMCOutputCurrent(), 1e-6);
+		assertTrue(motor.getMCOutputPercent() < 1.0);
+	}
+
+	@Test
+	public void testClosedLoop() {
+		SimMotorController motor = SimMotorController.createNEO(1, 1e-4);
+		motor.setPIDF(0.0002, 0.0, 0.0, 1.0 / 5676);
+		motor.set(MCControlMode.Velocity, 3000, 0, 0);
+		run(motor, 2.0);
+		assertEquals(3000, motor.getVelocity(), 50.0);
+		assertEquals(motor.getVelocity(), motor.getActual(), 1e-9);
+
+		motor.setPIDGainSlot(1);
+		motor.setPIDF(0.5, 0.0, 0.01, 0.0);
+		motor.set(MCControlMode.Position, motor.getPosition() + 10.0, 1, 0);
+		double target = motor.getSetpoint();
+		run(motor, 3.0);
+		assertEquals(target, motor.getPosition(), 0.1);
+	}
+
+	@Test
+	public void testLimitSwitches() {
+		SimMotorController motor = SimMotorController.createNEO(1, 1e-4);
+		motor.setSimulatedLimits(true, false);
+		assertTrue(motor.getForwardLimitValue());
+		assertTrue(motor.getForwardLimitRisingEdge());
+		motor.set(MCControlMode.PercentOut, 1.0, 0, 0);
+		run(motor, 0.5);
+		assertEquals(0.0, motor.getVelocity(), 1e-9);
+
+		motor.setSimulatedLimits(false, false);
+		assertTrue(motor.getForwardLimitFallingEdge());
+		run(motor, 0.5);
+		assertTrue(motor.getVelocity() > 0.0);
+	}
+}
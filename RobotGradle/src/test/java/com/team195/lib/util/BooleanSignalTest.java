@@ -0,0 +1,56 @@
+package com.team195.lib.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BooleanSignalTest {
+	@Test
+	public void testEdgesAreCounted() {
+		BooleanSignal signal = new BooleanSignal(false);
+		signal.publish(false);
+		assertEquals(0, signal.getRisingEdgeCount());
+
+		signal.publish(true);
+		signal.publish(true);
+		signal.publish(false);
+		signal.publish(true);
+		assertTrue(signal.get());
+		assertEquals(2, signal.getRisingEdgeCount());
+		assertEquals(1, signal.getFallingEdgeCount());
+	}
+
+	@Test
+	public void testEdgeConditionsStartWhenCreated() {
+		BooleanSignal signal = new BooleanSignal(true);
+		signal.publish(false);
+		BooleanSupplier fallingEdge = signal.fallingEdge();
+		BooleanSupplier risingEdge = signal.risingEdge();
+		assertFalse(fallingEdge.getAsBoolean());
+
+		// A short pulse is still seen after the signal has gone back
+		signal.publish(true);
+		signal.publish(false);
+		assertTrue(fallingEdge.getAsBoolean());
+		assertTrue(risingEdge.getAsBoolean());
+		assertFalse(signal.isTrue().getAsBoolean());
+		assertTrue(signal.isFalse().getAsBoolean());
+	}
+
+	@Test
+	public void testLevelOrEdgeCondition() {
+		BooleanSignal signal = new BooleanSignal(false);
+		assertTrue(signal.isFalseOrFallingEdge().getAsBoolean());
+
+		signal.publish(true);
+		BooleanSupplier condition = signal.isFalseOrFallingEdge();
+		assertFalse(condition.getAsBoolean());
+
+		// Pulsed false and back between checks
+		signal.publish(false);
+		signal.publish(true);
+		assertTrue(condition.getAsBoolean());
+	}
+}
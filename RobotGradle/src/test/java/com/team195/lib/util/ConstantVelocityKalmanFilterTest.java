@@ -0,0 +1,82 @@
+package com.team195.lib.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConstantVelocityKalmanFilterTest {
+	private static final double kDt = 0.02;
+	private static final double kNoiseStdDev = 0.5;
+
+	@Test
+	public void testTracksRampWithLessNoise() {
+		Random random = new Random(195);
+		ConstantVelocityKalmanFilter filter = new ConstantVelocityKalmanFilter(0.01, kNoiseStdDev * kNoiseStdDev,
+				100.0, 4.0);
+		assertFalse(filter.isInitialized());
+
+		double rawError = 0;
+		double filteredError = 0;
+		int samples = 0;
+		for (int i = 0; i < 500; ++i) {
+			double t = i * kDt;
+			double truth = 3.0 + 2.0 * t;
+			double measurement = truth + random.nextGaussian() * kNoiseStdDev;
+			assertTrue(filter.update(measurement, t));
+			if (i >= 100) {
+				rawError += (measurement - truth) * (measurement - truth);
+				filteredError += (filter.getValue() - truth) * (filter.getValue() - truth);
+				++samples;
+			}
+		}
+		assertTrue(filteredError / samples < 0.25 * rawError / samples);
+		assertEquals(2.0, filter.getRate(), 0.3);
+
+		// Extrapolating ahead follows the ramp without changing the filter.
+		double last = filter.getValue();
+		assertEquals(last + 0.1 * filter.getRate(), filter.getValue(filter.getTimestamp() + 0.1), 1e-12);
+		assertEquals(last, filter.getValue(), 0.0);
+	}
+
+	@Test
+	public void testConvergesWithoutNoise() {
+		ConstantVelocityKalmanFilter filter = new ConstantVelocityKalmanFilter(1.0, 0.25, 100.0, 4.0);
+		for (int i = 0; i < 500; ++i) {
+			filter.update(-1.0 + 3.0 * i * kDt, i * kDt);
+		}
+		assertEquals(-1.0 + 3.0 * 499 * kDt, filter.getValue(), 1e-6);
+		assertEquals(3.0, filter.getRate(), 1e-6);
+	}
+
+	@Test
+	public void testRejectsOutliers() {
+		ConstantVelocityKalmanFilter filter = new ConstantVelocityKalmanFilter(10.0, 0.25, 100.0, 4.0);
+		for (int i = 0; i < 50; ++i) {
+			filter.update(1.0, i * kDt);
+		}
+		double t = 50 * kDt;
+		assertFalse(filter.isConsistent(20.0, t));
+		assertFalse(filter.update(20.0, t));
+		assertEquals(1.0, filter.getValue(), 1e-3);
+		assertTrue(filter.isConsistent(1.2, t + kDt));
+		assertTrue(filter.update(1.2, t + kDt));
+
+		filter.reset(20.0, t + 2 * kDt);
+		assertEquals(20.0, filter.getValue(), 0.0);
+		assertEquals(0.0, filter.getRate(), 0.0);
+		filter.clear();
+		assertFalse(filter.isInitialized());
+		assertTrue(filter.isConsistent(-100.0, 0));
+	}
+
+	@Test
+	public void testIgnoresOlderTimestamps() {
+		ConstantVelocityKalmanFilter filter = new ConstantVelocityKalmanFilter(10.0, 0.25, 100.0, 4.0);
+		filter.reset(0.0, 1.0);
+		filter.predict(0.5);
+		assertEquals(1.0, filter.getTimestamp(), 0.0);
+		assertEquals(0.25, filter.getVariance(), 0.0);
+	}
+}
@@ -0,0 +1,133 @@
+package com.team195.lib.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FastDoubleToStringTest {
+	private static String reference(double val, int precision) {
+		return new BigDecimal(val).setScale(precision, RoundingMode.HALF_UP).toPlainString();
+	}
+
+	@Test
+	public void testMatchesBigDecimal() {
+		final Random random = new Random(195);
+		for (int i = 0; i < 200000; ++i) {
+			final int precision = random.nextInt(FastDoubleToString.kMaxPrecision + 1);
+			final double val = (random.nextDouble() * 2.0 - 1.0) * Math.pow(10.0, random.nextInt(14) - 6);
+			assertEquals(reference(val, precision), FastDoubleToString.format(val, precision));
+		}
+	}
+
+	@Test
+	public void testRounding() {
+		// Exact ties round up, values that only look like ties round by their binary value.
+		assertEquals("0.13", FastDoubleToString.format(0.125));
+		assertEquals("-0.13", FastDoubleToString.format(-0.125));
+		assertEquals("3", FastDoubleToString.format(2.5, 0));
+		assertEquals("1.00", FastDoubleToString.format(1.005));
+		assertEquals("0.28", FastDoubleToString.format(0.285));
+		assertEquals("0.9", FastDoubleToString.format(0.95, 1));
+		assertEquals("0.00", FastDoubleToString.format(-0.001));
+		assertEquals("0.00", FastDoubleToString.format(-0.0));
+		assertEquals("12.35", FastDoubleToString.format(12.345678));
+		assertEquals("100.050", FastDoubleToString.format(100.05, 3));
+		for (double val : new double[]{0.125, 1.005, 0.285, 2.675, 1.115, 8.345, 1E-7, 123456.789}) {
+			for (int precision = 0; precision <= FastDoubleToString.kMaxPrecision; ++precision) {
+				assertEquals(reference(val, precision), FastDoubleToString.format(val, precision));
+				assertEquals(reference(-val, precision), FastDoubleToString.format(-val, precision));
+			}
+		}
+	}
+
+	@Test
+	public void testSpecialValues() {
+		assertEquals("0", FastDoubleToString.format(Double.NaN));
+		assertEquals("0", FastDoubleToString.format(Double.POSITIVE_INFINITY));
+		assertEquals(reference(1E20, 2), FastDoubleToString.format(1E20));
+		assertEquals(reference(-Double.MAX_VALUE, 3), FastDoubleToString.format(-Double.MAX_VALUE, 3));
+		assertThrows(IllegalArgumentException.class, () -> FastDoubleToString.format(1.0, -1));
+		assertThrows(IllegalArgumentException.class,
+				() -> FastDoubleToString.format(1.0, FastDoubleToString.kMaxPrecision + 1));
+	}
+
+	@Test
+	public void testBuffers() {
+		final byte[] bytes = new byte[64];
+		bytes[0] = 'x';
+		int end = FastDoubleToString.format(-3.14159, 3, bytes, 1);
+		bytes[end++] = ',';
+		end = FastDoubleToString.format(42.0, 1, bytes, end);
+		assertEquals("x-3.142,42.0", new String(bytes, 0, end, StandardCharsets.US_ASCII));
+
+		for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(FastDoubleToString.kMaxLength + 8),
+				ByteBuffer.allocateDirect(64), ByteBuffer.allocate(8)}) {
+			buffer.put((byte) '[');
+			FastDoubleToString.format(1.5, 2, buffer);
+			buffer.flip();
+			final byte[] written = new byte[buffer.remaining()];
+			buffer.get(written);
+			assertEquals("[1.50", new String(written, StandardCharsets.US_ASCII));
+		}
+
+		final StringBuilder sb = new StringBuilder("v=");
+		assertSame(sb, FastDoubleToString.format(0.5, 2, sb));
+		assertEquals("v=0.50", sb.toString());
+	}
+
+	@Test
+	public void testConcurrentFormatting() throws InterruptedException {
+		final Thread[] threads = new Thread[4];
+		final Throwable[] failure = new Throwable[1];
+		for (int t = 0; t < threads.length; ++t) {
+			final double base = t * 1000.0;
+			threads[t] = new Thread(() -> {
+				try {
+					for (int i = 0; i < 20000; ++i) {
+						final double val = base + i * 0.01;
+						assertEquals(reference(val, 2), FastDoubleToString.format(val));
+					}
+				} catch (Throwable e) {
+					synchronized (failure) {
+						failure[0] = e;
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertNull(failure[0]);
+	}
+
+	@Test
+	public void testByteArrayDoesNotAllocate() {
+		final com.sun.management.ThreadMXBean thread_bean = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		final long thread_id = Thread.currentThread().getId();
+		final byte[] bytes = new byte[FastDoubleToString.kMaxLength];
+
+		// Calibrate out whatever the measurement itself costs.
+		long start = thread_bean.getThreadAllocatedBytes(thread_id);
+		final long overhead = thread_bean.getThreadAllocatedBytes(thread_id) - start;
+
+		// Best of a few runs, as the first pays for class initialization.
+		long allocated = Long.MAX_VALUE;
+		for (int run = 0; run < 3 && allocated != 0; ++run) {
+			start = thread_bean.getThreadAllocatedBytes(thread_id);
+			for (int i = 0; i < 10000; ++i) {
+				FastDoubleToString.format(i * 0.37 - 1000.0, 3, bytes, 0);
+			}
+			allocated = Math.min(allocated, thread_bean.getThreadAllocatedBytes(thread_id) - start - overhead);
+		}
+		assertEquals(0L, allocated, "Bytes allocated formatting into a byte[]");
+	}
+}
@@ -0,0 +1,128 @@
+package com.team195.lib.util;
+
+import com.team254.lib.geometry.MutablePose2d;
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Rotation2d;
+import com.team254.lib.util.InterpolatingDouble;
+import com.team254.lib.util.InterpolatingTreeMap;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InterpolatingPoseBufferTest {
+	private static final int kCapacity = 20;
+
+	private static void assertBitsEqual(double expected, double actual) {
+		assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(actual),
+				"expected " + expected + " but was " + actual);
+	}
+
+	private static void assertSamePose(Pose2d expected, MutablePose2d actual) {
+		assertBitsEqual(expected.getTranslation().x(), actual.getTranslation().x());
+		assertBitsEqual(expected.getTranslation().y(), actual.getTranslation().y());
+		assertBitsEqual(expected.getRotation().cos(), actual.getRotation().cos());
+		assertBitsEqual(expected.getRotation().sin(), actual.getRotation().sin());
+	}
+
+	private static Pose2d randomPose(Random random) {
+		return new Pose2d(random.nextDouble() * 100.0, random.nextDouble() * 100.0,
+				Rotation2d.fromDegrees(random.nextDouble() * 360.0));
+	}
+
+	@Test
+	public void testEmpty() {
+		InterpolatingPoseBuffer buffer = new InterpolatingPoseBuffer(kCapacity);
+		MutablePose2d out = new MutablePose2d(new Pose2d(1.0, 2.0, Rotation2d.fromDegrees(3.0)));
+		assertFalse(buffer.getInterpolated(0.0, out));
+		assertFalse(buffer.getLatest(out));
+		assertTrue(Double.isNaN(buffer.getLatestTimestamp()));
+		assertEquals(1.0, out.getTranslation().x());
+	}
+
+	@Test
+	public void testMatchesInterpolatingTreeMap() {
+		final Random random = new Random(195);
+		final InterpolatingTreeMap<InterpolatingDouble, Pose2d> map = new InterpolatingTreeMap<>(kCapacity);
+		final InterpolatingPoseBuffer buffer = new InterpolatingPoseBuffer(kCapacity);
+		final MutablePose2d out = new MutablePose2d();
+
+		double time = 0.0;
+		for (int i = 0; i < 500; ++i) {
+			// Mostly in order, with the occasional late, repeated or out of order observation.
+			final double timestamp;
+			final int kind = random.nextInt(10);
+			if (kind == 0) {
+				timestamp = time - random.nextDouble() * 0.1;
+			} else if (kind == 1) {
+				timestamp = time;
+			} else {
+				time += 0.01;
+				timestamp = time;
+			}
+			final Pose2d pose = randomPose(random);
+			map.put(new InterpolatingDouble(timestamp), pose);
+			buffer.put(timestamp, pose);
+
+			assertEquals(map.size(), buffer.size());
+			assertBitsEqual(map.lastKey().value, buffer.getLatestTimestamp());
+			assertTrue(buffer.getLatest(out));
+			assertSamePose(map.lastEntry().getValue(), out);
+
+			for (int j = 0; j < 5; ++j) {
+				final double query = time + (random.nextDouble() - 0.75) * 0.4;
+				assertTrue(buffer.getInterpolated(query, out));
+				assertSamePose(map.getInterpolated(new InterpolatingDouble(query)), out);
+			}
+			// Exact hits on stored timestamps.
+			final double key = map.firstKey().value;
+			buffer.getInterpolated(key, out);
+			assertSamePose(map.getInterpolated(new InterpolatingDouble(key)), out);
+		}
+	}
+
+	@Test
+	public void testClear() {
+		InterpolatingPoseBuffer buffer = new InterpolatingPoseBuffer(kCapacity);
+		buffer.put(1.0, Pose2d.identity());
+		buffer.clear();
+		assertTrue(buffer.isEmpty());
+		buffer.put(2.0, new Pose2d(5.0, 0.0, Rotation2d.identity()));
+		MutablePose2d out = new MutablePose2d();
+		assertTrue(buffer.getInterpolated(0.0, out));
+		assertEquals(5.0, out.getTranslation().x());
+	}
+
+	@Test
+	public void testOdometryLoopDoesNotAllocate() {
+		final com.sun.management.ThreadMXBean thread_bean = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		final long thread_id = Thread.currentThread().getId();
+		final InterpolatingPoseBuffer buffer = new InterpolatingPoseBuffer(kCapacity);
+		final MutablePose2d pose = new MutablePose2d();
+		final MutablePose2d delta = new MutablePose2d();
+		final MutablePose2d out = new MutablePose2d();
+
+		// Calibrate out whatever the measurement itself costs.
+		long start = thread_bean.getThreadAllocatedBytes(thread_id);
+		final long overhead = thread_bean.getThreadAllocatedBytes(thread_id) - start;
+
+		// Best of a few runs, as the first pays for class initialization.
+		long allocated = Long.MAX_VALUE;
+		for (int run = 0; run < 3 && allocated != 0; ++run) {
+			buffer.clear();
+			pose.setIdentity();
+			start = thread_bean.getThreadAllocatedBytes(thread_id);
+			for (int i = 0; i < 1000; ++i) {
+				final double timestamp = i * 0.01;
+				pose.transformByInPlace(delta.setFromExp(0.5, 0.0, 0.01));
+				buffer.put(timestamp, pose);
+				buffer.getInterpolated(timestamp - 0.025, out);
+			}
+			allocated = Math.min(allocated, thread_bean.getThreadAllocatedBytes(thread_id) - start - overhead);
+		}
+		assertEquals(0L, allocated, "Bytes allocated by the odometry loop");
+	}
+}
@@ -0,0 +1,61 @@
+package com.team195.lib.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+	private static final double kEpsilon = 1e-9;
+
+	@Test
+	public void testEmpty() {
+		LatencyHistogram histogram = new LatencyHistogram(1000, 10);
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getPercentileMs(50), kEpsilon);
+		assertEquals(0, histogram.getMeanMs(), kEpsilon);
+		assertEquals(0, histogram.getMaxMs(), kEpsilon);
+	}
+
+	@Test
+	public void testPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram(1000, 100);
+		// 1..100 ms, one sample each
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i * 1000 - 1);
+		}
+		assertEquals(100, histogram.getCount());
+		assertEquals(50, histogram.getPercentileMs(50), kEpsilon);
+		assertEquals(95, histogram.getPercentileMs(95), kEpsilon);
+		assertEquals(99, histogram.getPercentileMs(99), kEpsilon);
+		assertEquals(1, histogram.getPercentileMs(0), kEpsilon);
+		// The top bin is capped at the largest sample
+		assertEquals(99.999, histogram.getPercentileMs(100), kEpsilon);
+		assertEquals(99.999, histogram.getMaxMs(), kEpsilon);
+		assertEquals(50.499, histogram.getMeanMs(), kEpsilon);
+	}
+
+	@Test
+	public void testOverflowAndNegative() {
+		LatencyHistogram histogram = new LatencyHistogram(500, 4);
+		histogram.record(-300);
+		histogram.record(100);
+		histogram.record(1200);
+		histogram.record(250000);
+		assertEquals(4, histogram.getCount());
+		assertEquals(0.5, histogram.getPercentileMs(50), kEpsilon);
+		assertEquals(1.5, histogram.getPercentileMs(75), kEpsilon);
+		assertEquals(250, histogram.getPercentileMs(99), kEpsilon);
+		assertEquals(250, histogram.getMaxMs(), kEpsilon);
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMaxMs(), kEpsilon);
+		assertEquals(0, histogram.getPercentileMs(99), kEpsilon);
+	}
+
+	@Test
+	public void testInvalidConfiguration() {
+		assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram(0, 10));
+		assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram(100, 0));
+	}
+}
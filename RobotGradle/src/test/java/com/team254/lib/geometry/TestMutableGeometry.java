@@ -0,0 +1,133 @@
+package com.team254.lib.geometry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMutableGeometry {
+    private static final int kNumSamples = 1000;
+
+    private static void assertBitsEqual(double expected, double actual) {
+        assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(actual),
+                "expected " + expected + " but was " + actual);
+    }
+
+    private static void assertSame(Pose2d expected, MutablePose2d actual) {
+        assertBitsEqual(expected.getTranslation().x(), actual.getTranslation().x());
+        assertBitsEqual(expected.getTranslation().y(), actual.getTranslation().y());
+        assertBitsEqual(expected.getRotation().cos(), actual.getRotation().cos());
+        assertBitsEqual(expected.getRotation().sin(), actual.getRotation().sin());
+    }
+
+    private static void assertSame(Twist2d expected, MutableTwist2d actual) {
+        assertBitsEqual(expected.dx, actual.dx);
+        assertBitsEqual(expected.dy, actual.dy);
+        assertBitsEqual(expected.dtheta, actual.dtheta);
+    }
+
+    private static Pose2d randomPose(Random random) {
+        return new Pose2d(random.nextDouble() * 600.0 - 300.0, random.nextDouble() * 600.0 - 300.0,
+                Rotation2d.fromRadians(random.nextDouble() * 4.0 * Math.PI - 2.0 * Math.PI));
+    }
+
+    private static Twist2d randomTwist(Random random) {
+        // Mix in tiny rotations to cover the small angle approximations.
+        final double dtheta = random.nextBoolean() ? random.nextDouble() * 2.0 - 1.0 :
+                (random.nextDouble() - 0.5) * 1E-10;
+        return new Twist2d(random.nextDouble() * 20.0 - 10.0, random.nextDouble() * 2.0 - 1.0, dtheta);
+    }
+
+    @Test
+    public void testTranslationMatchesImmutable() {
+        final Random random = new Random(195);
+        final MutableTranslation2d mutable = new MutableTranslation2d();
+        for (int i = 0; i < kNumSamples; ++i) {
+            final Translation2d a = new Translation2d(random.nextDouble() * 100.0, random.nextDouble() * -100.0);
+            final Translation2d b = new Translation2d(random.nextDouble() * -100.0, random.nextDouble() * 100.0);
+            final Rotation2d r = Rotation2d.fromRadians(random.nextDouble() * 2.0 * Math.PI);
+
+            Translation2d expected = a.translateBy(b).rotateBy(r).inverse().scale(1.5);
+            mutable.set(a).translateByInPlace(b).rotateByInPlace(r).inverseInPlace().scaleInPlace(1.5);
+            assertBitsEqual(expected.x(), mutable.x());
+            assertBitsEqual(expected.y(), mutable.y());
+            assertBitsEqual(expected.norm(), mutable.norm());
+        }
+    }
+
+    @Test
+    public void testRotationMatchesImmutable() {
+        final Random random = new Random(254);
+        final MutableRotation2d mutable = new MutableRotation2d();
+        for (int i = 0; i < kNumSamples; ++i) {
+            final double a = random.nextDouble() * 720.0 - 360.0;
+            final Rotation2d b = Rotation2d.fromDegrees(random.nextDouble() * 720.0 - 360.0);
+
+            final Rotation2d expected = Rotation2d.fromDegrees(a).inverse().rotateBy(b);
+            mutable.setFromDegrees(a).inverseInPlace().rotateByInPlace(b);
+            assertBitsEqual(expected.cos(), mutable.cos());
+            assertBitsEqual(expected.sin(), mutable.sin());
+            assertBitsEqual(expected.getRadians(), mutable.getRadians());
+        }
+
+        // Degenerate rotations normalize to identity, as in Rotation2d.
+        mutable.set(0.0, 0.0, true);
+        assertBitsEqual(1.0, mutable.cos());
+        assertBitsEqual(0.0, mutable.sin());
+    }
+
+    @Test
+    public void testPoseMatchesImmutable() {
+        final Random random = new Random(2019);
+        final MutablePose2d mutable = new MutablePose2d();
+        final MutablePose2d other = new MutablePose2d();
+        final MutableTwist2d twist = new MutableTwist2d();
+        for (int i = 0; i < kNumSamples; ++i) {
+            final Pose2d a = randomPose(random);
+            final Pose2d b = randomPose(random);
+            final Twist2d delta = randomTwist(random);
+
+            mutable.set(a).transformByInPlace(b);
+            assertSame(a.transformBy(b), mutable);
+
+            mutable.set(a).inverseInPlace();
+            assertSame(a.inverse(), mutable);
+
+            mutable.setFromExp(delta);
+            assertSame(Pose2d.exp(delta), mutable);
+
+            mutable.set(a).inverseInPlace().transformByInPlace(other.set(b)).log(twist);
+            assertSame(Pose2d.log(a.inverse().transformBy(b)), twist);
+
+            final double x = random.nextDouble() * 1.2 - 0.1;
+            mutable.set(a).interpolateInPlace(other.set(b), x);
+            assertSame(a.interpolate(b, x), mutable);
+        }
+    }
+
+    @Test
+    public void testTwistMatchesImmutable() {
+        final Random random = new Random(10);
+        final MutableTwist2d mutable = new MutableTwist2d();
+        for (int i = 0; i < kNumSamples; ++i) {
+            final Twist2d twist = randomTwist(random);
+            mutable.set(twist).scaleInPlace(0.02);
+            assertSame(twist.scaled(0.02), mutable);
+            assertBitsEqual(twist.scaled(0.02).norm(), mutable.norm());
+            assertBitsEqual(twist.scaled(0.02).curvature(), mutable.curvature());
+        }
+    }
+
+    @Test
+    public void testConversions() {
+        final Pose2d pose = new Pose2d(3.0, -4.0, Rotation2d.fromDegrees(30.0));
+        final MutablePose2d mutable = new MutablePose2d(pose);
+        assertEquals(pose, mutable.toPose2d());
+        assertTrue(mutable.epsilonEquals(pose, 1E-12));
+        assertEquals(pose.toString(), mutable.toString());
+
+        mutable.setIdentity();
+        assertEquals(Pose2d.identity(), mutable.toPose2d());
+    }
+}
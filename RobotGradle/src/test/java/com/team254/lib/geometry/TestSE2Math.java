@@ -1,8 +1,11 @@
 package com.team254.lib.geometry;
 
+import com.team254.lib.util.FastTrig;
 import com.team254.lib.util.Util;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class TestSE2Math {
@@ -271,4 +274,58 @@ public class TestSE2Math {
         assertEquals(new_pose.getTranslation().y(), pose.getTranslation().y(), kTestEpsilon);
         assertEquals(new_pose.getRotation().getDegrees(), pose.getRotation().getDegrees(), kTestEpsilon);
     }
+
+    @Test
+    public void testFastTrig() {
+        // Error bounds documented in FastTrig.
+        final double kSinCosEpsilon = 5E-16;
+        final double kAtan2Epsilon = 1E-15;
+
+        final Random random = new Random(254);
+        for (double range : new double[]{Math.PI, 100.0, 1E6}) {
+            for (int i = 0; i < 100000; ++i) {
+                final double x = (random.nextDouble() * 2.0 - 1.0) * range;
+                assertEquals(Math.sin(x), FastTrig.sin(x), kSinCosEpsilon);
+                assertEquals(Math.cos(x), FastTrig.cos(x), kSinCosEpsilon);
+            }
+        }
+        // Table points and quadrant boundaries.
+        for (int i = -8; i <= 8; ++i) {
+            final double x = i * Math.PI / 4.0;
+            assertEquals(Math.sin(x), FastTrig.sin(x), kSinCosEpsilon);
+            assertEquals(Math.cos(x), FastTrig.cos(x), kSinCosEpsilon);
+        }
+        assertTrue(Double.isNaN(FastTrig.sin(Double.NaN)));
+        assertTrue(Double.isNaN(FastTrig.cos(Double.POSITIVE_INFINITY)));
+        assertEquals(Math.sin(1E10), FastTrig.sin(1E10), 0.0);
+
+        for (int i = 0; i < 200000; ++i) {
+            final double scale = Math.pow(10.0, random.nextInt(9) - 4);
+            final double x = (random.nextDouble() * 2.0 - 1.0) * scale;
+            final double y = (random.nextDouble() * 2.0 - 1.0) * scale;
+            assertEquals(Math.atan2(y, x), FastTrig.atan2(y, x), kAtan2Epsilon);
+        }
+        // Axes, diagonals, signed zeros and infinities.
+        final double[] values = {0.0, -0.0, 1.0, -1.0, Double.MIN_VALUE, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY};
+        for (double y : values) {
+            for (double x : values) {
+                assertEquals(Math.atan2(y, x), FastTrig.atan2(y, x), kAtan2Epsilon);
+                assertEquals(Math.copySign(1.0, Math.atan2(y, x)), Math.copySign(1.0, FastTrig.atan2(y, x)));
+            }
+        }
+        assertTrue(Double.isNaN(FastTrig.atan2(Double.NaN, 1.0)));
+    }
+
+    @Test
+    public void testRotation2dFast() {
+        for (double degrees = -720.0; degrees <= 720.0; degrees += 0.37) {
+            final Rotation2d expected = Rotation2d.fromDegrees(degrees);
+            final Rotation2d fast = Rotation2d.fromDegreesFast(degrees);
+            assertEquals(expected.cos(), fast.cos(), 5E-16);
+            assertEquals(expected.sin(), fast.sin(), 5E-16);
+            assertEquals(expected.getRadians(), fast.getRadians(), 1E-15);
+            assertEquals(expected.cos(), new MutableRotation2d().setFromDegreesFast(degrees).cos(), 5E-16);
+        }
+    }
 }
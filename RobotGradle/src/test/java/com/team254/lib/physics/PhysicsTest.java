@@ -129,6 +129,9 @@ public class PhysicsTest {
         assertTrue(0.0 < dynamics.wheel_acceleration.right);
         assertEquals(0.0, dynamics.chassis_acceleration.linear);
         assertTrue(0.0 < dynamics.chassis_acceleration.angular);
+        wheels = drive.solveInverseKinematics(dynamics.chassis_acceleration);
+        assertEquals(wheels.left, dynamics.wheel_acceleration.left, kTestEpsilon);
+        assertEquals(wheels.right, dynamics.wheel_acceleration.right, kTestEpsilon);
 
         // Inverse dynamics.
         dynamics = drive.solveInverseDynamics(
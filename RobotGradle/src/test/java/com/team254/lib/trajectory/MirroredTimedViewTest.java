@@ -0,0 +1,93 @@
+package com.team254.lib.trajectory;
+
+import com.team195.frc2019.paths.MirroredTrajectory;
+import com.team195.frc2019.planners.DriveMotionPlanner;
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Pose2dWithCurvature;
+import com.team254.lib.geometry.Rotation2d;
+import com.team254.lib.geometry.Translation2d;
+import com.team254.lib.trajectory.timing.CentripetalAccelerationConstraint;
+import com.team254.lib.trajectory.timing.TimedState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MirroredTimedViewTest {
+    public static final double kTestEpsilon = 1e-9;
+
+    private static Trajectory<TimedState<Pose2dWithCurvature>> generate(boolean reversed) {
+        DriveMotionPlanner motion_planner = new DriveMotionPlanner();
+        return motion_planner.generateTrajectory(reversed, Arrays.asList(
+                new Pose2d(new Translation2d(0.0, 0.0), Rotation2d.identity()),
+                new Pose2d(new Translation2d(120.0, -36.0), Rotation2d.fromDegrees(-30.0)),
+                new Pose2d(new Translation2d(240.0, -36.0), Rotation2d.identity())),
+                Arrays.asList(new CentripetalAccelerationConstraint(120.0)),
+                120.0, 120.0, 10.0);
+    }
+
+    private static void assertStateEquals(TimedState<Pose2dWithCurvature> expected,
+                                          TimedState<Pose2dWithCurvature> actual) {
+        assertEquals(expected.t(), actual.t(), kTestEpsilon);
+        assertEquals(expected.velocity(), actual.velocity(), kTestEpsilon);
+        assertEquals(expected.acceleration(), actual.acceleration(), kTestEpsilon);
+        assertEquals(expected.state().getTranslation().x(), actual.state().getTranslation().x(), kTestEpsilon);
+        assertEquals(expected.state().getTranslation().y(), actual.state().getTranslation().y(), kTestEpsilon);
+        assertEquals(expected.state().getRotation().cos(), actual.state().getRotation().cos(), kTestEpsilon);
+        assertEquals(expected.state().getRotation().sin(), actual.state().getRotation().sin(), kTestEpsilon);
+        assertEquals(expected.state().getCurvature(), actual.state().getCurvature(), kTestEpsilon);
+        assertEquals(expected.state().getDCurvatureDs(), actual.state().getDCurvatureDs(), kTestEpsilon);
+    }
+
+    @Test
+    public void testMirrorTimedViewMatchesMirrorTimed() {
+        Trajectory<TimedState<Pose2dWithCurvature>> traj = generate(false);
+        Trajectory<TimedState<Pose2dWithCurvature>> expected = TrajectoryUtil.mirrorTimed(traj);
+        Trajectory<TimedState<Pose2dWithCurvature>> actual = TrajectoryUtil.mirrorTimedView(traj);
+
+        assertEquals(expected.length(), actual.length());
+        for (int i = 0; i < expected.length(); ++i) {
+            assertStateEquals(expected.getState(i), actual.getState(i));
+            assertEquals(i, actual.getPoint(i).index());
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> actual.getState(actual.length()));
+    }
+
+    @Test
+    public void testSampleMatchesTimedViewOfMirror() {
+        for (boolean reversed : Arrays.asList(false, true)) {
+            Trajectory<TimedState<Pose2dWithCurvature>> traj = generate(reversed);
+            TimedView<Pose2dWithCurvature> expected = new TimedView<>(TrajectoryUtil.mirrorTimed(traj));
+            MirroredTimedView<Pose2dWithCurvature> actual = new MirroredTimedView<>(traj);
+
+            assertEquals(expected.first_interpolant(), actual.first_interpolant(), kTestEpsilon);
+            assertEquals(expected.last_interpolant(), actual.last_interpolant(), kTestEpsilon);
+            int hint = 0;
+            for (double t = -0.5; t < expected.last_interpolant() + 0.5; t += 0.0037) {
+                TrajectorySamplePoint<TimedState<Pose2dWithCurvature>> e = expected.sample(t);
+                TrajectorySamplePoint<TimedState<Pose2dWithCurvature>> a = actual.sample(t, hint);
+                assertStateEquals(e.state(), a.state());
+                assertEquals(e.index_floor(), a.index_floor());
+                assertEquals(e.index_ceil(), a.index_ceil());
+                hint = a.index_floor();
+            }
+        }
+    }
+
+    @Test
+    public void testMirroredTrajectoryMaterializesOnDemand() {
+        Trajectory<TimedState<Pose2dWithCurvature>> traj = generate(false);
+        MirroredTrajectory mirrored = new MirroredTrajectory(traj);
+
+        assertSame(traj, mirrored.get(false));
+        assertFalse(mirrored.isLeftMaterialized());
+
+        Trajectory<TimedState<Pose2dWithCurvature>> left = mirrored.get(true);
+        assertTrue(mirrored.isLeftMaterialized());
+        assertSame(left, mirrored.get(true));
+        for (int i = 0; i < left.length(); ++i) {
+            assertStateEquals(mirrored.left.getState(i), left.getState(i));
+        }
+    }
+}
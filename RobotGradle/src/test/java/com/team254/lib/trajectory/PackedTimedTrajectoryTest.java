@@ -0,0 +1,74 @@
+package com.team254.lib.trajectory;
+
+import com.team195.frc2019.planners.DriveMotionPlanner;
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Pose2dWithCurvature;
+import com.team254.lib.geometry.Rotation2d;
+import com.team254.lib.geometry.Translation2d;
+import com.team254.lib.trajectory.timing.CentripetalAccelerationConstraint;
+import com.team254.lib.trajectory.timing.TimedState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedTimedTrajectoryTest {
+    public static final double kTestEpsilon = 1e-9;
+
+    private static Trajectory<TimedState<Pose2dWithCurvature>> generate(boolean reversed) {
+        DriveMotionPlanner motion_planner = new DriveMotionPlanner();
+        return motion_planner.generateTrajectory(reversed, Arrays.asList(
+                new Pose2d(new Translation2d(0.0, 0.0), Rotation2d.identity()),
+                new Pose2d(new Translation2d(120.0, -36.0), Rotation2d.fromDegrees(-30.0)),
+                new Pose2d(new Translation2d(240.0, -36.0), Rotation2d.identity())),
+                Arrays.asList(new CentripetalAccelerationConstraint(120.0)),
+                120.0, 120.0, 10.0);
+    }
+
+    private static void assertSampleEquals(TimedState<Pose2dWithCurvature> expected, PackedTimedTrajectory.Sample
+            actual) {
+        assertEquals(expected.t(), actual.t, kTestEpsilon);
+        assertEquals(expected.velocity(), actual.velocity, kTestEpsilon);
+        assertEquals(expected.acceleration(), actual.acceleration, kTestEpsilon);
+        assertEquals(expected.state().getTranslation().x(), actual.x, kTestEpsilon);
+        assertEquals(expected.state().getTranslation().y(), actual.y, kTestEpsilon);
+        assertEquals(expected.state().getRotation().cos(), actual.cos, kTestEpsilon);
+        assertEquals(expected.state().getRotation().sin(), actual.sin, kTestEpsilon);
+        assertEquals(expected.state().getCurvature(), actual.curvature, kTestEpsilon);
+        assertEquals(expected.state().getDCurvatureDs(), actual.dcurvature_ds, kTestEpsilon);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Trajectory<TimedState<Pose2dWithCurvature>> traj = generate(false);
+        PackedTimedTrajectory packed = PackedTimedTrajectory.fromTrajectory(traj);
+        assertEquals(traj.length(), packed.length());
+
+        Trajectory<TimedState<Pose2dWithCurvature>> unpacked = packed.toTrajectory();
+        assertEquals(traj.length(), unpacked.length());
+        for (int i = 0; i < traj.length(); ++i) {
+            assertEquals(traj.getState(i), unpacked.getState(i));
+            assertEquals(traj.getState(i).velocity(), unpacked.getState(i).velocity(), kTestEpsilon);
+            assertEquals(traj.getState(i).acceleration(), unpacked.getState(i).acceleration(), kTestEpsilon);
+        }
+    }
+
+    @Test
+    public void testSampleMatchesTimedView() {
+        for (boolean reversed : Arrays.asList(false, true)) {
+            Trajectory<TimedState<Pose2dWithCurvature>> traj = generate(reversed);
+            TimedView<Pose2dWithCurvature> view = new TimedView<>(traj);
+            PackedTimedTrajectory packed = PackedTimedTrajectory.fromTrajectory(traj);
+            PackedTimedTrajectory.Sample sample = new PackedTimedTrajectory.Sample();
+
+            for (double t = -0.5; t < view.last_interpolant() + 0.5; t += 0.0037) {
+                TrajectorySamplePoint<TimedState<Pose2dWithCurvature>> expected = view.sample(t);
+                assertSame(sample, packed.sample(t, sample));
+                assertSampleEquals(expected.state(), sample);
+                assertEquals(expected.index_floor(), sample.index_floor);
+                assertEquals(expected.index_ceil(), sample.index_ceil);
+            }
+        }
+    }
+}
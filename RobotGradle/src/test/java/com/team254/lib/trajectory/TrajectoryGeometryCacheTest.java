@@ -0,0 +1,70 @@
+package com.team254.lib.trajectory;
+
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Pose2dWithCurvature;
+import com.team254.lib.geometry.Rotation2d;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrajectoryGeometryCacheTest {
+    private static final List<Pose2d> kWaypoints = Arrays.asList(
+            new Pose2d(0.0, 0.0, Rotation2d.fromDegrees(0.0)),
+            new Pose2d(36.0, 0.0, Rotation2d.fromDegrees(0.0)),
+            new Pose2d(60.0, 100, Rotation2d.fromDegrees(0.0)));
+
+    @Test
+    public void testHitReturnsSameGeometry() {
+        TrajectoryGeometryCache cache = new TrajectoryGeometryCache();
+        Trajectory<Pose2dWithCurvature> first = cache.get(kWaypoints, 2.0, 0.25, Math.toRadians(5.0));
+        // Equal but distinct waypoint objects still hit.
+        Trajectory<Pose2dWithCurvature> second = cache.get(Arrays.asList(
+                new Pose2d(0.0, 0.0, Rotation2d.fromDegrees(0.0)),
+                new Pose2d(36.0, 0.0, Rotation2d.fromDegrees(0.0)),
+                new Pose2d(60.0, 100, Rotation2d.fromDegrees(0.0))), 2.0, 0.25, Math.toRadians(5.0));
+        assertSame(first, second);
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+
+        Trajectory<Pose2dWithCurvature> expected = TrajectoryUtil.trajectoryFromSplineWaypoints(kWaypoints, 2.0, 0.25,
+                Math.toRadians(5.0));
+        assertEquals(expected.length(), first.length());
+        for (int i = 0; i < expected.length(); ++i) {
+            assertEquals(expected.getState(i), first.getState(i));
+            assertEquals(expected.getState(i).getCurvature(), first.getState(i).getCurvature(), 0.0);
+        }
+    }
+
+    @Test
+    public void testKeyIncludesWaypointsAndTolerances() {
+        TrajectoryGeometryCache cache = new TrajectoryGeometryCache();
+        Trajectory<Pose2dWithCurvature> base = cache.get(kWaypoints, 2.0, 0.25, Math.toRadians(5.0));
+        assertNotSame(base, cache.get(kWaypoints, 1.0, 0.25, Math.toRadians(5.0)));
+        assertNotSame(base, cache.get(kWaypoints, 2.0, 0.5, Math.toRadians(5.0)));
+        assertNotSame(base, cache.get(kWaypoints, 2.0, 0.25, Math.toRadians(2.0)));
+        assertNotSame(base, cache.get(kWaypoints.subList(0, 2), 2.0, 0.25, Math.toRadians(5.0)));
+        assertNotSame(base, cache.get(Arrays.asList(kWaypoints.get(0), kWaypoints.get(1),
+                new Pose2d(60.0, 100, Rotation2d.fromDegrees(10.0))), 2.0, 0.25, Math.toRadians(5.0)));
+        assertEquals(6, cache.misses());
+        assertEquals(6, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNotSame(base, cache.get(kWaypoints, 2.0, 0.25, Math.toRadians(5.0)));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        TrajectoryGeometryCache cache = new TrajectoryGeometryCache(2);
+        Trajectory<Pose2dWithCurvature> a = cache.get(kWaypoints, 2.0, 0.25, Math.toRadians(5.0));
+        Trajectory<Pose2dWithCurvature> b = cache.get(kWaypoints, 1.0, 0.25, Math.toRadians(5.0));
+        assertSame(a, cache.get(kWaypoints, 2.0, 0.25, Math.toRadians(5.0)));
+        cache.get(kWaypoints, 0.5, 0.25, Math.toRadians(5.0));
+        assertEquals(2, cache.size());
+        assertSame(a, cache.get(kWaypoints, 2.0, 0.25, Math.toRadians(5.0)));
+        assertNotSame(b, cache.get(kWaypoints, 1.0, 0.25, Math.toRadians(5.0)));
+    }
+}
@@ -1,9 +1,11 @@
 package com.team254.lib.trajectory;
 
 import com.team254.lib.geometry.Translation2d;
+import com.team254.lib.trajectory.timing.TimedState;
 import com.team254.lib.util.Util;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -58,4 +60,47 @@ public class TrajectoryIteratorTest {
         assertFalse(iterator.isDone());
     }
 
+    @Test
+    public void testCursorMatchesFreshSearch() {
+        List<TimedState<Translation2d>> states = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            // Include a repeated timestamp to exercise the duplicate handling.
+            final double t = i == 101 ? 100.0 * 0.05 : i * 0.05;
+            states.add(new TimedState<>(new Translation2d(i * 1.5, i * 0.25), t, 30.0, 0.0));
+        }
+        final TimedView<Translation2d> view = new TimedView<>(new Trajectory<>(states));
+        final TrajectoryIterator<TimedState<Translation2d>> iterator = new TrajectoryIterator<>(new TimedView<>(new
+                Trajectory<>(states)));
+
+        final double[] steps = {0.01, 0.03, 0.5, -0.2, 0.01, 2.0, -1.5, 0.07, 4.0, 20.0, -30.0, 0.01};
+        for (double step : steps) {
+            for (double preview : new double[]{0.0, 0.02, 0.3, 1.7, -0.4}) {
+                final double progress = Math.max(view.first_interpolant(), Math.min(view.last_interpolant(),
+                        iterator.getProgress() + preview));
+                final TrajectorySamplePoint<TimedState<Translation2d>> expected = view.sample(progress);
+                final TrajectorySamplePoint<TimedState<Translation2d>> actual = iterator.preview(preview);
+                assertEquals(expected.state(), actual.state());
+                assertEquals(expected.index_floor(), actual.index_floor());
+                assertEquals(expected.index_ceil(), actual.index_ceil());
+            }
+            final TrajectorySamplePoint<TimedState<Translation2d>> actual = iterator.advance(step);
+            final TrajectorySamplePoint<TimedState<Translation2d>> expected = view.sample(iterator.getProgress());
+            assertEquals(expected.state(), actual.state());
+            assertEquals(expected.index_floor(), actual.index_floor());
+        }
+    }
+
+    @Test
+    public void testCeilingIndex() {
+        final double[] keys = {0.0, 1.0, 1.0, 1.0, 2.0, 3.0, 5.0, 8.0, 8.0, 13.0};
+        for (double value = 0.25; value <= 13.0; value += 0.25) {
+            int expected = 1;
+            while (keys[expected] < value) {
+                ++expected;
+            }
+            for (int hint = -3; hint < keys.length + 3; ++hint) {
+                assertEquals(expected, TrajectoryUtil.ceilingIndex(keys, keys.length, value, hint));
+            }
+        }
+    }
 }
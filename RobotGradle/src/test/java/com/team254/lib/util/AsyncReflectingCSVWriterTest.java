@@ -0,0 +1,163 @@
+package com.team254.lib.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncReflectingCSVWriterTest {
+    public static class Row {
+        public double x;
+        public int count;
+        public long timestamp;
+        public boolean enabled;
+        public String name = "row";
+        double hidden;
+    }
+
+    private static File tempFile() throws IOException {
+        final File file = File.createTempFile("async-csv", ".csv");
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static List<String> readLines(File file) throws IOException {
+        return Files.readAllLines(file.toPath(), StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void testWritesHeaderAndRows() throws IOException {
+        final File file = tempFile();
+        final AsyncReflectingCSVWriter<Row> writer = new AsyncReflectingCSVWriter<>(file.getPath(), Row.class,
+                AsyncReflectingCSVWriter.kDefaultBufferSize, 3);
+        final Row row = new Row();
+        for (int i = 0; i < 1000; ++i) {
+            row.x = i * -0.5;
+            row.count = i;
+            row.timestamp = 1L << 40 | i;
+            row.enabled = i % 2 == 0;
+            assertTrue(writer.add(row));
+        }
+        writer.close();
+        assertFalse(writer.add(row));
+
+        final List<String> lines = readLines(file);
+        assertEquals(1001, lines.size());
+        assertEquals(1001, writer.getRowsWritten());
+        assertEquals(1, writer.getRowsDropped());
+        final String[] header = lines.get(0).split(", ");
+        final String[] expected = new String[header.length];
+        for (int i = 0; i < header.length; ++i) {
+            switch (header[i]) {
+                case "x":
+                    expected[i] = "-3.500";
+                    break;
+                case "count":
+                    expected[i] = "7";
+                    break;
+                case "timestamp":
+                    expected[i] = Long.toString(1L << 40 | 7);
+                    break;
+                case "enabled":
+                    expected[i] = "false";
+                    break;
+                case "name":
+                    expected[i] = "row";
+                    break;
+                default:
+                    fail("Unexpected column " + header[i]);
+            }
+        }
+        assertEquals(String.join(", ", expected), lines.get(8));
+    }
+
+    @Test
+    public void testCloseAsyncFinishesOnTheDrainThread() throws IOException, InterruptedException {
+        final File file = tempFile();
+        final AsyncReflectingCSVWriter<Row> writer = new AsyncReflectingCSVWriter<>(file.getPath(), Row.class);
+        final Row row = new Row();
+        for (int i = 0; i < 1000; ++i) {
+            row.count = i;
+            assertTrue(writer.add(row));
+        }
+        writer.closeAsync();
+        assertFalse(writer.add(row));
+
+        for (int i = 0; i < 500 && !writer.isClosed(); ++i) {
+            Thread.sleep(10);
+        }
+        assertTrue(writer.isClosed());
+        final List<String> lines = readLines(file);
+        assertEquals(1001, lines.size());
+        assertTrue(lines.get(1000).contains("999"));
+
+        // Closing again waits for nothing.
+        writer.close();
+    }
+
+    @Test
+    public void testDropsWhenFull() throws IOException {
+        final File file = tempFile();
+        final AsyncReflectingCSVWriter<Row> writer = new AsyncReflectingCSVWriter<>(file.getPath(), Row.class, 256,
+                AsyncReflectingCSVWriter.kDefaultPrecision);
+        final Row row = new Row();
+        final int added = 10000;
+        for (int i = 0; i < added; ++i) {
+            row.x = i;
+            writer.add(row);
+        }
+        writer.flush();
+        assertEquals(0, writer.getBufferUsage());
+        writer.close();
+
+        // Every row is either on disk or counted as dropped, and the ring never overflowed.
+        assertTrue(writer.getRowsDropped() > 0);
+        assertEquals(added + 1, writer.getRowsWritten() + writer.getRowsDropped());
+        assertEquals(writer.getRowsWritten(), readLines(file).size());
+        assertTrue(writer.getPeakBufferUsage() <= writer.getBufferSize());
+        assertEquals(0, writer.getWriteErrors());
+    }
+
+    public static class PrimitiveRow {
+        public double a;
+        public double b;
+        public int c;
+    }
+
+    @Test
+    public void testAddDoesNotAllocate() throws IOException {
+        final File file = tempFile();
+        final AsyncReflectingCSVWriter<PrimitiveRow> writer = new AsyncReflectingCSVWriter<>(file.getPath(),
+                PrimitiveRow.class);
+        final com.sun.management.ThreadMXBean thread_bean = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        final long thread_id = Thread.currentThread().getId();
+        final PrimitiveRow row = new PrimitiveRow();
+
+        // Calibrate out whatever the measurement itself costs.
+        long start = thread_bean.getThreadAllocatedBytes(thread_id);
+        final long overhead = thread_bean.getThreadAllocatedBytes(thread_id) - start;
+
+        // Best of a few runs, as the first pays for class initialization.
+        long allocated = Long.MAX_VALUE;
+        for (int run = 0; run < 3 && allocated != 0; ++run) {
+            start = thread_bean.getThreadAllocatedBytes(thread_id);
+            for (int i = 0; i < 1000; ++i) {
+                row.a = i * 0.1;
+                row.b = -i;
+                row.c = i;
+                writer.add(row);
+            }
+            allocated = Math.min(allocated, thread_bean.getThreadAllocatedBytes(thread_id) - start - overhead);
+            writer.flush();
+        }
+        writer.close();
+        assertEquals(0L, allocated, "Bytes allocated adding rows");
+    }
+}
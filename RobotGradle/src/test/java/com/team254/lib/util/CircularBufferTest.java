@@ -0,0 +1,84 @@
+package com.team254.lib.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircularBufferTest {
+    private static final double kTestEpsilon = 1E-12;
+
+    @Test
+    public void testMatchesReference() {
+        final Random random = new Random(254);
+        final int window = 7;
+        final CircularBuffer buffer = new CircularBuffer(window);
+        final ArrayDeque<Double> reference = new ArrayDeque<>();
+
+        assertEquals(0.0, buffer.getAverage());
+        for (int i = 0; i < 100; ++i) {
+            final double value = random.nextDouble() * 10.0 - 5.0;
+            buffer.addValue(value);
+            reference.addLast(value);
+            if (reference.size() > window) {
+                reference.removeFirst();
+            }
+
+            double sum = 0.0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (double v : reference) {
+                sum += v;
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            final double mean = sum / reference.size();
+            double variance = 0.0;
+            for (double v : reference) {
+                variance += (v - mean) * (v - mean);
+            }
+            variance /= reference.size();
+
+            assertEquals(reference.size(), buffer.getNumValues());
+            assertEquals(reference.size() == window, buffer.isFull());
+            assertEquals(mean, buffer.getAverage(), kTestEpsilon);
+            assertEquals(min, buffer.getMin(), 0.0);
+            assertEquals(max, buffer.getMax(), 0.0);
+            assertEquals(variance, buffer.getVariance(), kTestEpsilon);
+            assertEquals(value, buffer.getLast(), 0.0);
+            assertEquals(reference.peekFirst(), buffer.getValue(0), 0.0);
+        }
+
+        buffer.clear();
+        assertEquals(0, buffer.getNumValues());
+        assertEquals(0.0, buffer.getAverage());
+    }
+
+    @Test
+    public void testNoDrift() {
+        // A large outlier passing through the window would leave rounding error behind in a plain running sum.
+        final CircularBuffer buffer = new CircularBuffer(20);
+        buffer.addValue(1E12);
+        for (int i = 0; i < 1000; ++i) {
+            buffer.addValue(0.1);
+        }
+        assertEquals(0.1, buffer.getAverage(), 1E-15);
+    }
+
+    @Test
+    public void testMovingAverage() {
+        final MovingAverage average = new MovingAverage(3);
+        assertTrue(average.isUnderMaxSize());
+        average.addNumber(1.0);
+        average.addNumber(2.0);
+        average.addNumber(3.0);
+        average.addNumber(4.0);
+        assertFalse(average.isUnderMaxSize());
+        assertEquals(3, average.getSize());
+        assertEquals(3.0, average.getAverage(), kTestEpsilon);
+        assertEquals(4.0, average.getLastSample(), 0.0);
+        assertEquals("3.0", average.toString());
+    }
+}
@@ -0,0 +1,59 @@
+package com.team254.lib.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CrashTrackerTest {
+    @Test
+    public void testCrashWritesTraceAndContext() throws IOException {
+        final File file = File.createTempFile("crash_tracking", ".txt");
+        file.deleteOnExit();
+        CrashTracker.setOutputPath(file.toPath());
+
+        final int channel = CrashTracker.registerContextChannel("test_loop_dt");
+        for (int i = 0; i <= 1000; ++i) {
+            CrashTracker.recordContext(channel, i * 0.01, i);
+        }
+        CrashTracker.logThrowableCrash(new IllegalStateException("first crash"));
+        CrashTracker.logThrowableCrash(new IllegalStateException("second crash"));
+        CrashTracker.logDisabledInit();
+        assertTrue(CrashTracker.flush(5000));
+
+        final String log = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertTrue(log.contains("java.lang.IllegalStateException: first crash"));
+        assertTrue(log.contains("java.lang.IllegalStateException: second crash"));
+        assertTrue(log.contains("disabled init"));
+        assertTrue(log.indexOf("first crash") < log.indexOf("second crash"));
+
+        // Only the last kContextWindowSeconds are written, and only once for crashes in quick succession.
+        assertTrue(log.contains("10.0, test_loop_dt, 1000.0"));
+        assertTrue(log.contains("5.0, test_loop_dt, 500.0"));
+        assertFalse(log.contains("4.99, test_loop_dt, 499.0"));
+        assertEquals(log.indexOf("Context ("), log.lastIndexOf("Context ("));
+        assertTrue(log.indexOf("Context (") < log.indexOf("second crash"));
+        assertEquals(0, CrashTracker.getDroppedCount());
+    }
+
+    @Test
+    public void testContextWrapsAround() {
+        final int channel = CrashTracker.registerContextChannel("test_wrap");
+        for (int i = 0; i < 20000; ++i) {
+            CrashTracker.recordContext(channel, 1000.0 + i * 1E-4, i);
+        }
+        final StringWriter s = new StringWriter();
+        CrashTracker.printContext(new PrintWriter(s));
+        final String[] lines = s.toString().split("\\R");
+        // Everything still in the ring is inside the window, so the dump is the whole ring, oldest first.
+        assertEquals("Context (8192 samples)", lines[0]);
+        assertTrue(lines[2].endsWith("test_wrap, " + (20000.0 - 8192)));
+        assertTrue(lines[lines.length - 1].endsWith("test_wrap, 19999.0"));
+    }
+}